@@ -0,0 +1,81 @@
+package com.server.benchmarks;
+
+import com.server.Models.Money;
+import com.server.Models.Product;
+import com.server.Models.Quantity;
+import com.server.Models.Role;
+import com.server.Models.User;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Helpers for wiring services outside of a Spring context.
+ * The services use field injection, so benchmarks set collaborators reflectively.
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    static void inject(Object target, String fieldName, Object value) {
+        Class<?> type = target.getClass();
+        while (type != null) {
+            try {
+                Field field = type.getDeclaredField(fieldName);
+                field.setAccessible(true);
+                field.set(target, value);
+                return;
+            } catch (NoSuchFieldException e) {
+                type = type.getSuperclass();
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Cannot set " + fieldName, e);
+            }
+        }
+        throw new IllegalArgumentException("No field " + fieldName + " on " + target.getClass());
+    }
+
+    // Repository stand-in: every call is routed to the handler, Object methods are answered locally
+    @SuppressWarnings("unchecked")
+    static <T> T stub(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "toString":
+                    return type.getSimpleName() + "Stub";
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    return handler.invoke(proxy, method, args);
+            }
+        });
+    }
+
+    static User user(String id, String email, Role role) {
+        User user = new User("User " + id, email, "$2a$10$abcdefghijklmnopqrstuv", role, "9999999999", "Bhubaneswar, Odisha");
+        user.setId(id);
+        return user;
+    }
+
+    static List<Product> products(User farmer, int count) {
+        String[] categories = {"Vegetables", "Fruits", "Grains", "Dairy"};
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Product product = new Product();
+            product.setId("product-" + i);
+            product.setFarmer(farmer);
+            product.setName("Product " + i);
+            product.setCategory(categories[i % categories.length]);
+            product.setPricePerKg(Money.ofMajor(20.0 + (i % 50) * 1.25));
+            product.setAvailableQuantity(Quantity.ofKg(500.0));
+            product.setImageUrl("https://res.cloudinary.com/demo/image/upload/f2c/products/p" + i + ".jpg");
+            product.setDescription("Fresh produce harvested this week, lot " + i);
+            products.add(product);
+        }
+        return products;
+    }
+}
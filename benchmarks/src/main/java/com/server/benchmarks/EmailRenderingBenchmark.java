@@ -0,0 +1,62 @@
+package com.server.benchmarks;
+
+import com.server.Models.Money;
+import com.server.services.EmailService;
+import jakarta.mail.internet.MimeMessage;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders and assembles the notification emails with the application's Thymeleaf templates.
+ * SMTP delivery is stubbed out so only template processing and MIME construction are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmailRenderingBenchmark {
+
+    private EmailService emailService;
+
+    @Setup
+    public void setup() {
+        // Same resolution rules as Spring Boot's Thymeleaf auto-configuration
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(true);
+
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+
+        emailService = new EmailService();
+        BenchmarkSupport.inject(emailService, "templateEngine", templateEngine);
+        BenchmarkSupport.inject(emailService, "mailSender", new NoOpMailSender());
+    }
+
+    @Benchmark
+    public void orderConfirmation() {
+        emailService.sendOrderConfirmationEmail("consumer@example.com", "Asha", "order-1", Money.ofMajor(1249.5));
+    }
+
+    @Benchmark
+    public void newOrderNotification() {
+        emailService.sendNewOrderNotificationToFarmer("farmer@example.com", "Ramesh", "order-1", "Tomatoes");
+    }
+
+    static class NoOpMailSender extends JavaMailSenderImpl {
+        @Override
+        public void send(MimeMessage mimeMessage) {
+            // Delivery is out of scope for the benchmark
+        }
+    }
+}
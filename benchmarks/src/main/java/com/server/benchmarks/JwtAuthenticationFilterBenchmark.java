@@ -0,0 +1,53 @@
+package com.server.benchmarks;
+
+import com.server.config.JwtAuthenticationFilter;
+import com.server.services.TokenRevocationService;
+import com.server.utils.BloomFilter;
+import com.server.utils.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    private JwtAuthenticationFilter filter;
+    private String authorizationHeader;
+
+    @Setup
+    public void setup() {
+        JwtUtil jwtUtil = JwtBenchmark.newJwtUtil();
+        // Empty revocation list, as on a node with no recent sign-outs
+        TokenRevocationService revocations = new TokenRevocationService();
+        BenchmarkSupport.inject(revocations, "bloom", new BloomFilter(100_000, 0.001));
+        filter = new JwtAuthenticationFilter(jwtUtil, revocations);
+        authorizationHeader = "Bearer " + jwtUtil.generateToken("consumer@example.com", "CONSUMER", "session-1");
+    }
+
+    @Benchmark
+    public Object authenticatedRequest() throws Exception {
+        // The filter skips authentication when the context is already populated
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/consumer/orders");
+        request.addHeader("Authorization", authorizationHeader);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Benchmark
+    public Object anonymousRequest() throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/auth/login");
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,56 @@
+package com.server.benchmarks;
+
+import com.server.services.SigningKeyService;
+import com.server.utils.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    static final String SECRET = "mySuperLongSecretKeyForJWTGenerationInFarmerToConsumerApplication2024ThatIsAtLeast32Chars";
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    static JwtUtil newJwtUtil() {
+        JwtUtil jwtUtil = new JwtUtil();
+        BenchmarkSupport.inject(jwtUtil, "secret", SECRET);
+        BenchmarkSupport.inject(jwtUtil, "expiration", 86400000L);
+        // Shared-secret tokens; JwtSigningBenchmark compares the asymmetric algorithms
+        SigningKeyService signingKeys = new SigningKeyService();
+        BenchmarkSupport.inject(signingKeys, "algorithm", "HS256");
+        BenchmarkSupport.inject(jwtUtil, "signingKeyService", signingKeys);
+        return jwtUtil;
+    }
+
+    @Setup
+    public void setup() {
+        jwtUtil = newJwtUtil();
+        token = jwtUtil.generateToken("consumer@example.com", "CONSUMER");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken("consumer@example.com", "CONSUMER");
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(token);
+    }
+
+    // The filter parses the token three times per request: username, role, then validation
+    @Benchmark
+    public boolean extractClaimsAndValidate() {
+        String username = jwtUtil.extractUsername(token);
+        String role = jwtUtil.extractRole(token);
+        return username != null && role != null && jwtUtil.validateToken(token);
+    }
+}
@@ -0,0 +1,80 @@
+package com.server.benchmarks;
+
+import com.server.utils.JsonWebKeys;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signing and verification cost of an access token per algorithm, set up the way JwtUtil does:
+ * HS256 with the shared secret, ES256 and EdDSA with the key found by kid.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtSigningBenchmark {
+
+    @Param({"HS256", "ES256", "EdDSA"})
+    public String algorithm;
+
+    private Key signingKey;
+    private String kid;
+    private JwtParser parser;
+    private String token;
+
+    @Setup
+    public void setup() {
+        if ("HS256".equals(algorithm)) {
+            signingKey = Keys.hmacShaKeyFor(JwtBenchmark.SECRET.getBytes(StandardCharsets.UTF_8));
+            parser = Jwts.parser().verifyWith(Keys.hmacShaKeyFor(JwtBenchmark.SECRET.getBytes(StandardCharsets.UTF_8))).build();
+        } else {
+            KeyPair pair = JsonWebKeys.generate(algorithm);
+            signingKey = pair.getPrivate();
+            kid = "bench-" + algorithm;
+            Map<String, PublicKey> published = Map.of(kid, pair.getPublic());
+            parser = Jwts.parser()
+                    .keyLocator(new LocatorAdapter<Key>() {
+                        @Override
+                        protected Key locate(JwsHeader header) {
+                            return published.get(header.getKeyId());
+                        }
+                    })
+                    .build();
+        }
+        token = sign();
+    }
+
+    @Benchmark
+    public String sign() {
+        JwtBuilder builder = Jwts.builder()
+                .subject("consumer@example.com")
+                .claim("role", "CONSUMER")
+                .claim("sid", "6f1c2b8e-5d0a-4c4e-9a57-3f2d1b0c9e88")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 900_000));
+        if (kid != null) {
+            builder = builder.header().keyId(kid).and();
+        }
+        return builder.signWith(signingKey).compact();
+    }
+
+    @Benchmark
+    public Object verify() {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+}
@@ -0,0 +1,116 @@
+package com.server.benchmarks;
+
+import com.server.Models.Money;
+import com.server.Models.Order;
+import com.server.Models.Product;
+import com.server.Models.Role;
+import com.server.Models.User;
+import com.server.Repositories.OrderRepository;
+import com.server.Repositories.ProductRepository;
+import com.server.Repositories.UserRepository;
+import com.server.controllers.OrderItemRequest;
+import com.server.services.MockPaymentService;
+import com.server.services.OrderService;
+import com.server.services.PricingService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs {@link OrderService#createOrder} against in-memory repositories to isolate
+ * the per-line validation and total computation from database round trips.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderTotalBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int basketSize;
+
+    private OrderService orderService;
+    private List<OrderItemRequest> items;
+
+    @Setup
+    public void setup() {
+        User consumer = BenchmarkSupport.user("consumer-1", "consumer@example.com", Role.CONSUMER);
+        User farmer = BenchmarkSupport.user("farmer-1", "farmer@example.com", Role.FARMER);
+
+        Map<String, Product> catalog = new HashMap<>();
+        for (Product product : BenchmarkSupport.products(farmer, basketSize)) {
+            catalog.put(product.getId(), product);
+        }
+
+        items = new ArrayList<>(basketSize);
+        for (String productId : catalog.keySet()) {
+            OrderItemRequest item = new OrderItemRequest();
+            item.setProductId(productId);
+            item.setQuantity(2.5);
+            items.add(item);
+        }
+
+        UserRepository userRepository = BenchmarkSupport.stub(UserRepository.class, (proxy, method, args) -> {
+            if (method.getName().equals("findByEmail")) {
+                return Optional.of(consumer);
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+        ProductRepository productRepository = BenchmarkSupport.stub(ProductRepository.class, (proxy, method, args) -> {
+            if (method.getName().equals("findById")) {
+                return Optional.ofNullable(catalog.get((String) args[0]));
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+        OrderRepository orderRepository = BenchmarkSupport.stub(OrderRepository.class, (proxy, method, args) -> {
+            if (method.getName().equals("save")) {
+                Order order = (Order) args[0];
+                if (order.getId() == null) {
+                    order.setId("order-1");
+                }
+                return order;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+
+        orderService = new OrderService();
+        BenchmarkSupport.inject(orderService, "userRepository", userRepository);
+        BenchmarkSupport.inject(orderService, "productRepository", productRepository);
+        BenchmarkSupport.inject(orderService, "orderRepository", orderRepository);
+        BenchmarkSupport.inject(orderService, "mockPaymentService", new NoOpPaymentService());
+        // No schedules are loaded, so every line is priced at the product's own price per kg
+        BenchmarkSupport.inject(orderService, "pricingService", new PricingService());
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                consumer.getEmail(), null, Collections.singletonList(new SimpleGrantedAuthority("ROLE_CONSUMER"))));
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public Order createOrder() {
+        return orderService.createOrder(items, "Plot 12, Saheed Nagar, Bhubaneswar");
+    }
+
+    // The real service logs and retains every payment, which would dominate the measurement
+    static class NoOpPaymentService extends MockPaymentService {
+        @Override
+        public String createPaymentOrder(String orderId, Money amount) {
+            return "mock_order_bench";
+        }
+    }
+}
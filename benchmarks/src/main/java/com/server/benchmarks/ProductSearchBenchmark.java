@@ -0,0 +1,78 @@
+package com.server.benchmarks;
+
+import com.server.Models.Product;
+import com.server.Models.Role;
+import com.server.Models.User;
+import com.server.Repositories.ProductRepository;
+import com.server.services.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the filter dispatch in {@link ProductService#searchProducts} with an in-memory repository,
+ * so the numbers reflect the service overhead rather than MongoDB.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductSearchBenchmark {
+
+    @Param({"keyword", "category", "categoryAndPrice", "price", "all"})
+    public String filter;
+
+    private ProductService productService;
+    private Pageable pageable;
+    private String category;
+    private Double minPrice;
+    private Double maxPrice;
+    private String keyword;
+
+    @Setup
+    public void setup() {
+        User farmer = BenchmarkSupport.user("farmer-1", "farmer@example.com", Role.FARMER);
+        List<Product> page = BenchmarkSupport.products(farmer, 10);
+
+        ProductRepository repository = BenchmarkSupport.stub(ProductRepository.class, (proxy, method, args) -> {
+            if (Page.class.isAssignableFrom(method.getReturnType())) {
+                Pageable requested = (Pageable) args[args.length - 1];
+                return new PageImpl<>(page, requested, 250);
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+
+        productService = new ProductService();
+        BenchmarkSupport.inject(productService, "productRepository", repository);
+        pageable = PageRequest.of(0, 10, Sort.by("name").ascending());
+
+        switch (filter) {
+            case "keyword" -> keyword = "tomato";
+            case "category" -> category = "Vegetables";
+            case "categoryAndPrice" -> {
+                category = "Vegetables";
+                minPrice = 10.0;
+                maxPrice = 80.0;
+            }
+            case "price" -> {
+                minPrice = 10.0;
+                maxPrice = 80.0;
+            }
+            default -> {
+            }
+        }
+    }
+
+    @Benchmark
+    public Page<Product> searchProducts() {
+        return productService.searchProducts(category, minPrice, maxPrice, keyword, pageable);
+    }
+}
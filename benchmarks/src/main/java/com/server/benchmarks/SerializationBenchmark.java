@@ -0,0 +1,124 @@
+package com.server.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.server.Models.Money;
+import com.server.Models.Order;
+import com.server.Models.OrderItem;
+import com.server.Models.OrderStatus;
+import com.server.Models.Product;
+import com.server.Models.Quantity;
+import com.server.Models.Role;
+import com.server.Models.User;
+import com.server.dto.OrderSummary;
+import com.server.dto.ProductPage;
+import com.server.dto.ProductSummary;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Serializes the browse page and an order both ways: as the entity graphs the controllers used
+ * to return ({@link Product} with its farmer, {@link Order} with nested users and products) and
+ * as the flat DTOs they return now, plus the page with a grid's sparse fieldset. Payload sizes
+ * are asserted by ResponsePayloadTests in the application's tests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private Map<String, Object> productPage;
+    private ProductPage productSummaryPage;
+    private ObjectWriter gridFieldsWriter;
+    private Order order;
+    private OrderSummary orderSummary;
+
+    @Setup
+    public void setup() {
+        // Matches Spring Boot's default ObjectMapper for these payloads
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .setFilterProvider(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+        // fields=name,pricePerKg,imageUrl
+        gridFieldsWriter = objectMapper.writer(new SimpleFilterProvider().addFilter(ProductSummary.FILTER,
+                SimpleBeanPropertyFilter.filterOutAllExcept(Set.of("id", "name", "pricePerKg", "imageUrl"))));
+
+        User farmer = BenchmarkSupport.user("farmer-1", "farmer@example.com", Role.FARMER);
+        User consumer = BenchmarkSupport.user("consumer-1", "consumer@example.com", Role.CONSUMER);
+        List<Product> products = BenchmarkSupport.products(farmer, 10);
+
+        productPage = new HashMap<>();
+        productPage.put("products", products);
+        productPage.put("currentPage", 0);
+        productPage.put("totalItems", 250L);
+        productPage.put("totalPages", 25);
+        productSummaryPage = new ProductPage(
+                products.stream().map(ProductSummary::of).collect(Collectors.toList()), 0, 250L, 25);
+
+        List<OrderItem> items = new ArrayList<>();
+        long totalMinor = 0;
+        for (Product product : products) {
+            OrderItem item = new OrderItem();
+            item.setProduct(product);
+            item.setQuantity(Quantity.ofKg(2.0));
+            item.setPrice(product.getPricePerKg());
+            item.setProductName(product.getName());
+            item.setCategory(product.getCategory());
+            item.setImageUrl(product.getImageUrl());
+            items.add(item);
+            totalMinor += Money.lineTotalMinor(product.getPricePerKg().getMinorUnits(), item.getQuantity().getGrams());
+        }
+        order = new Order();
+        order.setId("order-1");
+        order.setConsumer(consumer);
+        order.setStatus(OrderStatus.CONFIRMED);
+        order.setDeliveryAddress("Plot 12, Saheed Nagar, Bhubaneswar");
+        order.setOrderDate(LocalDateTime.of(2024, 11, 2, 9, 30));
+        order.setOrderItems(items);
+        order.setTotalAmount(Money.ofMinor(totalMinor));
+        order.setRazorpayOrderId("mock_order_1234abcd");
+        orderSummary = OrderSummary.of(order);
+    }
+
+    @Benchmark
+    public byte[] productPage() throws Exception {
+        return objectMapper.writeValueAsBytes(productPage);
+    }
+
+    @Benchmark
+    public byte[] productPageSummaries() throws Exception {
+        return objectMapper.writeValueAsBytes(productSummaryPage);
+    }
+
+    @Benchmark
+    public byte[] productPageGridFields() throws Exception {
+        return gridFieldsWriter.writeValueAsBytes(productSummaryPage);
+    }
+
+    @Benchmark
+    public byte[] orderDetails() throws Exception {
+        return objectMapper.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public byte[] orderSummary() throws Exception {
+        return objectMapper.writeValueAsBytes(orderSummary);
+    }
+}
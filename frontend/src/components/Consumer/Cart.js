@@ -1,15 +1,25 @@
-import React, { useState } from 'react';
+import React, { useEffect, useRef, useState } from 'react';
 import { useNavigate } from 'react-router-dom';
 import { useCart } from '../../context/CartContext';
-import { consumerAPI } from '../../services/api';
+import { consumerAPI, newIdempotencyKey } from '../../services/api';
 import './Cart.css';
 
 const Cart = () => {
-  const { cart, updateQuantity, removeFromCart, clearCart, getTotalPrice } = useCart();
+  const { cart, updateQuantity, removeFromCart, clearCart, getTotalPrice, serverBacked, reload } = useCart();
   const [deliveryAddress, setDeliveryAddress] = useState('');
   const [loading, setLoading] = useState(false);
   const [error, setError] = useState('');
   const navigate = useNavigate();
+  // Kept across retries of the same order so a lost response cannot place it twice
+  const attemptKey = useRef(null);
+
+  useEffect(() => {
+    attemptKey.current = null;
+  }, [cart, deliveryAddress]);
+
+  // Server-backed carts report refused changes (such as too little stock) as a message
+  const changeQuantity = (productId, quantity) =>
+    Promise.resolve(updateQuantity(productId, quantity)).then((message) => message && setError(message));
 
   const handlePlaceOrder = async () => {
     if (cart.length === 0) {
@@ -24,19 +34,29 @@ const Cart = () => {
 
     setLoading(true);
     setError('');
+    if (!attemptKey.current) {
+      attemptKey.current = newIdempotencyKey();
+    }
 
     try {
-      const orderItems = cart.map((item) => ({
-        productId: item.product.id,
-        quantity: item.quantity,
-      }));
-
-      const response = await consumerAPI.placeOrder({
-        items: orderItems,
-        deliveryAddress: deliveryAddress.trim(),
-      });
-
-      clearCart();
+      let response;
+      if (serverBacked) {
+        // The server orders what is in the stored cart and empties it
+        response = await consumerAPI.checkoutCart(deliveryAddress.trim(), attemptKey.current);
+        reload();
+      } else {
+        const orderItems = cart.map((item) => ({
+          productId: item.product.id,
+          quantity: item.quantity,
+        }));
+
+        response = await consumerAPI.placeOrder({
+          items: orderItems,
+          deliveryAddress: deliveryAddress.trim(),
+        }, attemptKey.current);
+
+        clearCart();
+      }
       navigate(`/consumer/orders/${response.data.order.id}`, {
         state: { order: response.data.order, mockOrderId: response.data.mockOrderId },
       });
@@ -88,7 +108,7 @@ const Cart = () => {
                 <label>Quantity (kg):</label>
                 <div className="quantity-controls">
                   <button
-                    onClick={() => updateQuantity(item.product.id, item.quantity - 0.5)}
+                    onClick={() => changeQuantity(item.product.id, item.quantity - 0.5)}
                     className="quantity-btn"
                     disabled={item.quantity <= 0.5}
                   >
@@ -98,14 +118,14 @@ const Cart = () => {
                     type="number"
                     value={item.quantity}
                     onChange={(e) =>
-                      updateQuantity(item.product.id, parseFloat(e.target.value) || 0)
+                      changeQuantity(item.product.id, parseFloat(e.target.value) || 0)
                     }
                     min="0.5"
                     step="0.5"
                     className="quantity-input"
                   />
                   <button
-                    onClick={() => updateQuantity(item.product.id, item.quantity + 0.5)}
+                    onClick={() => changeQuantity(item.product.id, item.quantity + 0.5)}
                     className="quantity-btn"
                     disabled={item.quantity >= item.product.availableQuantity}
                   >
@@ -113,7 +133,7 @@ const Cart = () => {
                   </button>
                 </div>
                 <p className="cart-item-total">
-                  Total: ₹{(item.product.pricePerKg * item.quantity).toFixed(2)}
+                  Total: ₹{Number(item.lineTotal ?? item.product.pricePerKg * item.quantity).toFixed(2)}
                 </p>
               </div>
               <button
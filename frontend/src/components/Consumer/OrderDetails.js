@@ -1,6 +1,6 @@
 import React, { useState, useEffect } from 'react';
 import { useParams, useNavigate, useLocation } from 'react-router-dom';
-import { consumerAPI } from '../../services/api';
+import { consumerAPI, subscribeToOrderUpdates } from '../../services/api';
 import './OrderDetails.css';
 
 const OrderDetails = () => {
@@ -16,6 +16,7 @@ const OrderDetails = () => {
   });
   const [processingPayment, setProcessingPayment] = useState(false);
   const [paymentError, setPaymentError] = useState('');
+  const [partnerLocation, setPartnerLocation] = useState(null);
 
   useEffect(() => {
     if (!order) {
@@ -23,6 +24,18 @@ const OrderDetails = () => {
     }
   }, [orderId]);
 
+  // Status and partner position are pushed by the server instead of re-fetching the order
+  useEffect(() => {
+    return subscribeToOrderUpdates((update) => {
+      if (update.orderId !== orderId) return;
+      if (update.type === 'status') {
+        setOrder((current) => (current ? { ...current, status: update.status } : current));
+      } else if (update.type === 'location') {
+        setPartnerLocation({ lat: update.lat, lng: update.lng, at: update.at });
+      }
+    });
+  }, [orderId]);
+
   const fetchOrder = async () => {
     try {
       setLoading(true);
@@ -178,20 +191,20 @@ const OrderDetails = () => {
           <div className="order-items-list">
             {order.orderItems?.map((item, index) => (
               <div key={index} className="order-item">
-                {item.product?.imageUrl && (
+                {item.imageUrl && (
                   <img
-                    src={item.product.imageUrl}
-                    alt={item.product.name}
+                    src={item.imageUrl}
+                    alt={item.name}
                     className="order-item-image"
                   />
                 )}
                 <div className="order-item-details">
-                  <h3>{item.product?.name || 'Product'}</h3>
-                  <p className="order-item-category">{item.product?.category}</p>
+                  <h3>{item.name || 'Product'}</h3>
+                  <p className="order-item-category">{item.category}</p>
                   <p className="order-item-quantity">Quantity: {item.quantity} kg</p>
                   <p className="order-item-price">
-                    ₹{item.product?.pricePerKg}/kg × {item.quantity} kg = ₹
-                    {(item.product?.pricePerKg * item.quantity).toFixed(2)}
+                    ₹{item.price}/kg × {item.quantity} kg = ₹
+                    {Number(item.lineTotal ?? item.price * item.quantity).toFixed(2)}
                   </p>
                 </div>
               </div>
@@ -203,8 +216,14 @@ const OrderDetails = () => {
           <div className="card">
             <h2>Delivery Information</h2>
             <p><strong>Address:</strong> {order.deliveryAddress}</p>
-            {order.deliveryPartner && (
-              <p><strong>Delivery Partner:</strong> {order.deliveryPartner.name}</p>
+            {order.deliveryPartnerName && (
+              <p><strong>Delivery Partner:</strong> {order.deliveryPartnerName}</p>
+            )}
+            {partnerLocation && (
+              <p>
+                <strong>Partner location:</strong> {partnerLocation.lat.toFixed(5)}, {partnerLocation.lng.toFixed(5)}
+                {' '}(updated {new Date(partnerLocation.at).toLocaleTimeString()})
+              </p>
             )}
           </div>
 
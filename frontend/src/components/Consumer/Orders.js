@@ -97,7 +97,7 @@ const Orders = () => {
             <div className="order-items-preview">
               {order.orderItems?.slice(0, 3).map((item, index) => (
                 <span key={index} className="order-item-tag">
-                  {item.product?.name || 'Product'} ({item.quantity} kg)
+                  {item.name || 'Product'} ({item.quantity} kg)
                 </span>
               ))}
               {order.orderItems?.length > 3 && (
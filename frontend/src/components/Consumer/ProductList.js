@@ -3,6 +3,8 @@ import { consumerAPI } from '../../services/api';
 import { useCart } from '../../context/CartContext';
 import './ProductList.css';
 
+const GRID_FIELDS = 'name,category,description,imageUrl,pricePerKg,availableQuantity';
+
 const ProductList = () => {
   const [products, setProducts] = useState([]);
   const [categories, setCategories] = useState([]);
@@ -11,6 +13,7 @@ const ProductList = () => {
   const [filters, setFilters] = useState({
     category: '',
     keyword: '',
+    language: '',
     minPrice: '',
     maxPrice: '',
     page: 0,
@@ -24,11 +27,34 @@ const ProductList = () => {
     totalItems: 0,
   });
   const { addToCart } = useCart();
+  // What is typed in the search box; it reaches filters.keyword once typing pauses
+  const [searchText, setSearchText] = useState('');
+  const [suggestions, setSuggestions] = useState([]);
+  // The server tunes these from its own latency (see /consumer/products/suggest)
+  const [suggestHints, setSuggestHints] = useState({ debounceMs: 150, minChars: 1 });
 
   useEffect(() => {
     fetchCategories();
   }, []);
 
+  useEffect(() => {
+    const timer = setTimeout(() => {
+      setFilters((prev) => (prev.keyword === searchText ? prev : { ...prev, keyword: searchText, page: 0 }));
+      if (searchText.trim().length < suggestHints.minChars) {
+        setSuggestions([]);
+        return;
+      }
+      consumerAPI
+        .suggestProducts(searchText)
+        .then((response) => {
+          setSuggestions(response.data.suggestions);
+          setSuggestHints({ debounceMs: response.data.debounceMs, minChars: response.data.minChars });
+        })
+        .catch(() => setSuggestions([]));
+    }, suggestHints.debounceMs);
+    return () => clearTimeout(timer);
+  }, [searchText]);
+
   useEffect(() => {
     fetchProducts();
   }, [filters]);
@@ -49,6 +75,8 @@ const ProductList = () => {
         ...filters,
         page: filters.page,
         size: filters.size,
+        // Only what the grid and the cart use
+        fields: GRID_FIELDS,
       };
       
       // Remove empty filters
@@ -74,11 +102,11 @@ const ProductList = () => {
   };
 
   const handleFilterChange = (key, value) => {
-    setFilters({
-      ...filters,
+    setFilters((prev) => ({
+      ...prev,
       [key]: value,
       page: 0, // Reset to first page when filters change
-    });
+    }));
   };
 
   const handleAddToCart = (product) => {
@@ -86,7 +114,7 @@ const ProductList = () => {
       alert('This product is out of stock');
       return;
     }
-    addToCart(product);
+    Promise.resolve(addToCart(product)).then((error) => error && alert(error));
   };
 
   const handlePageChange = (newPage) => {
@@ -111,10 +139,31 @@ const ProductList = () => {
           <input
             type="text"
             placeholder="Search products..."
-            value={filters.keyword}
-            onChange={(e) => handleFilterChange('keyword', e.target.value)}
+            value={searchText}
+            onChange={(e) => setSearchText(e.target.value)}
             className="filter-input"
+            list="product-suggestions"
+            autoComplete="off"
           />
+          <datalist id="product-suggestions">
+            {suggestions.map((suggestion) => (
+              <option key={`${suggestion.type}:${suggestion.text}`} value={suggestion.text} />
+            ))}
+          </datalist>
+        </div>
+
+        <div className="filter-group">
+          <label>Language</label>
+          <select
+            value={filters.language}
+            onChange={(e) => handleFilterChange('language', e.target.value)}
+            className="filter-select"
+          >
+            <option value="">All Languages</option>
+            <option value="en">English</option>
+            <option value="hi">हिन्दी</option>
+            <option value="or">ଓଡ଼ିଆ</option>
+          </select>
         </div>
 
         <div className="filter-group">
@@ -121,6 +121,15 @@ const AddProductForm = ({ onSubmit, onCancel }) => {
             </div>
           </div>
 
+          <div className="form-group">
+            <label>Listing Language</label>
+            <select name="language" value={formData.language} onChange={handleChange}>
+              <option value="en">English</option>
+              <option value="hi">हिन्दी (Hindi)</option>
+              <option value="or">ଓଡ଼ିଆ (Odia)</option>
+            </select>
+          </div>
+
           <div className="form-group">
             <label>Description</label>
             <textarea
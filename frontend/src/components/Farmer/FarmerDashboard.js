@@ -11,11 +11,30 @@ const FarmerDashboard = () => {
   const [error, setError] = useState('');
   const [showAddForm, setShowAddForm] = useState(false);
   const [editingProduct, setEditingProduct] = useState(null);
+  const [topProducts, setTopProducts] = useState([]);
+  const [dailySales, setDailySales] = useState(null);
 
   useEffect(() => {
     fetchProducts();
+    fetchSales();
   }, []);
 
+  // Sales panels are optional; a failure here should not hide the product list
+  const fetchSales = async () => {
+    try {
+      const [top, daily] = await Promise.all([
+        farmerAPI.getTopProducts(7, 5),
+        farmerAPI.getDailySales(90),
+      ]);
+      setTopProducts(top.data);
+      setDailySales(daily.data);
+    } catch (err) {
+      console.error('Failed to fetch sales analytics', err);
+    }
+  };
+
+  const sum = (values) => values.reduce((total, value) => total + value, 0);
+
   const fetchProducts = async () => {
     try {
       setLoading(true);
@@ -91,6 +110,50 @@ const FarmerDashboard = () => {
         />
       )}
 
+      {(topProducts.length > 0 || dailySales?.products?.length > 0) && (
+        <div className="sales-section">
+          <div className="sales-card">
+            <h2>Top Products This Week</h2>
+            {topProducts.length === 0 ? (
+              <p>No sales in the last 7 days.</p>
+            ) : (
+              <ol>
+                {topProducts.map((product) => (
+                  <li key={product.productId}>
+                    {product.name}: {product.units.toFixed(1)} kg (₹{product.revenue.toFixed(2)})
+                  </li>
+                ))}
+              </ol>
+            )}
+          </div>
+          {dailySales?.products?.length > 0 && (
+            <div className="sales-card">
+              <h2>Units Sold, Last 90 Days</h2>
+              <table>
+                <thead>
+                  <tr>
+                    <th>Product</th>
+                    <th>90 days</th>
+                    <th>Last 7 days</th>
+                    <th>Today</th>
+                  </tr>
+                </thead>
+                <tbody>
+                  {dailySales.products.map((product) => (
+                    <tr key={product.productId}>
+                      <td>{product.name}</td>
+                      <td>{sum(product.units).toFixed(1)}</td>
+                      <td>{sum(product.units.slice(-7)).toFixed(1)}</td>
+                      <td>{product.units[product.units.length - 1].toFixed(1)}</td>
+                    </tr>
+                  ))}
+                </tbody>
+              </table>
+            </div>
+          )}
+        </div>
+      )}
+
       <ProductList
         products={products}
         onEdit={setEditingProduct}
@@ -35,7 +35,7 @@ export const AuthProvider = ({ children }) => {
   const login = async (email, password) => {
     try {
       const response = await authAPI.login(email, password);
-      const { token: newToken } = response.data;
+      const { token: newToken, refreshToken } = response.data;
       
       // Decode token to get user info (simple base64 decode)
       const payload = JSON.parse(atob(newToken.split('.')[1]));
@@ -48,6 +48,7 @@ export const AuthProvider = ({ children }) => {
       setToken(newToken);
       setUser(userData);
       localStorage.setItem('token', newToken);
+      localStorage.setItem('refreshToken', refreshToken);
       localStorage.setItem('user', JSON.stringify(userData));
       
       return { success: true };
@@ -88,9 +89,15 @@ export const AuthProvider = ({ children }) => {
   };
 
   const logout = () => {
+    // Revokes the session server-side so the tokens stop working everywhere
+    const refreshToken = localStorage.getItem('refreshToken');
+    if (refreshToken) {
+      authAPI.logout(refreshToken).catch(() => {});
+    }
     setToken(null);
     setUser(null);
     localStorage.removeItem('token');
+    localStorage.removeItem('refreshToken');
     localStorage.removeItem('user');
   };
 
@@ -1,4 +1,6 @@
 import React, { createContext, useState, useContext, useEffect } from 'react';
+import { useAuth } from './AuthContext';
+import { consumerAPI } from '../services/api';
 
 const CartContext = createContext();
 
@@ -10,10 +12,46 @@ export const useCart = () => {
   return context;
 };
 
+// Server carts hold lines keyed by product id with a snapshot of each product
+const fromServer = (serverCart) =>
+  Object.values(serverCart?.lines || {}).map((line) => ({
+    product: {
+      id: line.productId,
+      name: line.name,
+      category: line.category,
+      imageUrl: line.imageUrl,
+      pricePerKg: line.unitPrice,
+      availableQuantity: line.availableQuantity,
+    },
+    quantity: line.quantity,
+    lineTotal: line.lineTotal,
+  }));
+
 export const CartProvider = ({ children }) => {
+  const { user } = useAuth();
   const [cart, setCart] = useState([]);
+  const [serverTotal, setServerTotal] = useState(null);
+  // Signed-in consumers keep their cart on the server so it follows them across devices
+  const serverBacked = user?.role === 'CONSUMER';
+
+  const applyServerCart = (serverCart) => {
+    setCart(fromServer(serverCart));
+    setServerTotal(serverCart?.totalAmount ?? 0);
+  };
+
+  useEffect(() => {
+    if (!serverBacked) {
+      setServerTotal(null);
+      return;
+    }
+    consumerAPI
+      .getCart()
+      .then((response) => applyServerCart(response.data))
+      .catch((e) => console.error('Error loading cart:', e));
+  }, [serverBacked]);
 
   useEffect(() => {
+    if (serverBacked) return;
     // Load cart from localStorage
     const savedCart = localStorage.getItem('cart');
     if (savedCart) {
@@ -23,14 +61,32 @@ export const CartProvider = ({ children }) => {
         console.error('Error loading cart:', e);
       }
     }
-  }, []);
+  }, [serverBacked]);
 
   useEffect(() => {
     // Save cart to localStorage whenever it changes
-    localStorage.setItem('cart', JSON.stringify(cart));
-  }, [cart]);
+    if (!serverBacked) {
+      localStorage.setItem('cart', JSON.stringify(cart));
+    }
+  }, [cart, serverBacked]);
+
+  // Server edits return the whole cart, which replaces local state. Resolves to the error message
+  // when the server refused the change (e.g. not enough stock), after re-reading the cart.
+  const syncServer = (request) =>
+    request
+      .then((response) => {
+        applyServerCart(response.data);
+        return null;
+      })
+      .catch((e) => {
+        consumerAPI.getCart().then((response) => applyServerCart(response.data)).catch(() => {});
+        return e.response?.data?.error || 'Failed to update cart';
+      });
 
   const addToCart = (product) => {
+    if (serverBacked) {
+      return syncServer(consumerAPI.addCartItem(product.id, 1));
+    }
     setCart((prevCart) => {
       const existingItem = prevCart.find((item) => item.product.id === product.id);
       
@@ -49,6 +105,9 @@ export const CartProvider = ({ children }) => {
   };
 
   const updateQuantity = (productId, quantity) => {
+    if (serverBacked) {
+      return syncServer(consumerAPI.setCartItem(productId, Math.max(quantity, 0)));
+    }
     if (quantity <= 0) {
       removeFromCart(productId);
       return;
@@ -64,14 +123,23 @@ export const CartProvider = ({ children }) => {
   };
 
   const removeFromCart = (productId) => {
+    if (serverBacked) {
+      return syncServer(consumerAPI.removeCartItem(productId));
+    }
     setCart((prevCart) => prevCart.filter((item) => item.product.id !== productId));
   };
 
   const clearCart = () => {
+    if (serverBacked) {
+      return syncServer(consumerAPI.clearCart());
+    }
     setCart([]);
   };
 
   const getTotalPrice = () => {
+    if (serverBacked && serverTotal !== null) {
+      return Number(serverTotal);
+    }
     return cart.reduce((total, item) => {
       return total + item.product.pricePerKg * item.quantity;
     }, 0);
@@ -89,6 +157,8 @@ export const CartProvider = ({ children }) => {
     clearCart,
     getTotalPrice,
     getTotalItems,
+    serverBacked,
+    reload: () => serverBacked && syncServer(consumerAPI.getCart()),
   };
 
   return <CartContext.Provider value={value}>{children}</CartContext.Provider>;
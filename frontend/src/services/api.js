@@ -23,12 +23,52 @@ api.interceptors.request.use(
   }
 );
 
-// Handle response errors
+// One refresh at a time per tab: the server rotates refresh tokens, so a second use of the
+// same one would be rejected.
+let refreshing = null;
+
+// Resolves to a fresh access token, or rejects when the session is over
+export const refreshAccessToken = () => {
+  if (!refreshing) {
+    const refreshToken = localStorage.getItem('refreshToken');
+    refreshing = (refreshToken
+      ? axios.post(`${API_BASE_URL}/auth/refresh`, { refreshToken }).then(({ data }) => {
+          localStorage.setItem('token', data.token);
+          localStorage.setItem('refreshToken', data.refreshToken);
+          return data.token;
+        }).catch((error) => {
+          // Another tab may have rotated the token first; use what it stored
+          if (localStorage.getItem('refreshToken') !== refreshToken) {
+            return localStorage.getItem('token');
+          }
+          throw error;
+        })
+      : Promise.reject(new Error('Not signed in')))
+      .finally(() => {
+        refreshing = null;
+      });
+  }
+  return refreshing;
+};
+
+// Handle response errors: renew an expired access token once, then sign out
 api.interceptors.response.use(
   (response) => response,
-  (error) => {
+  async (error) => {
+    const original = error.config;
+    if (error.response?.status === 401 && original && !original.retried && !original.url.startsWith('/auth/')) {
+      original.retried = true;
+      try {
+        const token = await refreshAccessToken();
+        original.headers.Authorization = `Bearer ${token}`;
+        return api(original);
+      } catch (refreshError) {
+        // Fall through to sign-out
+      }
+    }
     if (error.response?.status === 401) {
       localStorage.removeItem('token');
+      localStorage.removeItem('refreshToken');
       localStorage.removeItem('user');
       window.location.href = '/login';
     }
@@ -40,6 +80,7 @@ api.interceptors.response.use(
 export const authAPI = {
   register: (userData) => api.post('/auth/register', userData),
   login: (email, password) => api.post('/auth/login', { email, password }),
+  logout: (refreshToken) => api.post('/auth/logout', { refreshToken }),
 };
 
 // Farmer APIs
@@ -73,18 +114,125 @@ export const farmerAPI = {
   getProduct: (productId) => api.get(`/farmer/products/${productId}`),
   updateInventory: (productId, quantity) => 
     api.patch(`/farmer/products/${productId}/inventory`, { quantity }),
+  // file: a .csv or .ndjson File; the server streams it row by row
+  bulkImportProducts: (file) => api.post('/farmer/products/bulk', file, {
+    headers: { 'Content-Type': file.name.endsWith('.csv') ? 'text/csv' : 'application/x-ndjson' },
+  }),
+  // status: PREPARING, READY_FOR_PICKUP or CANCELLED
+  updateOrderStatus: (orderId, status) =>
+    api.patch(`/farmer/orders/${orderId}/status`, { status }),
+  getPriceHistory: (productId) => api.get(`/farmer/products/${productId}/prices`),
+  // effectiveFrom: optional ISO local date-time; omitted means now
+  schedulePrice: (productId, pricePerKg, effectiveFrom) =>
+    api.post(`/farmer/products/${productId}/prices`, { pricePerKg, effectiveFrom }),
+  addDiscount: (productId, percentOff, startsAt, endsAt) =>
+    api.post(`/farmer/products/${productId}/discounts`, { percentOff, startsAt, endsAt }),
+  cancelDiscount: (productId, discountId) =>
+    api.delete(`/farmer/products/${productId}/discounts/${discountId}`),
+  // { dates: [...], products: [{ productId, name, units: [...] }] }, one units entry per date
+  getDailySales: (days = 90) => api.get('/farmer/analytics/daily', { params: { days } }),
+  getTopProducts: (days = 7, limit = 5) =>
+    api.get('/farmer/analytics/top', { params: { days, limit } }),
 };
 
+// One key per checkout attempt; resending it makes the server return the first order, not a new one
+export const newIdempotencyKey = () =>
+  window.crypto?.randomUUID
+    ? window.crypto.randomUUID()
+    : `${Date.now()}-${Math.random().toString(36).slice(2)}`;
+
+const idempotent = (key) => (key ? { headers: { 'Idempotency-Key': key } } : undefined);
+
 // Consumer APIs
 export const consumerAPI = {
   browseProducts: (params) => api.get('/consumer/products', { params }),
   getCategories: () => api.get('/consumer/products/categories'),
-  placeOrder: (orderData) => api.post('/consumer/orders', orderData),
+  suggestProducts: (q) => api.get('/consumer/products/suggest', { params: { q } }),
+  placeOrder: (orderData, idempotencyKey) => api.post('/consumer/orders', orderData, idempotent(idempotencyKey)),
   confirmPayment: (orderId, paymentData) => 
     api.post(`/consumer/orders/${orderId}/confirm-payment`, paymentData),
   getMyOrders: () => api.get('/consumer/orders'),
   getOrder: (orderId) => api.get(`/consumer/orders/${orderId}`),
   getPaymentDetails: (orderId) => api.get(`/consumer/orders/${orderId}/payment-details`),
+  trackOrder: (orderId) => api.get(`/consumer/orders/${orderId}/tracking`),
+  rateOrder: (orderId, rating, review) =>
+    api.post(`/consumer/orders/${orderId}/rating`, { rating, review }),
+  getProductRatings: (productId, page = 0) =>
+    api.get(`/consumer/products/${productId}/ratings`, { params: { page } }),
+  getCart: () => api.get('/consumer/cart'),
+  setCartItem: (productId, quantity) => api.put(`/consumer/cart/items/${productId}`, { quantity }),
+  addCartItem: (productId, quantity) => api.post(`/consumer/cart/items/${productId}`, { quantity }),
+  removeCartItem: (productId) => api.delete(`/consumer/cart/items/${productId}`),
+  clearCart: () => api.delete('/consumer/cart'),
+  checkoutCart: (deliveryAddress, idempotencyKey) =>
+    api.post('/consumer/cart/checkout', { deliveryAddress }, idempotent(idempotencyKey)),
+};
+
+// One shared SSE stream per tab for all of the consumer's open orders.
+// fetch is used instead of EventSource so the token travels in a header, not the URL.
+const orderUpdateListeners = new Set();
+let orderStream = null;
+
+const openOrderStream = () => {
+  const controller = new AbortController();
+  orderStream = controller;
+
+  fetch(`${API_BASE_URL}/consumer/orders/stream`, {
+    headers: { Authorization: `Bearer ${localStorage.getItem('token')}`, Accept: 'text/event-stream' },
+    signal: controller.signal,
+  })
+    .then(async (response) => {
+      // Expired access token: renew it, then let the reconnect below use the new one
+      if (response.status === 401) {
+        await refreshAccessToken();
+        return;
+      }
+      const reader = response.body.getReader();
+      const decoder = new TextDecoder();
+      let buffer = '';
+      for (;;) {
+        const { done, value } = await reader.read();
+        if (done) break;
+        buffer += decoder.decode(value, { stream: true });
+        let boundary;
+        while ((boundary = buffer.indexOf('\n\n')) !== -1) {
+          const frame = buffer.slice(0, boundary);
+          buffer = buffer.slice(boundary + 2);
+          let type = 'message';
+          let data = '';
+          frame.split('\n').forEach((line) => {
+            if (line.startsWith('event:')) type = line.slice(6).trim();
+            else if (line.startsWith('data:')) data += line.slice(5).trim();
+          });
+          if (data) {
+            const update = { type, ...JSON.parse(data) };
+            orderUpdateListeners.forEach((listener) => listener(update));
+          }
+        }
+      }
+    })
+    .catch(() => {})
+    .finally(() => {
+      // Reconnect while anyone is still listening (server timeout, network blip)
+      if (orderStream === controller && orderUpdateListeners.size > 0) {
+        setTimeout(() => orderStream === controller && openOrderStream(), 3000);
+      } else if (orderStream === controller) {
+        orderStream = null;
+      }
+    });
+};
+
+// listener receives { type: 'status' | 'location', orderId, ... }; returns an unsubscribe function
+export const subscribeToOrderUpdates = (listener) => {
+  orderUpdateListeners.add(listener);
+  if (!orderStream) openOrderStream();
+  return () => {
+    orderUpdateListeners.delete(listener);
+    if (orderUpdateListeners.size === 0 && orderStream) {
+      orderStream.abort();
+      orderStream = null;
+    }
+  };
 };
 
 export default api;
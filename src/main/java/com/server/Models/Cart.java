@@ -0,0 +1,34 @@
+package com.server.Models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A consumer's cart, one document per consumer (id = user id). Lines are keyed by product id so
+ * each edit is a single $set on lines.&lt;productId&gt; plus $inc on the running total.
+ */
+@Document(collection = "carts")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Cart {
+    @Id
+    private String id;
+
+    private Map<String, CartLine> lines = new LinkedHashMap<>();
+
+    // Sum of the line totals, maintained by $inc alongside each line edit
+    private Money totalAmount = Money.ZERO;
+
+    // Bumped on every write
+    private Long version = 0L;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,32 @@
+package com.server.Models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One product in a cart, with a snapshot of the product taken when the line was last edited so
+ * the cart can be shown and totalled without reading products.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartLine {
+    private String productId;
+    private String name;
+    private String category;
+    private String imageUrl;
+    private String farmerId;
+
+    private Quantity quantity;
+    // Paise per kg and line total at snapshot time
+    private Money unitPrice;
+    private Money lineTotal;
+
+    // Stock seen by the last check, and the quantity that check covered
+    private Quantity availableQuantity;
+    private Quantity verifiedQuantity;
+    private LocalDateTime verifiedAt;
+}
@@ -4,10 +4,18 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 
+import java.time.LocalDateTime;
+
 @Document(collection = "delivery_partners")
+// findByUserId; unique so concurrent first pings or location updates cannot create a second document
+@CompoundIndex(name = "user_unique_idx", def = "{'user.$id': 1}", unique = true)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -20,6 +28,13 @@ public class DeliveryPartner {
 
     private Double currentLocationLat;
     private Double currentLocationLng;
+
+    // Same position as GeoJSON (lng, lat) for $nearSphere queries
+    @GeoSpatialIndexed(name = "location_2dsphere", type = GeoSpatialIndexType.GEO_2DSPHERE)
+    private GeoJsonPoint location;
+
+    private LocalDateTime locationUpdatedAt;
+
     private Boolean isAvailable = true;
     private String vehicleType;
-}
\ No newline at end of file
+}
@@ -0,0 +1,31 @@
+package com.server.Models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Document(collection = "delivery_routes")
+// findFirstByDeliveryPartnerIdOrderByCreatedAtDesc
+@CompoundIndex(name = "partner_createdAt_idx", def = "{'deliveryPartnerId': 1, 'createdAt': -1}")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveryRoute {
+    @Id
+    private String id;
+
+    private String deliveryPartnerId;
+    private List<String> orderIds;
+
+    // Embedded, already in visiting order
+    private List<RouteStop> stops;
+
+    private Double totalDistanceKm;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,86 @@
+package com.server.Models;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount of rupees held as a whole number of paise. Stored in Mongo as that long (see
+ * MongoConfig) and written to JSON as a decimal rupee value, so API clients still see 42.50.
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final Money ZERO = new Money(0);
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    // Rupees from user input or a legacy double field, rounded half-up to the paisa
+    public static Money ofMajor(double rupees) {
+        return ofMinor(BigDecimal.valueOf(rupees).setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact());
+    }
+
+    @JsonCreator
+    public static Money ofMajor(BigDecimal rupees) {
+        return ofMinor(rupees.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact());
+    }
+
+    /**
+     * Paise for {@code grams} of something priced at {@code pricePerKgMinor} paise per kg, rounded
+     * half-up. Works on primitives so a pricing loop can total a basket without allocating.
+     */
+    public static long lineTotalMinor(long pricePerKgMinor, long grams) {
+        return Math.floorDiv(Math.multiplyExact(pricePerKgMinor, grams) + 500, 1000);
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public Money plus(Money other) {
+        return ofMinor(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    // For display and for legacy APIs that still take a double
+    public double toMajor() {
+        return minorUnits / 100.0;
+    }
+
+    @JsonValue
+    public BigDecimal toDecimal() {
+        return BigDecimal.valueOf(minorUnits, 2);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Money && ((Money) other).minorUnits == minorUnits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toDecimal().toPlainString();
+    }
+}
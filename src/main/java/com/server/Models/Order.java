@@ -5,13 +5,25 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Document(collection = "orders")
+@CompoundIndexes({
+        // A consumer's orders, newest first (OrderService.getMyOrders)
+        @CompoundIndex(name = "consumer_orderDate_idx", def = "{'consumer.$id': 1, 'orderDate': -1}"),
+        // A delivery partner's assignments, newest first
+        @CompoundIndex(name = "deliveryPartner_orderDate_idx", def = "{'deliveryPartner.$id': 1, 'orderDate': -1}"),
+        // FarmerSalesService loads a farmer's recent orders by the products they contain
+        @CompoundIndex(name = "items_product_orderDate_idx", def = "{'orderItems.product.$id': 1, 'orderDate': -1}")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -22,7 +34,9 @@ public class Order {
     @DBRef
     private User consumer;
 
-    private Double totalAmount;
+    private Money totalAmount;
+
+    @Indexed(name = "status_idx")
     private OrderStatus status;
 
     @DBRef
@@ -30,12 +44,32 @@ public class Order {
 
     private String deliveryAddress;
 
+    // Copied from the farmer and consumer at checkout so dispatch needs no extra lookups
+    private Double pickupLocationLat;
+    private Double pickupLocationLng;
+    private Double deliveryLocationLat;
+    private Double deliveryLocationLng;
+
     @CreatedDate
     private LocalDateTime orderDate;
 
     // Embedded order items
     private List<OrderItem> orderItems;
 
+    // Append-only lifecycle log, pushed in the same update that changes status
+    private List<OrderStatusChange> statusHistory;
+
+    // Orders with several farmers' products: how far each farmer (by user id) has got with their own
+    // lines. The order itself moves to PREPARING / READY_FOR_PICKUP once every farmer has.
+    private Map<String, OrderStatus> farmerProgress;
+
+    // Incremented by every write to the order; its ETag is built from this
+    private Long revision;
+
+    // Set when AnalyticsService counts (or un-counts) this order so each happens once
+    private LocalDateTime analyticsRecordedAt;
+    private LocalDateTime analyticsReversedAt;
+
     // Mock payment fields (reusing existing field names)
     private String razorpayOrderId;  // Now stores mock order ID
     private String razorpayPaymentId; // Now stores mock payment ID
@@ -11,6 +11,12 @@ import org.springframework.data.mongodb.core.mapping.DBRef;
 public class OrderItem {
     @DBRef
     private Product product;
-    private Double quantity;
-    private Double price;
+    private Quantity quantity;
+    // Price per kg charged for this line
+    private Money price;
+
+    // Copied from the product at checkout so order responses need not load it
+    private String productName;
+    private String category;
+    private String imageUrl;
 }
\ No newline at end of file
@@ -3,5 +3,25 @@ package com.server.Models;
 
 public enum OrderStatus {
     PENDING_PAYMENT, CONFIRMED, PREPARING, READY_FOR_PICKUP,
-    PICKED_UP, IN_TRANSIT, DELIVERED, CANCELLED
-}
\ No newline at end of file
+    PICKED_UP, IN_TRANSIT, DELIVERED, CANCELLED;
+
+    // Legal lifecycle moves; DELIVERED and CANCELLED are terminal
+    public boolean canTransitionTo(OrderStatus next) {
+        switch (this) {
+            case PENDING_PAYMENT:
+                return next == CONFIRMED || next == CANCELLED;
+            case CONFIRMED:
+                return next == PREPARING || next == CANCELLED;
+            case PREPARING:
+                return next == READY_FOR_PICKUP || next == CANCELLED;
+            case READY_FOR_PICKUP:
+                return next == PICKED_UP || next == CANCELLED;
+            case PICKED_UP:
+                return next == IN_TRANSIT || next == DELIVERED;
+            case IN_TRANSIT:
+                return next == DELIVERED;
+            default:
+                return false;
+        }
+    }
+}
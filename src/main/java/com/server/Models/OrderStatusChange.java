@@ -0,0 +1,19 @@
+package com.server.Models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusChange {
+    private OrderStatus fromStatus;
+    private OrderStatus toStatus;
+    // Null for system transitions such as payment confirmation
+    private String actorId;
+    private String actorRole;
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,23 @@
+package com.server.Models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A percentage off the base price between startsAt and endsAt. Discounts are never removed;
+ * withdrawing one sets cancelledAt so the history still shows it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceDiscount {
+    private String id;
+    private Double percentOff;
+    private LocalDateTime startsAt;
+    private LocalDateTime endsAt;
+    private LocalDateTime createdAt;
+    private LocalDateTime cancelledAt;
+}
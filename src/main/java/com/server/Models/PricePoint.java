@@ -0,0 +1,19 @@
+package com.server.Models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One base price change: the price per kg that applies from effectiveFrom until the next point.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PricePoint {
+    private Money pricePerKg;
+    private LocalDateTime effectiveFrom;
+    private LocalDateTime recordedAt;
+}
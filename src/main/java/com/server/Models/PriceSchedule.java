@@ -0,0 +1,37 @@
+package com.server.Models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Append-only price history of one product (id = product id): every base price it has had or
+ * is scheduled to have, and every discount. Product.pricePerKg mirrors whatever is effective now.
+ */
+@Document(collection = "price_schedules")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceSchedule {
+    @Id
+    private String id;
+
+    private String farmerId;
+
+    private List<PricePoint> basePrices;
+    private List<PriceDiscount> discounts;
+
+    // Nodes refresh their price table from schedules changed since their last pass
+    @Indexed(name = "updatedAt_idx")
+    private LocalDateTime updatedAt;
+
+    // When the effective price next changes; the sync job moves Product.pricePerKg at that point
+    @Indexed(name = "nextChangeAt_idx", sparse = true)
+    private LocalDateTime nextChangeAt;
+}
@@ -1,13 +1,28 @@
 package com.server.Models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.util.List;
+
 @Document(collection = "products")
+@CompoundIndexes({
+        // findByFarmerId queries the DBRef id
+        @CompoundIndex(name = "farmer_idx", def = "{'farmer.$id': 1}"),
+        @CompoundIndex(name = "category_price_idx", def = "{'category': 1, 'pricePerKg': 1}"),
+        // Category browsing sorted or filtered by rating
+        @CompoundIndex(name = "category_rating_idx", def = "{'category': 1, 'averageRating': -1}"),
+        // Keyword search: one segment of analysed keys per language
+        @CompoundIndex(name = "language_terms_idx", def = "{'language': 1, 'searchTerms': 1}")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -18,14 +33,34 @@ public class Product {
     @DBRef
     private User farmer;
 
+    @Indexed(name = "name_idx")
     private String name;
+
     private String category;
-    private Double pricePerKg;
-    private Double availableQuantity;
+
+    @Indexed(name = "price_idx")
+    private Money pricePerKg;
+
+    private Quantity availableQuantity;
     private String imageUrl;
     private String description;
     private String language = "en";
 
+    // Script-neutral keys of name, category and description, maintained by ProductSearchService
+    @JsonIgnore
+    private List<String> searchTerms;
+
+    // ProductTextAnalyzer.VERSION the keys were built with
+    @JsonIgnore
+    private Integer searchVersion;
+
+    // Maintained by RatingService; sum and count move together and the average is recomputed in the same write
+    private Long ratingSum;
+    private Integer ratingCount;
+
+    @Indexed(name = "averageRating_idx")
+    private Double averageRating;
+
     public void setDescription(String description) {
         this.description = description;
     }
@@ -0,0 +1,73 @@
+package com.server.Models;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * A weight held as a whole number of grams. Stored in Mongo as that long (see MongoConfig) and
+ * written to JSON in kilograms, which is the unit every client and form uses.
+ */
+public final class Quantity implements Comparable<Quantity> {
+
+    public static final Quantity ZERO = new Quantity(0);
+
+    private final long grams;
+
+    private Quantity(long grams) {
+        this.grams = grams;
+    }
+
+    public static Quantity ofGrams(long grams) {
+        return grams == 0 ? ZERO : new Quantity(grams);
+    }
+
+    // Kilograms from user input or a legacy double field, rounded half-up to the gram
+    public static Quantity ofKg(double kg) {
+        return ofGrams(BigDecimal.valueOf(kg).setScale(3, RoundingMode.HALF_UP).movePointRight(3).longValueExact());
+    }
+
+    @JsonCreator
+    public static Quantity ofKg(BigDecimal kg) {
+        return ofGrams(kg.setScale(3, RoundingMode.HALF_UP).movePointRight(3).longValueExact());
+    }
+
+    public long getGrams() {
+        return grams;
+    }
+
+    public boolean isPositive() {
+        return grams > 0;
+    }
+
+    public double toKg() {
+        return grams / 1000.0;
+    }
+
+    @JsonValue
+    public BigDecimal toDecimal() {
+        return BigDecimal.valueOf(grams, 3);
+    }
+
+    @Override
+    public int compareTo(Quantity other) {
+        return Long.compare(grams, other.grams);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Quantity && ((Quantity) other).grams == grams;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(grams);
+    }
+
+    @Override
+    public String toString() {
+        return toDecimal().stripTrailingZeros().toPlainString() + " kg";
+    }
+}
@@ -5,12 +5,21 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Document(collection = "ratings")
+@CompoundIndexes({
+        // One rating per order and consumer; the running totals rely on it
+        @CompoundIndex(name = "order_ratedBy_idx", def = "{'order.$id': 1, 'ratedBy.$id': 1}", unique = true),
+        // findByProductIdsOrderByCreatedAtDesc
+        @CompoundIndex(name = "productIds_createdAt_idx", def = "{'productIds': 1, 'createdAt': -1}")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -27,6 +36,11 @@ public class Rating {
     @DBRef
     private User ratedBy;
 
+    // Copied at rating time so reviews can be listed without resolving the DBRefs
+    private String ratedByName;
+    private List<String> productIds;
+    private List<String> farmerIds;
+
     @CreatedDate
     private LocalDateTime createdAt;
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.server.Models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * One refresh token of a sign-in session. Only the SHA-256 of the token is stored (id). Each
+ * refresh marks the token used and issues a new one in the same session; a used token presented
+ * again means a copy leaked, and the whole session is revoked.
+ */
+@Document(collection = "refresh_tokens")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshToken {
+    @Id
+    private String id;
+
+    @Indexed(name = "session_idx")
+    private String sessionId;
+
+    private String userEmail;
+
+    private LocalDateTime createdAt;
+
+    // MongoDB deletes the document once this passes
+    @Indexed(name = "refresh_expiry_ttl", expireAfter = "0s")
+    private LocalDateTime expiresAt;
+
+    // Set when the token is exchanged for a new one
+    private LocalDateTime usedAt;
+
+    private boolean revoked;
+}
@@ -0,0 +1,31 @@
+package com.server.Models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * A signed-out or compromised session (id = the "sid" claim of its access tokens). Kept until
+ * the last access token issued for the session has expired; every node mirrors the collection in
+ * memory so the auth filter never queries it.
+ */
+@Document(collection = "revoked_sessions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedSession {
+    @Id
+    private String id;
+
+    // Nodes poll for entries newer than their last sync
+    @Indexed(name = "revoked_at_idx")
+    private LocalDateTime revokedAt;
+
+    @Indexed(name = "revoked_expiry_ttl", expireAfter = "0s")
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,18 @@
+package com.server.Models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteStop {
+    private Integer sequence;
+    private String orderId;
+    // PICKUP at the farm or DROPOFF at the consumer
+    private String type;
+    private Double lat;
+    private Double lng;
+    private String address;
+}
@@ -0,0 +1,44 @@
+package com.server.Models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Revenue, quantity and order count for one farmer, category or product in one hour or day.
+ * The id is "granularity|bucketStartMillis|dimension|key" so the incremental path and the
+ * aggregation backfill address the same document.
+ */
+@Document(collection = "sales_rollups")
+@CompoundIndexes({
+        // Time series for a whole dimension
+        @CompoundIndex(name = "granularity_dimension_bucket_idx", def = "{'granularity': 1, 'dimension': 1, 'bucketStart': 1}"),
+        // Time series for one farmer / category / product
+        @CompoundIndex(name = "granularity_dimension_key_bucket_idx", def = "{'granularity': 1, 'dimension': 1, 'key': 1, 'bucketStart': 1}")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesRollup {
+    @Id
+    private String id;
+
+    // HOURLY or DAILY
+    private String granularity;
+    private LocalDateTime bucketStart;
+
+    // FARMER, CATEGORY or PRODUCT; key is the farmer/product id or the category name
+    private String dimension;
+    private String key;
+    private String label;
+
+    private Double revenue;
+    private Double quantity;
+    private Integer orderCount;
+}
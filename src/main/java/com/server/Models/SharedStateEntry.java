@@ -0,0 +1,31 @@
+package com.server.Models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the shared key-value store (id = namespace + ":" + key). Holds either a value or a
+ * counter. The TTL monitor only runs about once a minute, so readers also ignore entries whose
+ * expiresAt has passed.
+ */
+@Document(collection = "shared_state")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SharedStateEntry {
+    @Id
+    private String id;
+
+    private String value;
+
+    private Long count;
+
+    @Indexed(name = "shared_state_expiry_ttl", expireAfter = "0s")
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,40 @@
+package com.server.Models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * A JWT signing key pair (id = the "kid" header of tokens it signs). Generations are unique per
+ * algorithm, so when several nodes rotate at once only one new key is created.
+ */
+@Document(collection = "signing_keys")
+@CompoundIndex(name = "algorithm_generation_idx", def = "{'algorithm': 1, 'generation': 1}", unique = true)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SigningKey {
+    @Id
+    private String id;
+
+    // ES256 or EdDSA
+    private String algorithm;
+
+    private Long generation;
+
+    // X.509, base64
+    private String publicKey;
+
+    // PKCS#8, AES-GCM encrypted with a key derived from jwt.secret, base64 (IV first)
+    private String privateKey;
+
+    private LocalDateTime createdAt;
+
+    // Published in the JWKS from creation, used for signing from this time on
+    private LocalDateTime activatesAt;
+}
@@ -1,10 +1,12 @@
 package com.server.Models;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -18,12 +20,27 @@ public class User {
     private String id;
 
     private String name;
+
+    // findByEmail runs on every authenticated request
+    @Indexed(name = "email_idx", unique = true)
     private String email;
+
+    // Accepted on registration, never written out
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String password;
     private Role role;
     private String phone;
     private String address;
 
+    // Farm pickup point for farmers, default drop-off point for consumers
+    private Double locationLat;
+    private Double locationLng;
+
+    // Farmer score maintained by RatingService
+    private Long ratingSum;
+    private Integer ratingCount;
+    private Double averageRating;
+
     @CreatedDate
     private LocalDateTime createdAt;
 
@@ -93,6 +110,46 @@ public class User {
         this.address = address;
     }
 
+    public Double getLocationLat() {
+        return locationLat;
+    }
+
+    public void setLocationLat(Double locationLat) {
+        this.locationLat = locationLat;
+    }
+
+    public Double getLocationLng() {
+        return locationLng;
+    }
+
+    public void setLocationLng(Double locationLng) {
+        this.locationLng = locationLng;
+    }
+
+    public Long getRatingSum() {
+        return ratingSum;
+    }
+
+    public void setRatingSum(Long ratingSum) {
+        this.ratingSum = ratingSum;
+    }
+
+    public Integer getRatingCount() {
+        return ratingCount;
+    }
+
+    public void setRatingCount(Integer ratingCount) {
+        this.ratingCount = ratingCount;
+    }
+
+    public Double getAverageRating() {
+        return averageRating;
+    }
+
+    public void setAverageRating(Double averageRating) {
+        this.averageRating = averageRating;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,26 @@
+package com.server.Models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Counter bumped on every write to a data set (id = data set name, e.g. "catalog"). Responses
+ * built from that data set use the value in their ETag.
+ */
+@Document(collection = "version_stamps")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VersionStamp {
+    @Id
+    private String id;
+
+    private Long value;
+
+    private LocalDateTime updatedAt;
+}
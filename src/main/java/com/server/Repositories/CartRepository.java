@@ -0,0 +1,9 @@
+package com.server.Repositories;
+
+import com.server.Models.Cart;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CartRepository extends MongoRepository<Cart, String> {
+}
@@ -0,0 +1,20 @@
+package com.server.Repositories;
+
+import com.server.Models.DeliveryPartner;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DeliveryPartnerRepository extends MongoRepository<DeliveryPartner, String> {
+    Optional<DeliveryPartner> findByUserId(String userId);
+
+    // Served by the 2dsphere index, results come back nearest first
+    List<DeliveryPartner> findByIsAvailableTrueAndLocationNear(Point point, Distance maxDistance);
+
+    List<DeliveryPartner> findByIsAvailableTrueAndLocationIsNotNull();
+}
@@ -0,0 +1,12 @@
+package com.server.Repositories;
+
+import com.server.Models.DeliveryRoute;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface DeliveryRouteRepository extends MongoRepository<DeliveryRoute, String> {
+    Optional<DeliveryRoute> findFirstByDeliveryPartnerIdOrderByCreatedAtDesc(String deliveryPartnerId);
+}
@@ -1,13 +1,23 @@
 package com.server.Repositories;
 
 import com.server.Models.Order;
+import com.server.Models.OrderStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface OrderRepository extends MongoRepository<Order, String> {
     List<Order> findByConsumerIdOrderByOrderDateDesc(String consumerId);
     List<Order> findByStatus(String status);
+
+    // Oldest first so long-waiting pickups are matched before new ones
+    List<Order> findByStatusAndDeliveryPartnerIsNullOrderByOrderDateAsc(OrderStatus status, Pageable pageable);
+
+    List<Order> findByDeliveryPartnerIdOrderByOrderDateDesc(String deliveryPartnerUserId);
+
+    long countByDeliveryPartnerIdAndStatusIn(String deliveryPartnerUserId, Collection<OrderStatus> statuses);
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.server.Repositories;
+
+import com.server.Models.PriceSchedule;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PriceScheduleRepository extends MongoRepository<PriceSchedule, String> {
+    List<PriceSchedule> findByUpdatedAtAfter(LocalDateTime since);
+    List<PriceSchedule> findByNextChangeAtLessThanEqual(LocalDateTime now);
+}
@@ -1,12 +1,16 @@
 package com.server.Repositories;
 
+import com.server.Models.Money;
 import com.server.Models.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.query.TextCriteria;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -16,14 +20,17 @@ public interface ProductRepository extends MongoRepository<Product, String> {
 
     // Search methods
     Page<Product> findByCategory(String category, Pageable pageable);
-    Page<Product> findByPricePerKgBetween(Double minPrice, Double maxPrice, Pageable pageable);
-    Page<Product> findByPricePerKgGreaterThanEqual(Double minPrice, Pageable pageable);
-    Page<Product> findByPricePerKgLessThanEqual(Double maxPrice, Pageable pageable);
-    Page<Product> findByCategoryAndPricePerKgBetween(String category, Double minPrice, Double maxPrice, Pageable pageable);
-    Page<Product> findByCategoryAndPricePerKgGreaterThanEqual(String category, Double minPrice, Pageable pageable);
-    Page<Product> findByCategoryAndPricePerKgLessThanEqual(String category, Double maxPrice, Pageable pageable);
-
-    // Text search
+    Page<Product> findByPricePerKgBetween(Money minPrice, Money maxPrice, Pageable pageable);
+    Page<Product> findByPricePerKgGreaterThanEqual(Money minPrice, Pageable pageable);
+    Page<Product> findByPricePerKgLessThanEqual(Money maxPrice, Pageable pageable);
+    Page<Product> findByCategoryAndPricePerKgBetween(String category, Money minPrice, Money maxPrice, Pageable pageable);
+    Page<Product> findByCategoryAndPricePerKgGreaterThanEqual(String category, Money minPrice, Pageable pageable);
+    Page<Product> findByCategoryAndPricePerKgLessThanEqual(String category, Money maxPrice, Pageable pageable);
+
+    // Full-text search backed by product_text_idx (see MongoIndexCatalog)
+    Page<Product> findAllBy(TextCriteria criteria, Pageable pageable);
+
+    // Regex search, kept for stores without text index support
     @Query("{ '$or': [ { 'name': { '$regex': ?0, '$options': 'i' } }, { 'description': { '$regex': ?1, '$options': 'i' } } ] }")
     Page<Product> findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCase(String name, String description, Pageable pageable);
 
@@ -31,6 +38,20 @@ public interface ProductRepository extends MongoRepository<Product, String> {
     @Query(value = "{}", fields = "{'category' : 1}")
     List<Product> findDistinctCategoriesProjected();
 
+    // Atomic stock reservation: only matches while enough quantity is left, returns the number of documents updated
+    @Query("{ '_id': ?0, 'availableQuantity': { '$gte': ?1 } }")
+    @Update("{ '$inc': { 'availableQuantity': ?2 } }")
+    long decrementAvailableQuantity(String productId, long grams, long negatedGrams);
+
+    @Query("{ '_id': ?0 }")
+    @Update("{ '$inc': { 'availableQuantity': ?1 } }")
+    long incrementAvailableQuantity(String productId, long grams);
+
+    // Sum, count and average in one pipeline update (see RatingScorePipeline)
+    @Query("{ '_id': { '$in': ?0 } }")
+    @Update(pipeline = { RatingScorePipeline.ADD_TO_TOTALS, RatingScorePipeline.RECOMPUTE_AVERAGE })
+    long addRating(Collection<String> productIds, int rating);
+
     // Alternative method using aggregation
     @Query(value = "{}", sort = "{'category' : 1}")
     List<Product> findAllGroupedByCategory();
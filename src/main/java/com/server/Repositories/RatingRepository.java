@@ -0,0 +1,18 @@
+package com.server.Repositories;
+
+import com.server.Models.Rating;
+import com.server.dto.RatingSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RatingRepository extends MongoRepository<Rating, String> {
+
+    // Reads only what a review listing shows, so orders and users are never loaded
+    @Query(value = "{ 'productIds': ?0 }", fields = "{ 'rating': 1, 'review': 1, 'ratedByName': 1, 'createdAt': 1 }",
+            sort = "{ 'createdAt': -1 }")
+    Page<RatingSummary> findByProductIdsOrderByCreatedAtDesc(String productId, Pageable pageable);
+}
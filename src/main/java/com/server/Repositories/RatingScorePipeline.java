@@ -0,0 +1,20 @@
+package com.server.Repositories;
+
+/**
+ * The update pipeline behind ProductRepository.addRating and UserRepository.addRating. It folds
+ * one rating (?1) into ratingSum and ratingCount, then recomputes averageRating from them in the
+ * same write, so the three can never disagree. $addFields is $set under its older name; spelled
+ * this way the stages also run as an aggregation, which is how the tests check the arithmetic.
+ */
+public final class RatingScorePipeline {
+
+    public static final String ADD_TO_TOTALS = "{ '$addFields': { "
+            + "'ratingSum': { '$add': [ { '$ifNull': [ '$ratingSum', 0 ] }, ?1 ] }, "
+            + "'ratingCount': { '$add': [ { '$ifNull': [ '$ratingCount', 0 ] }, 1 ] } } }";
+
+    public static final String RECOMPUTE_AVERAGE = "{ '$addFields': { "
+            + "'averageRating': { '$divide': [ '$ratingSum', '$ratingCount' ] } } }";
+
+    private RatingScorePipeline() {
+    }
+}
@@ -0,0 +1,17 @@
+package com.server.Repositories;
+
+import com.server.Models.SalesRollup;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SalesRollupRepository extends MongoRepository<SalesRollup, String> {
+    List<SalesRollup> findByGranularityAndDimensionAndBucketStartBetweenOrderByBucketStartAsc(
+            String granularity, String dimension, LocalDateTime from, LocalDateTime to);
+
+    List<SalesRollup> findByGranularityAndDimensionAndKeyAndBucketStartBetweenOrderByBucketStartAsc(
+            String granularity, String dimension, String key, LocalDateTime from, LocalDateTime to);
+}
@@ -2,12 +2,20 @@ package com.server.Repositories;
 
 import com.server.Models.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends MongoRepository<User, String> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+
+    // Sum, count and average in one pipeline update (see RatingScorePipeline)
+    @Query("{ '_id': { '$in': ?0 } }")
+    @Update(pipeline = { RatingScorePipeline.ADD_TO_TOTALS, RatingScorePipeline.RECOMPUTE_AVERAGE })
+    long addRating(Collection<String> farmerIds, int rating);
 }
\ No newline at end of file
@@ -0,0 +1,93 @@
+package com.server.config;
+
+import com.server.Models.Money;
+import com.server.Models.Quantity;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+import java.util.List;
+
+/**
+ * Money is stored as a long of paise and Quantity as a long of grams. Documents written before
+ * that change hold doubles in rupees and kilograms; those are still readable (the BSON type
+ * tells the two apart) until MoneyMigrationService has rewritten them.
+ */
+@Configuration
+public class MongoConfig {
+
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(List.of(
+                new MoneyWriter(), new MoneyReader(), new MoneyIntReader(), new LegacyMoneyReader(),
+                new QuantityWriter(), new QuantityReader(), new QuantityIntReader(), new LegacyQuantityReader()));
+    }
+
+    @WritingConverter
+    static class MoneyWriter implements Converter<Money, Long> {
+        @Override
+        public Long convert(Money source) {
+            return source.getMinorUnits();
+        }
+    }
+
+    @ReadingConverter
+    static class MoneyReader implements Converter<Long, Money> {
+        @Override
+        public Money convert(Long source) {
+            return Money.ofMinor(source);
+        }
+    }
+
+    // Values edited by hand in the shell are often int32
+    @ReadingConverter
+    static class MoneyIntReader implements Converter<Integer, Money> {
+        @Override
+        public Money convert(Integer source) {
+            return Money.ofMinor(source);
+        }
+    }
+
+    @ReadingConverter
+    static class LegacyMoneyReader implements Converter<Double, Money> {
+        @Override
+        public Money convert(Double source) {
+            return Money.ofMajor(source);
+        }
+    }
+
+    @WritingConverter
+    static class QuantityWriter implements Converter<Quantity, Long> {
+        @Override
+        public Long convert(Quantity source) {
+            return source.getGrams();
+        }
+    }
+
+    @ReadingConverter
+    static class QuantityReader implements Converter<Long, Quantity> {
+        @Override
+        public Quantity convert(Long source) {
+            return Quantity.ofGrams(source);
+        }
+    }
+
+    @ReadingConverter
+    static class QuantityIntReader implements Converter<Integer, Quantity> {
+        @Override
+        public Quantity convert(Integer source) {
+            return Quantity.ofGrams(source);
+        }
+    }
+
+    @ReadingConverter
+    static class LegacyQuantityReader implements Converter<Double, Quantity> {
+        @Override
+        public Quantity convert(Double source) {
+            return Quantity.ofKg(source);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.server.config;
+
+import com.server.Models.DeliveryPartner;
+import com.server.Models.DeliveryRoute;
+import com.server.Models.Order;
+import com.server.Models.PriceSchedule;
+import com.server.Models.Product;
+import com.server.Models.Rating;
+import com.server.Models.RefreshToken;
+import com.server.Models.RevokedSession;
+import com.server.Models.SalesRollup;
+import com.server.Models.SharedStateEntry;
+import com.server.Models.SigningKey;
+import com.server.Models.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Every index the repositories rely on, keyed by collection.
+ * Most come from the @Indexed/@CompoundIndex annotations on the models; indexes that cannot be
+ * expressed as annotations are declared here and created by IndexVerificationService.
+ */
+@Component
+public class MongoIndexCatalog {
+
+    // Entities whose repository queries must be index-backed
+    private static final List<Class<?>> INDEXED_ENTITIES = List.of(
+            User.class, Product.class, Order.class, DeliveryPartner.class, DeliveryRoute.class, Rating.class,
+            SalesRollup.class, PriceSchedule.class, RefreshToken.class, RevokedSession.class,
+            SigningKey.class, SharedStateEntry.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // The text index is only kept when keyword search uses it
+    @Value("${product.search.text-index:false}")
+    private boolean textIndex;
+
+    /**
+     * Indexes that annotations cannot express. The product text index points its language override
+     * at a field that never exists, otherwise MongoDB would read Product.language ("hi", "or", ...)
+     * and reject inserts for languages it cannot stem.
+     */
+    public Map<Class<?>, List<IndexDefinition>> programmaticIndexes() {
+        Map<Class<?>, List<IndexDefinition>> indexes = new LinkedHashMap<>();
+        if (!textIndex) {
+            return indexes;
+        }
+        indexes.put(Product.class, List.of(
+                new TextIndexDefinition.TextIndexDefinitionBuilder()
+                        .named("product_text_idx")
+                        .onField("name", 3F)
+                        .onField("description")
+                        .withDefaultLanguage("none")
+                        .withLanguageOverride("textSearchLanguage")
+                        .build()));
+        return indexes;
+    }
+
+    public Map<Class<?>, List<IndexDefinition>> declaredIndexes() {
+        IndexResolver resolver = IndexResolver.create(mongoTemplate.getConverter().getMappingContext());
+        Map<Class<?>, List<IndexDefinition>> programmatic = programmaticIndexes();
+
+        Map<Class<?>, List<IndexDefinition>> declared = new LinkedHashMap<>();
+        for (Class<?> entity : INDEXED_ENTITIES) {
+            List<IndexDefinition> indexes = new ArrayList<>();
+            resolver.resolveIndexFor(entity).forEach(indexes::add);
+            indexes.addAll(programmatic.getOrDefault(entity, List.of()));
+            declared.put(entity, indexes);
+        }
+        return declared;
+    }
+
+    public String collectionName(Class<?> entity) {
+        return mongoTemplate.getCollectionName(entity);
+    }
+}
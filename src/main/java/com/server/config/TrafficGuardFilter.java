@@ -0,0 +1,83 @@
+package com.server.config;
+
+import com.server.services.TrafficGuardService;
+import com.server.utils.ConcurrencyLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Applies {@link TrafficGuardService} limits ahead of authentication, so rejected requests never
+ * reach token parsing, BCrypt or the database. Too many requests from one IP get 429; a full
+ * concurrency limit gets 503. Both carry Retry-After.
+ */
+public class TrafficGuardFilter extends OncePerRequestFilter {
+
+    private final TrafficGuardService trafficGuardService;
+
+    public TrafficGuardFilter(TrafficGuardService trafficGuardService) {
+        this.trafficGuardService = trafficGuardService;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !trafficGuardService.isEnabled() || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI();
+        long retryAfter = trafficGuardService.checkIp(request.getRemoteAddr(), path.startsWith("/api/auth/"));
+        if (retryAfter > 0) {
+            reject(response, 429, retryAfter, "Too many requests, try again later");
+            return;
+        }
+
+        String kind = concurrencyKind(request.getMethod(), path);
+        ConcurrencyLimiter limiter = kind != null ? trafficGuardService.concurrency(kind) : null;
+        if (limiter == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!limiter.tryEnter()) {
+            reject(response, 503, 1, "Server is busy, try again shortly");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            limiter.exit();
+        }
+    }
+
+    // Endpoints that cost a core (BCrypt), an upload stream or a multi-document write each
+    private static String concurrencyKind(String method, String path) {
+        if ("POST".equals(method) && path.equals("/api/auth/login")) {
+            return TrafficGuardService.LOGIN;
+        }
+        // Product create and edit (multipart, with image) and bulk import
+        if ("POST".equals(method) && (path.equals("/api/farmer/products") || path.equals("/api/farmer/products/bulk"))
+                || "PUT".equals(method) && path.startsWith("/api/farmer/products/")) {
+            return TrafficGuardService.UPLOAD;
+        }
+        if ("POST".equals(method) && (path.equals("/api/consumer/cart/checkout") || path.equals("/api/consumer/orders"))) {
+            return TrafficGuardService.CHECKOUT;
+        }
+        return null;
+    }
+
+    private static void reject(HttpServletResponse response, int status, long retryAfterSeconds, String message)
+            throws IOException {
+        response.setStatus(status);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"" + message + "\"}");
+    }
+}
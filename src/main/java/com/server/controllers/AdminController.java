@@ -0,0 +1,218 @@
+package com.server.controllers;
+
+import com.server.Models.DeliveryRoute;
+import com.server.services.AnalyticsService;
+import com.server.services.DispatchService;
+import com.server.services.IndexVerificationService;
+import com.server.services.RatingService;
+import com.server.services.RoutePlanningService;
+import com.server.services.SigningKeyService;
+import com.server.services.TokenRevocationService;
+import com.server.services.TrafficGuardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin")
+@CrossOrigin(origins = "*")
+public class AdminController {
+
+    @Autowired
+    private IndexVerificationService indexVerificationService;
+
+    @Autowired
+    private DispatchService dispatchService;
+
+    @Autowired
+    private RoutePlanningService routePlanningService;
+
+    @Autowired
+    private RatingService ratingService;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private TrafficGuardService trafficGuardService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private SigningKeyService signingKeyService;
+
+    // Declared vs actual indexes per collection, plus collection-scan query shapes from the profiler
+    @GetMapping("/indexes")
+    public ResponseEntity<?> verifyIndexes() {
+        try {
+            return ResponseEntity.ok(indexVerificationService.verify());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage())
+            );
+        }
+    }
+
+    @PostMapping("/indexes/ensure")
+    public ResponseEntity<?> ensureIndexes() {
+        try {
+            List<String> indexes = indexVerificationService.ensureAllIndexes();
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Declared indexes ensured");
+            response.put("indexes", indexes);
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage())
+            );
+        }
+    }
+
+    // Runs a dispatch round now instead of waiting for the scheduler
+    @PostMapping("/dispatch/run")
+    public ResponseEntity<?> runDispatch() {
+        try {
+            List<Map<String, Object>> assignments = dispatchService.assignReadyOrders();
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Dispatch round completed");
+            response.put("assigned", assignments.size());
+            response.put("assignments", assignments);
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage())
+            );
+        }
+    }
+
+    // Runs a batched route planning round now instead of waiting for the scheduler
+    @PostMapping("/dispatch/plan-routes")
+    public ResponseEntity<?> planRoutes() {
+        try {
+            List<DeliveryRoute> routes = routePlanningService.planRoutes();
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Route planning round completed");
+            response.put("trips", routes.size());
+            response.put("orders", routes.stream().mapToInt(r -> r.getOrderIds().size()).sum());
+            response.put("routes", routes);
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage())
+            );
+        }
+    }
+
+    // Rebuilds product and farmer rating scores from the ratings collection
+    @PostMapping("/ratings/recompute")
+    public ResponseEntity<?> recomputeRatings() {
+        try {
+            Map<String, Object> response = new HashMap<>(ratingService.recomputeScores());
+            response.put("message", "Rating scores recomputed");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage())
+            );
+        }
+    }
+
+    // Sales time series from the rollups, e.g. ?granularity=DAILY&dimension=CATEGORY&from=2024-01-01&to=2024-01-31
+    @GetMapping("/analytics/sales")
+    public ResponseEntity<?> getSales(
+            @RequestParam(defaultValue = "DAILY") String granularity,
+            @RequestParam String dimension,
+            @RequestParam(required = false) String key,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        try {
+            return ResponseEntity.ok(analyticsService.getSeries(
+                    granularity.toUpperCase(), dimension.toUpperCase(), key, from, to));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage())
+            );
+        }
+    }
+
+    // Best-selling farmers, categories or products over a date range
+    @GetMapping("/analytics/top")
+    public ResponseEntity<?> getTopSellers(
+            @RequestParam String dimension,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        try {
+            return ResponseEntity.ok(analyticsService.getTop(dimension.toUpperCase(), from, to, limit));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage())
+            );
+        }
+    }
+
+    // Rebuilds rollups for whole days from the orders collection
+    @PostMapping("/analytics/backfill")
+    public ResponseEntity<?> backfillAnalytics(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        try {
+            Map<String, Object> response = new HashMap<>(analyticsService.backfill(from, to));
+            response.put("message", "Sales rollups rebuilt");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage())
+            );
+        }
+    }
+
+    // Rate limit and load shedding decisions since startup, and requests in flight per limit
+    @GetMapping("/traffic")
+    public ResponseEntity<?> trafficMetrics() {
+        return ResponseEntity.ok(trafficGuardService.metrics());
+    }
+
+    // Size of this node's in-memory revocation list and when it last synced
+    @GetMapping("/sessions/revocations")
+    public ResponseEntity<?> revocationStats() {
+        return ResponseEntity.ok(tokenRevocationService.stats());
+    }
+
+    // Starts the next JWT signing key early (suspected compromise); it signs after the prepublish window
+    @PostMapping("/signing-keys/rotate")
+    public ResponseEntity<?> rotateSigningKey() {
+        try {
+            if (!signingKeyService.isAsymmetric()) {
+                throw new RuntimeException("Tokens are HMAC-signed; set jwt.signing.algorithm to ES256 or EdDSA");
+            }
+            signingKeyService.rotate();
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Next signing key created");
+            response.put("keys", signingKeyService.jwks());
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage())
+            );
+        }
+    }
+}
@@ -3,7 +3,12 @@ package com.server.controllers;
 import com.server.Models.User;
 import com.server.Models.Role;
 import com.server.services.AuthService;
+import com.server.services.PasswordHashingService;
+import com.server.services.TokenService;
+import com.server.services.TrafficGuardService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -18,6 +23,12 @@ public class AuthController {
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private TrafficGuardService trafficGuardService;
+
+    @Autowired
+    private TokenService tokenService;
+
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody User user) {
         try {
@@ -29,6 +40,10 @@ public class AuthController {
             response.put("userId", registeredUser.getId());
 
             return ResponseEntity.ok(response);
+        } catch (PasswordHashingService.BusyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(
                     Map.of("error", e.getMessage())
@@ -38,21 +53,80 @@ public class AuthController {
 
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest) {
+        // Checked before the password so guessing against one account costs the guesser, not our CPU;
+        // only failed logins count, so the owner signing in never uses up tries
+        long retryAfter = trafficGuardService.checkLoginAccount(loginRequest.getEmail());
+        if (retryAfter > 0) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                    .body(Map.of("error", "Too many login attempts for this account, try again later"));
+        }
         try {
-            String token = authService.login(loginRequest.getEmail(), loginRequest.getPassword());
+            TokenService.Tokens tokens = authService.login(loginRequest.getEmail(), loginRequest.getPassword());
 
-            Map<String, String> response = new HashMap<>();
+            Map<String, Object> response = tokenResponse(tokens);
             response.put("message", "Login successful");
-            response.put("token", token);
-            response.put("tokenType", "Bearer");
+
+            return ResponseEntity.ok(response);
+        } catch (AuthService.InvalidCredentialsException e) {
+            trafficGuardService.recordLoginFailure(loginRequest.getEmail());
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage())
+            );
+        } catch (PasswordHashingService.BusyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage())
+            );
+        }
+    }
+
+    // Exchanges a refresh token for a new access token and a new refresh token
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody RefreshRequest refreshRequest) {
+        try {
+            Map<String, Object> response = tokenResponse(tokenService.refresh(refreshRequest.getRefreshToken()));
+            response.put("message", "Token refreshed");
 
             return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
+                    Map.of("error", e.getMessage())
+            );
+        }
+    }
+
+    // Revokes the session on every node; its access tokens stop working within a sync interval
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestBody RefreshRequest refreshRequest) {
+        try {
+            tokenService.logout(refreshRequest.getRefreshToken());
+            return ResponseEntity.ok(Map.of("message", "Logged out"));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(
                     Map.of("error", e.getMessage())
             );
         }
     }
+
+    private static Map<String, Object> tokenResponse(TokenService.Tokens tokens) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("token", tokens.getAccessToken());
+        response.put("tokenType", "Bearer");
+        response.put("expiresIn", tokens.getExpiresIn());
+        response.put("refreshToken", tokens.getRefreshToken());
+        return response;
+    }
+}
+
+class RefreshRequest {
+    private String refreshToken;
+
+    public String getRefreshToken() { return refreshToken; }
+    public void setRefreshToken(String refreshToken) { this.refreshToken = refreshToken; }
 }
 
 class LoginRequest {
@@ -1,21 +1,45 @@
 package com.server.controllers;
 
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.server.Models.Cart;
 import com.server.Models.Order;
-import com.server.Models.Product;
+import com.server.Models.Rating;
+import com.server.dto.OrderSummary;
+import com.server.dto.ProductPage;
+import com.server.dto.ProductSummary;
+import com.server.dto.RatingSummary;
+import com.server.services.CartService;
+import com.server.services.IdempotencyService;
+import com.server.services.LocationIngestionService;
 import com.server.services.OrderService;
+import com.server.services.OrderTrackingBroadcaster;
 import com.server.services.ProductService;
+import com.server.services.ProductSuggestService;
+import com.server.services.RatingService;
 import com.server.services.MockPaymentService;
+import com.server.services.VersionStampService;
+import com.server.utils.FieldSelection;
+import com.server.utils.HttpCaching;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/consumer")
@@ -31,34 +55,123 @@ public class ConsumerController {
     @Autowired
     private MockPaymentService mockPaymentService;
 
+    @Autowired
+    private LocationIngestionService locationIngestionService;
+
+    @Autowired
+    private OrderTrackingBroadcaster orderTrackingBroadcaster;
+
+    @Autowired
+    private RatingService ratingService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private ProductSuggestService productSuggestService;
+
+    @Autowired
+    private VersionStampService versionStampService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    // How long browsers may reuse catalog responses before revalidating with their ETag
+    @Value("${http.cache.catalog-max-age-seconds:30}")
+    private long catalogMaxAge;
+
+    @Value("${http.cache.categories-max-age-seconds:300}")
+    private long categoriesMaxAge;
+
+    @Value("${http.cache.suggest-max-age-seconds:60}")
+    private long suggestMaxAge;
+
     @GetMapping("/products")
     public ResponseEntity<?> browseProducts(
             @RequestParam(required = false) String category,
             @RequestParam(required = false) Double minPrice,
             @RequestParam(required = false) Double maxPrice,
             @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) Double minRating,
+            @RequestParam(required = false) String language,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "name") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortDir) {
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(required = false) String fields,
+            WebRequest request) {
 
         try {
+            // Sparse fieldset, e.g. fields=name,pricePerKg,imageUrl for a grid; id is always included
+            Set<String> selected = FieldSelection.parse(fields, ProductSummary.PROPERTIES);
+
             Sort sort = sortDir.equalsIgnoreCase("desc")
                     ? Sort.by(sortBy).descending()
                     : Sort.by(sortBy).ascending();
 
             Pageable pageable = PageRequest.of(page, size, sort);
 
-            Page<Product> products = productService.searchProducts(
-                    category, minPrice, maxPrice, keyword, pageable);
+            String etag = HttpCaching.etag("products", versionStampService.current(VersionStampService.CATALOG),
+                    category, minPrice, maxPrice, keyword, minRating, language, page, size, sortBy, sortDir, selected);
+            return HttpCaching.conditional(request, etag, catalogCaching(catalogMaxAge), () -> {
+                // sortBy=averageRating sorts on the maintained score; unrated products sort last when descending
+                ProductPage products = ProductPage.of(productService.browseProducts(
+                        category, minPrice, maxPrice, keyword, language, minRating, selected, pageable));
+                if (selected == null) {
+                    return products;
+                }
+                Set<String> written = new HashSet<>(selected);
+                written.add("id");
+                MappingJacksonValue body = new MappingJacksonValue(products);
+                body.setFilters(new SimpleFilterProvider().addFilter(ProductSummary.FILTER,
+                        SimpleBeanPropertyFilter.filterOutAllExcept(written)));
+                return body;
+            });
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage())
+            );
+        }
+    }
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("products", products.getContent());
-            response.put("currentPage", products.getNumber());
-            response.put("totalItems", products.getTotalElements());
-            response.put("totalPages", products.getTotalPages());
+    @GetMapping("/products/{productId}/ratings")
+    public ResponseEntity<?> getProductRatings(
+            @PathVariable String productId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest request) {
 
-            return ResponseEntity.ok(response);
+        try {
+            // Every new rating bumps the catalog stamp along with the product's score
+            String etag = HttpCaching.etag("ratings", versionStampService.current(VersionStampService.CATALOG),
+                    productId, page, size);
+            return HttpCaching.conditional(request, etag, catalogCaching(catalogMaxAge), () -> {
+                Page<RatingSummary> ratings = ratingService.getProductRatings(productId, PageRequest.of(page, size));
+
+                Map<String, Object> response = new HashMap<>();
+                response.put("ratings", ratings.getContent());
+                response.put("currentPage", ratings.getNumber());
+                response.put("totalItems", ratings.getTotalElements());
+                response.put("totalPages", ratings.getTotalPages());
+                return response;
+            });
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage())
+            );
+        }
+    }
+
+    // Autocomplete for the search box; debounceMs and minChars tell the client how often to ask.
+    // No ETag: each node answers from its own trie, so only a short max-age is safe
+    @GetMapping("/products/suggest")
+    public ResponseEntity<?> suggestProducts(
+            @RequestParam(value = "q", required = false) String query,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok()
+                    .cacheControl(catalogCaching(suggestMaxAge))
+                    .body(productSuggestService.suggest(query, limit));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(
                     Map.of("error", e.getMessage())
@@ -67,10 +180,11 @@ public class ConsumerController {
     }
 
     @GetMapping("/products/categories")
-    public ResponseEntity<?> getCategories() {
+    public ResponseEntity<?> getCategories(WebRequest request) {
         try {
-            List<String> categories = productService.getAllCategories();
-            return ResponseEntity.ok(categories);
+            String etag = HttpCaching.etag("categories", versionStampService.current(VersionStampService.CATALOG));
+            return HttpCaching.conditional(request, etag, catalogCaching(categoriesMaxAge),
+                    productService::getAllCategories);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(
                     Map.of("error", e.getMessage())
@@ -78,18 +192,111 @@ public class ConsumerController {
         }
     }
 
+    // Retries that repeat the Idempotency-Key get the first order back instead of a new one
     @PostMapping("/orders")
-    public ResponseEntity<?> placeOrder(@RequestBody PlaceOrderRequest request) {
+    public ResponseEntity<?> placeOrder(
+            @RequestBody PlaceOrderRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
         try {
-            Order order = orderService.createOrder(request.getItems(), request.getDeliveryAddress());
+            return idempotencyService.execute("orders", idempotencyKey, request, () -> {
+                try {
+                    return orderCreated(orderService.createOrder(request.getItems(), request.getDeliveryAddress()));
+                } catch (Exception e) {
+                    return ResponseEntity.badRequest().body(
+                            Map.of("error", e.getMessage())
+                    );
+                }
+            });
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage())
+            );
+        }
+    }
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("message", "Order created successfully");
-            response.put("order", order);
-            response.put("mockOrderId", order.getRazorpayOrderId());
-            response.put("paymentInstructions", "Use any payment ID starting with 'mock_pay_' for testing");
+    private ResponseEntity<?> orderCreated(Order order) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Order created successfully");
+        response.put("order", OrderSummary.of(order));
+        response.put("mockOrderId", order.getRazorpayOrderId());
+        response.put("paymentInstructions", "Use any payment ID starting with 'mock_pay_' for testing");
 
-            return ResponseEntity.ok(response);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/cart")
+    public ResponseEntity<?> getCart() {
+        try {
+            return ResponseEntity.ok(cartService.getMyCart());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage())
+            );
+        }
+    }
+
+    // Sets the line's quantity; 0 removes it
+    @PutMapping("/cart/items/{productId}")
+    public ResponseEntity<?> setCartItem(@PathVariable String productId, @RequestBody CartItemRequest request) {
+        try {
+            Cart cart = cartService.setQuantity(productId, request.getQuantity());
+            return ResponseEntity.ok(cart);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage())
+            );
+        }
+    }
+
+    // Adds to the line's quantity
+    @PostMapping("/cart/items/{productId}")
+    public ResponseEntity<?> addCartItem(@PathVariable String productId, @RequestBody CartItemRequest request) {
+        try {
+            Cart cart = cartService.addQuantity(productId, request.getQuantity());
+            return ResponseEntity.ok(cart);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage())
+            );
+        }
+    }
+
+    @DeleteMapping("/cart/items/{productId}")
+    public ResponseEntity<?> removeCartItem(@PathVariable String productId) {
+        try {
+            return ResponseEntity.ok(cartService.removeLine(productId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage())
+            );
+        }
+    }
+
+    @DeleteMapping("/cart")
+    public ResponseEntity<?> clearCart() {
+        try {
+            return ResponseEntity.ok(cartService.clearMyCart());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage())
+            );
+        }
+    }
+
+    @PostMapping("/cart/checkout")
+    public ResponseEntity<?> checkoutCart(
+            @RequestBody CheckoutRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        try {
+            return idempotencyService.execute("checkout", idempotencyKey, request, () -> {
+                try {
+                    return orderCreated(orderService.checkoutCart(request.getDeliveryAddress()));
+                } catch (Exception e) {
+                    return ResponseEntity.badRequest().body(
+                            Map.of("error", e.getMessage())
+                    );
+                }
+            });
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(
                     Map.of("error", e.getMessage())
@@ -122,11 +329,13 @@ public class ConsumerController {
         }
     }
 
+    // Orders change with delivery progress, so clients revalidate every time; a 304 skips loading them
     @GetMapping("/orders")
-    public ResponseEntity<?> getMyOrders() {
+    public ResponseEntity<?> getMyOrders(WebRequest request) {
         try {
-            List<Order> orders = orderService.getMyOrders();
-            return ResponseEntity.ok(orders);
+            String etag = HttpCaching.etag("orders", orderService.getMyOrdersVersion());
+            return HttpCaching.conditional(request, etag, CacheControl.noCache().cachePrivate(),
+                    orderService::getMyOrders);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(
                     Map.of("error", e.getMessage())
@@ -135,10 +344,73 @@ public class ConsumerController {
     }
 
     @GetMapping("/orders/{orderId}")
-    public ResponseEntity<?> getOrder(@PathVariable String orderId) {
+    public ResponseEntity<?> getOrder(@PathVariable String orderId, WebRequest request) {
+        try {
+            String etag = HttpCaching.etag("order", orderService.getOrderVersion(orderId));
+            return HttpCaching.conditional(request, etag, CacheControl.noCache().cachePrivate(),
+                    () -> orderService.getOrderSummary(orderId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage())
+            );
+        }
+    }
+
+    // Body: {"rating": 1-5, "review": "..."}; one rating per delivered order
+    @PostMapping("/orders/{orderId}/rating")
+    public ResponseEntity<?> rateOrder(
+            @PathVariable String orderId,
+            @RequestBody RatingRequest request) {
+
+        try {
+            Rating rating = ratingService.rateOrder(orderId, request.getRating(), request.getReview());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Thanks for rating your order");
+            response.put("ratingId", rating.getId());
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage())
+            );
+        }
+    }
+
+    // One SSE stream per tab for all of the consumer's open orders: "status" and "location" events
+    @GetMapping("/orders/stream")
+    public ResponseEntity<?> streamOrderUpdates() {
+        try {
+            SseEmitter emitter = orderTrackingBroadcaster.openStream();
+            return ResponseEntity.ok(emitter);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage())
+            );
+        }
+    }
+
+    // Order status plus the delivery partner's live position, served from memory
+    @GetMapping("/orders/{orderId}/tracking")
+    public ResponseEntity<?> trackOrder(@PathVariable String orderId) {
         try {
             Order order = orderService.getOrderById(orderId);
-            return ResponseEntity.ok(order);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("orderId", order.getId());
+            response.put("status", order.getStatus());
+            response.put("statusHistory", order.getStatusHistory());
+            if (order.getDeliveryPartner() != null) {
+                LocationIngestionService.LocationPing position =
+                        locationIngestionService.getLivePositionForUser(order.getDeliveryPartner().getId());
+                if (position != null) {
+                    response.put("partnerLat", position.getLat());
+                    response.put("partnerLng", position.getLng());
+                    response.put("positionRecordedAt", position.getRecordedAt());
+                }
+            }
+
+            return ResponseEntity.ok(response);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(
                     Map.of("error", e.getMessage())
@@ -164,6 +436,11 @@ public class ConsumerController {
             );
         }
     }
+
+    // Responses carry the caller's token, so only the browser's own cache may keep them
+    private static CacheControl catalogCaching(long maxAgeSeconds) {
+        return CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePrivate();
+    }
 }
 
 // Request DTOs (keep these at the bottom of the file)
@@ -177,3 +454,26 @@ class PlaceOrderRequest {
     public void setDeliveryAddress(String deliveryAddress) { this.deliveryAddress = deliveryAddress; }
 }
 
+class RatingRequest {
+    private Integer rating;
+    private String review;
+
+    public Integer getRating() { return rating; }
+    public void setRating(Integer rating) { this.rating = rating; }
+    public String getReview() { return review; }
+    public void setReview(String review) { this.review = review; }
+}
+
+class CartItemRequest {
+    private Double quantity;
+
+    public Double getQuantity() { return quantity; }
+    public void setQuantity(Double quantity) { this.quantity = quantity; }
+}
+
+class CheckoutRequest {
+    private String deliveryAddress;
+
+    public String getDeliveryAddress() { return deliveryAddress; }
+    public void setDeliveryAddress(String deliveryAddress) { this.deliveryAddress = deliveryAddress; }
+}
@@ -0,0 +1,162 @@
+package com.server.controllers;
+
+import com.server.Models.DeliveryPartner;
+import com.server.Models.DeliveryRoute;
+import com.server.Models.Order;
+import com.server.Models.OrderStatus;
+import com.server.dto.OrderSummary;
+import com.server.services.DispatchService;
+import com.server.services.LocationIngestionService;
+import com.server.services.OrderLifecycleService;
+import com.server.services.RoutePlanningService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/delivery")
+@CrossOrigin(origins = "*")
+public class DeliveryController {
+
+    @Autowired
+    private DispatchService dispatchService;
+
+    @Autowired
+    private LocationIngestionService locationIngestionService;
+
+    @Autowired
+    private RoutePlanningService routePlanningService;
+
+    @Autowired
+    private OrderLifecycleService orderLifecycleService;
+
+    @PutMapping("/location")
+    public ResponseEntity<?> updateLocation(@RequestBody LocationUpdateRequest request) {
+        try {
+            DeliveryPartner partner = dispatchService.updateMyLocation(
+                    request.getLat(), request.getLng(), request.getAvailable());
+            locationIngestionService.recordSaved(partner);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Location updated");
+            response.put("partnerId", partner.getId());
+            response.put("isAvailable", partner.getIsAvailable());
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage())
+            );
+        }
+    }
+
+    // High-frequency GPS ping: kept in memory and flushed to MongoDB in coalesced bulk writes
+    @PostMapping("/location/ping")
+    public ResponseEntity<?> pingLocation(@RequestBody LocationUpdateRequest request, Principal principal) {
+        try {
+            locationIngestionService.recordPing(principal.getName(), request.getLat(), request.getLng(), request.getRecordedAt());
+            return ResponseEntity.accepted().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage())
+            );
+        }
+    }
+
+    @PutMapping("/availability")
+    public ResponseEntity<?> updateAvailability(@RequestBody Map<String, Boolean> request) {
+        try {
+            Boolean available = request.get("available");
+            if (available == null) {
+                return ResponseEntity.badRequest().body(
+                        Map.of("error", "available is required")
+                );
+            }
+
+            DeliveryPartner partner = dispatchService.setMyAvailability(available);
+            return ResponseEntity.ok(Map.of("message", "Availability updated", "isAvailable", partner.getIsAvailable()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage())
+            );
+        }
+    }
+
+    @GetMapping("/assignments")
+    public ResponseEntity<?> getMyAssignments() {
+        try {
+            List<OrderSummary> orders = dispatchService.getMyAssignments();
+            return ResponseEntity.ok(orders);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage())
+            );
+        }
+    }
+
+    // Latest planned trip: pickups and drop-offs in visiting order
+    @GetMapping("/route")
+    public ResponseEntity<?> getMyRoute() {
+        try {
+            DeliveryRoute route = routePlanningService.getMyRoute();
+            return ResponseEntity.ok(route);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage())
+            );
+        }
+    }
+
+    // Body: {"status": "PREPARING"}; legal moves are enforced by OrderLifecycleService
+    @PatchMapping("/orders/{orderId}/status")
+    public ResponseEntity<?> updateOrderStatus(
+            @PathVariable String orderId,
+            @RequestBody Map<String, String> request) {
+
+        try {
+            Order order = orderLifecycleService.advance(orderId, parseStatus(request.get("status")));
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Order status updated");
+            response.put("orderId", order.getId());
+            response.put("status", order.getStatus());
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage())
+            );
+        }
+    }
+
+    private OrderStatus parseStatus(String status) {
+        for (OrderStatus value : OrderStatus.values()) {
+            if (value.name().equalsIgnoreCase(status == null ? "" : status.trim())) {
+                return value;
+            }
+        }
+        throw new RuntimeException("Unknown order status: " + status);
+    }
+}
+
+class LocationUpdateRequest {
+    private Double lat;
+    private Double lng;
+    private Boolean available;
+    // Device time of the fix in epoch millis; late pings older than the latest one are dropped
+    private Long recordedAt;
+
+    public Double getLat() { return lat; }
+    public void setLat(Double lat) { this.lat = lat; }
+    public Double getLng() { return lng; }
+    public void setLng(Double lng) { this.lng = lng; }
+    public Boolean getAvailable() { return available; }
+    public void setAvailable(Boolean available) { this.available = available; }
+    public Long getRecordedAt() { return recordedAt; }
+    public void setRecordedAt(Long recordedAt) { this.recordedAt = recordedAt; }
+}
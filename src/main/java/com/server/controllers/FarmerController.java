@@ -1,13 +1,28 @@
 package com.server.controllers;
 
+import com.server.Models.Money;
+import com.server.Models.Order;
+import com.server.Models.OrderStatus;
 import com.server.Models.Product;
+import com.server.Models.Quantity;
+import com.server.dto.ProductSummary;
+import com.server.services.BulkImportService;
+import com.server.services.FarmerSalesService;
+import com.server.services.OrderLifecycleService;
+import com.server.services.PricingService;
 import com.server.services.ProductService;
+import com.server.services.VersionStampService;
+import com.server.utils.HttpCaching;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,6 +35,21 @@ public class FarmerController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    @Autowired
+    private OrderLifecycleService orderLifecycleService;
+
+    @Autowired
+    private FarmerSalesService farmerSalesService;
+
+    @Autowired
+    private VersionStampService versionStampService;
+
+    @Autowired
+    private PricingService pricingService;
+
     @PostMapping("/products")
     public ResponseEntity<?> addProduct(
             @RequestParam("name") String name,
@@ -34,8 +64,8 @@ public class FarmerController {
             Product product = new Product();
             product.setName(name);
             product.setCategory(category);
-            product.setPricePerKg(pricePerKg);
-            product.setAvailableQuantity(availableQuantity);
+            product.setPricePerKg(Money.ofMajor(pricePerKg));
+            product.setAvailableQuantity(Quantity.ofKg(availableQuantity));
             product.setDescription(description);
             product.setLanguage(language);
 
@@ -43,7 +73,7 @@ public class FarmerController {
 
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Product added successfully");
-            response.put("product", savedProduct);
+            response.put("product", ProductSummary.of(savedProduct));
 
             return ResponseEntity.ok(response);
         } catch (IOException e) {
@@ -68,7 +98,7 @@ public class FarmerController {
 
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Product updated successfully");
-            response.put("product", updatedProduct);
+            response.put("product", ProductSummary.of(updatedProduct));
 
             return ResponseEntity.ok(response);
         } catch (IOException e) {
@@ -82,11 +112,14 @@ public class FarmerController {
         }
     }
 
+    // Revalidated on every use so a farmer always sees their own edits; a 304 skips loading the list
     @GetMapping("/products")
-    public ResponseEntity<?> getMyProducts() {
+    public ResponseEntity<?> getMyProducts(WebRequest request) {
         try {
-            List<Product> products = productService.getMyProducts();
-            return ResponseEntity.ok(products);
+            String etag = HttpCaching.etag("farmer-products", versionStampService.current(VersionStampService.CATALOG),
+                    request.getRemoteUser());
+            return HttpCaching.conditional(request, etag, CacheControl.noCache().cachePrivate(),
+                    productService::getMyProducts);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(
                     Map.of("error", e.getMessage())
@@ -107,11 +140,11 @@ public class FarmerController {
                 );
             }
 
-            Product updatedProduct = productService.updateInventory(productId, quantity);
+            Product updatedProduct = productService.updateInventory(productId, Quantity.ofKg(quantity));
 
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Inventory updated successfully");
-            response.put("product", updatedProduct);
+            response.put("product", ProductSummary.of(updatedProduct));
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -121,15 +154,193 @@ public class FarmerController {
         }
     }
 
+    // Streams a CSV (text/csv) or NDJSON (application/x-ndjson) upload; rows with an id update, rows without one create
+    @PostMapping(value = "/products/bulk", consumes = {"text/csv", "application/x-ndjson", "application/ndjson"})
+    public ResponseEntity<?> bulkImportProducts(
+            @RequestHeader("Content-Type") String contentType,
+            InputStream body) {
+
+        try {
+            List<BulkImportService.RowResult> results = bulkImportService.importProducts(body, contentType);
+
+            long created = results.stream().filter(r -> "CREATED".equals(r.getStatus())).count();
+            long updated = results.stream().filter(r -> "UPDATED".equals(r.getStatus())).count();
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Bulk import completed");
+            response.put("totalRows", results.size());
+            response.put("created", created);
+            response.put("updated", updated);
+            response.put("failed", results.size() - created - updated);
+            response.put("results", results);
+
+            return ResponseEntity.ok(response);
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", "Failed to read upload: " + e.getMessage())
+            );
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage())
+            );
+        }
+    }
+
     @GetMapping("/products/{productId}")
-    public ResponseEntity<?> getProduct(@PathVariable String productId) {
+    public ResponseEntity<?> getProduct(@PathVariable String productId, WebRequest request) {
         try {
-            Product product = productService.getProductById(productId);
-            return ResponseEntity.ok(product);
+            String etag = HttpCaching.etag("farmer-product", versionStampService.current(VersionStampService.CATALOG),
+                    request.getRemoteUser(), productId);
+            return HttpCaching.conditional(request, etag, CacheControl.noCache().cachePrivate(),
+                    () -> productService.getProductById(productId));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(
                     Map.of("error", e.getMessage())
             );
         }
     }
+
+    // Base price history, discounts and the price in effect now
+    @GetMapping("/products/{productId}/prices")
+    public ResponseEntity<?> getPriceHistory(@PathVariable String productId) {
+        try {
+            return ResponseEntity.ok(pricingService.getPriceHistory(productId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage())
+            );
+        }
+    }
+
+    // Body: {"pricePerKg": 42.5, "effectiveFrom": "2025-01-01T06:00:00"}; omit effectiveFrom to change it now
+    @PostMapping("/products/{productId}/prices")
+    public ResponseEntity<?> schedulePrice(
+            @PathVariable String productId,
+            @RequestBody PriceChangeRequest request) {
+
+        try {
+            Map<String, Object> response = new HashMap<>(
+                    pricingService.schedulePrice(productId, request.getPricePerKg(), request.getEffectiveFrom()));
+            response.put("message", "Price scheduled");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage())
+            );
+        }
+    }
+
+    // Body: {"percentOff": 15, "startsAt": "...", "endsAt": "..."}; omit startsAt to start now
+    @PostMapping("/products/{productId}/discounts")
+    public ResponseEntity<?> addDiscount(
+            @PathVariable String productId,
+            @RequestBody DiscountRequest request) {
+
+        try {
+            Map<String, Object> response = new HashMap<>(pricingService.addDiscount(
+                    productId, request.getPercentOff(), request.getStartsAt(), request.getEndsAt()));
+            response.put("message", "Discount added");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage())
+            );
+        }
+    }
+
+    @DeleteMapping("/products/{productId}/discounts/{discountId}")
+    public ResponseEntity<?> cancelDiscount(
+            @PathVariable String productId,
+            @PathVariable String discountId) {
+
+        try {
+            Map<String, Object> response = new HashMap<>(pricingService.cancelDiscount(productId, discountId));
+            response.put("message", "Discount cancelled");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage())
+            );
+        }
+    }
+
+    // Body: {"status": "PREPARING"}; legal moves are enforced by OrderLifecycleService
+    @PatchMapping("/orders/{orderId}/status")
+    public ResponseEntity<?> updateOrderStatus(
+            @PathVariable String orderId,
+            @RequestBody Map<String, String> request) {
+
+        try {
+            Order order = orderLifecycleService.advance(orderId, parseStatus(request.get("status")));
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Order status updated");
+            response.put("orderId", order.getId());
+            response.put("status", order.getStatus());
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage())
+            );
+        }
+    }
+
+    // Units sold per product per day, e.g. ?days=90
+    @GetMapping("/analytics/daily")
+    public ResponseEntity<?> getDailySales(@RequestParam(defaultValue = "90") int days) {
+        try {
+            return ResponseEntity.ok(farmerSalesService.getDailyUnits(days));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage())
+            );
+        }
+    }
+
+    // Best sellers by units; the default week matches the dashboard card
+    @GetMapping("/analytics/top")
+    public ResponseEntity<?> getTopProducts(
+            @RequestParam(defaultValue = "7") int days,
+            @RequestParam(defaultValue = "5") int limit) {
+        try {
+            return ResponseEntity.ok(farmerSalesService.getTopProducts(days, limit));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", e.getMessage())
+            );
+        }
+    }
+
+    private OrderStatus parseStatus(String status) {
+        for (OrderStatus value : OrderStatus.values()) {
+            if (value.name().equalsIgnoreCase(status == null ? "" : status.trim())) {
+                return value;
+            }
+        }
+        throw new RuntimeException("Unknown order status: " + status);
+    }
+}
+
+class PriceChangeRequest {
+    private Double pricePerKg;
+    private LocalDateTime effectiveFrom;
+
+    public Double getPricePerKg() { return pricePerKg; }
+    public void setPricePerKg(Double pricePerKg) { this.pricePerKg = pricePerKg; }
+    public LocalDateTime getEffectiveFrom() { return effectiveFrom; }
+    public void setEffectiveFrom(LocalDateTime effectiveFrom) { this.effectiveFrom = effectiveFrom; }
+}
+
+class DiscountRequest {
+    private Double percentOff;
+    private LocalDateTime startsAt;
+    private LocalDateTime endsAt;
+
+    public Double getPercentOff() { return percentOff; }
+    public void setPercentOff(Double percentOff) { this.percentOff = percentOff; }
+    public LocalDateTime getStartsAt() { return startsAt; }
+    public void setStartsAt(LocalDateTime startsAt) { this.startsAt = startsAt; }
+    public LocalDateTime getEndsAt() { return endsAt; }
+    public void setEndsAt(LocalDateTime endsAt) { this.endsAt = endsAt; }
 }
\ No newline at end of file
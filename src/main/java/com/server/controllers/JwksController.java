@@ -0,0 +1,40 @@
+package com.server.controllers;
+
+import com.server.services.SigningKeyService;
+import com.server.utils.HttpCaching;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Public keys for verifying this app's access tokens, so other services can check them locally.
+ * Keys are published before they sign anything (see SigningKeyService), so a verifier that caches
+ * this document for max-age and refetches on an unknown kid never rejects a valid token.
+ */
+@RestController
+@RequestMapping("/.well-known")
+@CrossOrigin(origins = "*")
+public class JwksController {
+
+    @Autowired
+    private SigningKeyService signingKeyService;
+
+    @Value("${jwt.jwks.max-age-seconds:300}")
+    private long maxAgeSeconds;
+
+    @GetMapping("/jwks.json")
+    public ResponseEntity<?> jwks(WebRequest request) {
+        List<Map<String, Object>> keys = signingKeyService.jwks();
+        String etag = HttpCaching.etag(keys.stream().map(key -> key.get("kid")).toArray());
+        return HttpCaching.conditional(request, etag,
+                CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePublic(),
+                () -> Map.of("keys", keys));
+    }
+}
@@ -1,5 +1,6 @@
 package com.server.controllers;
 
+import com.server.Models.Money;
 import com.server.services.MockPaymentService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -40,7 +41,7 @@ public class MockPaymentTestController {
             String orderId = request.get("orderId");
             Double amount = Double.parseDouble(request.getOrDefault("amount", "100.0"));
 
-            String mockOrderId = mockPaymentService.createPaymentOrder(orderId, amount);
+            String mockOrderId = mockPaymentService.createPaymentOrder(orderId, Money.ofMajor(amount));
 
             Map<String, Object> response = new HashMap<>();
             response.put("orderId", orderId);
@@ -90,7 +91,7 @@ public class MockPaymentTestController {
             Double amount = Double.parseDouble(request.getOrDefault("amount", "150.0"));
 
             // Step 1: Create mock payment order
-            String mockOrderId = mockPaymentService.createPaymentOrder(orderId, amount);
+            String mockOrderId = mockPaymentService.createPaymentOrder(orderId, Money.ofMajor(amount));
 
             // Step 2: Generate test payment data
             String testPaymentId = "mock_pay_" + UUID.randomUUID().toString().substring(0, 8);
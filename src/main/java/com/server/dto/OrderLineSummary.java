@@ -0,0 +1,45 @@
+package com.server.dto;
+
+import com.server.Models.Money;
+import com.server.Models.OrderItem;
+import com.server.Models.Quantity;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of an {@link OrderSummary}, at the price charged.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderLineSummary {
+    private String productId;
+    private String name;
+    private String category;
+    private String imageUrl;
+    private Quantity quantity;
+    private Money price;
+    private Money lineTotal;
+
+    public static OrderLineSummary of(OrderItem item) {
+        String productId = item.getProduct() != null ? item.getProduct().getId() : null;
+        String name = item.getProductName();
+        String category = item.getCategory();
+        String imageUrl = item.getImageUrl();
+        // Orders placed before items carried a snapshot
+        if (name == null && item.getProduct() != null) {
+            name = item.getProduct().getName();
+            category = item.getProduct().getCategory();
+            imageUrl = item.getProduct().getImageUrl();
+        }
+        return new OrderLineSummary(productId, name, category, imageUrl, item.getQuantity(), item.getPrice(),
+                lineTotal(item.getPrice(), item.getQuantity()));
+    }
+
+    public static Money lineTotal(Money price, Quantity quantity) {
+        return price != null && quantity != null
+                ? Money.ofMinor(Money.lineTotalMinor(price.getMinorUnits(), quantity.getGrams()))
+                : null;
+    }
+}
@@ -0,0 +1,74 @@
+package com.server.dto;
+
+import com.server.Models.Money;
+import com.server.Models.Order;
+import com.server.Models.OrderStatus;
+import com.server.Models.OrderStatusChange;
+import com.server.Models.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * An order as returned to consumers and delivery partners: people are reduced to name and phone,
+ * products to the snapshot taken at checkout. See OrderSummaryService for the projection it is
+ * read from.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummary {
+
+    public static final String[] FIELDS = {"consumer", "status", "orderDate", "totalAmount", "deliveryAddress",
+            "deliveryPartner", "pickupLocationLat", "pickupLocationLng", "deliveryLocationLat", "deliveryLocationLng",
+            "orderItems", "statusHistory", "razorpayOrderId"};
+
+    private String id;
+    private String consumerId;
+    private OrderStatus status;
+    private LocalDateTime orderDate;
+    private Money totalAmount;
+    private String deliveryAddress;
+    private String consumerName;
+    private String consumerPhone;
+    private String deliveryPartnerName;
+    private String deliveryPartnerPhone;
+    private Double pickupLocationLat;
+    private Double pickupLocationLng;
+    private Double deliveryLocationLat;
+    private Double deliveryLocationLng;
+    private List<OrderLineSummary> orderItems;
+    private List<OrderStatusChange> statusHistory;
+    // Mock payment order id, needed to confirm payment
+    private String razorpayOrderId;
+
+    // For responses to writes, where the entity is already loaded
+    public static OrderSummary of(Order order) {
+        User consumer = order.getConsumer();
+        User partner = order.getDeliveryPartner();
+        return new OrderSummary(
+                order.getId(),
+                consumer != null ? consumer.getId() : null,
+                order.getStatus(),
+                order.getOrderDate(),
+                order.getTotalAmount(),
+                order.getDeliveryAddress(),
+                consumer != null ? consumer.getName() : null,
+                consumer != null ? consumer.getPhone() : null,
+                partner != null ? partner.getName() : null,
+                partner != null ? partner.getPhone() : null,
+                order.getPickupLocationLat(),
+                order.getPickupLocationLng(),
+                order.getDeliveryLocationLat(),
+                order.getDeliveryLocationLng(),
+                order.getOrderItems() != null
+                        ? order.getOrderItems().stream().map(OrderLineSummary::of).collect(Collectors.toList())
+                        : List.of(),
+                order.getStatusHistory(),
+                order.getRazorpayOrderId());
+    }
+}
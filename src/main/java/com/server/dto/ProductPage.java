@@ -0,0 +1,25 @@
+package com.server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * One page of the consumer catalog.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPage {
+    private List<ProductSummary> products;
+    private int currentPage;
+    private long totalItems;
+    private int totalPages;
+
+    public static ProductPage of(Page<ProductSummary> page) {
+        return new ProductPage(page.getContent(), page.getNumber(), page.getTotalElements(), page.getTotalPages());
+    }
+}
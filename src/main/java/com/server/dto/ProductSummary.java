@@ -0,0 +1,93 @@
+package com.server.dto;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.server.Models.Money;
+import com.server.Models.Product;
+import com.server.Models.Quantity;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A product as clients see it: the listing plus the farmer's id, never the farmer document.
+ * Read from a projection of {@link #FIELDS}, so the farmer reference is not resolved.
+ *
+ * Catalog reads may ask for a subset of {@link #PROPERTIES} ({@code fields=name,pricePerKg});
+ * {@link #storedFields} narrows the projection and the {@link #FILTER} filter leaves the other
+ * properties out of the JSON. Without a selection the filter writes everything.
+ */
+@JsonFilter(ProductSummary.FILTER)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSummary {
+
+    public static final String FILTER = "productFields";
+
+    public static final String[] FIELDS = {"name", "category", "description", "imageUrl", "language",
+            "pricePerKg", "availableQuantity", "averageRating", "ratingCount", "farmer"};
+
+    public static final List<String> PROPERTIES = List.of("id", "name", "category", "description", "imageUrl",
+            "language", "pricePerKg", "availableQuantity", "averageRating", "ratingCount", "farmerId");
+
+    private String id;
+    private String name;
+    private String category;
+    private String description;
+    private String imageUrl;
+    private String language;
+    private Money pricePerKg;
+    private Quantity availableQuantity;
+    private Double averageRating;
+    private Integer ratingCount;
+    private String farmerId;
+
+    // Document fields behind the selected properties; the id always comes back
+    public static String[] storedFields(Collection<String> properties) {
+        List<String> fields = new ArrayList<>(properties.size());
+        for (String property : properties) {
+            if (property.equals("farmerId")) {
+                fields.add("farmer");
+            } else if (!property.equals("id")) {
+                fields.add(property);
+            }
+        }
+        return fields.toArray(new String[0]);
+    }
+
+    public static ProductSummary from(Document product) {
+        return new ProductSummary(
+                product.getObjectId("_id").toHexString(),
+                product.getString("name"),
+                product.getString("category"),
+                product.getString("description"),
+                product.getString("imageUrl"),
+                product.getString("language"),
+                StoredValues.money(product.get("pricePerKg")),
+                StoredValues.quantity(product.get("availableQuantity")),
+                StoredValues.toDouble(product.get("averageRating")),
+                StoredValues.toInteger(product.get("ratingCount")),
+                StoredValues.refId(product.get("farmer")));
+    }
+
+    // For responses to writes, where the entity is already loaded
+    public static ProductSummary of(Product product) {
+        return new ProductSummary(
+                product.getId(),
+                product.getName(),
+                product.getCategory(),
+                product.getDescription(),
+                product.getImageUrl(),
+                product.getLanguage(),
+                product.getPricePerKg(),
+                product.getAvailableQuantity(),
+                product.getAverageRating(),
+                product.getRatingCount(),
+                product.getFarmer() != null ? product.getFarmer().getId() : null);
+    }
+}
@@ -0,0 +1,23 @@
+package com.server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A review as listed under a product: no order or rater document, only the name copied at
+ * rating time. RatingRepository returns it as a projection, so only these fields are read.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingSummary {
+
+    private String id;
+    private Integer rating;
+    private String review;
+    private String ratedByName;
+    private LocalDateTime createdAt;
+}
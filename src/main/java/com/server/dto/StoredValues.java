@@ -0,0 +1,43 @@
+package com.server.dto;
+
+import com.mongodb.DBRef;
+import com.server.Models.Money;
+import com.server.Models.Quantity;
+
+/**
+ * Reads fields of raw documents loaded with a projection, the way the entity mapping would.
+ */
+public final class StoredValues {
+
+    private StoredValues() {
+    }
+
+    // Paise, or rupees in documents MoneyMigrationService has not rewritten yet
+    public static Money money(Object value) {
+        if (value instanceof Double rupees) {
+            return Money.ofMajor(rupees);
+        }
+        return value instanceof Number minor ? Money.ofMinor(minor.longValue()) : null;
+    }
+
+    // Grams, or kilograms before migration
+    public static Quantity quantity(Object value) {
+        if (value instanceof Double kg) {
+            return Quantity.ofKg(kg);
+        }
+        return value instanceof Number grams ? Quantity.ofGrams(grams.longValue()) : null;
+    }
+
+    // Id of a referenced document, without loading it
+    public static String refId(Object value) {
+        return value instanceof DBRef ref ? ref.getId().toString() : null;
+    }
+
+    public static Double toDouble(Object value) {
+        return value instanceof Number number ? number.doubleValue() : null;
+    }
+
+    public static Integer toInteger(Object value) {
+        return value instanceof Number number ? number.intValue() : null;
+    }
+}
@@ -0,0 +1,389 @@
+package com.server.services;
+
+import com.server.Models.Money;
+import com.server.Models.Order;
+import com.server.Models.OrderItem;
+import com.server.Models.OrderStatus;
+import com.server.Models.Product;
+import com.server.Models.SalesRollup;
+import com.server.Models.User;
+import com.server.Repositories.OrderRepository;
+import com.server.Repositories.SalesRollupRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Hourly and daily sales rollups by farmer, category and product. Confirmed orders are added
+ * incrementally with one bulk upsert of $inc operations, and cancellations after payment are
+ * subtracted. {@link #backfill} rebuilds a date range server-side with an aggregation that
+ * $merges into sales_rollups. Dashboards read only the rollup collection.
+ */
+@Service
+public class AnalyticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsService.class);
+
+    public static final List<String> GRANULARITIES = List.of("HOURLY", "DAILY");
+    public static final List<String> DIMENSIONS = List.of("FARMER", "CATEGORY", "PRODUCT");
+
+    // Statuses of paid orders that still count as sales
+    private static final Set<OrderStatus> COUNTED = EnumSet.of(OrderStatus.CONFIRMED, OrderStatus.PREPARING,
+            OrderStatus.READY_FOR_PICKUP, OrderStatus.PICKED_UP, OrderStatus.IN_TRANSIT, OrderStatus.DELIVERED);
+
+    private static final Set<OrderStatus> PAID = EnumSet.of(OrderStatus.CONFIRMED, OrderStatus.PREPARING,
+            OrderStatus.READY_FOR_PICKUP);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private SalesRollupRepository salesRollupRepository;
+
+    @Autowired
+    private OrderEventPublisher orderEventPublisher;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Buckets start at local hour and day boundaries in this zone
+    @Value("${analytics.time-zone:UTC}")
+    private String timeZone;
+
+    private ZoneId zone;
+
+    // Keeps rollup writes off the thread that confirmed the order
+    private final ExecutorService recorder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "analytics-recorder");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Consumer<OrderEventPublisher.OrderStatusEvent> listener = this::onStatusChange;
+
+    @PostConstruct
+    void subscribe() {
+        zone = ZoneId.of(timeZone);
+        orderEventPublisher.subscribe(listener);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        orderEventPublisher.unsubscribe(listener);
+        recorder.shutdown();
+    }
+
+    private void onStatusChange(OrderEventPublisher.OrderStatusEvent event) {
+        if (event.getToStatus() == OrderStatus.CONFIRMED) {
+            recorder.execute(() -> record(event.getOrderId()));
+        } else if (event.getToStatus() == OrderStatus.CANCELLED && PAID.contains(event.getFromStatus())) {
+            recorder.execute(() -> reverse(event.getOrderId()));
+        }
+    }
+
+    // The conditional claim makes this safe when several nodes receive the same change-stream event
+    void record(String orderId) {
+        try {
+            Query unclaimed = new Query(Criteria.where("id").is(orderId).and("analyticsRecordedAt").exists(false));
+            if (mongoTemplate.updateFirst(unclaimed, new Update().set("analyticsRecordedAt", LocalDateTime.now()).inc("revision", 1L),
+                    Order.class).getModifiedCount() == 0) {
+                return;
+            }
+            orderRepository.findById(orderId).ifPresent(order -> apply(order, 1));
+        } catch (Exception e) {
+            logger.error("Could not add order {} to sales rollups: {}", orderId, e.getMessage());
+        }
+    }
+
+    void reverse(String orderId) {
+        try {
+            Query recorded = new Query(Criteria.where("id").is(orderId)
+                    .and("analyticsRecordedAt").exists(true)
+                    .and("analyticsReversedAt").exists(false));
+            if (mongoTemplate.updateFirst(recorded, new Update().set("analyticsReversedAt", LocalDateTime.now()).inc("revision", 1L),
+                    Order.class).getModifiedCount() == 0) {
+                return;
+            }
+            orderRepository.findById(orderId).ifPresent(order -> apply(order, -1));
+        } catch (Exception e) {
+            logger.error("Could not remove order {} from sales rollups: {}", orderId, e.getMessage());
+        }
+    }
+
+    private void apply(Order order, int sign) {
+        if (order.getOrderItems() == null || order.getOrderDate() == null) {
+            return;
+        }
+        ZonedDateTime placed = order.getOrderDate().atZone(ZoneId.systemDefault()).withZoneSameInstant(zone);
+
+        // One $inc per rollup document even when several items share a farmer or category
+        Map<String, Increment> increments = new LinkedHashMap<>();
+        for (OrderItem item : order.getOrderItems()) {
+            Product product = item.getProduct();
+            if (product == null || item.getPrice() == null || item.getQuantity() == null) {
+                continue;
+            }
+            // Rollups stay in rupees and kilograms; the line total is the exact one the order was charged
+            double revenue = Money.lineTotalMinor(item.getPrice().getMinorUnits(), item.getQuantity().getGrams()) / 100.0;
+            double quantity = item.getQuantity().toKg();
+            User farmer = product.getFarmer();
+            for (String granularity : GRANULARITIES) {
+                Instant bucket = (granularity.equals("HOURLY")
+                        ? placed.truncatedTo(ChronoUnit.HOURS)
+                        : placed.truncatedTo(ChronoUnit.DAYS)).toInstant();
+                if (farmer != null) {
+                    add(increments, granularity, bucket, "FARMER", farmer.getId(), farmer.getName(), revenue, quantity);
+                }
+                if (product.getCategory() != null) {
+                    add(increments, granularity, bucket, "CATEGORY", product.getCategory(), product.getCategory(), revenue, quantity);
+                }
+                add(increments, granularity, bucket, "PRODUCT", product.getId(), product.getName(), revenue, quantity);
+            }
+        }
+        if (increments.isEmpty()) {
+            return;
+        }
+
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SalesRollup.class);
+        for (Map.Entry<String, Increment> entry : increments.entrySet()) {
+            Increment increment = entry.getValue();
+            operations.upsert(new Query(Criteria.where("id").is(entry.getKey())), new Update()
+                    .inc("revenue", sign * increment.revenue)
+                    .inc("quantity", sign * increment.quantity)
+                    .inc("orderCount", sign)
+                    .setOnInsert("granularity", increment.granularity)
+                    .setOnInsert("bucketStart", Date.from(increment.bucket))
+                    .setOnInsert("dimension", increment.dimension)
+                    .setOnInsert("key", increment.key)
+                    .set("label", increment.label));
+        }
+        operations.execute();
+    }
+
+    private static void add(Map<String, Increment> increments, String granularity, Instant bucket, String dimension,
+                            String key, String label, double revenue, double quantity) {
+        String id = granularity + "|" + bucket.toEpochMilli() + "|" + dimension + "|" + key;
+        Increment increment = increments.computeIfAbsent(id, k -> new Increment(granularity, bucket, dimension, key, label));
+        increment.revenue += revenue;
+        increment.quantity += quantity;
+    }
+
+    /**
+     * Recomputes every rollup for whole days from {@code fromDay} to {@code toDay} inclusive. Orders
+     * in the range are claimed first so the incremental path cannot count them a second time, then
+     * one aggregation per granularity groups their items and $merges the result over the old buckets.
+     */
+    public Map<String, Object> backfill(LocalDate fromDay, LocalDate toDay) {
+        if (fromDay == null || toDay == null || toDay.isBefore(fromDay)) {
+            throw new RuntimeException("A valid from/to date range is required");
+        }
+        Instant from = fromDay.atStartOfDay(zone).toInstant();
+        Instant to = toDay.plusDays(1).atStartOfDay(zone).toInstant();
+        LocalDateTime fromLocal = LocalDateTime.ofInstant(from, ZoneId.systemDefault());
+        LocalDateTime toLocal = LocalDateTime.ofInstant(to, ZoneId.systemDefault());
+
+        long claimed = mongoTemplate.updateMulti(new Query(Criteria.where("orderDate").gte(fromLocal).lt(toLocal)
+                        .and("status").in(COUNTED)
+                        .and("analyticsRecordedAt").exists(false)),
+                new Update().set("analyticsRecordedAt", LocalDateTime.now()).inc("revision", 1L), Order.class).getModifiedCount();
+
+        // Buckets with no sales left (e.g. everything cancelled) would otherwise survive the merge
+        mongoTemplate.remove(new Query(Criteria.where("bucketStart").gte(fromLocal).lt(toLocal)), SalesRollup.class);
+
+        String orders = mongoTemplate.getCollectionName(Order.class);
+        for (String granularity : GRANULARITIES) {
+            mongoTemplate.getCollection(orders)
+                    .aggregate(backfillPipeline(granularity, Date.from(from), Date.from(to)))
+                    .allowDiskUse(true)
+                    .toCollection();
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("from", fromDay.toString());
+        result.put("to", toDay.toString());
+        result.put("newlyClaimedOrders", claimed);
+        result.put("rollups", mongoTemplate.count(new Query(Criteria.where("bucketStart").gte(fromLocal).lt(toLocal)),
+                SalesRollup.class));
+        return result;
+    }
+
+    private List<Document> backfillPipeline(String granularity, Date from, Date to) {
+        String unit = granularity.equals("HOURLY") ? "hour" : "day";
+        List<String> counted = COUNTED.stream().map(Enum::name).collect(Collectors.toList());
+
+        return Arrays.asList(
+                new Document("$match", new Document("orderDate", new Document("$gte", from).append("$lt", to))
+                        .append("status", new Document("$in", counted))),
+                new Document("$unwind", "$orderItems"),
+                new Document("$project", new Document("orderDate", 1)
+                        // Items hold grams and paise per kg; rollups are kilograms and rupees
+                        .append("quantity", new Document("$divide", List.of("$orderItems.quantity", 1000)))
+                        .append("revenue", new Document("$divide", List.of(
+                                new Document("$floor", new Document("$add", List.of(
+                                        new Document("$divide", List.of(
+                                                new Document("$multiply", List.of("$orderItems.price", "$orderItems.quantity")),
+                                                1000)),
+                                        0.5))),
+                                100)))
+                        .append("productId", dbRefId("$orderItems.product"))),
+                new Document("$lookup", new Document("from", mongoTemplate.getCollectionName(Product.class))
+                        .append("localField", "productId")
+                        .append("foreignField", "_id")
+                        .append("as", "product")),
+                new Document("$unwind", "$product"),
+                new Document("$addFields", new Document("farmerId", dbRefId("$product.farmer"))),
+                new Document("$lookup", new Document("from", mongoTemplate.getCollectionName(User.class))
+                        .append("localField", "farmerId")
+                        .append("foreignField", "_id")
+                        .append("pipeline", List.of(new Document("$project", new Document("name", 1))))
+                        .append("as", "farmer")),
+                // Each item feeds one row per dimension
+                new Document("$project", new Document("orderId", "$_id")
+                        .append("quantity", 1)
+                        .append("revenue", 1)
+                        .append("bucket", new Document("$dateTrunc", new Document("date", "$orderDate")
+                                .append("unit", unit)
+                                .append("timezone", zone.getId())))
+                        .append("rows", List.of(
+                                new Document("dimension", "FARMER")
+                                        .append("key", new Document("$toString", "$farmerId"))
+                                        .append("label", new Document("$arrayElemAt", List.of("$farmer.name", 0))),
+                                new Document("dimension", "CATEGORY")
+                                        .append("key", "$product.category")
+                                        .append("label", "$product.category"),
+                                new Document("dimension", "PRODUCT")
+                                        .append("key", new Document("$toString", "$productId"))
+                                        .append("label", "$product.name")))),
+                new Document("$unwind", "$rows"),
+                new Document("$match", new Document("rows.key", new Document("$ne", null))),
+                new Document("$group", new Document("_id", new Document("bucket", "$bucket")
+                        .append("dimension", "$rows.dimension")
+                        .append("key", "$rows.key"))
+                        .append("label", new Document("$first", "$rows.label"))
+                        .append("revenue", new Document("$sum", "$revenue"))
+                        .append("quantity", new Document("$sum", "$quantity"))
+                        .append("orders", new Document("$addToSet", "$orderId"))),
+                new Document("$project", new Document("_id", new Document("$concat", List.of(
+                        granularity, "|",
+                        new Document("$toString", new Document("$toLong", "$_id.bucket")), "|",
+                        "$_id.dimension", "|",
+                        "$_id.key")))
+                        .append("granularity", granularity)
+                        .append("bucketStart", "$_id.bucket")
+                        .append("dimension", "$_id.dimension")
+                        .append("key", "$_id.key")
+                        .append("label", 1)
+                        .append("revenue", 1)
+                        .append("quantity", 1)
+                        .append("orderCount", new Document("$size", "$orders"))),
+                new Document("$merge", new Document("into", mongoTemplate.getCollectionName(SalesRollup.class))
+                        .append("on", "_id")
+                        .append("whenMatched", "replace")
+                        .append("whenNotMatched", "insert")));
+    }
+
+    // A DBRef is {$ref, $id}; field paths cannot name "$id", so read it positionally
+    private static Document dbRefId(String refPath) {
+        return new Document("$arrayElemAt", List.of(
+                new Document("$map", new Document("input", new Document("$objectToArray", refPath))
+                        .append("in", "$$this.v")),
+                1));
+    }
+
+    public List<SalesRollup> getSeries(String granularity, String dimension, String key,
+                                       LocalDate fromDay, LocalDate toDay) {
+        validate(granularity, dimension);
+        LocalDateTime from = LocalDateTime.ofInstant(fromDay.atStartOfDay(zone).toInstant(), ZoneId.systemDefault());
+        LocalDateTime to = LocalDateTime.ofInstant(toDay.plusDays(1).atStartOfDay(zone).toInstant(), ZoneId.systemDefault())
+                .minusNanos(1);
+        if (key != null && !key.isBlank()) {
+            return salesRollupRepository.findByGranularityAndDimensionAndKeyAndBucketStartBetweenOrderByBucketStartAsc(
+                    granularity, dimension, key, from, to);
+        }
+        return salesRollupRepository.findByGranularityAndDimensionAndBucketStartBetweenOrderByBucketStartAsc(
+                granularity, dimension, from, to);
+    }
+
+    // Totals per key over a range, largest revenue first; reads daily rollups only
+    public List<Map<String, Object>> getTop(String dimension, LocalDate fromDay, LocalDate toDay, int limit) {
+        Map<String, Map<String, Object>> totals = new HashMap<>();
+        for (SalesRollup rollup : getSeries("DAILY", dimension, null, fromDay, toDay)) {
+            Map<String, Object> total = totals.computeIfAbsent(rollup.getKey(), k -> {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("key", rollup.getKey());
+                row.put("label", rollup.getLabel());
+                row.put("revenue", 0.0);
+                row.put("quantity", 0.0);
+                row.put("orderCount", 0);
+                return row;
+            });
+            total.put("revenue", (Double) total.get("revenue") + value(rollup.getRevenue()));
+            total.put("quantity", (Double) total.get("quantity") + value(rollup.getQuantity()));
+            total.put("orderCount", (Integer) total.get("orderCount") + (rollup.getOrderCount() != null ? rollup.getOrderCount() : 0));
+        }
+        List<Map<String, Object>> ranked = new ArrayList<>(totals.values());
+        ranked.sort(Comparator.comparingDouble((Map<String, Object> row) -> (Double) row.get("revenue")).reversed());
+        return ranked.size() > limit ? new ArrayList<>(ranked.subList(0, limit)) : ranked;
+    }
+
+    private static double value(Double number) {
+        return number != null ? number : 0.0;
+    }
+
+    private static void validate(String granularity, String dimension) {
+        if (!GRANULARITIES.contains(granularity)) {
+            throw new RuntimeException("granularity must be one of " + GRANULARITIES);
+        }
+        if (!DIMENSIONS.contains(dimension)) {
+            throw new RuntimeException("dimension must be one of " + DIMENSIONS);
+        }
+    }
+
+    private static class Increment {
+        private final String granularity;
+        private final Instant bucket;
+        private final String dimension;
+        private final String key;
+        private final String label;
+        private double revenue;
+        private double quantity;
+
+        Increment(String granularity, Instant bucket, String dimension, String key, String label) {
+            this.granularity = granularity;
+            this.bucket = bucket;
+            this.dimension = dimension;
+            this.key = key;
+            this.label = label;
+        }
+    }
+}
@@ -3,9 +3,12 @@ package com.server.services;
 import com.server.Models.User;
 import com.server.Models.Role;
 import com.server.Repositories.UserRepository;
-import com.server.utils.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
@@ -17,32 +20,56 @@ public class AuthService {
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
 
     @Autowired
-    private JwtUtil jwtUtil;
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private TokenService tokenService;
+
+    // Thrown for an unknown email and a wrong password alike; these count toward the account's lockout
+    public static class InvalidCredentialsException extends RuntimeException {
+        public InvalidCredentialsException() {
+            super("Invalid email or password");
+        }
+    }
 
     public User register(User user) {
-        // Check if user already exists
-        if (userRepository.findByEmail(user.getEmail()).isPresent()) {
+        // Cheap check first so a taken email costs no hashing; the unique index settles races
+        if (userRepository.existsByEmail(user.getEmail())) {
             throw new RuntimeException("User already exists with email: " + user.getEmail());
         }
 
-        // Encrypt password
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
+        user.setPassword(passwordHashingService.encode(user.getPassword()));
 
-        return userRepository.save(user);
+        try {
+            return userRepository.save(user);
+        } catch (DuplicateKeyException e) {
+            throw new RuntimeException("User already exists with email: " + user.getEmail());
+        }
     }
 
-    public String login(String email, String password) {
+    public TokenService.Tokens login(String email, String password) {
         Optional<User> userOptional = userRepository.findByEmail(email);
 
-        if (userOptional.isEmpty() || !passwordEncoder.matches(password, userOptional.get().getPassword())) {
-            throw new RuntimeException("Invalid email or password");
+        if (userOptional.isEmpty()) {
+            throw new InvalidCredentialsException();
         }
 
         User user = userOptional.get();
-        // Use toString() instead of name() for enum
-        return jwtUtil.generateToken(user.getEmail(), user.getRole().toString());
+        String storedHash = user.getPassword();
+        PasswordHashingService.Verification verification = passwordHashingService.verify(email, password, storedHash);
+        if (verification == PasswordHashingService.Verification.MISMATCH) {
+            throw new InvalidCredentialsException();
+        }
+        if (verification == PasswordHashingService.Verification.MATCH_NEEDS_REHASH) {
+            // Only replaces the hash that was just checked, so a concurrent password change wins
+            passwordHashingService.rehashLater(password, newHash -> mongoTemplate.updateFirst(
+                    new Query(Criteria.where("id").is(user.getId()).and("password").is(storedHash)),
+                    new Update().set("password", newHash), User.class));
+        }
+
+        return tokenService.issue(user);
     }
 }
\ No newline at end of file
@@ -0,0 +1,444 @@
+package com.server.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.server.Models.Money;
+import com.server.Models.Product;
+import com.server.Models.Quantity;
+import com.server.Models.User;
+import com.server.Repositories.UserRepository;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streams CSV or NDJSON product rows from a farmer's upload and writes them with unordered bulk writes.
+ * Rows with an id update that product (typically just availableQuantity); rows without one create a product.
+ */
+@Service
+public class BulkImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkImportService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    @Autowired
+    private ProductSuggestService productSuggestService;
+
+    @Autowired
+    private VersionStampService versionStampService;
+
+    @Value("${bulk.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${bulk.import.max-rows:100000}")
+    private int maxRows;
+
+    private String getCurrentUserEmail() {
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        if (principal instanceof UserDetails) {
+            return ((UserDetails) principal).getUsername();
+        } else {
+            return principal.toString();
+        }
+    }
+
+    private User getCurrentUser() {
+        String email = getCurrentUserEmail();
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    public List<RowResult> importProducts(InputStream body, String contentType) throws IOException {
+        User farmer = getCurrentUser();
+
+        if (!farmer.getRole().toString().equals("FARMER")) {
+            throw new RuntimeException("Only farmers can import products");
+        }
+
+        boolean ndjson = contentType != null && contentType.toLowerCase(Locale.ROOT).contains("ndjson");
+        List<RowResult> results = new ArrayList<>();
+        List<PendingRow> batch = new ArrayList<>(batchSize);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String[] header = ndjson ? null : readCsvHeader(reader);
+
+        String line;
+        int rowNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            rowNumber++;
+            if (rowNumber > maxRows) {
+                // Earlier batches are already written, so report them and stop here rather than fail the upload
+                results.add(RowResult.failed(rowNumber, null,
+                        "Upload exceeds the limit of " + maxRows + " rows; this row and the rest were not imported"));
+                break;
+            }
+
+            ProductImportRow row;
+            try {
+                row = ndjson
+                        ? objectMapper.readValue(line, ProductImportRow.class)
+                        : ProductImportRow.fromCsv(header, parseCsvLine(line));
+            } catch (Exception e) {
+                results.add(RowResult.failed(rowNumber, null, "Unreadable row: " + e.getMessage()));
+                continue;
+            }
+
+            String error = validate(row);
+            if (error != null) {
+                results.add(RowResult.failed(rowNumber, row.getId(), error));
+                continue;
+            }
+
+            batch.add(new PendingRow(rowNumber, row));
+            if (batch.size() >= batchSize) {
+                flush(batch, farmer, results);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            flush(batch, farmer, results);
+        }
+
+        logger.info("Bulk import by {} processed {} rows", farmer.getEmail(), rowNumber);
+        results.sort(Comparator.comparingInt(RowResult::getRow));
+        return results;
+    }
+
+    private String validate(ProductImportRow row) {
+        boolean isNew = row.getId() == null || row.getId().isBlank();
+        if (isNew) {
+            if (row.getName() == null || row.getName().isBlank()) {
+                return "name is required for new products";
+            }
+            if (row.getCategory() == null || row.getCategory().isBlank()) {
+                return "category is required for new products";
+            }
+            if (row.getPricePerKg() == null || row.getAvailableQuantity() == null) {
+                return "pricePerKg and availableQuantity are required for new products";
+            }
+        } else if (!ObjectId.isValid(row.getId())) {
+            return "Invalid product id: " + row.getId();
+        } else if (!row.hasChanges()) {
+            return "Row has no fields to update";
+        }
+        if (row.getPricePerKg() != null && row.getPricePerKg() <= 0) {
+            return "pricePerKg must be greater than 0";
+        }
+        if (row.getAvailableQuantity() != null && row.getAvailableQuantity() < 0) {
+            return "availableQuantity cannot be negative";
+        }
+        return null;
+    }
+
+    private void flush(List<PendingRow> batch, User farmer, List<RowResult> results) {
+        // One ownership lookup per batch instead of one findById per row
+        Set<String> updateIds = new HashSet<>();
+        for (PendingRow pending : batch) {
+            if (!pending.isNew()) {
+                updateIds.add(pending.row.getId());
+            }
+        }
+        Set<String> ownedIds = new HashSet<>();
+        if (!updateIds.isEmpty()) {
+            Query owned = new Query(Criteria.where("id").in(updateIds).and("farmer.id").is(farmer.getId()));
+            owned.fields().include("id");
+            for (Product product : mongoTemplate.find(owned, Product.class)) {
+                ownedIds.add(product.getId());
+            }
+        }
+
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        List<RowResult> queued = new ArrayList<>(batch.size());
+        // Price written by each queued operation (null if the row left the price alone)
+        List<Double> queuedPrices = new ArrayList<>(batch.size());
+        // Updated products whose searchable text changed, by queued index
+        Set<Integer> queuedRetext = new HashSet<>();
+
+        for (PendingRow pending : batch) {
+            ProductImportRow row = pending.row;
+            if (pending.isNew()) {
+                Product product = row.toProduct();
+                product.setId(new ObjectId().toHexString());
+                product.setFarmer(farmer);
+                productSearchService.index(product);
+                operations.insert(product);
+                queued.add(RowResult.ok(pending.rowNumber, product.getId(), "CREATED"));
+                queuedPrices.add(row.getPricePerKg());
+            } else if (!ownedIds.contains(row.getId())) {
+                results.add(RowResult.failed(pending.rowNumber, row.getId(), "Product not found or not owned by you"));
+            } else {
+                operations.updateOne(new Query(Criteria.where("id").is(row.getId())), row.toUpdate());
+                if (row.changesSearchText()) {
+                    queuedRetext.add(queued.size());
+                }
+                queued.add(RowResult.ok(pending.rowNumber, row.getId(), "UPDATED"));
+                queuedPrices.add(row.getPricePerKg());
+            }
+        }
+
+        if (queued.isEmpty()) {
+            return;
+        }
+        try {
+            operations.execute();
+        } catch (BulkOperationException e) {
+            // Unordered writes keep going past failures; the error index points into this batch's operations
+            Map<Integer, String> failures = new HashMap<>();
+            e.getErrors().forEach(error -> failures.put(error.getIndex(), error.getMessage()));
+            for (int i = 0; i < queued.size(); i++) {
+                String message = failures.get(i);
+                if (message != null) {
+                    RowResult ok = queued.get(i);
+                    queued.set(i, RowResult.failed(ok.getRow(), ok.getProductId(), message));
+                }
+            }
+        }
+        results.addAll(queued);
+        versionStampService.bump(VersionStampService.CATALOG);
+
+        // Updated rows that touched name, category, description or language get their search keys rebuilt
+        List<String> retext = new ArrayList<>();
+        for (int i : queuedRetext) {
+            if (!queued.get(i).getStatus().equals("FAILED")) {
+                retext.add(queued.get(i).getProductId());
+            }
+        }
+        try {
+            productSearchService.reindex(retext);
+        } catch (Exception e) {
+            logger.error("Could not rebuild search keys for imported products: {}", e.getMessage());
+        }
+        productSuggestService.onProductsChanged(queued.stream()
+                .filter(result -> !result.getStatus().equals("FAILED"))
+                .map(RowResult::getProductId)
+                .collect(Collectors.toList()));
+
+        // Successful price writes go into each product's price history
+        Map<String, Money> prices = new HashMap<>();
+        for (int i = 0; i < queued.size(); i++) {
+            if (queuedPrices.get(i) != null && !queued.get(i).getStatus().equals("FAILED")) {
+                prices.put(queued.get(i).getProductId(), Money.ofMajor(queuedPrices.get(i)));
+            }
+        }
+        try {
+            pricingService.appendBasePrices(prices, farmer.getId());
+        } catch (Exception e) {
+            logger.error("Could not record imported prices: {}", e.getMessage());
+        }
+    }
+
+    private String[] readCsvHeader(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        while (line != null && line.isBlank()) {
+            line = reader.readLine();
+        }
+        if (line == null) {
+            throw new RuntimeException("CSV upload is empty");
+        }
+        // Strip a UTF-8 BOM left by spreadsheet exports
+        if (line.startsWith("\uFEFF")) {
+            line = line.substring(1);
+        }
+        List<String> columns = parseCsvLine(line);
+        return columns.stream().map(c -> c.trim().toLowerCase(Locale.ROOT)).toArray(String[]::new);
+    }
+
+    // RFC 4180 fields on a single line: commas inside quotes, "" as an escaped quote
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private static class PendingRow {
+        private final int rowNumber;
+        private final ProductImportRow row;
+
+        PendingRow(int rowNumber, ProductImportRow row) {
+            this.rowNumber = rowNumber;
+            this.row = row;
+        }
+
+        boolean isNew() {
+            return row.getId() == null || row.getId().isBlank();
+        }
+    }
+
+    public static class ProductImportRow {
+        private String id;
+        private String name;
+        private String category;
+        private Double pricePerKg;
+        private Double availableQuantity;
+        private String description;
+        private String language;
+
+        static ProductImportRow fromCsv(String[] header, List<String> values) {
+            ProductImportRow row = new ProductImportRow();
+            for (int i = 0; i < header.length && i < values.size(); i++) {
+                String value = values.get(i).trim();
+                if (value.isEmpty()) {
+                    continue;
+                }
+                switch (header[i]) {
+                    case "id" -> row.id = value;
+                    case "name" -> row.name = value;
+                    case "category" -> row.category = value;
+                    case "priceperkg" -> row.pricePerKg = Double.parseDouble(value);
+                    case "availablequantity", "quantity" -> row.availableQuantity = Double.parseDouble(value);
+                    case "description" -> row.description = value;
+                    case "language" -> row.language = value;
+                    default -> {
+                        // Extra spreadsheet columns are ignored
+                    }
+                }
+            }
+            return row;
+        }
+
+        Product toProduct() {
+            Product product = new Product();
+            product.setName(name);
+            product.setCategory(category);
+            product.setPricePerKg(Money.ofMajor(pricePerKg));
+            product.setAvailableQuantity(Quantity.ofKg(availableQuantity));
+            product.setDescription(description);
+            if (language != null) {
+                product.setLanguage(language);
+            }
+            return product;
+        }
+
+        Update toUpdate() {
+            Update update = new Update();
+            if (name != null) update.set("name", name);
+            if (category != null) update.set("category", category);
+            if (pricePerKg != null) update.set("pricePerKg", Money.ofMajor(pricePerKg));
+            if (availableQuantity != null) update.set("availableQuantity", Quantity.ofKg(availableQuantity));
+            if (description != null) update.set("description", description);
+            if (language != null) update.set("language", language);
+            return update;
+        }
+
+        boolean hasChanges() {
+            return changesSearchText() || pricePerKg != null || availableQuantity != null;
+        }
+
+        boolean changesSearchText() {
+            return name != null || category != null || description != null || language != null;
+        }
+
+        public String getId() { return id; }
+        public void setId(String id) { this.id = id; }
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+        public String getCategory() { return category; }
+        public void setCategory(String category) { this.category = category; }
+        public Double getPricePerKg() { return pricePerKg; }
+        public void setPricePerKg(Double pricePerKg) { this.pricePerKg = pricePerKg; }
+        public Double getAvailableQuantity() { return availableQuantity; }
+        public void setAvailableQuantity(Double availableQuantity) { this.availableQuantity = availableQuantity; }
+        // NDJSON inventory syncs may send "quantity" like the single-item inventory endpoint
+        public void setQuantity(Double quantity) { this.availableQuantity = quantity; }
+        public String getDescription() { return description; }
+        public void setDescription(String description) { this.description = description; }
+        public String getLanguage() { return language; }
+        public void setLanguage(String language) { this.language = language; }
+    }
+
+    public static class RowResult {
+        private final int row;
+        private final String productId;
+        private final String status;
+        private final String error;
+
+        private RowResult(int row, String productId, String status, String error) {
+            this.row = row;
+            this.productId = productId;
+            this.status = status;
+            this.error = error;
+        }
+
+        static RowResult ok(int row, String productId, String status) {
+            return new RowResult(row, productId, status, null);
+        }
+
+        static RowResult failed(int row, String productId, String error) {
+            return new RowResult(row, productId, "FAILED", error);
+        }
+
+        public int getRow() { return row; }
+        public String getProductId() { return productId; }
+        public String getStatus() { return status; }
+        public String getError() { return error; }
+    }
+}
@@ -0,0 +1,270 @@
+package com.server.services;
+
+import com.server.Models.Cart;
+import com.server.Models.CartLine;
+import com.server.Models.Money;
+import com.server.Models.Product;
+import com.server.Models.Quantity;
+import com.server.Models.User;
+import com.server.Repositories.CartRepository;
+import com.server.Repositories.ProductRepository;
+import com.server.Repositories.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Server-side carts. Every edit touches one line: a single findAndModify that $sets
+ * lines.&lt;productId&gt; and $incs the cart total by the change in that line's total, guarded by
+ * the line total it replaces so concurrent edits from two devices cannot skew the sum. Stock is
+ * checked for the edited line only, and checkout re-reads only lines changed (or not checked
+ * recently) since then.
+ */
+@Service
+public class CartService {
+
+    // Optimistic retries when another device edits the same line at the same moment
+    private static final int MAX_ATTEMPTS = 5;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${cart.max-lines:100}")
+    private int maxLines;
+
+    // Lines whose stock was checked longer ago than this are checked again at checkout
+    @Value("${cart.stock-recheck-ms:600000}")
+    private long stockRecheckMs;
+
+    private String getCurrentUserEmail() {
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        if (principal instanceof UserDetails) {
+            return ((UserDetails) principal).getUsername();
+        } else {
+            return principal.toString();
+        }
+    }
+
+    private User getCurrentUser() {
+        String email = getCurrentUserEmail();
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    private String getCurrentConsumerId() {
+        User consumer = getCurrentUser();
+        if (!consumer.getRole().toString().equals("CONSUMER")) {
+            throw new RuntimeException("Only consumers have a cart");
+        }
+        return consumer.getId();
+    }
+
+    public Cart getMyCart() {
+        String consumerId = getCurrentConsumerId();
+        return cartRepository.findById(consumerId).orElseGet(() -> emptyCart(consumerId));
+    }
+
+    // Sets the line to exactly {@code kg}; zero or less removes it
+    public Cart setQuantity(String productId, Double kg) {
+        if (kg == null) {
+            throw new RuntimeException("Quantity is required");
+        }
+        Quantity quantity = kg > 0 ? Quantity.ofKg(kg) : Quantity.ZERO;
+        return editLine(getCurrentConsumerId(), productId, current -> quantity);
+    }
+
+    // Adds {@code kg} to whatever the line already holds
+    public Cart addQuantity(String productId, Double kg) {
+        if (kg == null || kg <= 0) {
+            throw new RuntimeException("Quantity must be greater than 0");
+        }
+        long grams = Quantity.ofKg(kg).getGrams();
+        return editLine(getCurrentConsumerId(), productId, current -> Quantity.ofGrams(current.getGrams() + grams));
+    }
+
+    public Cart removeLine(String productId) {
+        return editLine(getCurrentConsumerId(), productId, current -> Quantity.ZERO);
+    }
+
+    public Cart clearMyCart() {
+        String consumerId = getCurrentConsumerId();
+        clear(consumerId, null);
+        return emptyCart(consumerId);
+    }
+
+    /**
+     * Empties the cart. With a {@code version} the cart is only cleared if nothing was edited since
+     * that version was read, so an edit made on another device during checkout survives.
+     */
+    public void clear(String consumerId, Long version) {
+        Criteria criteria = Criteria.where("id").is(consumerId);
+        if (version != null) {
+            criteria.and("version").is(version);
+        }
+        mongoTemplate.updateFirst(new Query(criteria), new Update()
+                .set("lines", new HashMap<>())
+                .set("totalAmount", 0L)
+                .inc("version", 1)
+                .set("updatedAt", LocalDateTime.now()), Cart.class);
+    }
+
+    private Cart editLine(String consumerId, String productId, UnaryOperator<Quantity> next) {
+        // The product is read once; only the cart write is retried
+        Product product = null;
+
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Cart cart = cartRepository.findById(consumerId).orElse(null);
+            CartLine existing = cart != null && cart.getLines() != null ? cart.getLines().get(productId) : null;
+            Quantity quantity = next.apply(existing != null ? existing.getQuantity() : Quantity.ZERO);
+
+            String path = "lines." + productId;
+            Criteria unchanged = Criteria.where("id").is(consumerId);
+            Update update = new Update().inc("version", 1).set("updatedAt", LocalDateTime.now());
+
+            if (!quantity.isPositive()) {
+                if (existing == null) {
+                    return cart != null ? cart : emptyCart(consumerId);
+                }
+                unchanged.and(path + ".lineTotal").is(existing.getLineTotal().getMinorUnits());
+                update.unset(path).inc("totalAmount", -existing.getLineTotal().getMinorUnits());
+            } else {
+                if (existing == null && cart != null && cart.getLines() != null && cart.getLines().size() >= maxLines) {
+                    throw new RuntimeException("A cart can hold at most " + maxLines + " products");
+                }
+                if (product == null) {
+                    product = productRepository.findById(productId)
+                            .orElseThrow(() -> new RuntimeException("Product not found: " + productId));
+                }
+                CartLine line = snapshot(product, quantity);
+                long previousTotal = existing != null ? existing.getLineTotal().getMinorUnits() : 0;
+                if (existing != null) {
+                    unchanged.and(path + ".lineTotal").is(existing.getLineTotal().getMinorUnits());
+                } else {
+                    unchanged.and(path).exists(false);
+                }
+                update.set(path, line).inc("totalAmount", line.getLineTotal().getMinorUnits() - previousTotal);
+            }
+
+            try {
+                Cart updated = mongoTemplate.findAndModify(new Query(unchanged), update,
+                        FindAndModifyOptions.options().returnNew(true).upsert(existing == null), Cart.class);
+                if (updated != null) {
+                    return updated;
+                }
+            } catch (DuplicateKeyException e) {
+                // Another request created the cart first; read it and try again
+            }
+        }
+        throw new RuntimeException("Cart is being updated elsewhere; please try again");
+    }
+
+    // Checks stock for this one line and freezes the price and product details shown in the cart
+    private CartLine snapshot(Product product, Quantity quantity) {
+        Quantity available = product.getAvailableQuantity() != null ? product.getAvailableQuantity() : Quantity.ZERO;
+        if (available.compareTo(quantity) < 0) {
+            throw new RuntimeException("Insufficient quantity for product: " + product.getName() +
+                    ". Available: " + available + ", Requested: " + quantity);
+        }
+        long price = pricingService.priceMinorFor(product, System.currentTimeMillis());
+        return new CartLine(product.getId(), product.getName(), product.getCategory(), product.getImageUrl(),
+                product.getFarmer() != null ? product.getFarmer().getId() : null,
+                quantity, Money.ofMinor(price), Money.ofMinor(Money.lineTotalMinor(price, quantity.getGrams())),
+                available, quantity, LocalDateTime.now());
+    }
+
+    /**
+     * The consumer's cart made ready for an order: lines edited or unchecked since the recheck
+     * window are verified against current stock with one query, and every line is re-priced from
+     * the price table (in memory). The total is adjusted by the lines whose price moved.
+     */
+    public Cart prepareCheckout(String consumerId) {
+        Cart cart = cartRepository.findById(consumerId).orElse(null);
+        if (cart == null || cart.getLines() == null || cart.getLines().isEmpty()) {
+            throw new RuntimeException("Your cart is empty");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime stale = now.minusNanos(stockRecheckMs * 1_000_000);
+        List<String> recheck = new ArrayList<>();
+        for (CartLine line : cart.getLines().values()) {
+            if (!line.getQuantity().equals(line.getVerifiedQuantity())
+                    || line.getVerifiedAt() == null || line.getVerifiedAt().isBefore(stale)) {
+                recheck.add(line.getProductId());
+            }
+        }
+
+        if (!recheck.isEmpty()) {
+            Map<String, Product> products = new HashMap<>();
+            productRepository.findAllById(recheck).forEach(product -> products.put(product.getId(), product));
+            Update verified = new Update();
+            for (String productId : recheck) {
+                CartLine line = cart.getLines().get(productId);
+                Product product = products.get(productId);
+                if (product == null) {
+                    throw new RuntimeException(line.getName() + " is no longer available");
+                }
+                Quantity available = product.getAvailableQuantity() != null ? product.getAvailableQuantity() : Quantity.ZERO;
+                if (available.compareTo(line.getQuantity()) < 0) {
+                    throw new RuntimeException("Insufficient quantity for product: " + product.getName() +
+                            ". Available: " + available + ", Requested: " + line.getQuantity());
+                }
+                line.setAvailableQuantity(available);
+                line.setVerifiedQuantity(line.getQuantity());
+                line.setVerifiedAt(now);
+                verified.set("lines." + productId + ".availableQuantity", available.getGrams())
+                        .set("lines." + productId + ".verifiedQuantity", line.getQuantity().getGrams())
+                        .set("lines." + productId + ".verifiedAt", now);
+            }
+            // Recorded so a retried checkout does not check the same lines again; not a cart edit, so no version bump
+            mongoTemplate.updateFirst(new Query(Criteria.where("id").is(consumerId)), verified, Cart.class);
+        }
+
+        long total = cart.getTotalAmount() != null ? cart.getTotalAmount().getMinorUnits() : 0;
+        long pricedAt = System.currentTimeMillis();
+        for (CartLine line : cart.getLines().values()) {
+            long snapshot = line.getUnitPrice().getMinorUnits();
+            long price = pricingService.priceMinorFor(line.getProductId(), snapshot, pricedAt);
+            if (price != snapshot) {
+                long lineTotal = Money.lineTotalMinor(price, line.getQuantity().getGrams());
+                total += lineTotal - line.getLineTotal().getMinorUnits();
+                line.setUnitPrice(Money.ofMinor(price));
+                line.setLineTotal(Money.ofMinor(lineTotal));
+            }
+        }
+        cart.setTotalAmount(Money.ofMinor(total));
+        return cart;
+    }
+
+    private static Cart emptyCart(String consumerId) {
+        Cart cart = new Cart();
+        cart.setId(consumerId);
+        return cart;
+    }
+}
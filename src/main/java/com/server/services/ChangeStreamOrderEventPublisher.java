@@ -0,0 +1,201 @@
+package com.server.services;
+
+import com.mongodb.DBRef;
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.server.Models.Order;
+import com.server.Models.OrderStatus;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+
+import static com.mongodb.client.model.Aggregates.match;
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.exists;
+
+/**
+ * Delivers events from a MongoDB change stream on the orders collection, so every node sees every
+ * transition no matter which node wrote it. Needs a replica set (or Atlas). {@link #publish} is a
+ * no-op here: the status update itself is the publication.
+ */
+@Service
+@ConditionalOnProperty(name = "order.events.source", havingValue = "change-stream")
+public class ChangeStreamOrderEventPublisher extends OrderEventPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeStreamOrderEventPublisher.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private volatile boolean running = true;
+    private volatile MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor;
+    // Lets a reconnect continue where the broken cursor stopped instead of missing events
+    private BsonDocument resumeToken;
+    private Thread watcher;
+
+    @Override
+    public void publish(OrderStatusEvent event) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        watcher = new Thread(this::watch, "order-change-stream");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> current = cursor;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    private void watch() {
+        long backoffMs = 500;
+        while (running) {
+            try {
+                ChangeStreamIterable<Document> stream = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Order.class))
+                        .watch(List.of(match(and(
+                                eq("operationType", "update"),
+                                exists("updateDescription.updatedFields.status")))))
+                        .fullDocument(FullDocument.UPDATE_LOOKUP);
+                if (resumeToken != null) {
+                    stream = stream.resumeAfter(resumeToken);
+                }
+
+                cursor = stream.cursor();
+                backoffMs = 500;
+                while (running && cursor.hasNext()) {
+                    ChangeStreamDocument<Document> change = cursor.next();
+                    OrderStatusEvent event;
+                    try {
+                        event = toEvent(change);
+                    } catch (RuntimeException e) {
+                        // Retrying cannot make it readable; skip it rather than stall every event behind it
+                        logger.error("Skipping unreadable order change {}: {}", change.getDocumentKey(), e.getMessage());
+                        resumeToken = change.getResumeToken();
+                        continue;
+                    }
+                    deliver(event);
+                    // Advanced only once delivered, so a failure in between replays this event after reconnecting
+                    resumeToken = change.getResumeToken();
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                if (resumeToken != null && isHistoryLost(e)) {
+                    // The oplog no longer reaches back to the token; resuming from it would fail forever
+                    logger.error("Order change stream cannot resume from its last position, events since then were missed: {}",
+                            e.getMessage());
+                    resumeToken = null;
+                }
+                logger.warn("Order change stream interrupted, reconnecting in {} ms: {}", backoffMs, e.getMessage());
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoffMs = Math.min(backoffMs * 2, 30_000);
+            }
+        }
+    }
+
+    // ChangeStreamHistoryLost, or ChangeStreamFatalError as older servers report a token that fell off the oplog
+    private static boolean isHistoryLost(Exception e) {
+        return e instanceof MongoException mongo && (mongo.getCode() == 286 || mongo.getCode() == 280);
+    }
+
+    /**
+     * Builds the event from the fields this update wrote, not from the looked-up document: by the
+     * time the lookup runs the order may already have moved on, and two quick transitions would
+     * both report the latest status. The looked-up document only supplies the consumer and partner
+     * ids, read raw so DBRefs stay ids instead of being resolved per event.
+     */
+    private OrderStatusEvent toEvent(ChangeStreamDocument<Document> change) {
+        BsonDocument updated = change.getUpdateDescription().getUpdatedFields();
+        OrderStatus to = OrderStatus.valueOf(updated.getString("status").getValue());
+
+        OrderStatus from = null;
+        LocalDateTime occurredAt = LocalDateTime.now();
+        BsonDocument pushed = pushedHistoryEntry(updated);
+        if (pushed != null) {
+            if (pushed.isString("fromStatus")) {
+                from = OrderStatus.valueOf(pushed.getString("fromStatus").getValue());
+            }
+            if (pushed.isDateTime("occurredAt")) {
+                occurredAt = LocalDateTime.ofInstant(
+                        Instant.ofEpochMilli(pushed.getDateTime("occurredAt").getValue()), ZoneId.systemDefault());
+            }
+        }
+
+        Document order = change.getFullDocument();
+        String deliveryPartnerId = updated.containsKey("deliveryPartner")
+                ? refId(updated.get("deliveryPartner"))
+                : order != null ? refId(order.get("deliveryPartner")) : null;
+        return new OrderStatusEvent(
+                change.getDocumentKey().getObjectId("_id").getValue().toHexString(),
+                order != null ? refId(order.get("consumer")) : null,
+                deliveryPartnerId,
+                from,
+                to,
+                occurredAt);
+    }
+
+    // The change this update appended: "statusHistory.<n>", or the whole array when it was created
+    private static BsonDocument pushedHistoryEntry(BsonDocument updated) {
+        BsonValue history = updated.get("statusHistory");
+        if (history != null && history.isArray() && !history.asArray().isEmpty()) {
+            BsonValue last = history.asArray().get(history.asArray().size() - 1);
+            return last.isDocument() ? last.asDocument() : null;
+        }
+        BsonDocument entry = null;
+        int highest = -1;
+        for (Map.Entry<String, BsonValue> field : updated.entrySet()) {
+            String key = field.getKey();
+            if (key.matches("statusHistory\\.\\d+") && field.getValue().isDocument()) {
+                int index = Integer.parseInt(key.substring("statusHistory.".length()));
+                if (index > highest) {
+                    highest = index;
+                    entry = field.getValue().asDocument();
+                }
+            }
+        }
+        return entry;
+    }
+
+    private static String refId(Object ref) {
+        if (ref instanceof DBRef) {
+            return ((DBRef) ref).getId().toString();
+        }
+        // DBRefs inside updateDescription arrive as plain {$ref, $id} documents
+        if (ref instanceof BsonDocument && ((BsonDocument) ref).containsKey("$id")) {
+            BsonValue id = ((BsonDocument) ref).get("$id");
+            return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.isString() ? id.asString().getValue() : null;
+        }
+        return null;
+    }
+}
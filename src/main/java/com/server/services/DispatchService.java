@@ -0,0 +1,337 @@
+package com.server.services;
+
+import com.mongodb.client.model.Filters;
+import com.server.Models.DeliveryPartner;
+import com.server.Models.Order;
+import com.server.Models.OrderStatus;
+import com.server.Models.User;
+import com.server.Repositories.DeliveryPartnerRepository;
+import com.server.Repositories.OrderRepository;
+import com.server.Repositories.UserRepository;
+import com.server.dto.OrderSummary;
+import com.server.utils.PartnerLocationGrid;
+import jakarta.annotation.PostConstruct;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Matches READY_FOR_PICKUP orders to the nearest available delivery partners.
+ * Partner positions live in MongoDB (2dsphere) and in a {@link PartnerLocationGrid} that
+ * serves every lookup during a dispatch round, so matching never waits on the database.
+ */
+@Service
+public class DispatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DispatchService.class);
+
+    @Autowired
+    private DeliveryPartnerRepository deliveryPartnerRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderSummaryService orderSummaryService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${dispatch.grid.cell-degrees:0.01}")
+    private double cellDegrees;
+
+    @Value("${dispatch.max-distance-km:15}")
+    private double maxDistanceKm;
+
+    @Value("${dispatch.batch-size:500}")
+    private int batchSize;
+
+    @Value("${dispatch.enabled:true}")
+    private boolean enabled;
+
+    // "nearest" assigns one order per partner here; "routes" leaves rounds to RoutePlanningService
+    @Value("${dispatch.mode:routes}")
+    private String mode;
+
+    private PartnerLocationGrid grid;
+
+    @PostConstruct
+    void initGrid() {
+        grid = new PartnerLocationGrid(cellDegrees);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            for (DeliveryPartner partner : deliveryPartnerRepository.findByIsAvailableTrueAndLocationIsNotNull()) {
+                grid.update(partner.getId(), partner.getCurrentLocationLat(), partner.getCurrentLocationLng(), true);
+            }
+            logger.info("Loaded {} available delivery partners into the dispatch grid", grid.size());
+        } catch (Exception e) {
+            logger.error("Could not load delivery partners into the dispatch grid: {}", e.getMessage());
+        }
+    }
+
+    private String getCurrentUserEmail() {
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        if (principal instanceof UserDetails) {
+            return ((UserDetails) principal).getUsername();
+        } else {
+            return principal.toString();
+        }
+    }
+
+    private User getCurrentUser() {
+        String email = getCurrentUserEmail();
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    private User getCurrentPartnerUser() {
+        User user = getCurrentUser();
+        if (!user.getRole().toString().equals("DELIVERY_PARTNER")) {
+            throw new RuntimeException("Only delivery partners can report locations");
+        }
+        return user;
+    }
+
+    /**
+     * The partner document behind a delivery partner's user, created on first use. Several nodes
+     * (and LocationIngestionService) can get here for the same user at once; the unique index on
+     * user.$id lets one insert through and the others read what it wrote.
+     */
+    public DeliveryPartner findOrCreatePartner(User user) {
+        DeliveryPartner existing = deliveryPartnerRepository.findByUserId(user.getId()).orElse(null);
+        if (existing != null) {
+            return existing;
+        }
+        DeliveryPartner created = new DeliveryPartner();
+        created.setUser(user);
+        try {
+            return mongoTemplate.insert(created);
+        } catch (DuplicateKeyException e) {
+            return deliveryPartnerRepository.findByUserId(user.getId()).orElseThrow(() -> e);
+        }
+    }
+
+    public DeliveryPartner updateMyLocation(Double lat, Double lng, Boolean available) {
+        if (lat == null || lng == null || lat < -90 || lat > 90 || lng < -180 || lng > 180) {
+            throw new RuntimeException("Valid lat and lng are required");
+        }
+
+        DeliveryPartner partner = findOrCreatePartner(getCurrentPartnerUser());
+        partner.setCurrentLocationLat(lat);
+        partner.setCurrentLocationLng(lng);
+        partner.setLocation(new GeoJsonPoint(lng, lat));
+        partner.setLocationUpdatedAt(LocalDateTime.now());
+        if (available != null) {
+            partner.setIsAvailable(available);
+        }
+
+        DeliveryPartner saved = deliveryPartnerRepository.save(partner);
+        grid.update(saved.getId(), lat, lng, Boolean.TRUE.equals(saved.getIsAvailable()));
+        return saved;
+    }
+
+    public DeliveryPartner setMyAvailability(boolean available) {
+        DeliveryPartner partner = deliveryPartnerRepository.findByUserId(getCurrentPartnerUser().getId())
+                .orElseThrow(() -> new RuntimeException("Report a location before changing availability"));
+        partner.setIsAvailable(available);
+        DeliveryPartner saved = deliveryPartnerRepository.save(partner);
+        grid.setAvailable(saved.getId(), available);
+        return saved;
+    }
+
+    // Moves a partner in the grid without a database write; availability is kept unless the grid has never seen them
+    public void trackPartnerPosition(String partnerId, double lat, double lng, boolean availableIfUnknown) {
+        PartnerLocationGrid.Position current = grid.get(partnerId);
+        grid.update(partnerId, lat, lng, current != null ? current.isAvailable() : availableIfUnknown);
+    }
+
+    public List<OrderSummary> getMyAssignments() {
+        User user = getCurrentUser();
+        return orderSummaryService.find(Filters.eq("deliveryPartner.$id", new ObjectId(user.getId())));
+    }
+
+    @Scheduled(fixedDelayString = "${dispatch.interval-ms:5000}")
+    public void scheduledDispatch() {
+        if (!enabled || !"nearest".equals(mode)) {
+            return;
+        }
+        try {
+            List<Map<String, Object>> assignments = assignReadyOrders();
+            if (!assignments.isEmpty()) {
+                logger.info("Dispatch round assigned {} orders", assignments.size());
+            }
+        } catch (Exception e) {
+            logger.error("Dispatch round failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * One dispatch round: greedily gives each unassigned READY_FOR_PICKUP order (oldest first)
+     * the nearest partner not yet claimed in this round, then claims partner and order in the
+     * database one pair at a time.
+     */
+    public synchronized List<Map<String, Object>> assignReadyOrders() {
+        List<Order> orders = orderRepository.findByStatusAndDeliveryPartnerIsNullOrderByOrderDateAsc(
+                OrderStatus.READY_FOR_PICKUP, PageRequest.of(0, batchSize));
+        if (orders.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // Phase 1: match in memory
+        Set<String> claimed = new HashSet<>();
+        List<Candidate> matches = new ArrayList<>();
+        for (Order order : orders) {
+            if (order.getPickupLocationLat() == null || order.getPickupLocationLng() == null) {
+                continue;
+            }
+            PartnerLocationGrid.Match match = nearestPartner(order.getPickupLocationLat(), order.getPickupLocationLng(), claimed);
+            if (match != null) {
+                claimed.add(match.getPartnerId());
+                matches.add(new Candidate(order, match));
+            }
+        }
+        if (matches.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // Phase 2: one read for all matched partners, then conditional writes per order
+        Map<String, DeliveryPartner> partners = new HashMap<>();
+        deliveryPartnerRepository.findAllById(claimed).forEach(p -> partners.put(p.getId(), p));
+
+        List<Map<String, Object>> assignments = new ArrayList<>();
+        for (Candidate candidate : matches) {
+            Order order = candidate.order;
+            DeliveryPartner partner = partners.get(candidate.match.getPartnerId());
+            if (partner == null || partner.getUser() == null) {
+                grid.remove(candidate.match.getPartnerId());
+                continue;
+            }
+
+            // The grid is per node: another node may have taken this partner, so the database decides
+            if (!claimPartner(partner.getId())) {
+                grid.setAvailable(partner.getId(), false);
+                continue;
+            }
+
+            // Only claims the order if nobody else assigned or cancelled it since it was read
+            Query unassigned = new Query(Criteria.where("id").is(order.getId())
+                    .and("status").is(OrderStatus.READY_FOR_PICKUP)
+                    .and("deliveryPartner").is(null));
+            Update assign = new Update().set("deliveryPartner", mongoTemplate.getConverter().toDBRef(partner.getUser(), null))
+                    .inc("revision", 1L);
+            if (mongoTemplate.updateFirst(unassigned, assign, Order.class).getModifiedCount() == 0) {
+                markAvailable(partner.getId());
+                continue;
+            }
+
+            Map<String, Object> assignment = new LinkedHashMap<>();
+            assignment.put("orderId", order.getId());
+            assignment.put("deliveryPartnerId", partner.getId());
+            assignment.put("distanceKm", candidate.match.getDistanceKm());
+            assignments.add(assignment);
+        }
+
+        return assignments;
+    }
+
+    /**
+     * Takes a partner off the available list only if they are still on it, so two nodes running a
+     * round at the same time cannot both give them an order. False if someone else got there first.
+     */
+    public boolean claimPartner(String partnerId) {
+        Query available = new Query(Criteria.where("id").is(partnerId).and("isAvailable").is(true));
+        if (mongoTemplate.updateFirst(available, new Update().set("isAvailable", false), DeliveryPartner.class)
+                .getModifiedCount() == 0) {
+            return false;
+        }
+        grid.setAvailable(partnerId, false);
+        return true;
+    }
+
+    public void markUnavailable(Collection<String> partnerIds) {
+        if (partnerIds.isEmpty()) {
+            return;
+        }
+        partnerIds.forEach(id -> grid.setAvailable(id, false));
+        mongoTemplate.updateMulti(new Query(Criteria.where("id").in(partnerIds)),
+                new Update().set("isAvailable", false), DeliveryPartner.class);
+    }
+
+    public void markAvailable(String partnerId) {
+        grid.setAvailable(partnerId, true);
+        mongoTemplate.updateFirst(new Query(Criteria.where("id").is(partnerId)),
+                new Update().set("isAvailable", true), DeliveryPartner.class);
+    }
+
+    public PartnerLocationGrid.Position getPartnerPosition(String partnerId) {
+        return grid.get(partnerId);
+    }
+
+    /**
+     * Nearest available partner to a pickup point that is not in {@code claimed}, or null.
+     */
+    public PartnerLocationGrid.Match nearestPartner(double lat, double lng, Set<String> claimed) {
+        List<PartnerLocationGrid.Match> nearest = grid.nearest(lat, lng, 1, maxDistanceKm, id -> !claimed.contains(id));
+        if (!nearest.isEmpty()) {
+            return nearest.get(0);
+        }
+        if (grid.size() > 0) {
+            return null;
+        }
+
+        // Cold grid (e.g. right after a restart): ask the 2dsphere index and cache what comes back
+        for (DeliveryPartner partner : deliveryPartnerRepository.findByIsAvailableTrueAndLocationNear(
+                new Point(lng, lat), new Distance(maxDistanceKm, Metrics.KILOMETERS))) {
+            grid.update(partner.getId(), partner.getCurrentLocationLat(), partner.getCurrentLocationLng(), true);
+            if (!claimed.contains(partner.getId())) {
+                return new PartnerLocationGrid.Match(partner.getId(), PartnerLocationGrid.haversineKm(
+                        lat, lng, partner.getCurrentLocationLat(), partner.getCurrentLocationLng()));
+            }
+        }
+        return null;
+    }
+
+    private static class Candidate {
+        private final Order order;
+        private final PartnerLocationGrid.Match match;
+
+        Candidate(Order order, PartnerLocationGrid.Match match) {
+            this.order = order;
+            this.match = match;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.server.services;
 
+import com.server.Models.Money;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
@@ -21,7 +22,7 @@ public class EmailService {
     private TemplateEngine templateEngine;
 
     @Async
-    public void sendOrderConfirmationEmail(String toEmail, String customerName, String orderId, Double totalAmount) {
+    public void sendOrderConfirmationEmail(String toEmail, String customerName, String orderId, Money totalAmount) {
         try {
             MimeMessage message = mailSender.createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
@@ -0,0 +1,377 @@
+package com.server.services;
+
+import com.mongodb.DBRef;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.server.Models.Money;
+import com.server.Models.Order;
+import com.server.Models.OrderStatus;
+import com.server.Models.Product;
+import com.server.Models.Quantity;
+import com.server.Models.User;
+import com.server.Repositories.UserRepository;
+import com.server.utils.FarmerSalesSeries;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Backs the farmer dashboard with per-farmer {@link FarmerSalesSeries} held in memory. A farmer's
+ * series is built from order history the first time they open the dashboard, then kept current
+ * from order events, so dashboard loads are array scans and never query Mongo.
+ */
+@Service
+public class FarmerSalesService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FarmerSalesService.class);
+
+    // Statuses of paid orders that still count as sales
+    private static final Set<OrderStatus> COUNTED = EnumSet.of(OrderStatus.CONFIRMED, OrderStatus.PREPARING,
+            OrderStatus.READY_FOR_PICKUP, OrderStatus.PICKED_UP, OrderStatus.IN_TRANSIT, OrderStatus.DELIVERED);
+
+    private static final Set<OrderStatus> PAID = EnumSet.of(OrderStatus.CONFIRMED, OrderStatus.PREPARING,
+            OrderStatus.READY_FOR_PICKUP);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderEventPublisher orderEventPublisher;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${analytics.time-zone:UTC}")
+    private String timeZone;
+
+    // Longest range a dashboard may ask for
+    @Value("${farmer.analytics.window-days:90}")
+    private int windowDays;
+
+    // Farmers kept in memory; the least recently viewed is dropped beyond this
+    @Value("${farmer.analytics.max-farmers:2000}")
+    private int maxFarmers;
+
+    private ZoneId zone;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ExecutorService updater = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "farmer-sales-updater");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Consumer<OrderEventPublisher.OrderStatusEvent> listener = this::onStatusChange;
+
+    @PostConstruct
+    void subscribe() {
+        zone = ZoneId.of(timeZone);
+        orderEventPublisher.subscribe(listener);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        orderEventPublisher.unsubscribe(listener);
+        updater.shutdown();
+    }
+
+    private String getCurrentUserEmail() {
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        if (principal instanceof UserDetails) {
+            return ((UserDetails) principal).getUsername();
+        } else {
+            return principal.toString();
+        }
+    }
+
+    private User getCurrentUser() {
+        String email = getCurrentUserEmail();
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    private User getCurrentFarmer() {
+        User farmer = getCurrentUser();
+        if (!farmer.getRole().toString().equals("FARMER")) {
+            throw new RuntimeException("Only farmers can view sales analytics");
+        }
+        return farmer;
+    }
+
+    /**
+     * Units sold per product per day for the last {@code days} days, today included.
+     */
+    public Map<String, Object> getDailyUnits(int days) {
+        int span = clampDays(days);
+        Entry entry = entryFor(getCurrentFarmer().getId());
+        long today = LocalDate.now(zone).toEpochDay();
+        long fromDay = today - span + 1;
+
+        List<String> dates = new ArrayList<>(span);
+        for (long day = fromDay; day <= today; day++) {
+            dates.add(LocalDate.ofEpochDay(day).toString());
+        }
+
+        List<Map<String, Object>> products = new ArrayList<>();
+        synchronized (entry) {
+            double[][] units = entry.series.unitsPerDay(fromDay, today);
+            for (int product = 0; product < units.length; product++) {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("productId", entry.series.getProductId(product));
+                row.put("name", entry.series.getProductName(product));
+                row.put("units", units[product]);
+                products.add(row);
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("dates", dates);
+        result.put("products", products);
+        return result;
+    }
+
+    /**
+     * Best sellers by units over the last {@code days} days (7 is "this week").
+     */
+    public List<FarmerSalesSeries.ProductTotal> getTopProducts(int days, int limit) {
+        int span = clampDays(days);
+        Entry entry = entryFor(getCurrentFarmer().getId());
+        long today = LocalDate.now(zone).toEpochDay();
+        synchronized (entry) {
+            return entry.series.top(today - span + 1, today, Math.max(1, Math.min(limit, 50)));
+        }
+    }
+
+    private int clampDays(int days) {
+        return Math.max(1, Math.min(days, windowDays));
+    }
+
+    private Entry entryFor(String farmerId) {
+        // Registered before it is loaded, so events arriving meanwhile reach it and wait for the load
+        Entry entry = entries.computeIfAbsent(farmerId, id -> new Entry(new FarmerSalesSeries(windowDays)));
+        if (!entry.loaded) {
+            // Outside computeIfAbsent, which would hold the map bin for the queries
+            synchronized (entry.loading) {
+                if (!entry.loaded) {
+                    load(farmerId, entry);
+                }
+            }
+        }
+        entry.lastViewed = System.currentTimeMillis();
+        if (entries.size() > maxFarmers) {
+            evictLeastRecentlyViewed();
+        }
+        return entry;
+    }
+
+    private void evictLeastRecentlyViewed() {
+        String oldest = null;
+        long oldestViewed = Long.MAX_VALUE;
+        for (Map.Entry<String, Entry> candidate : entries.entrySet()) {
+            if (candidate.getValue().lastViewed < oldestViewed) {
+                oldestViewed = candidate.getValue().lastViewed;
+                oldest = candidate.getKey();
+            }
+        }
+        if (oldest != null) {
+            entries.remove(oldest);
+        }
+    }
+
+    // One read of the farmer's products and one of the orders containing them inside the window
+    private void load(String farmerId, Entry entry) {
+        try {
+            Map<ObjectId, String> names = new HashMap<>();
+            mongoTemplate.getCollection(mongoTemplate.getCollectionName(Product.class))
+                    .find(Filters.eq("farmer.$id", new ObjectId(farmerId)))
+                    .projection(Projections.include("name"))
+                    .forEach(product -> names.put(product.getObjectId("_id"), product.getString("name")));
+
+            if (!names.isEmpty()) {
+                Date from = Date.from(LocalDate.now(zone).minusDays(windowDays - 1).atStartOfDay(zone).toInstant());
+                List<String> counted = COUNTED.stream().map(Enum::name).collect(Collectors.toList());
+                mongoTemplate.getCollection(mongoTemplate.getCollectionName(Order.class))
+                        .find(Filters.and(
+                                Filters.in("orderItems.product.$id", names.keySet()),
+                                Filters.gte("orderDate", from),
+                                Filters.in("status", counted)))
+                        .projection(Projections.include("orderDate", "orderItems"))
+                        .forEach(order -> count(entry, order, names, 1));
+            }
+        } catch (RuntimeException e) {
+            // The next view starts over; events held so far are covered by that fresh read
+            entries.remove(farmerId, entry);
+            throw e;
+        }
+
+        // Replayed after the read, so a cancellation the read missed still takes its order back out
+        synchronized (entry) {
+            for (PendingChange change : entry.pending) {
+                count(entry, change.order, change.names, change.sign);
+            }
+            entry.pending.clear();
+            entry.loaded = true;
+        }
+    }
+
+    private void onStatusChange(OrderEventPublisher.OrderStatusEvent event) {
+        if (event.getToStatus() == OrderStatus.CONFIRMED) {
+            updater.execute(() -> update(event.getOrderId(), 1));
+        } else if (event.getToStatus() == OrderStatus.CANCELLED && PAID.contains(event.getFromStatus())) {
+            updater.execute(() -> update(event.getOrderId(), -1));
+        }
+    }
+
+    // Only farmers already in memory (or being loaded) are touched; anyone else picks the order up on their first load
+    private void update(String orderId, int sign) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        try {
+            Document order = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Order.class))
+                    .find(Filters.eq("_id", new ObjectId(orderId)))
+                    .projection(Projections.include("orderDate", "orderItems"))
+                    .first();
+            if (order == null) {
+                return;
+            }
+            Set<Object> productIds = new HashSet<>();
+            for (Document item : items(order)) {
+                if (item.get("product") instanceof DBRef ref) {
+                    productIds.add(ref.getId());
+                }
+            }
+
+            // farmer id -> (product id -> name) for the farmers that currently have a series
+            Map<String, Map<ObjectId, String>> byFarmer = new HashMap<>();
+            mongoTemplate.getCollection(mongoTemplate.getCollectionName(Product.class))
+                    .find(Filters.in("_id", productIds))
+                    .projection(Projections.include("name", "farmer"))
+                    .forEach(product -> {
+                        if (product.get("farmer") instanceof DBRef farmer && entries.containsKey(farmer.getId().toString())) {
+                            byFarmer.computeIfAbsent(farmer.getId().toString(), id -> new HashMap<>())
+                                    .put(product.getObjectId("_id"), product.getString("name"));
+                        }
+                    });
+
+            byFarmer.forEach((farmerId, names) -> {
+                Entry entry = entries.get(farmerId);
+                if (entry != null) {
+                    apply(entry, order, names, sign);
+                }
+            });
+        } catch (Exception e) {
+            logger.error("Could not update farmer sales for order {}: {}", orderId, e.getMessage());
+        }
+    }
+
+    // An event for a farmer still being loaded is held until the load has read the history
+    private void apply(Entry entry, Document order, Map<ObjectId, String> names, int sign) {
+        synchronized (entry) {
+            if (!entry.loaded) {
+                entry.pending.add(new PendingChange(order, names, sign));
+                return;
+            }
+        }
+        count(entry, order, names, sign);
+    }
+
+    // The per-entry order set makes a load racing an event (or a duplicate event) count an order once
+    private void count(Entry entry, Document order, Map<ObjectId, String> names, int sign) {
+        Date placed = order.getDate("orderDate");
+        if (placed == null) {
+            return;
+        }
+        long day = placed.toInstant().atZone(zone).toLocalDate().toEpochDay();
+        String orderId = order.getObjectId("_id").toHexString();
+
+        synchronized (entry) {
+            boolean changed = sign > 0 ? entry.orderIds.add(orderId) : entry.orderIds.remove(orderId);
+            if (!changed) {
+                return;
+            }
+            for (Document item : items(order)) {
+                if (!(item.get("product") instanceof DBRef ref) || !names.containsKey(ref.getId())) {
+                    continue;
+                }
+                Object quantity = item.get("quantity");
+                Object price = item.get("price");
+                if (!(quantity instanceof Number) || !(price instanceof Number)) {
+                    continue;
+                }
+                long grams = grams((Number) quantity);
+                double revenue = Money.lineTotalMinor(paise((Number) price), grams) / 100.0;
+                entry.series.add(ref.getId().toString(), names.get(ref.getId()), day,
+                        sign * grams / 1000.0, sign * revenue);
+            }
+        }
+    }
+
+    // Raw documents carry grams and paise as integers; doubles are kg and rupees not yet migrated
+    private static long grams(Number quantity) {
+        return quantity instanceof Double ? Quantity.ofKg(quantity.doubleValue()).getGrams() : quantity.longValue();
+    }
+
+    private static long paise(Number price) {
+        return price instanceof Double ? Money.ofMajor(price.doubleValue()).getMinorUnits() : price.longValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Document> items(Document order) {
+        Object items = order.get("orderItems");
+        return items instanceof List ? (List<Document>) items : List.of();
+    }
+
+    private static class Entry {
+        private final FarmerSalesSeries series;
+        // Orders already counted into the series
+        private final Set<String> orderIds = new HashSet<>();
+        // Held by the one request loading the series; others asking for it wait here
+        private final Object loading = new Object();
+        // Events that arrived before the load finished, guarded by the entry like the series
+        private final List<PendingChange> pending = new ArrayList<>();
+        private volatile boolean loaded;
+        private volatile long lastViewed;
+
+        Entry(FarmerSalesSeries series) {
+            this.series = series;
+        }
+    }
+
+    private static class PendingChange {
+        private final Document order;
+        private final Map<ObjectId, String> names;
+        private final int sign;
+
+        PendingChange(Document order, Map<ObjectId, String> names, int sign) {
+            this.order = order;
+            this.names = names;
+            this.sign = sign;
+        }
+    }
+}
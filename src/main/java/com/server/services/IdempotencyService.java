@@ -0,0 +1,148 @@
+package com.server.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Makes order placement safe to retry. A client sends the same {@code Idempotency-Key} header with
+ * every attempt of one checkout; the first attempt runs, and later ones (on any node, through the
+ * shared store) get the first response back with {@code Idempotent-Replayed: true} instead of a
+ * second order.
+ *
+ * Keys are scoped to the signed-in user. While the first attempt is still running, repeats get
+ * 409; a key reused for a different request body gets 422. Only successful responses are kept, so
+ * a request that failed can be retried with the same key once the problem is fixed.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final String NAMESPACE = "idempotency";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    @Autowired
+    private SharedStateStore sharedStateStore;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Longest a first attempt may run before its key is free again (say the node died mid-request)
+    @Value("${idempotency.pending-seconds:60}")
+    private long pendingSeconds;
+
+    @Value("${idempotency.retention-hours:24}")
+    private long retentionHours;
+
+    /**
+     * Runs {@code action} once per {@code key}, or straight through when the client sent no key.
+     * {@code scope} separates endpoints and {@code request} is the body the key is bound to.
+     */
+    public ResponseEntity<?> execute(String scope, String key, Object request, Supplier<ResponseEntity<?>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body(
+                    Map.of("error", HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters")
+            );
+        }
+
+        String id = scope + ":" + currentUser() + ":" + key;
+        String fingerprint = fingerprint(request);
+        String existing = sharedStateStore.putIfAbsent(NAMESPACE, id,
+                write(new StoredResponse(fingerprint, 0, null)), Duration.ofSeconds(pendingSeconds));
+        if (existing != null) {
+            return replay(read(existing), fingerprint);
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            sharedStateStore.remove(NAMESPACE, id);
+            throw e;
+        }
+
+        if (response.getStatusCode().is2xxSuccessful()) {
+            JsonNode body = objectMapper.valueToTree(response.getBody());
+            sharedStateStore.put(NAMESPACE, id, write(new StoredResponse(fingerprint, response.getStatusCode().value(), body)),
+                    Duration.ofHours(retentionHours));
+        } else {
+            sharedStateStore.remove(NAMESPACE, id);
+        }
+        return response;
+    }
+
+    private ResponseEntity<?> replay(StoredResponse stored, String fingerprint) {
+        if (!stored.getFingerprint().equals(fingerprint)) {
+            return ResponseEntity.unprocessableEntity().body(
+                    Map.of("error", HEADER + " was already used for a different request")
+            );
+        }
+        if (stored.getStatus() == 0) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(
+                    Map.of("error", "A request with this " + HEADER + " is still being processed")
+            );
+        }
+        return ResponseEntity.status(stored.getStatus())
+                .header(REPLAYED_HEADER, "true")
+                .body(stored.getBody());
+    }
+
+    private String currentUser() {
+        return SecurityContextHolder.getContext().getAuthentication().getName();
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(objectMapper.writeValueAsString(request).getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new RuntimeException("Cannot fingerprint request: " + e.getMessage());
+        }
+    }
+
+    private String write(StoredResponse stored) {
+        try {
+            return objectMapper.writeValueAsString(stored);
+        } catch (Exception e) {
+            throw new RuntimeException("Cannot store response: " + e.getMessage());
+        }
+    }
+
+    private StoredResponse read(String json) {
+        try {
+            return objectMapper.readValue(json, StoredResponse.class);
+        } catch (Exception e) {
+            throw new RuntimeException("Unreadable idempotency record: " + e.getMessage());
+        }
+    }
+
+    // status 0 means the first attempt has not finished yet
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class StoredResponse {
+        private String fingerprint;
+        private int status;
+        private JsonNode body;
+    }
+}
@@ -0,0 +1,18 @@
+package com.server.services;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Delivers events straight from the thread that committed the transition. Only listeners on this
+ * node see them, which is all a single instance (or a test) needs.
+ */
+@Service
+@ConditionalOnProperty(name = "order.events.source", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOrderEventPublisher extends OrderEventPublisher {
+
+    @Override
+    public void publish(OrderStatusEvent event) {
+        deliver(event);
+    }
+}
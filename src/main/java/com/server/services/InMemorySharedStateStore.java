@@ -0,0 +1,90 @@
+package com.server.services;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps shared state in this JVM. Only this node sees it, so run one node (or use
+ * {@code state.store=mongo}) when payments, idempotency keys or login counters must survive a
+ * request landing elsewhere.
+ */
+@Service
+@ConditionalOnProperty(name = "state.store", havingValue = "memory", matchIfMissing = true)
+public class InMemorySharedStateStore implements SharedStateStore {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Override
+    public String get(String namespace, String key) {
+        Entry entry = live(entries.get(id(namespace, key)), System.currentTimeMillis());
+        return entry == null ? null : entry.value;
+    }
+
+    @Override
+    public void put(String namespace, String key, String value, Duration ttl) {
+        entries.put(id(namespace, key), new Entry(value, 0, expiry(ttl)));
+    }
+
+    @Override
+    public String putIfAbsent(String namespace, String key, String value, Duration ttl) {
+        long now = System.currentTimeMillis();
+        Entry created = new Entry(value, 0, now + ttl.toMillis());
+        Entry result = entries.compute(id(namespace, key),
+                (id, current) -> live(current, now) != null ? current : created);
+        return result == created ? null : result.value;
+    }
+
+    @Override
+    public long increment(String namespace, String key, long delta, Duration ttl) {
+        long now = System.currentTimeMillis();
+        return entries.compute(id(namespace, key), (id, current) -> live(current, now) == null
+                ? new Entry(null, delta, now + ttl.toMillis())
+                : new Entry(current.value, current.count + delta, current.expiresAt)).count;
+    }
+
+    @Override
+    public long count(String namespace, String key) {
+        Entry entry = live(entries.get(id(namespace, key)), System.currentTimeMillis());
+        return entry == null ? 0 : entry.count;
+    }
+
+    @Override
+    public void remove(String namespace, String key) {
+        entries.remove(id(namespace, key));
+    }
+
+    @Scheduled(fixedDelayString = "${state.memory.sweep-ms:60000}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAt <= now);
+    }
+
+    private static Entry live(Entry entry, long now) {
+        return entry != null && entry.expiresAt > now ? entry : null;
+    }
+
+    private static long expiry(Duration ttl) {
+        return System.currentTimeMillis() + ttl.toMillis();
+    }
+
+    private static String id(String namespace, String key) {
+        return namespace + ":" + key;
+    }
+
+    private static class Entry {
+        private final String value;
+        private final long count;
+        private final long expiresAt;
+
+        Entry(String value, long count, long expiresAt) {
+            this.value = value;
+            this.count = count;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.server.services;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import com.server.config.MongoIndexCatalog;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compares the indexes in MongoDB with {@link MongoIndexCatalog} and, when the profiler is on,
+ * reports query shapes that still fall back to collection scans.
+ */
+@Service
+public class IndexVerificationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexVerificationService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoIndexCatalog indexCatalog;
+
+    @Value("${mongo.index.verify-on-startup:true}")
+    private boolean verifyOnStartup;
+
+    // -1 leaves the database profiler untouched; otherwise operations slower than this are profiled
+    @Value("${mongo.index.profile-slow-ms:-1}")
+    private int profileSlowMs;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (!verifyOnStartup) {
+            return;
+        }
+        try {
+            ensureProgrammaticIndexes();
+            if (profileSlowMs >= 0) {
+                mongoTemplate.executeCommand(new Document("profile", 1).append("slowms", profileSlowMs));
+            }
+
+            Map<String, Object> report = verify();
+            @SuppressWarnings("unchecked")
+            Map<String, Map<String, Object>> collections = (Map<String, Map<String, Object>>) report.get("collections");
+            collections.forEach((collection, status) -> {
+                List<?> missing = (List<?>) status.get("missing");
+                if (!missing.isEmpty()) {
+                    logger.warn("Collection '{}' is missing declared indexes: {}", collection, missing);
+                }
+            });
+            logger.info("Index verification finished, all declared indexes present: {}", report.get("healthy"));
+        } catch (Exception e) {
+            // Never block startup on a diagnostics check
+            logger.error("Index verification failed: {}", e.getMessage());
+        }
+    }
+
+    // auto-index-creation only covers annotations, the rest of the catalog is created here
+    public List<String> ensureProgrammaticIndexes() {
+        List<String> created = new ArrayList<>();
+        indexCatalog.programmaticIndexes().forEach((entity, indexes) -> {
+            for (IndexDefinition index : indexes) {
+                try {
+                    created.add(mongoTemplate.indexOps(entity).createIndex(index));
+                } catch (Exception e) {
+                    logger.error("Could not create index {} on {}: {}", index.getIndexKeys(), entity.getSimpleName(), e.getMessage());
+                }
+            }
+        });
+        return created;
+    }
+
+    public List<String> ensureAllIndexes() {
+        List<String> created = new ArrayList<>();
+        indexCatalog.declaredIndexes().forEach((entity, indexes) -> {
+            for (IndexDefinition index : indexes) {
+                created.add(mongoTemplate.indexOps(entity).createIndex(index));
+            }
+        });
+        return created;
+    }
+
+    public Map<String, Object> verify() {
+        Map<String, Object> collections = new LinkedHashMap<>();
+        boolean healthy = true;
+
+        for (Map.Entry<Class<?>, List<IndexDefinition>> entry : indexCatalog.declaredIndexes().entrySet()) {
+            String collection = indexCatalog.collectionName(entry.getKey());
+
+            List<Document> actualKeys = new ArrayList<>();
+            if (mongoTemplate.collectionExists(collection)) {
+                for (Document index : mongoTemplate.getCollection(collection).listIndexes()) {
+                    actualKeys.add(index.get("key", Document.class));
+                }
+            }
+
+            List<String> present = new ArrayList<>();
+            List<String> missing = new ArrayList<>();
+            Set<Document> matched = new HashSet<>();
+            for (IndexDefinition declared : entry.getValue()) {
+                Document keys = declared.getIndexKeys();
+                Document match = actualKeys.stream().filter(actual -> sameKeys(keys, actual)).findFirst().orElse(null);
+                if (match != null) {
+                    present.add(keys.toJson());
+                    matched.add(match);
+                } else {
+                    missing.add(keys.toJson());
+                }
+            }
+
+            List<String> undeclared = new ArrayList<>();
+            for (Document actual : actualKeys) {
+                if (!matched.contains(actual) && !actual.equals(new Document("_id", 1))) {
+                    undeclared.add(actual.toJson());
+                }
+            }
+
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("present", present);
+            status.put("missing", missing);
+            status.put("undeclared", undeclared);
+            collections.put(collection, status);
+            healthy &= missing.isEmpty();
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("healthy", healthy);
+        report.put("collections", collections);
+        report.put("unindexedQueries", unindexedQueryShapes());
+        return report;
+    }
+
+    /**
+     * Groups COLLSCAN entries from system.profile by collection and filter shape.
+     * Returns an empty list when profiling has never been enabled.
+     */
+    public List<Map<String, Object>> unindexedQueryShapes() {
+        Map<String, Map<String, Object>> shapes = new LinkedHashMap<>();
+        if (!mongoTemplate.collectionExists("system.profile")) {
+            return new ArrayList<>();
+        }
+
+        for (Document entry : mongoTemplate.getCollection("system.profile")
+                .find(Filters.eq("planSummary", "COLLSCAN"))
+                .sort(Sorts.descending("ts"))
+                .limit(1000)) {
+            String namespace = entry.getString("ns");
+            if (namespace == null || namespace.contains(".system.")) {
+                continue;
+            }
+            Document command = entry.get("command", Document.class);
+            Object filter = command != null ? command.get("filter", command.get("q")) : null;
+            String shape = namespace + " " + entry.getString("op") + " " + shapeOf(filter);
+
+            Map<String, Object> summary = shapes.computeIfAbsent(shape, key -> {
+                Map<String, Object> s = new LinkedHashMap<>();
+                s.put("namespace", namespace);
+                s.put("operation", entry.getString("op"));
+                s.put("filterShape", shapeOf(filter));
+                s.put("count", 0);
+                s.put("maxMillis", 0);
+                return s;
+            });
+            summary.put("count", (Integer) summary.get("count") + 1);
+            Number millis = entry.get("millis", Number.class);
+            if (millis != null && millis.intValue() > (Integer) summary.get("maxMillis")) {
+                summary.put("maxMillis", millis.intValue());
+            }
+        }
+        return new ArrayList<>(shapes.values());
+    }
+
+    // Replaces literal values with '?' so queries that differ only in parameters group together
+    private static Object shapeOf(Object value) {
+        if (value instanceof Document document) {
+            Document shape = new Document();
+            document.forEach((key, nested) -> shape.put(key, shapeOf(nested)));
+            return shape;
+        }
+        if (value instanceof List<?> list) {
+            return list.isEmpty() ? list : List.of(shapeOf(list.get(0)));
+        }
+        return value == null ? "{}" : "?";
+    }
+
+    // Compares key patterns field by field and in order; text indexes are stored as _fts/_ftsx
+    private static boolean sameKeys(Document declared, Document actual) {
+        if (declared.containsValue("text")) {
+            return actual.containsKey("_fts");
+        }
+        List<String> declaredFields = new ArrayList<>(declared.keySet());
+        List<String> actualFields = new ArrayList<>(actual.keySet());
+        if (!declaredFields.equals(actualFields)) {
+            return false;
+        }
+        for (String field : declaredFields) {
+            Object expected = declared.get(field);
+            Object found = actual.get(field);
+            if (expected instanceof Number && found instanceof Number) {
+                if (((Number) expected).intValue() != ((Number) found).intValue()) {
+                    return false;
+                }
+            } else if (!String.valueOf(expected).equals(String.valueOf(found))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,315 @@
+package com.server.services;
+
+import com.server.Models.DeliveryPartner;
+import com.server.Models.User;
+import com.server.Repositories.DeliveryPartnerRepository;
+import com.server.Repositories.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Accepts high-frequency GPS pings from delivery partners without a database write per ping.
+ * The latest position per partner is kept in a lock-striped map; partners that moved since the
+ * last flush are written to MongoDB in one unordered bulk write every flush interval.
+ * Live positions for order tracking are read straight from memory.
+ *
+ * Ping times come from the device, so they are capped at server time: a clock running ahead would
+ * otherwise make every later, correctly stamped ping look out of order. Partners that stop pinging
+ * are dropped from memory after {@code idle-evict-ms}; reads then fall back to the flushed position.
+ */
+@Service
+public class LocationIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocationIngestionService.class);
+
+    @Autowired
+    private DeliveryPartnerRepository deliveryPartnerRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private DispatchService dispatchService;
+
+    @Autowired
+    private OrderTrackingBroadcaster orderTrackingBroadcaster;
+
+    // Pings stamped further ahead of server time than this are rejected; closer ones are capped at now
+    @Value("${location.ingest.max-clock-skew-ms:5000}")
+    private long maxClockSkewMs;
+
+    @Value("${location.ingest.idle-evict-ms:600000}")
+    private long idleEvictMs;
+
+    private final Stripe[] stripes;
+
+    // Resolved once per partner so pings after the first never touch the database
+    private final Map<String, PartnerRef> partnersByEmail = new ConcurrentHashMap<>();
+    private final Map<String, String> partnerIdsByUserId = new ConcurrentHashMap<>();
+
+    public LocationIngestionService(@Value("${location.ingest.stripes:64}") int stripeCount) {
+        // Power of two so the stripe can be picked with a mask
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    public void recordPing(String email, Double lat, Double lng, Long recordedAtMillis) {
+        if (lat == null || lng == null || lat < -90 || lat > 90 || lng < -180 || lng > 180) {
+            throw new RuntimeException("Valid lat and lng are required");
+        }
+        long now = System.currentTimeMillis();
+        if (recordedAtMillis != null && recordedAtMillis > now + maxClockSkewMs) {
+            throw new RuntimeException("recordedAt is ahead of server time; check the device clock");
+        }
+        PartnerRef partner = partnersByEmail.get(email);
+        if (partner == null) {
+            // Resolved outside the map: computeIfAbsent would hold its bin for the database round trips
+            partner = resolvePartner(email);
+            partnersByEmail.putIfAbsent(email, partner);
+        }
+        long recordedAt = recordedAtMillis != null ? Math.min(recordedAtMillis, now) : now;
+
+        if (stripeFor(partner.partnerId).offer(new LocationPing(partner.partnerId, lat, lng, recordedAt), true)) {
+            dispatchService.trackPartnerPosition(partner.partnerId, lat, lng, partner.availableWhenResolved);
+            orderTrackingBroadcaster.publishLocation(partner.userId, lat, lng, recordedAt);
+        }
+    }
+
+    // Called after a full location save so live reads see it without scheduling another write
+    public void recordSaved(DeliveryPartner partner) {
+        if (partner.getCurrentLocationLat() == null || partner.getCurrentLocationLng() == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        boolean newest = stripeFor(partner.getId()).offer(new LocationPing(partner.getId(), partner.getCurrentLocationLat(),
+                partner.getCurrentLocationLng(), now), false);
+        if (partner.getUser() != null) {
+            partnerIdsByUserId.put(partner.getUser().getId(), partner.getId());
+            if (newest) {
+                orderTrackingBroadcaster.publishLocation(partner.getUser().getId(),
+                        partner.getCurrentLocationLat(), partner.getCurrentLocationLng(), now);
+            }
+        }
+    }
+
+    public LocationPing getLivePosition(String partnerId) {
+        return stripeFor(partnerId).latest(partnerId);
+    }
+
+    /**
+     * Live position of the partner behind a user id (Order.deliveryPartner references the user).
+     * Falls back to the last flushed position when this node has not seen a ping yet.
+     */
+    public LocationPing getLivePositionForUser(String userId) {
+        String partnerId = partnerIdsByUserId.get(userId);
+        if (partnerId != null) {
+            LocationPing live = getLivePosition(partnerId);
+            if (live != null) {
+                return live;
+            }
+        }
+
+        DeliveryPartner partner = deliveryPartnerRepository.findByUserId(userId).orElse(null);
+        if (partner == null || partner.getCurrentLocationLat() == null) {
+            return null;
+        }
+        partnerIdsByUserId.put(userId, partner.getId());
+        long updatedAt = partner.getLocationUpdatedAt() != null
+                ? partner.getLocationUpdatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : 0L;
+        return new LocationPing(partner.getId(), partner.getCurrentLocationLat(), partner.getCurrentLocationLng(), updatedAt);
+    }
+
+    @Scheduled(fixedDelayString = "${location.ingest.flush-interval-ms:2000}")
+    public void flush() {
+        List<LocationPing> dirty = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            stripe.drainDirty(dirty);
+        }
+        if (dirty.isEmpty()) {
+            return;
+        }
+
+        try {
+            BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DeliveryPartner.class);
+            for (LocationPing ping : dirty) {
+                operations.updateOne(new Query(Criteria.where("id").is(ping.getPartnerId())), new Update()
+                        .set("currentLocationLat", ping.getLat())
+                        .set("currentLocationLng", ping.getLng())
+                        .set("location", new GeoJsonPoint(ping.getLng(), ping.getLat()))
+                        .set("locationUpdatedAt", LocalDateTime.ofInstant(
+                                Instant.ofEpochMilli(ping.getRecordedAt()), ZoneId.systemDefault())));
+            }
+            operations.execute();
+            logger.debug("Flushed {} coalesced partner locations", dirty.size());
+        } catch (Exception e) {
+            // Put them back so the next flush retries, unless a newer ping has arrived meanwhile
+            for (LocationPing ping : dirty) {
+                stripeFor(ping.getPartnerId()).requeue(ping);
+            }
+            logger.error("Failed to flush {} partner locations: {}", dirty.size(), e.getMessage());
+        }
+    }
+
+    // Forgets partners that have stopped pinging (gone offline), unless their last ping is unflushed
+    @Scheduled(fixedDelayString = "${location.ingest.idle-evict-ms:600000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleEvictMs;
+        int evicted = 0;
+        for (Stripe stripe : stripes) {
+            evicted += stripe.evictOlderThan(cutoff);
+        }
+        if (evicted > 0) {
+            logger.debug("Evicted {} idle partner positions", evicted);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private PartnerRef resolvePartner(String email) {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (!user.getRole().toString().equals("DELIVERY_PARTNER")) {
+            throw new RuntimeException("Only delivery partners can report locations");
+        }
+        DeliveryPartner partner = dispatchService.findOrCreatePartner(user);
+        partnerIdsByUserId.put(user.getId(), partner.getId());
+        return new PartnerRef(partner.getId(), user.getId(), Boolean.TRUE.equals(partner.getIsAvailable()));
+    }
+
+    private Stripe stripeFor(String partnerId) {
+        int hash = partnerId.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    private static class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<String, LocationPing> latest = new HashMap<>();
+        private Map<String, LocationPing> dirty = new HashMap<>();
+
+        // Out-of-order pings (older than what we hold) are dropped; returns whether this ping won
+        boolean offer(LocationPing ping, boolean markDirty) {
+            lock.lock();
+            try {
+                LocationPing current = latest.get(ping.getPartnerId());
+                if (current != null && current.getRecordedAt() > ping.getRecordedAt()) {
+                    return false;
+                }
+                latest.put(ping.getPartnerId(), ping);
+                if (markDirty) {
+                    dirty.put(ping.getPartnerId(), ping);
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        LocationPing latest(String partnerId) {
+            lock.lock();
+            try {
+                return latest.get(partnerId);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void drainDirty(List<LocationPing> into) {
+            Map<String, LocationPing> drained;
+            lock.lock();
+            try {
+                if (dirty.isEmpty()) {
+                    return;
+                }
+                drained = dirty;
+                dirty = new HashMap<>();
+            } finally {
+                lock.unlock();
+            }
+            into.addAll(drained.values());
+        }
+
+        int evictOlderThan(long cutoff) {
+            lock.lock();
+            try {
+                int before = latest.size();
+                latest.values().removeIf(ping -> ping.getRecordedAt() < cutoff && !dirty.containsKey(ping.getPartnerId()));
+                return before - latest.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void requeue(LocationPing ping) {
+            lock.lock();
+            try {
+                dirty.putIfAbsent(ping.getPartnerId(), ping);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static class PartnerRef {
+        private final String partnerId;
+        // Orders reference the partner's user, so live tracking is keyed by it
+        private final String userId;
+        // Only used if the dispatch grid has never seen this partner
+        private final boolean availableWhenResolved;
+
+        PartnerRef(String partnerId, String userId, boolean availableWhenResolved) {
+            this.partnerId = partnerId;
+            this.userId = userId;
+            this.availableWhenResolved = availableWhenResolved;
+        }
+    }
+
+    public static class LocationPing {
+        private final String partnerId;
+        private final double lat;
+        private final double lng;
+        private final long recordedAt;
+
+        public LocationPing(String partnerId, double lat, double lng, long recordedAt) {
+            this.partnerId = partnerId;
+            this.lat = lat;
+            this.lng = lng;
+            this.recordedAt = recordedAt;
+        }
+
+        public String getPartnerId() { return partnerId; }
+        public double getLat() { return lat; }
+        public double getLng() { return lng; }
+        public long getRecordedAt() { return recordedAt; }
+    }
+}
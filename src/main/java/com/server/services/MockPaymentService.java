@@ -1,9 +1,17 @@
 package com.server.services;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.server.Models.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
@@ -12,10 +20,19 @@ import java.util.UUID;
 public class MockPaymentService {
     private static final Logger logger = LoggerFactory.getLogger(MockPaymentService.class);
 
-    // Store mock payments for verification
-    private Map<String, MockPayment> mockPayments = new HashMap<>();
+    private static final String NAMESPACE = "payments";
 
-    public String createPaymentOrder(String orderId, Double amount) {
+    // Mock payments by order id, in the shared store so any node can report or confirm them
+    @Autowired
+    private SharedStateStore sharedStateStore;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${payment.mock.retention-hours:72}")
+    private long retentionHours;
+
+    public String createPaymentOrder(String orderId, Money amount) {
         try {
             logger.info("Creating mock payment order for Order: {}, Amount: ₹{}", orderId, amount);
 
@@ -24,7 +41,8 @@ public class MockPaymentService {
 
             // Store the mock payment
             MockPayment payment = new MockPayment(mockOrderId, mockPaymentId, orderId, amount, "SUCCESS");
-            mockPayments.put(mockOrderId, payment);
+            sharedStateStore.put(NAMESPACE, orderId, objectMapper.writeValueAsString(payment),
+                    Duration.ofHours(retentionHours));
 
             logger.info("✅ Mock payment order created: {}", mockOrderId);
             return mockOrderId;
@@ -57,12 +75,10 @@ public class MockPaymentService {
     }
 
     public Map<String, Object> getPaymentDetails(String orderId) {
-        MockPayment payment = mockPayments.values().stream()
-                .filter(p -> p.getOriginalOrderId().equals(orderId))
-                .findFirst()
-                .orElse(null);
+        String stored = sharedStateStore.get(NAMESPACE, orderId);
 
-        if (payment != null) {
+        if (stored != null) {
+            MockPayment payment = readPayment(stored);
             Map<String, Object> details = new HashMap<>();
             details.put("orderId", payment.getMockOrderId());
             details.put("paymentId", payment.getMockPaymentId());
@@ -73,26 +89,23 @@ public class MockPaymentService {
         return null;
     }
 
+    private MockPayment readPayment(String json) {
+        try {
+            return objectMapper.readValue(json, MockPayment.class);
+        } catch (Exception e) {
+            throw new RuntimeException("Unreadable payment record: " + e.getMessage());
+        }
+    }
+
     // Mock payment data class
-    private static class MockPayment {
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class MockPayment {
         private String mockOrderId;
         private String mockPaymentId;
         private String originalOrderId;
-        private Double amount;
+        private Money amount;
         private String status;
-
-        public MockPayment(String mockOrderId, String mockPaymentId, String originalOrderId, Double amount, String status) {
-            this.mockOrderId = mockOrderId;
-            this.mockPaymentId = mockPaymentId;
-            this.originalOrderId = originalOrderId;
-            this.amount = amount;
-            this.status = status;
-        }
-
-        public String getMockOrderId() { return mockOrderId; }
-        public String getMockPaymentId() { return mockPaymentId; }
-        public String getOriginalOrderId() { return originalOrderId; }
-        public Double getAmount() { return amount; }
-        public String getStatus() { return status; }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,164 @@
+package com.server.services;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import com.server.Models.Money;
+import com.server.Models.Order;
+import com.server.Models.PriceSchedule;
+import com.server.Models.Product;
+import com.server.Models.Quantity;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Rewrites prices stored as double rupees into long paise, and weights stored as double
+ * kilograms into long grams. Values go through Money.ofMajor and Quantity.ofKg, the same half-up
+ * rounding MongoConfig applies when it reads a legacy double, so a migrated document and one read
+ * lazily agree to the paisa. Each document is rewritten only while the converted fields still hold
+ * what was read, so running it again (or on several nodes at once) never overwrites a newer write.
+ */
+@Service
+public class MoneyMigrationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MoneyMigrationService.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${migration.money.on-startup:true}")
+    private boolean migrateOnStartup;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (!migrateOnStartup) {
+            return;
+        }
+        try {
+            Map<String, Long> migrated = migrate();
+            if (migrated.values().stream().anyMatch(count -> count > 0)) {
+                logger.info("Converted legacy money and quantity fields: {}", migrated);
+            }
+        } catch (Exception e) {
+            // Legacy doubles stay readable through MongoConfig, so a failed run is retried next start
+            logger.error("Money migration failed: {}", e.getMessage());
+        }
+    }
+
+    public Map<String, Long> migrate() {
+        Map<String, Long> migrated = new LinkedHashMap<>();
+
+        migrated.put(mongoTemplate.getCollectionName(Product.class), convert(Product.class,
+                Filters.or(isDouble("pricePerKg"), isDouble("availableQuantity")),
+                (product, set) -> {
+                    convertField(product, set, "pricePerKg", MoneyMigrationService::paise);
+                    convertField(product, set, "availableQuantity", MoneyMigrationService::grams);
+                }));
+
+        migrated.put(mongoTemplate.getCollectionName(Order.class), convert(Order.class,
+                Filters.or(isDouble("totalAmount"), isDouble("orderItems.price"), isDouble("orderItems.quantity")),
+                (order, set) -> {
+                    convertField(order, set, "totalAmount", MoneyMigrationService::paise);
+                    convertField(order, set, "orderItems", items -> eachDocument(items, item -> {
+                        item.put("price", paise(item.get("price")));
+                        item.put("quantity", grams(item.get("quantity")));
+                    }));
+                }));
+
+        migrated.put(mongoTemplate.getCollectionName(PriceSchedule.class), convert(PriceSchedule.class,
+                isDouble("basePrices.pricePerKg"),
+                (schedule, set) -> convertField(schedule, set, "basePrices", points -> eachDocument(points,
+                        point -> point.put("pricePerKg", paise(point.get("pricePerKg")))))));
+        return migrated;
+    }
+
+    /**
+     * Runs {@code converter} over every document matching {@code filter}; it puts the fields that
+     * changed into the second argument, which becomes the $set of a conditional unordered bulk write.
+     */
+    private long convert(Class<?> entity, Bson filter, BiConsumer<Document, Document> converter) {
+        MongoCollection<Document> collection = mongoTemplate.getCollection(mongoTemplate.getCollectionName(entity));
+        List<WriteModel<Document>> batch = new ArrayList<>(BATCH_SIZE);
+        long modified = 0;
+
+        for (Document document : collection.find(filter)) {
+            Document set = new Document();
+            converter.accept(document, set);
+            if (set.isEmpty()) {
+                continue;
+            }
+            // A write that changed these fields since they were read wins; its doubles are converted next run
+            Document unchanged = new Document("_id", document.get("_id"));
+            set.keySet().forEach(field -> unchanged.append(field, document.get(field)));
+            batch.add(new UpdateOneModel<>(unchanged, new Document("$set", set)));
+
+            if (batch.size() == BATCH_SIZE) {
+                modified += collection.bulkWrite(batch, new BulkWriteOptions().ordered(false)).getModifiedCount();
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            modified += collection.bulkWrite(batch, new BulkWriteOptions().ordered(false)).getModifiedCount();
+        }
+        return modified;
+    }
+
+    private static void convertField(Document from, Document set, String field, UnaryOperator<Object> conversion) {
+        Object value = from.get(field);
+        Object converted = conversion.apply(value);
+        if (!Objects.equals(value, converted)) {
+            set.put(field, converted);
+        }
+    }
+
+    // A copy of an array of subdocuments with {@code conversion} applied to each
+    private static Object eachDocument(Object array, Consumer<Document> conversion) {
+        if (!(array instanceof List<?> list)) {
+            return array;
+        }
+        List<Object> converted = new ArrayList<>(list.size());
+        for (Object element : list) {
+            if (element instanceof Document document) {
+                Document copy = new Document(document);
+                conversion.accept(copy);
+                converted.add(copy);
+            } else {
+                converted.add(element);
+            }
+        }
+        return converted;
+    }
+
+    private static Object paise(Object value) {
+        return value instanceof Double rupees ? Money.ofMajor(rupees).getMinorUnits() : value;
+    }
+
+    private static Object grams(Object value) {
+        return value instanceof Double kg ? Quantity.ofKg(kg).getGrams() : value;
+    }
+
+    private static Bson isDouble(String field) {
+        return Filters.type(field, "double");
+    }
+}
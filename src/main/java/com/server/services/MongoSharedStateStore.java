@@ -0,0 +1,119 @@
+package com.server.services;
+
+import com.server.Models.SharedStateEntry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Keeps shared state in the shared_state collection so every node sees the same payments,
+ * idempotency keys and counters. Each operation is a single-document write, which MongoDB applies
+ * atomically; an expired entry that the TTL monitor has not removed yet is treated as absent and
+ * replaced.
+ */
+@Service
+@ConditionalOnProperty(name = "state.store", havingValue = "mongo")
+public class MongoSharedStateStore implements SharedStateStore {
+
+    // Concurrent creators of one key retry this many times before giving up
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public String get(String namespace, String key) {
+        SharedStateEntry entry = mongoTemplate.findOne(live(id(namespace, key), LocalDateTime.now()), SharedStateEntry.class);
+        return entry == null ? null : entry.getValue();
+    }
+
+    @Override
+    public void put(String namespace, String key, String value, Duration ttl) {
+        mongoTemplate.upsert(new Query(Criteria.where("id").is(id(namespace, key))),
+                new Update().set("value", value).unset("count").set("expiresAt", LocalDateTime.now().plus(ttl)),
+                SharedStateEntry.class);
+    }
+
+    @Override
+    public String putIfAbsent(String namespace, String key, String value, Duration ttl) {
+        String id = id(namespace, key);
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            LocalDateTime now = LocalDateTime.now();
+            try {
+                mongoTemplate.insert(new SharedStateEntry(id, value, null, now.plus(ttl)));
+                return null;
+            } catch (DuplicateKeyException e) {
+                // Taken, unless the holder has expired
+            }
+            SharedStateEntry replaced = mongoTemplate.findAndModify(
+                    new Query(Criteria.where("id").is(id).and("expiresAt").lte(now)),
+                    new Update().set("value", value).unset("count").set("expiresAt", now.plus(ttl)),
+                    SharedStateEntry.class);
+            if (replaced != null) {
+                return null;
+            }
+            SharedStateEntry existing = mongoTemplate.findOne(live(id, now), SharedStateEntry.class);
+            if (existing != null) {
+                return existing.getValue();
+            }
+        }
+        throw new RuntimeException("Could not store " + id + ": too many concurrent writers");
+    }
+
+    @Override
+    public long increment(String namespace, String key, long delta, Duration ttl) {
+        String id = id(namespace, key);
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            LocalDateTime now = LocalDateTime.now();
+            SharedStateEntry counted = mongoTemplate.findAndModify(live(id, now),
+                    new Update().inc("count", delta),
+                    FindAndModifyOptions.options().returnNew(true),
+                    SharedStateEntry.class);
+            if (counted != null) {
+                return counted.getCount();
+            }
+
+            // No live counter: drop an expired one and start a new window
+            mongoTemplate.remove(new Query(Criteria.where("id").is(id).and("expiresAt").lte(now)), SharedStateEntry.class);
+            try {
+                SharedStateEntry created = mongoTemplate.findAndModify(
+                        new Query(Criteria.where("id").is(id)),
+                        new Update().inc("count", delta).setOnInsert("expiresAt", now.plus(ttl)),
+                        FindAndModifyOptions.options().upsert(true).returnNew(true),
+                        SharedStateEntry.class);
+                return created.getCount();
+            } catch (DuplicateKeyException e) {
+                // Another node created it first; count against theirs
+            }
+        }
+        throw new RuntimeException("Could not count " + id + ": too many concurrent writers");
+    }
+
+    @Override
+    public long count(String namespace, String key) {
+        SharedStateEntry entry = mongoTemplate.findOne(live(id(namespace, key), LocalDateTime.now()), SharedStateEntry.class);
+        return entry == null || entry.getCount() == null ? 0 : entry.getCount();
+    }
+
+    @Override
+    public void remove(String namespace, String key) {
+        mongoTemplate.remove(new Query(Criteria.where("id").is(id(namespace, key))), SharedStateEntry.class);
+    }
+
+    private static Query live(String id, LocalDateTime now) {
+        return new Query(Criteria.where("id").is(id).and("expiresAt").gt(now));
+    }
+
+    private static String id(String namespace, String key) {
+        return namespace + ":" + key;
+    }
+}
@@ -0,0 +1,70 @@
+package com.server.services;
+
+import com.server.Models.OrderStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Fan-out point for order status changes. OrderLifecycleService calls {@link #publish} after every
+ * committed transition; implementations decide whether that call delivers the event or whether it
+ * arrives from the database instead. Listeners run on the delivering thread and must not block.
+ */
+public abstract class OrderEventPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderEventPublisher.class);
+
+    private final List<Consumer<OrderStatusEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    public abstract void publish(OrderStatusEvent event);
+
+    public void subscribe(Consumer<OrderStatusEvent> listener) {
+        listeners.add(listener);
+    }
+
+    public void unsubscribe(Consumer<OrderStatusEvent> listener) {
+        listeners.remove(listener);
+    }
+
+    protected void deliver(OrderStatusEvent event) {
+        for (Consumer<OrderStatusEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (Exception e) {
+                // One broken listener must not starve the rest
+                logger.error("Order event listener failed for order {}: {}", event.getOrderId(), e.getMessage());
+            }
+        }
+    }
+
+    public static class OrderStatusEvent {
+        private final String orderId;
+        private final String consumerId;
+        private final String deliveryPartnerId;
+        private final OrderStatus fromStatus;
+        private final OrderStatus toStatus;
+        private final LocalDateTime occurredAt;
+
+        public OrderStatusEvent(String orderId, String consumerId, String deliveryPartnerId,
+                                OrderStatus fromStatus, OrderStatus toStatus, LocalDateTime occurredAt) {
+            this.orderId = orderId;
+            this.consumerId = consumerId;
+            this.deliveryPartnerId = deliveryPartnerId;
+            this.fromStatus = fromStatus;
+            this.toStatus = toStatus;
+            this.occurredAt = occurredAt;
+        }
+
+        public String getOrderId() { return orderId; }
+        public String getConsumerId() { return consumerId; }
+        // User id of the assigned delivery partner, if any
+        public String getDeliveryPartnerId() { return deliveryPartnerId; }
+        public OrderStatus getFromStatus() { return fromStatus; }
+        public OrderStatus getToStatus() { return toStatus; }
+        public LocalDateTime getOccurredAt() { return occurredAt; }
+    }
+}
@@ -0,0 +1,256 @@
+package com.server.services;
+
+import com.server.Models.DeliveryPartner;
+import com.server.Models.Order;
+import com.server.Models.OrderItem;
+import com.server.Models.OrderStatus;
+import com.server.Models.OrderStatusChange;
+import com.server.Models.User;
+import com.server.Repositories.DeliveryPartnerRepository;
+import com.server.Repositories.OrderRepository;
+import com.server.Repositories.ProductRepository;
+import com.server.Repositories.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The only writer of Order.status. Each transition is one conditional update that matches the
+ * status the caller saw, sets the new one and pushes the change onto statusHistory, so two
+ * racing actors can never both win and the history can never disagree with the status.
+ */
+@Service
+public class OrderLifecycleService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderLifecycleService.class);
+
+    // States in which a delivery partner is still busy with an order
+    private static final Set<OrderStatus> OPEN_FOR_PARTNER =
+            EnumSet.of(OrderStatus.READY_FOR_PICKUP, OrderStatus.PICKED_UP, OrderStatus.IN_TRANSIT);
+
+    // Stock is taken at payment, so cancelling after that point puts it back
+    private static final Set<OrderStatus> STOCK_RESERVED =
+            EnumSet.of(OrderStatus.CONFIRMED, OrderStatus.PREPARING, OrderStatus.READY_FOR_PICKUP);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DeliveryPartnerRepository deliveryPartnerRepository;
+
+    @Autowired
+    private DispatchService dispatchService;
+
+    @Autowired
+    private OrderEventPublisher orderEventPublisher;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private VersionStampService versionStampService;
+
+    private String getCurrentUserEmail() {
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        if (principal instanceof UserDetails) {
+            return ((UserDetails) principal).getUsername();
+        } else {
+            return principal.toString();
+        }
+    }
+
+    private User getCurrentUser() {
+        String email = getCurrentUserEmail();
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    /**
+     * Moves an order on behalf of the current user. Farmers prepare and cancel orders that hold only
+     * their own products; in an order shared with other farmers each one reports progress on their
+     * own lines and cannot cancel. The assigned delivery partner picks up, transports and delivers.
+     */
+    public Order advance(String orderId, OrderStatus next) {
+        if (next == null) {
+            throw new RuntimeException("Status is required");
+        }
+        User actor = getCurrentUser();
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new RuntimeException("Order not found"));
+
+        String role = actor.getRole().toString();
+        if (role.equals("FARMER")) {
+            if (!EnumSet.of(OrderStatus.PREPARING, OrderStatus.READY_FOR_PICKUP, OrderStatus.CANCELLED).contains(next)) {
+                throw new RuntimeException("Farmers cannot move orders to " + next);
+            }
+            Set<String> farmers = farmerIds(order);
+            if (!farmers.contains(actor.getId())) {
+                throw new RuntimeException("You can only update orders for your own products");
+            }
+            if (farmers.size() > 1) {
+                // Other farmers' lines are not this farmer's to cancel or hand over
+                if (next == OrderStatus.CANCELLED) {
+                    throw new RuntimeException("This order includes other farmers' products and cannot be cancelled by one farmer");
+                }
+                return advanceOwnLines(order, actor, next, farmers);
+            }
+        } else if (role.equals("DELIVERY_PARTNER")) {
+            if (!EnumSet.of(OrderStatus.PICKED_UP, OrderStatus.IN_TRANSIT, OrderStatus.DELIVERED).contains(next)) {
+                throw new RuntimeException("Delivery partners cannot move orders to " + next);
+            }
+            if (order.getDeliveryPartner() == null || !order.getDeliveryPartner().getId().equals(actor.getId())) {
+                throw new RuntimeException("This order is not assigned to you");
+            }
+        } else {
+            throw new RuntimeException("Only farmers and delivery partners can update order status");
+        }
+
+        return transition(order, next, actor, new Update());
+    }
+
+    /**
+     * Applies {@code next} if the order is still in the status it was read with. {@code extra} is
+     * merged into the same update (e.g. the payment id on confirmation); {@code actor} may be null
+     * for system transitions.
+     */
+    public Order transition(Order order, OrderStatus next, User actor, Update extra) {
+        OrderStatus from = order.getStatus();
+        if (from == null || !from.canTransitionTo(next)) {
+            throw new RuntimeException("Cannot move order from " + from + " to " + next);
+        }
+
+        OrderStatusChange change = new OrderStatusChange(from, next,
+                actor != null ? actor.getId() : null,
+                actor != null ? actor.getRole().toString() : "SYSTEM",
+                LocalDateTime.now());
+
+        Query current = new Query(Criteria.where("id").is(order.getId()).and("status").is(from));
+        Update update = extra.set("status", next).push("statusHistory", change).inc("revision", 1L);
+        if (mongoTemplate.updateFirst(current, update, Order.class).getModifiedCount() == 0) {
+            throw new RuntimeException("Order is no longer " + from + "; refresh and try again");
+        }
+
+        // Mirror the committed write on the instance the caller holds
+        order.setStatus(next);
+        List<OrderStatusChange> history = order.getStatusHistory() != null
+                ? new ArrayList<>(order.getStatusHistory()) : new ArrayList<>();
+        history.add(change);
+        order.setStatusHistory(history);
+        order.setRevision((order.getRevision() != null ? order.getRevision() : 0L) + 1);
+
+        afterTransition(order, from, next);
+        orderEventPublisher.publish(new OrderEventPublisher.OrderStatusEvent(
+                order.getId(),
+                order.getConsumer() != null ? order.getConsumer().getId() : null,
+                order.getDeliveryPartner() != null ? order.getDeliveryPartner().getId() : null,
+                from, next, change.getOccurredAt()));
+        return order;
+    }
+
+    // Side effects run after the status write; a failure here is logged, never rolled back
+    private void afterTransition(Order order, OrderStatus from, OrderStatus next) {
+        try {
+            if (next == OrderStatus.CANCELLED && STOCK_RESERVED.contains(from)) {
+                for (OrderItem item : order.getOrderItems()) {
+                    productRepository.incrementAvailableQuantity(item.getProduct().getId(), item.getQuantity().getGrams());
+                }
+                versionStampService.bump(VersionStampService.CATALOG);
+            }
+            if ((next == OrderStatus.DELIVERED || next == OrderStatus.CANCELLED) && order.getDeliveryPartner() != null) {
+                releasePartnerIfIdle(order.getDeliveryPartner().getId());
+            }
+        } catch (Exception e) {
+            logger.error("Post-transition step failed for order {} ({} -> {}): {}", order.getId(), from, next, e.getMessage());
+        }
+    }
+
+    // A partner on a multi-stop route stays busy until the last order on it is closed
+    private void releasePartnerIfIdle(String partnerUserId) {
+        if (orderRepository.countByDeliveryPartnerIdAndStatusIn(partnerUserId, OPEN_FOR_PARTNER) > 0) {
+            return;
+        }
+        DeliveryPartner partner = deliveryPartnerRepository.findByUserId(partnerUserId).orElse(null);
+        if (partner != null) {
+            dispatchService.markAvailable(partner.getId());
+        }
+    }
+
+    /**
+     * Records that {@code farmer} has moved their lines of a shared order to {@code next}, then moves
+     * the order as far as every farmer in it has got. The progress write is conditional on the order
+     * still being before pickup, so a cancelled or collected order is left alone.
+     */
+    private Order advanceOwnLines(Order order, User farmer, OrderStatus next, Set<String> farmers) {
+        OrderStatus own = progressOf(order, farmer.getId());
+        if (!own.canTransitionTo(next)) {
+            throw new RuntimeException("Cannot move your items from " + own + " to " + next);
+        }
+        Query open = new Query(Criteria.where("id").is(order.getId())
+                .and("status").in(OrderStatus.CONFIRMED, OrderStatus.PREPARING));
+        Update update = new Update().set("farmerProgress." + farmer.getId(), next).inc("revision", 1L);
+        if (mongoTemplate.updateFirst(open, update, Order.class).getModifiedCount() == 0) {
+            throw new RuntimeException("Order is no longer being prepared; refresh and try again");
+        }
+
+        Order current = reload(order.getId());
+        OrderStatus reached = next;
+        for (String farmerId : farmers) {
+            OrderStatus progress = progressOf(current, farmerId);
+            if (progress.ordinal() < reached.ordinal()) {
+                reached = progress;
+            }
+        }
+        while (current.getStatus().ordinal() < reached.ordinal()) {
+            OrderStatus step = current.getStatus() == OrderStatus.CONFIRMED ? OrderStatus.PREPARING : OrderStatus.READY_FOR_PICKUP;
+            try {
+                current = transition(current, step, farmer, new Update());
+            } catch (RuntimeException e) {
+                // Another farmer finishing at the same moment made this step; carry on from theirs
+                current = reload(order.getId());
+            }
+        }
+        return current;
+    }
+
+    private Order reload(String orderId) {
+        return orderRepository.findById(orderId)
+                .orElseThrow(() -> new RuntimeException("Order not found"));
+    }
+
+    // A farmer who has not reported yet is where the order is
+    private static OrderStatus progressOf(Order order, String farmerId) {
+        OrderStatus progress = order.getFarmerProgress() != null ? order.getFarmerProgress().get(farmerId) : null;
+        return progress != null && progress.ordinal() > order.getStatus().ordinal() ? progress : order.getStatus();
+    }
+
+    private static Set<String> farmerIds(Order order) {
+        Set<String> farmers = new HashSet<>();
+        for (OrderItem item : order.getOrderItems()) {
+            User owner = item.getProduct() != null ? item.getProduct().getFarmer() : null;
+            if (owner != null) {
+                farmers.add(owner.getId());
+            }
+        }
+        return farmers;
+    }
+}
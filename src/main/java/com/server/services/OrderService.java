@@ -4,8 +4,17 @@ import com.server.Models.*;
 import com.server.Repositories.OrderRepository;
 import com.server.Repositories.ProductRepository;
 import com.server.Repositories.UserRepository;
+import com.mongodb.DBRef;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
 import com.server.controllers.OrderItemRequest;
+import com.server.dto.OrderSummary;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
@@ -37,6 +46,24 @@ public class OrderService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private OrderLifecycleService orderLifecycleService;
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private VersionStampService versionStampService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private OrderSummaryService orderSummaryService;
+
     private String getCurrentUserEmail() {
         Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         if (principal instanceof UserDetails) {
@@ -60,46 +87,119 @@ public class OrderService {
             throw new RuntimeException("Only consumers can place orders");
         }
 
-        Order order = new Order();
-        order.setConsumer(consumer);
-        order.setDeliveryAddress(deliveryAddress);
-        order.setStatus(OrderStatus.PENDING_PAYMENT);
-        order.setOrderDate(LocalDateTime.now());
-
         List<OrderItem> orderItems = new ArrayList<>();
-        double totalAmount = 0.0;
+        // Paise, summed as a primitive so the loop adds no garbage and no rounding drift
+        long totalMinor = 0;
+        // Every line is priced at the same instant, so a promotion ending mid-checkout cannot split the basket
+        long pricedAt = System.currentTimeMillis();
 
         // Validate products and calculate total
         for (OrderItemRequest item : items) {
             Product product = productRepository.findById(item.getProductId())
                     .orElseThrow(() -> new RuntimeException("Product not found: " + item.getProductId()));
 
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new RuntimeException("Quantity must be greater than 0 for product: " + product.getName());
+            }
+            Quantity requested = Quantity.ofKg(item.getQuantity());
+
             // Check availability
-            if (product.getAvailableQuantity() < item.getQuantity()) {
+            if (product.getAvailableQuantity() == null || product.getAvailableQuantity().compareTo(requested) < 0) {
                 throw new RuntimeException("Insufficient quantity for product: " + product.getName() +
                         ". Available: " + product.getAvailableQuantity() +
-                        ", Requested: " + item.getQuantity());
+                        ", Requested: " + requested);
             }
 
-            // Create order item
+            // Create order item at the effective price (scheduled price and any running discount)
+            long unitPriceMinor = pricingService.priceMinorFor(product, pricedAt);
             OrderItem orderItem = new OrderItem();
             orderItem.setProduct(product);
-            orderItem.setQuantity(item.getQuantity());
-            orderItem.setPrice(product.getPricePerKg());
+            orderItem.setQuantity(requested);
+            orderItem.setPrice(Money.ofMinor(unitPriceMinor));
+            orderItem.setProductName(product.getName());
+            orderItem.setCategory(product.getCategory());
+            orderItem.setImageUrl(product.getImageUrl());
 
             orderItems.add(orderItem);
-            totalAmount += product.getPricePerKg() * item.getQuantity();
+            totalMinor += Money.lineTotalMinor(unitPriceMinor, requested.getGrams());
         }
 
+        // An empty basket has no pickup farm; placeOrder rejects its zero total
+        User farmer = orderItems.isEmpty() ? null : orderItems.get(0).getProduct().getFarmer();
+        return placeOrder(consumer, orderItems, totalMinor, deliveryAddress, farmer);
+    }
+
+    /**
+     * Places an order for the current consumer's server-side cart. Only lines changed since their
+     * last stock check are read again; the cart is emptied once the order exists unless it was
+     * edited meanwhile.
+     */
+    @Transactional
+    public Order checkoutCart(String deliveryAddress) {
+        User consumer = getCurrentUser();
+
+        if (!consumer.getRole().toString().equals("CONSUMER")) {
+            throw new RuntimeException("Only consumers can place orders");
+        }
+
+        Cart cart = cartService.prepareCheckout(consumer.getId());
+        List<OrderItem> orderItems = new ArrayList<>();
+        String pickupFarmerId = null;
+        for (CartLine line : cart.getLines().values()) {
+            // Orders hold a reference to the product; the snapshot fills in what the response shows
+            Product product = new Product();
+            product.setId(line.getProductId());
+            product.setName(line.getName());
+            product.setCategory(line.getCategory());
+            product.setImageUrl(line.getImageUrl());
+            product.setPricePerKg(line.getUnitPrice());
+
+            OrderItem orderItem = new OrderItem();
+            orderItem.setProduct(product);
+            orderItem.setQuantity(line.getQuantity());
+            orderItem.setPrice(line.getUnitPrice());
+            orderItem.setProductName(line.getName());
+            orderItem.setCategory(line.getCategory());
+            orderItem.setImageUrl(line.getImageUrl());
+            orderItems.add(orderItem);
+
+            if (pickupFarmerId == null) {
+                pickupFarmerId = line.getFarmerId();
+            }
+        }
+
+        User farmer = pickupFarmerId != null ? userRepository.findById(pickupFarmerId).orElse(null) : null;
+        Order order = placeOrder(consumer, orderItems, cart.getTotalAmount().getMinorUnits(), deliveryAddress, farmer);
+        cartService.clear(consumer.getId(), cart.getVersion());
+        return order;
+    }
+
+    private Order placeOrder(User consumer, List<OrderItem> orderItems, long totalMinor, String deliveryAddress, User farmer) {
         // Validate total amount
-        if (totalAmount <= 0) {
+        Money totalAmount = Money.ofMinor(totalMinor);
+        if (!totalAmount.isPositive()) {
             throw new RuntimeException("Order total must be greater than 0");
         }
 
+        Order order = new Order();
+        order.setConsumer(consumer);
+        order.setDeliveryAddress(deliveryAddress);
+        order.setStatus(OrderStatus.PENDING_PAYMENT);
+        order.setOrderDate(LocalDateTime.now());
         order.setOrderItems(orderItems);
         order.setTotalAmount(totalAmount);
+        order.setRevision(1L);
+
+        // Pickup at the first item's farm, drop-off at the consumer's saved location
+        if (farmer != null) {
+            order.setPickupLocationLat(farmer.getLocationLat());
+            order.setPickupLocationLng(farmer.getLocationLng());
+        }
+        order.setDeliveryLocationLat(consumer.getLocationLat());
+        order.setDeliveryLocationLng(consumer.getLocationLng());
 
         Order savedOrder = orderRepository.save(order);
+        savedOrder.setRevision(savedOrder.getRevision() + 1);
 
         try {
             // Create mock payment order
@@ -120,6 +220,10 @@ public class OrderService {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
 
+        if (order.getStatus() != OrderStatus.PENDING_PAYMENT) {
+            throw new RuntimeException("Order is not awaiting payment");
+        }
+
         // Verify payment using mock service
         boolean isValidPayment = mockPaymentService.verifyPayment(order.getRazorpayOrderId(), paymentId, signature);
 
@@ -128,20 +232,47 @@ public class OrderService {
         }
 
         // Reduce inventory only after successful payment
-        for (OrderItem item : order.getOrderItems()) {
-            Product product = item.getProduct();
-            product.setAvailableQuantity(product.getAvailableQuantity() - item.getQuantity());
-            productRepository.save(product);
-        }
+        reserveInventory(order.getOrderItems());
 
-        order.setStatus(OrderStatus.CONFIRMED);
+        try {
+            orderLifecycleService.transition(order, OrderStatus.CONFIRMED, null,
+                    new Update().set("razorpayPaymentId", paymentId));
+        } catch (RuntimeException e) {
+            // A concurrent confirmation or cancellation won; give the stock back
+            releaseInventory(order.getOrderItems());
+            throw e;
+        }
         order.setRazorpayPaymentId(paymentId);
-        orderRepository.save(order);
 
         // Send confirmation emails
         sendOrderConfirmationEmails(order);
     }
 
+    // Decrements stock with conditional updates so concurrent checkouts can never take a product below zero
+    private void reserveInventory(List<OrderItem> items) {
+        List<OrderItem> reserved = new ArrayList<>();
+        for (OrderItem item : items) {
+            Product product = item.getProduct();
+            long grams = item.getQuantity().getGrams();
+            long updated = productRepository.decrementAvailableQuantity(product.getId(), grams, -grams);
+
+            if (updated == 0) {
+                // Give back what this order already took before failing
+                releaseInventory(reserved);
+                throw new RuntimeException("Insufficient quantity for product: " + product.getName());
+            }
+            reserved.add(item);
+        }
+        versionStampService.bump(VersionStampService.CATALOG);
+    }
+
+    private void releaseInventory(List<OrderItem> items) {
+        for (OrderItem item : items) {
+            productRepository.incrementAvailableQuantity(item.getProduct().getId(), item.getQuantity().getGrams());
+        }
+        versionStampService.bump(VersionStampService.CATALOG);
+    }
+
     private void sendOrderConfirmationEmails(Order order) {
         try {
             // Send email to consumer
@@ -169,9 +300,60 @@ public class OrderService {
         }
     }
 
-    public List<Order> getMyOrders() {
+    public List<OrderSummary> getMyOrders() {
+        User consumer = getCurrentUser();
+        return orderSummaryService.find(Filters.eq("consumer.$id", new ObjectId(consumer.getId())));
+    }
+
+    public OrderSummary getOrderSummary(String orderId) {
+        User consumer = getCurrentUser();
+        List<OrderSummary> found = ObjectId.isValid(orderId)
+                ? orderSummaryService.find(Filters.eq("_id", new ObjectId(orderId)))
+                : List.of();
+        if (found.isEmpty()) {
+            throw new RuntimeException("Order not found");
+        }
+
+        // Verify the order belongs to the current consumer
+        if (!consumer.getId().equals(found.get(0).getConsumerId())) {
+            throw new RuntimeException("You can only access your own orders");
+        }
+
+        return found.get(0);
+    }
+
+    /**
+     * Version of what getMyOrders returns, read with a projection instead of loading the orders:
+     * each order's id and revision, plus the catalog stamp because items embed the current product.
+     */
+    public String getMyOrdersVersion() {
+        User consumer = getCurrentUser();
+        StringBuilder version = new StringBuilder().append(versionStampService.current(VersionStampService.CATALOG));
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(Order.class))
+                .find(Filters.eq("consumer.$id", new ObjectId(consumer.getId())))
+                .projection(Projections.include("revision"))
+                .sort(Sorts.descending("orderDate"))
+                .forEach(order -> version.append(',').append(order.getObjectId("_id").toHexString())
+                        .append(':').append(order.get("revision")));
+        return version.toString();
+    }
+
+    // Same checks as getOrderById, without loading the order
+    public String getOrderVersion(String orderId) {
         User consumer = getCurrentUser();
-        return orderRepository.findByConsumerIdOrderByOrderDateDesc(consumer.getId());
+        Document order = ObjectId.isValid(orderId)
+                ? mongoTemplate.getCollection(mongoTemplate.getCollectionName(Order.class))
+                        .find(Filters.eq("_id", new ObjectId(orderId)))
+                        .projection(Projections.include("consumer", "revision"))
+                        .first()
+                : null;
+        if (order == null) {
+            throw new RuntimeException("Order not found");
+        }
+        if (!(order.get("consumer") instanceof DBRef ref) || !ref.getId().toString().equals(consumer.getId())) {
+            throw new RuntimeException("You can only access your own orders");
+        }
+        return orderId + ":" + order.get("revision") + ":" + versionStampService.current(VersionStampService.CATALOG);
     }
 
     public Order getOrderById(String orderId) {
@@ -0,0 +1,146 @@
+package com.server.services;
+
+import com.mongodb.DBRef;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.server.Models.Money;
+import com.server.Models.Order;
+import com.server.Models.OrderStatus;
+import com.server.Models.OrderStatusChange;
+import com.server.Models.Product;
+import com.server.Models.Quantity;
+import com.server.Models.User;
+import com.server.dto.OrderLineSummary;
+import com.server.dto.OrderSummary;
+import com.server.dto.StoredValues;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds {@link OrderSummary} responses from a projection of the orders instead of loading
+ * {@link Order} entities, whose references would load the consumer, the partner and every product
+ * with its farmer one document at a time. Users, and products of orders placed before items
+ * carried a snapshot, are read with one query each per call.
+ */
+@Service
+public class OrderSummaryService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Newest first
+    public List<OrderSummary> find(Bson filter) {
+        List<Document> orders = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Order.class))
+                .find(filter)
+                .projection(Projections.include(OrderSummary.FIELDS))
+                .sort(Sorts.descending("orderDate"))
+                .into(new ArrayList<>());
+        if (orders.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Set<Object> userIds = new HashSet<>();
+        Set<Object> productIds = new HashSet<>();
+        for (Document order : orders) {
+            addRef(userIds, order.get("consumer"));
+            addRef(userIds, order.get("deliveryPartner"));
+            for (Document item : items(order)) {
+                if (item.getString("productName") == null) {
+                    addRef(productIds, item.get("product"));
+                }
+            }
+        }
+        Map<String, Document> users = load(User.class, userIds, "name", "phone");
+        Map<String, Document> products = load(Product.class, productIds, "name", "category", "imageUrl");
+
+        List<OrderSummary> summaries = new ArrayList<>(orders.size());
+        for (Document order : orders) {
+            summaries.add(summarize(order, users, products));
+        }
+        return summaries;
+    }
+
+    private OrderSummary summarize(Document order, Map<String, Document> users, Map<String, Document> products) {
+        Document consumer = users.getOrDefault(StoredValues.refId(order.get("consumer")), new Document());
+        Document partner = users.getOrDefault(StoredValues.refId(order.get("deliveryPartner")), new Document());
+
+        List<OrderLineSummary> lines = new ArrayList<>();
+        for (Document item : items(order)) {
+            String productId = StoredValues.refId(item.get("product"));
+            Document product = item.getString("productName") != null
+                    ? new Document("name", item.getString("productName"))
+                            .append("category", item.getString("category"))
+                            .append("imageUrl", item.getString("imageUrl"))
+                    : products.getOrDefault(productId, new Document());
+            Money price = StoredValues.money(item.get("price"));
+            Quantity quantity = StoredValues.quantity(item.get("quantity"));
+            lines.add(new OrderLineSummary(productId, product.getString("name"), product.getString("category"),
+                    product.getString("imageUrl"), quantity, price, OrderLineSummary.lineTotal(price, quantity)));
+        }
+
+        List<OrderStatusChange> history = new ArrayList<>();
+        if (order.get("statusHistory") instanceof List<?> changes) {
+            for (Object change : changes) {
+                if (change instanceof Document document) {
+                    history.add(mongoTemplate.getConverter().read(OrderStatusChange.class, document));
+                }
+            }
+        }
+
+        return new OrderSummary(
+                order.getObjectId("_id").toHexString(),
+                StoredValues.refId(order.get("consumer")),
+                order.getString("status") != null ? OrderStatus.valueOf(order.getString("status")) : null,
+                order.get("orderDate") instanceof Date date ? LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault()) : null,
+                StoredValues.money(order.get("totalAmount")),
+                order.getString("deliveryAddress"),
+                consumer.getString("name"),
+                consumer.getString("phone"),
+                partner.getString("name"),
+                partner.getString("phone"),
+                order.getDouble("pickupLocationLat"),
+                order.getDouble("pickupLocationLng"),
+                order.getDouble("deliveryLocationLat"),
+                order.getDouble("deliveryLocationLng"),
+                lines,
+                history,
+                order.getString("razorpayOrderId"));
+    }
+
+    private Map<String, Document> load(Class<?> type, Set<Object> ids, String... fields) {
+        Map<String, Document> found = new HashMap<>();
+        if (ids.isEmpty()) {
+            return found;
+        }
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(type))
+                .find(Filters.in("_id", ids))
+                .projection(Projections.include(fields))
+                .forEach(document -> found.put(document.get("_id").toString(), document));
+        return found;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Document> items(Document order) {
+        return order.get("orderItems") instanceof List<?> items ? (List<Document>) items : List.of();
+    }
+
+    private static void addRef(Set<Object> ids, Object value) {
+        if (value instanceof DBRef ref) {
+            ids.add(ref.getId());
+        }
+    }
+}
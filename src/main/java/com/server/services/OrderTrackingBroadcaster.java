@@ -0,0 +1,313 @@
+package com.server.services;
+
+import com.server.Models.Order;
+import com.server.Models.OrderStatus;
+import com.server.Models.OrderStatusChange;
+import com.server.Models.User;
+import com.server.Repositories.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.ZoneId;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Pushes compact status and location deltas for a consumer's open orders over one SSE connection
+ * per browser tab. An idle connection is only an emitter and two empty queues. Writes run on
+ * virtual threads, so a slow client never holds up the thread that produced the event. Bursts of
+ * location pings for the same order are coalesced to the latest fix.
+ */
+@Service
+public class OrderTrackingBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderTrackingBroadcaster.class);
+
+    // Orders whose delivery partner position is worth streaming
+    private static final Set<OrderStatus> PARTNER_ACTIVE =
+            EnumSet.of(OrderStatus.READY_FOR_PICKUP, OrderStatus.PICKED_UP, OrderStatus.IN_TRANSIT);
+
+    @Autowired
+    private OrderEventPublisher orderEventPublisher;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${tracking.sse.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${tracking.sse.max-connections-per-user:3}")
+    private int maxConnectionsPerUser;
+
+    private final Map<String, List<Connection>> connectionsByConsumer = new ConcurrentHashMap<>();
+    // partner user id -> (order id -> consumer id), only for consumers connected to this node
+    private final Map<String, Map<String, String>> deliveriesByPartner = new ConcurrentHashMap<>();
+    // consumer id -> (order id -> partner user id), to drop the entries above on disconnect
+    private final Map<String, Map<String, String>> deliveriesByConsumer = new ConcurrentHashMap<>();
+
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final Consumer<OrderEventPublisher.OrderStatusEvent> listener = this::onStatusChange;
+
+    @PostConstruct
+    void subscribe() {
+        orderEventPublisher.subscribe(listener);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        orderEventPublisher.unsubscribe(listener);
+        connectionsByConsumer.values().forEach(list -> list.forEach(c -> c.emitter.complete()));
+        senders.shutdownNow();
+    }
+
+    private String getCurrentUserEmail() {
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        if (principal instanceof UserDetails) {
+            return ((UserDetails) principal).getUsername();
+        } else {
+            return principal.toString();
+        }
+    }
+
+    private User getCurrentUser() {
+        String email = getCurrentUserEmail();
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    /**
+     * Opens the current consumer's stream. It starts with one status event per open order, then
+     * carries every later change to any of them.
+     */
+    public SseEmitter openStream() {
+        User consumer = getCurrentUser();
+        if (!consumer.getRole().toString().equals("CONSUMER")) {
+            throw new RuntimeException("Only consumers can track orders");
+        }
+        String consumerId = consumer.getId();
+
+        Connection connection = new Connection(consumerId, new SseEmitter(timeoutMs));
+        connection.emitter.onCompletion(() -> disconnect(connection));
+        connection.emitter.onTimeout(() -> disconnect(connection));
+        connection.emitter.onError(error -> disconnect(connection));
+
+        List<Connection> connections = connectionsByConsumer.computeIfAbsent(consumerId, id -> new CopyOnWriteArrayList<>());
+        connections.add(connection);
+        // A user reloading tabs should not pile up connections; the oldest one goes
+        while (connections.size() > maxConnectionsPerUser) {
+            Connection oldest = connections.remove(0);
+            oldest.emitter.complete();
+        }
+
+        // Registered first so nothing is missed; a live event that beats this read is newer than the
+        // snapshot of that order, which is then dropped (both are stamped with when the status changed)
+        Query open = new Query(Criteria.where("consumer.id").is(consumerId)
+                .and("status").nin(OrderStatus.DELIVERED, OrderStatus.CANCELLED));
+        open.fields().include("id", "status", "deliveryPartner").slice("statusHistory", -1);
+        for (Order order : mongoTemplate.find(open, Order.class)) {
+            if (!connection.offerStatus(statusDelta(order.getId(), order.getStatus(), statusChangedAt(order)))) {
+                continue;
+            }
+            if (order.getDeliveryPartner() != null && PARTNER_ACTIVE.contains(order.getStatus())) {
+                watch(order.getDeliveryPartner().getId(), order.getId(), consumerId);
+            }
+        }
+        return connection.emitter;
+    }
+
+    // Called for every accepted GPS fix; returns immediately when nobody on this node is watching
+    public void publishLocation(String partnerUserId, double lat, double lng, long recordedAt) {
+        Map<String, String> deliveries = deliveriesByPartner.get(partnerUserId);
+        if (deliveries == null) {
+            return;
+        }
+        deliveries.forEach((orderId, consumerId) -> {
+            List<Connection> connections = connectionsByConsumer.get(consumerId);
+            if (connections != null) {
+                Map<String, Object> delta = new LinkedHashMap<>();
+                delta.put("orderId", orderId);
+                delta.put("lat", lat);
+                delta.put("lng", lng);
+                delta.put("at", recordedAt);
+                connections.forEach(c -> c.offerLocation(orderId, delta));
+            }
+        });
+    }
+
+    // Keeps proxies from closing idle streams and flushes out connections whose client went away
+    @Scheduled(fixedDelayString = "${tracking.sse.heartbeat-ms:25000}")
+    public void heartbeat() {
+        connectionsByConsumer.values().forEach(list -> list.forEach(Connection::offerHeartbeat));
+    }
+
+    private void onStatusChange(OrderEventPublisher.OrderStatusEvent event) {
+        String consumerId = event.getConsumerId();
+        List<Connection> connections = consumerId != null ? connectionsByConsumer.get(consumerId) : null;
+        if (connections == null) {
+            return;
+        }
+
+        if (event.getDeliveryPartnerId() != null && PARTNER_ACTIVE.contains(event.getToStatus())) {
+            watch(event.getDeliveryPartnerId(), event.getOrderId(), consumerId);
+        } else {
+            unwatch(event.getOrderId(), consumerId);
+        }
+
+        long at = event.getOccurredAt() != null
+                ? event.getOccurredAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : System.currentTimeMillis();
+        Map<String, Object> delta = statusDelta(event.getOrderId(), event.getToStatus(), at);
+        connections.forEach(c -> c.offerStatus(delta));
+    }
+
+    private void watch(String partnerUserId, String orderId, String consumerId) {
+        deliveriesByPartner.computeIfAbsent(partnerUserId, id -> new ConcurrentHashMap<>()).put(orderId, consumerId);
+        deliveriesByConsumer.computeIfAbsent(consumerId, id -> new ConcurrentHashMap<>()).put(orderId, partnerUserId);
+    }
+
+    private void unwatch(String orderId, String consumerId) {
+        Map<String, String> watched = deliveriesByConsumer.get(consumerId);
+        String partnerUserId = watched != null ? watched.remove(orderId) : null;
+        if (partnerUserId != null) {
+            deliveriesByPartner.computeIfPresent(partnerUserId, (id, deliveries) -> {
+                deliveries.remove(orderId);
+                return deliveries.isEmpty() ? null : deliveries;
+            });
+        }
+    }
+
+    private void disconnect(Connection connection) {
+        connection.closed = true;
+        connectionsByConsumer.computeIfPresent(connection.consumerId, (id, list) -> {
+            list.remove(connection);
+            return list.isEmpty() ? null : list;
+        });
+        if (!connectionsByConsumer.containsKey(connection.consumerId)) {
+            Map<String, String> watched = deliveriesByConsumer.remove(connection.consumerId);
+            if (watched != null) {
+                watched.forEach((orderId, partnerUserId) -> deliveriesByPartner.computeIfPresent(partnerUserId, (id, deliveries) -> {
+                    deliveries.remove(orderId);
+                    return deliveries.isEmpty() ? null : deliveries;
+                }));
+            }
+        }
+    }
+
+    // Orders from before statusHistory existed count as changed at the epoch, so any live event wins
+    private static long statusChangedAt(Order order) {
+        List<OrderStatusChange> history = order.getStatusHistory();
+        if (history == null || history.isEmpty() || history.get(history.size() - 1).getOccurredAt() == null) {
+            return 0L;
+        }
+        return history.get(history.size() - 1).getOccurredAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static Map<String, Object> statusDelta(String orderId, OrderStatus status, long at) {
+        Map<String, Object> delta = new LinkedHashMap<>();
+        delta.put("orderId", orderId);
+        delta.put("status", status);
+        delta.put("at", at);
+        return delta;
+    }
+
+    private class Connection {
+        private final String consumerId;
+        private final SseEmitter emitter;
+        // Status changes are all delivered in order; locations keep only the newest fix per order
+        private final Queue<Map<String, Object>> statuses = new ConcurrentLinkedQueue<>();
+        private final Map<String, Map<String, Object>> locations = new ConcurrentHashMap<>();
+        // Change time of the newest status queued per order
+        private final Map<String, Long> statusAt = new ConcurrentHashMap<>();
+        private final AtomicBoolean heartbeatDue = new AtomicBoolean();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Connection(String consumerId, SseEmitter emitter) {
+            this.consumerId = consumerId;
+            this.emitter = emitter;
+        }
+
+        // False (and nothing queued) if a newer status for the same order is already on its way
+        boolean offerStatus(Map<String, Object> delta) {
+            long at = (Long) delta.get("at");
+            if (statusAt.merge((String) delta.get("orderId"), at, Math::max) != at) {
+                return false;
+            }
+            statuses.add(delta);
+            scheduleDrain();
+            return true;
+        }
+
+        void offerLocation(String orderId, Map<String, Object> delta) {
+            locations.put(orderId, delta);
+            scheduleDrain();
+        }
+
+        void offerHeartbeat() {
+            heartbeatDue.set(true);
+            scheduleDrain();
+        }
+
+        // At most one sender per connection; whoever finds it idle starts one
+        private void scheduleDrain() {
+            if (!closed && draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Map<String, Object> status;
+                while ((status = statuses.poll()) != null) {
+                    emitter.send(SseEmitter.event().name("status").data(status));
+                }
+                for (String orderId : locations.keySet()) {
+                    Map<String, Object> location = locations.remove(orderId);
+                    if (location != null) {
+                        emitter.send(SseEmitter.event().name("location").data(location));
+                    }
+                }
+                if (heartbeatDue.getAndSet(false)) {
+                    emitter.send(SseEmitter.event().comment("ping"));
+                }
+            } catch (Exception e) {
+                logger.debug("Dropping tracking stream for consumer {}: {}", consumerId, e.getMessage());
+                emitter.completeWithError(e);
+                disconnect(this);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // Something may have arrived after the queues were emptied but before the flag cleared
+            if (!statuses.isEmpty() || !locations.isEmpty() || heartbeatDue.get()) {
+                scheduleDrain();
+            }
+        }
+    }
+}
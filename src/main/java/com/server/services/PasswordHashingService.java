@@ -0,0 +1,233 @@
+package com.server.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * BCrypt hashing and verification on a small dedicated pool, so a login storm uses at most
+ * {@code password.hashing.threads} cores and the rest keep serving other endpoints. The pool's
+ * queue is bounded; when it is full, or a caller has waited {@code max-wait-ms}, the caller gets
+ * {@link BusyException} rather than joining an ever longer line.
+ *
+ * The work factor is calibrated at startup: the highest cost whose hash takes no longer than
+ * {@code target-ms} on this machine, within [min-cost, max-cost]. Hashes made at another cost are
+ * flagged on a successful login so the caller can store a fresh one.
+ *
+ * Failed checks are remembered briefly, keyed by a keyed hash of email, stored hash and attempted
+ * password, so repeating the same wrong password costs no BCrypt. Because the stored hash is part
+ * of the key a remembered failure can never hide a correct password.
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    public enum Verification { MISMATCH, MATCH, MATCH_NEEDS_REHASH }
+
+    public static class BusyException extends RuntimeException {
+        public BusyException() {
+            super("Too many sign-ins right now, try again shortly");
+        }
+    }
+
+    // 0 means half the cores, leaving the other half for everything else
+    @Value("${password.hashing.threads:0}")
+    private int threads;
+
+    @Value("${password.hashing.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${password.hashing.max-wait-ms:2000}")
+    private long maxWaitMs;
+
+    // 0 calibrates against target-ms at startup
+    @Value("${password.hashing.cost:0}")
+    private int fixedCost;
+
+    @Value("${password.hashing.target-ms:100}")
+    private long targetMs;
+
+    @Value("${password.hashing.min-cost:10}")
+    private int minCost;
+
+    @Value("${password.hashing.max-cost:14}")
+    private int maxCost;
+
+    @Value("${password.hashing.failure-cache-seconds:60}")
+    private long failureCacheSeconds;
+
+    @Value("${password.hashing.failure-cache-size:10000}")
+    private int failureCacheSize;
+
+    private final BCryptPasswordEncoder verifier = new BCryptPasswordEncoder();
+    private final Map<String, Long> recentFailures = new ConcurrentHashMap<>();
+    private final byte[] failureKey = new byte[32];
+
+    private ThreadPoolExecutor pool;
+    private volatile int cost;
+    private volatile BCryptPasswordEncoder encoder;
+
+    @PostConstruct
+    void start() {
+        int size = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger counter = new AtomicInteger();
+        pool = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        new SecureRandom().nextBytes(failureKey);
+
+        cost = fixedCost > 0 ? fixedCost : calibrate();
+        encoder = new BCryptPasswordEncoder(cost);
+        logger.info("Password hashing: cost {}, {} threads, queue {}", cost, size, queueCapacity);
+    }
+
+    @PreDestroy
+    void stop() {
+        pool.shutdownNow();
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    public String encode(String rawPassword) {
+        BCryptPasswordEncoder current = encoder;
+        return run(() -> current.encode(rawPassword));
+    }
+
+    public Verification verify(String email, String rawPassword, String storedHash) {
+        if (rawPassword == null || storedHash == null) {
+            return Verification.MISMATCH;
+        }
+        String failure = failureKey(email, storedHash, rawPassword);
+        Long until = recentFailures.get(failure);
+        if (until != null && until > System.currentTimeMillis()) {
+            return Verification.MISMATCH;
+        }
+
+        if (!run(() -> verifier.matches(rawPassword, storedHash))) {
+            rememberFailure(failure);
+            return Verification.MISMATCH;
+        }
+        return costOf(storedHash) == cost ? Verification.MATCH : Verification.MATCH_NEEDS_REHASH;
+    }
+
+    /**
+     * Hashes the password at the current cost in the background and hands the result to
+     * {@code store}. Skipped when the pool is busy; the next login tries again.
+     */
+    public void rehashLater(String rawPassword, Consumer<String> store) {
+        BCryptPasswordEncoder current = encoder;
+        try {
+            pool.execute(() -> {
+                try {
+                    store.accept(current.encode(rawPassword));
+                } catch (Exception e) {
+                    logger.warn("Could not store rehashed password: {}", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.debug("Hashing pool busy, rehash deferred");
+        }
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = pool.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new BusyException();
+        }
+        try {
+            return future.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new BusyException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new BusyException();
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private void rememberFailure(String key) {
+        long now = System.currentTimeMillis();
+        if (recentFailures.size() >= failureCacheSize) {
+            recentFailures.values().removeIf(until -> until <= now);
+            // Still full: a spray of distinct guesses; start over rather than grow
+            if (recentFailures.size() >= failureCacheSize) {
+                recentFailures.clear();
+            }
+        }
+        recentFailures.put(key, now + failureCacheSeconds * 1000);
+    }
+
+    private String failureKey(String email, String storedHash, String rawPassword) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(failureKey, "HmacSHA256"));
+            for (String part : new String[]{email, storedHash, rawPassword}) {
+                mac.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                mac.update((byte) 0);
+            }
+            return Base64.getEncoder().encodeToString(mac.doFinal());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+
+    // Each step of cost doubles the work, so one timed hash predicts the others
+    private int calibrate() {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minCost);
+        probe.encode("calibration");
+        long started = System.nanoTime();
+        probe.encode("calibration");
+        double millis = (System.nanoTime() - started) / 1_000_000.0;
+
+        int chosen = minCost;
+        while (chosen < maxCost && millis * 2 <= targetMs) {
+            chosen++;
+            millis *= 2;
+        }
+        logger.info("Calibrated BCrypt cost {} (about {} ms per hash, target {} ms)", chosen, Math.round(millis), targetMs);
+        return chosen;
+    }
+
+    // "$2a$10$..." -> 10
+    private static int costOf(String hash) {
+        try {
+            return Integer.parseInt(hash.substring(4, 6));
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+}
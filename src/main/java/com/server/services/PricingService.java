@@ -0,0 +1,329 @@
+package com.server.services;
+
+import com.server.Models.Money;
+import com.server.Models.PriceDiscount;
+import com.server.Models.PricePoint;
+import com.server.Models.PriceSchedule;
+import com.server.Models.Product;
+import com.server.Models.User;
+import com.server.Repositories.PriceScheduleRepository;
+import com.server.Repositories.ProductRepository;
+import com.server.Repositories.UserRepository;
+import com.server.utils.PriceTimeline;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Scheduled base prices and time-limited discounts. Every change is appended to the product's
+ * {@link PriceSchedule}; each node keeps a table of precomputed {@link PriceTimeline}s built
+ * from those schedules, so checkout resolves the effective price with a map lookup and a binary
+ * search. Product.pricePerKg is kept equal to the price in effect now for browsing and search.
+ */
+@Service
+public class PricingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PricingService.class);
+
+    @Autowired
+    private PriceScheduleRepository priceScheduleRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private VersionStampService versionStampService;
+
+    // product id -> timeline; products without a schedule fall back to Product.pricePerKg
+    private final Map<String, PriceTimeline> priceTable = new ConcurrentHashMap<>();
+    // Until the warm-up runs, the first refresh reads every schedule
+    private volatile LocalDateTime lastRefresh = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            LocalDateTime started = LocalDateTime.now();
+            List<PriceSchedule> schedules = priceScheduleRepository.findAll();
+            schedules.forEach(schedule -> priceTable.put(schedule.getId(), timelineOf(schedule)));
+            lastRefresh = started;
+            logger.info("Loaded {} price schedules into the price table", schedules.size());
+        } catch (Exception e) {
+            logger.error("Could not load price schedules: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Picks up schedules written by other nodes, then moves Product.pricePerKg for every schedule
+     * whose next change has arrived (a discount starting or ending, a scheduled price taking effect).
+     */
+    @Scheduled(fixedDelayString = "${pricing.refresh-ms:15000}")
+    public void refresh() {
+        try {
+            LocalDateTime started = LocalDateTime.now();
+            // Small overlap so a write committed while the last pass ran is not missed
+            for (PriceSchedule schedule : priceScheduleRepository.findByUpdatedAtAfter(lastRefresh.minusSeconds(5))) {
+                priceTable.put(schedule.getId(), timelineOf(schedule));
+            }
+            lastRefresh = started;
+
+            for (PriceSchedule schedule : priceScheduleRepository.findByNextChangeAtLessThanEqual(started)) {
+                syncListedPrice(schedule.getId(), priceTable.computeIfAbsent(schedule.getId(), id -> timelineOf(schedule)));
+            }
+        } catch (Exception e) {
+            logger.error("Price table refresh failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Paise per kg to charge for {@code product} at {@code atMillis}.
+     */
+    public long priceMinorFor(Product product, long atMillis) {
+        PriceTimeline timeline = priceTable.get(product.getId());
+        long price = timeline != null ? timeline.priceAt(atMillis) : -1;
+        if (price < 0) {
+            if (product.getPricePerKg() == null) {
+                throw new RuntimeException("No price set for product: " + product.getName());
+            }
+            return product.getPricePerKg().getMinorUnits();
+        }
+        return price;
+    }
+
+    // For callers holding only a product id and a price snapshot, e.g. cart lines at checkout
+    public long priceMinorFor(String productId, long fallbackMinor, long atMillis) {
+        PriceTimeline timeline = priceTable.get(productId);
+        long price = timeline != null ? timeline.priceAt(atMillis) : -1;
+        return price < 0 ? fallbackMinor : price;
+    }
+
+    private String getCurrentUserEmail() {
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        if (principal instanceof UserDetails) {
+            return ((UserDetails) principal).getUsername();
+        } else {
+            return principal.toString();
+        }
+    }
+
+    private User getCurrentUser() {
+        String email = getCurrentUserEmail();
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    private Product getOwnedProduct(String productId) {
+        User currentUser = getCurrentUser();
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new RuntimeException("Product not found"));
+        if (product.getFarmer() == null || !product.getFarmer().getId().equals(currentUser.getId())) {
+            throw new RuntimeException("You can only change prices of your own products");
+        }
+        return product;
+    }
+
+    /**
+     * Schedules a new base price for the current farmer's product; a null {@code effectiveFrom} means now.
+     */
+    public Map<String, Object> schedulePrice(String productId, Double pricePerKg, LocalDateTime effectiveFrom) {
+        if (pricePerKg == null || pricePerKg <= 0) {
+            throw new RuntimeException("pricePerKg must be greater than 0");
+        }
+        Product product = getOwnedProduct(productId);
+        LocalDateTime from = effectiveFrom != null ? effectiveFrom : LocalDateTime.now();
+        appendBasePrice(product, Money.ofMajor(pricePerKg), from);
+        return getPriceHistory(productId);
+    }
+
+    public Map<String, Object> addDiscount(String productId, Double percentOff, LocalDateTime startsAt, LocalDateTime endsAt) {
+        if (percentOff == null || percentOff <= 0 || percentOff >= 100) {
+            throw new RuntimeException("percentOff must be between 0 and 100");
+        }
+        if (endsAt == null) {
+            throw new RuntimeException("Discounts need an end time");
+        }
+        LocalDateTime starts = startsAt != null ? startsAt : LocalDateTime.now();
+        if (!endsAt.isAfter(starts)) {
+            throw new RuntimeException("endsAt must be after startsAt");
+        }
+        Product product = getOwnedProduct(productId);
+        ensureHistory(product);
+
+        LocalDateTime now = LocalDateTime.now();
+        PriceDiscount discount = new PriceDiscount(new ObjectId().toHexString(), percentOff, starts, endsAt, now, null);
+        mongoTemplate.updateFirst(new Query(Criteria.where("id").is(productId)),
+                new Update().push("discounts", discount).set("updatedAt", now), PriceSchedule.class);
+        reload(productId);
+        return getPriceHistory(productId);
+    }
+
+    public Map<String, Object> cancelDiscount(String productId, String discountId) {
+        getOwnedProduct(productId);
+        LocalDateTime now = LocalDateTime.now();
+        Query active = new Query(Criteria.where("id").is(productId)
+                .and("discounts").elemMatch(Criteria.where("id").is(discountId).and("cancelledAt").is(null)));
+        if (mongoTemplate.updateFirst(active, new Update().set("discounts.$.cancelledAt", now).set("updatedAt", now),
+                PriceSchedule.class).getModifiedCount() == 0) {
+            throw new RuntimeException("Discount not found or already cancelled");
+        }
+        reload(productId);
+        return getPriceHistory(productId);
+    }
+
+    public Map<String, Object> getPriceHistory(String productId) {
+        Product product = getOwnedProduct(productId);
+        PriceSchedule schedule = priceScheduleRepository.findById(productId).orElse(null);
+
+        Map<String, Object> history = new LinkedHashMap<>();
+        history.put("productId", productId);
+        history.put("currentPricePerKg", Money.ofMinor(priceMinorFor(product, System.currentTimeMillis())));
+        history.put("nextChangeAt", schedule != null ? schedule.getNextChangeAt() : null);
+        history.put("basePrices", schedule != null && schedule.getBasePrices() != null ? schedule.getBasePrices() : List.of());
+        history.put("discounts", schedule != null && schedule.getDiscounts() != null ? schedule.getDiscounts() : List.of());
+        return history;
+    }
+
+    /**
+     * Appends a base price to the product's history and, if it already applies, updates
+     * {@code product.pricePerKg} (in Mongo and on the instance passed in).
+     */
+    public void appendBasePrice(Product product, Money pricePerKg, LocalDateTime effectiveFrom) {
+        ensureHistory(product);
+        LocalDateTime now = LocalDateTime.now();
+        mongoTemplate.updateFirst(new Query(Criteria.where("id").is(product.getId())),
+                new Update().push("basePrices", new PricePoint(pricePerKg, effectiveFrom, now)).set("updatedAt", now),
+                PriceSchedule.class);
+        PriceTimeline timeline = reload(product.getId());
+        long current = timeline.priceAt(System.currentTimeMillis());
+        if (current >= 0) {
+            product.setPricePerKg(Money.ofMinor(current));
+        }
+    }
+
+    /**
+     * Records prices written by a bulk import, which has already set Product.pricePerKg itself.
+     */
+    public void appendBasePrices(Map<String, Money> pricesByProduct, String farmerId) {
+        if (pricesByProduct.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PriceSchedule.class);
+        pricesByProduct.forEach((productId, price) -> operations.upsert(new Query(Criteria.where("id").is(productId)),
+                new Update().push("basePrices", new PricePoint(price, now, now))
+                        .setOnInsert("farmerId", farmerId)
+                        .set("updatedAt", now)));
+        operations.execute();
+        reloadAll(pricesByProduct.keySet());
+    }
+
+    // Opens the history of a newly added product with its starting price
+    public void startHistory(Product product) {
+        ensureHistory(product);
+        reload(product.getId());
+    }
+
+    // Products created before price history existed get their current price as the first point
+    private void ensureHistory(Product product) {
+        if (priceScheduleRepository.existsById(product.getId())) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .setOnInsert("farmerId", product.getFarmer() != null ? product.getFarmer().getId() : null)
+                .setOnInsert("updatedAt", now);
+        if (product.getPricePerKg() != null) {
+            update.setOnInsert("basePrices", List.of(new PricePoint(product.getPricePerKg(), now, now)));
+        }
+        mongoTemplate.upsert(new Query(Criteria.where("id").is(product.getId())), update, PriceSchedule.class);
+    }
+
+    private PriceTimeline reload(String productId) {
+        PriceSchedule schedule = priceScheduleRepository.findById(productId)
+                .orElseThrow(() -> new RuntimeException("Price history not found"));
+        PriceTimeline timeline = timelineOf(schedule);
+        priceTable.put(productId, timeline);
+        syncListedPrice(productId, timeline);
+        return timeline;
+    }
+
+    private void reloadAll(Collection<String> productIds) {
+        for (PriceSchedule schedule : priceScheduleRepository.findAllById(productIds)) {
+            PriceTimeline timeline = timelineOf(schedule);
+            priceTable.put(schedule.getId(), timeline);
+            syncListedPrice(schedule.getId(), timeline);
+        }
+    }
+
+    // Idempotent, so several nodes reaching the same boundary at once is harmless
+    private void syncListedPrice(String productId, PriceTimeline timeline) {
+        long now = System.currentTimeMillis();
+        long current = timeline.priceAt(now);
+        if (current >= 0 && mongoTemplate.updateFirst(new Query(Criteria.where("id").is(productId)),
+                new Update().set("pricePerKg", Money.ofMinor(current)), Product.class).getModifiedCount() > 0) {
+            versionStampService.bump(VersionStampService.CATALOG);
+        }
+        long next = timeline.nextChangeAfter(now);
+        Update schedule = next >= 0
+                ? new Update().set("nextChangeAt", toLocal(next))
+                : new Update().unset("nextChangeAt");
+        mongoTemplate.updateFirst(new Query(Criteria.where("id").is(productId)), schedule, PriceSchedule.class);
+    }
+
+    private static PriceTimeline timelineOf(PriceSchedule schedule) {
+        PriceTimeline.Builder builder = PriceTimeline.builder();
+        if (schedule.getBasePrices() != null) {
+            for (PricePoint point : schedule.getBasePrices()) {
+                if (point.getPricePerKg() != null && point.getEffectiveFrom() != null) {
+                    builder.basePrice(toMillis(point.getEffectiveFrom()), point.getPricePerKg().getMinorUnits());
+                }
+            }
+        }
+        if (schedule.getDiscounts() != null) {
+            for (PriceDiscount discount : schedule.getDiscounts()) {
+                if (discount.getPercentOff() == null || discount.getStartsAt() == null || discount.getEndsAt() == null) {
+                    continue;
+                }
+                // A cancelled discount still applied up to the moment it was withdrawn
+                LocalDateTime end = discount.getCancelledAt() != null && discount.getCancelledAt().isBefore(discount.getEndsAt())
+                        ? discount.getCancelledAt() : discount.getEndsAt();
+                builder.discount(toMillis(discount.getStartsAt()), toMillis(end), discount.getPercentOff());
+            }
+        }
+        return builder.build();
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocal(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
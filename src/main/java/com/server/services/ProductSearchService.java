@@ -0,0 +1,168 @@
+package com.server.services;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.server.Models.Product;
+import com.server.utils.ProductTextAnalyzer;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps each product's analysed search keys (see {@link ProductTextAnalyzer}) next to the product
+ * and turns keyword searches into lookups on the {language, searchTerms} index. Every language is
+ * its own segment of that index; a search without a language walks each segment's entries for the
+ * query's first key instead of scanning products.
+ */
+@Service
+public class ProductSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchService.class);
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private VersionStampService versionStampService;
+
+    @Value("${product.search.reindex-on-startup:true}")
+    private boolean reindexOnStartup;
+
+    // How long the list of languages in use is trusted before it is read again
+    @Value("${product.search.segment-refresh-ms:60000}")
+    private long segmentRefreshMs;
+
+    private volatile List<String> segments = List.of();
+    private volatile long segmentsLoadedAt;
+
+    /**
+     * Sets the product's search keys from its name, category and description. Call before saving.
+     */
+    public void index(Product product) {
+        if (product.getLanguage() == null || product.getLanguage().isBlank()) {
+            product.setLanguage("en");
+        }
+        product.setSearchTerms(ProductTextAnalyzer.analyze(searchableText(
+                product.getName(), product.getCategory(), product.getDescription())));
+        product.setSearchVersion(ProductTextAnalyzer.VERSION);
+
+        List<String> known = segments;
+        if (!known.contains(product.getLanguage())) {
+            List<String> extended = new ArrayList<>(known);
+            extended.add(product.getLanguage());
+            segments = extended;
+        }
+    }
+
+    /**
+     * Criteria matching products that contain every key of {@code keyword}, limited to one
+     * language when given. Null when the keyword has no searchable words (only stopwords).
+     */
+    public Criteria criteriaFor(String keyword, String language) {
+        List<String> keys = ProductTextAnalyzer.analyze(keyword);
+        if (keys.isEmpty()) {
+            return null;
+        }
+        Criteria criteria = language != null && !language.isBlank()
+                ? Criteria.where("language").is(language)
+                : Criteria.where("language").in(segments());
+        return criteria.and("searchTerms").all(keys);
+    }
+
+    // Rebuilds keys for products changed by partial updates (bulk import)
+    public void reindex(Collection<String> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        List<ObjectId> ids = productIds.stream().map(ObjectId::new).collect(Collectors.toList());
+        reindex(Filters.in("_id", ids));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (!reindexOnStartup) {
+            return;
+        }
+        try {
+            long updated = reindex(Filters.ne("searchVersion", ProductTextAnalyzer.VERSION));
+            if (updated > 0) {
+                logger.info("Built search keys for {} products", updated);
+            }
+        } catch (Exception e) {
+            // Products without keys are simply not found by keyword until the next start
+            logger.error("Search key rebuild failed: {}", e.getMessage());
+        }
+    }
+
+    private long reindex(Bson filter) {
+        long updated = 0;
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        int queued = 0;
+        for (Document product : mongoTemplate.getCollection(mongoTemplate.getCollectionName(Product.class))
+                .find(filter)
+                .projection(Projections.include("name", "category", "description", "language"))
+                .batchSize(BATCH_SIZE)) {
+            Update update = new Update()
+                    .set("searchTerms", ProductTextAnalyzer.analyze(searchableText(
+                            product.getString("name"), product.getString("category"), product.getString("description"))))
+                    .set("searchVersion", ProductTextAnalyzer.VERSION);
+            // Products saved before language existed belong to the default segment
+            if (!(product.get("language") instanceof String language) || language.isBlank()) {
+                update.set("language", "en");
+            }
+            operations.updateOne(new Query(Criteria.where("id").is(product.getObjectId("_id"))), update);
+            if (++queued == BATCH_SIZE) {
+                updated += operations.execute().getModifiedCount();
+                operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+                queued = 0;
+            }
+        }
+        if (queued > 0) {
+            updated += operations.execute().getModifiedCount();
+        }
+        // Keyword results change with the keys
+        if (updated > 0) {
+            versionStampService.bump(VersionStampService.CATALOG);
+        }
+        return updated;
+    }
+
+    // Languages that currently have products, refreshed every segmentRefreshMs
+    private List<String> segments() {
+        long now = System.currentTimeMillis();
+        if (now - segmentsLoadedAt > segmentRefreshMs) {
+            segments = mongoTemplate.findDistinct(new Query(), "language", Product.class, String.class);
+            segmentsLoadedAt = now;
+        }
+        return segments;
+    }
+
+    private static String searchableText(String name, String category, String description) {
+        StringBuilder text = new StringBuilder();
+        for (String part : new String[]{name, category, description}) {
+            if (part != null) {
+                text.append(part).append(' ');
+            }
+        }
+        return text.toString();
+    }
+}
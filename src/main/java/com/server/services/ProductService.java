@@ -1,20 +1,35 @@
 package com.server.services;
 
+import com.server.Models.Money;
 import com.server.Models.Product;
+import com.server.Models.Quantity;
 import com.server.Models.User;
 import com.server.Repositories.ProductRepository;
 import com.server.Repositories.UserRepository;
+import com.server.dto.ProductSummary;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,6 +44,27 @@ public class ProductService {
     @Autowired
     private CloudinaryService cloudinaryService;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    @Autowired
+    private ProductSuggestService productSuggestService;
+
+    @Autowired
+    private VersionStampService versionStampService;
+
+    @Value("${product.search.text-index:false}")
+    private boolean useTextIndex;
+
+    @Value("${product.search.analyzed:true}")
+    private boolean useAnalyzedSearch;
+
     private String getCurrentUserEmail() {
         Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         if (principal instanceof UserDetails) {
@@ -59,7 +95,14 @@ public class ProductService {
         }
 
         product.setFarmer(currentUser);
-        return productRepository.save(product);
+        productSearchService.index(product);
+        Product saved = productRepository.save(product);
+        if (saved.getPricePerKg() != null) {
+            pricingService.startHistory(saved);
+        }
+        productSuggestService.onProductSaved(saved);
+        versionStampService.bump(VersionStampService.CATALOG);
+        return saved;
     }
 
     public Product updateProduct(String productId, Product productDetails, MultipartFile imageFile) throws IOException {
@@ -79,8 +122,9 @@ public class ProductService {
         if (productDetails.getCategory() != null) {
             existingProduct.setCategory(productDetails.getCategory());
         }
-        if (productDetails.getPricePerKg() != null) {
-            existingProduct.setPricePerKg(productDetails.getPricePerKg());
+        // Price changes go into the product's price history; pricePerKg becomes the effective price
+        if (productDetails.getPricePerKg() != null && !productDetails.getPricePerKg().equals(existingProduct.getPricePerKg())) {
+            pricingService.appendBasePrice(existingProduct, productDetails.getPricePerKg(), LocalDateTime.now());
         }
         if (productDetails.getDescription() != null) {
             existingProduct.setDescription(productDetails.getDescription());
@@ -97,15 +141,19 @@ public class ProductService {
             existingProduct.setImageUrl(newImageUrl);
         }
 
-        return productRepository.save(existingProduct);
+        productSearchService.index(existingProduct);
+        Product saved = productRepository.save(existingProduct);
+        productSuggestService.onProductSaved(saved);
+        versionStampService.bump(VersionStampService.CATALOG);
+        return saved;
     }
 
-    public List<Product> getMyProducts() {
+    public List<ProductSummary> getMyProducts() {
         User currentUser = getCurrentUser();
-        return productRepository.findByFarmerId(currentUser.getId());
+        return findSummaries(new Query(Criteria.where("farmer.$id").is(new ObjectId(currentUser.getId()))));
     }
 
-    public Product updateInventory(String productId, Double quantity) {
+    public Product updateInventory(String productId, Quantity quantity) {
         User currentUser = getCurrentUser();
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
@@ -116,28 +164,65 @@ public class ProductService {
         }
 
         product.setAvailableQuantity(quantity);
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        // Stock moves a listing's suggestion weight
+        productSuggestService.onProductSaved(saved);
+        versionStampService.bump(VersionStampService.CATALOG);
+        return saved;
     }
 
-    public Product getProductById(String productId) {
+    public ProductSummary getProductById(String productId) {
         User currentUser = getCurrentUser();
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
+        List<ProductSummary> found = ObjectId.isValid(productId)
+                ? findSummaries(new Query(Criteria.where("_id").is(new ObjectId(productId))))
+                : List.of();
+        if (found.isEmpty()) {
+            throw new RuntimeException("Product not found");
+        }
 
         // Verify the product belongs to the current farmer
-        if (!product.getFarmer().getId().equals(currentUser.getId())) {
+        if (!currentUser.getId().equals(found.get(0).getFarmerId())) {
             throw new RuntimeException("You can only access your own products");
         }
 
-        return product;
+        return found.get(0);
     }
     // Add these methods to your existing ProductService class
 
     public Page<Product> searchProducts(String category, Double minPrice, Double maxPrice,
                                         String keyword, Pageable pageable) {
+        return searchProducts(category, minPrice, maxPrice, keyword, null, pageable);
+    }
+
+    public Page<Product> searchProducts(String category, Double minPriceRupees, Double maxPriceRupees,
+                                        String keyword, Double minRating, Pageable pageable) {
+        return searchProducts(category, minPriceRupees, maxPriceRupees, keyword, null, minRating, pageable);
+    }
+
+    /**
+     * {@code language} restricts a keyword search to listings in that language; without it every
+     * language is searched (a Latin-script keyword also matches Devanagari and Odia listings).
+     */
+    public Page<Product> searchProducts(String category, Double minPriceRupees, Double maxPriceRupees,
+                                        String keyword, String language, Double minRating, Pageable pageable) {
+        // Prices are stored in paise; filters arrive in rupees
+        Money minPrice = minPriceRupees != null ? Money.ofMajor(minPriceRupees) : null;
+        Money maxPrice = maxPriceRupees != null ? Money.ofMajor(maxPriceRupees) : null;
+
+        // Rating filters combine with the others in one query (averageRating_idx / category_rating_idx)
+        if (minRating != null) {
+            return searchWithMinRating(category, minPrice, maxPrice, keyword, language, minRating, pageable);
+        }
 
         // If keyword is provided, search by name and description
         if (keyword != null && !keyword.trim().isEmpty()) {
+            Criteria analyzed = analyzedCriteria(keyword, language);
+            if (analyzed != null) {
+                return findPage(new Query(analyzed), pageable);
+            }
+            if (useTextIndex) {
+                return productRepository.findAllBy(TextCriteria.forDefaultLanguage().matching(keyword), pageable);
+            }
             return productRepository.findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCase(
                     keyword, keyword, pageable);
         }
@@ -171,6 +256,88 @@ public class ProductService {
         return productRepository.findAll(pageable);
     }
 
+    /**
+     * Catalog page for the browse endpoint, with the same filters as searchProducts, read as
+     * {@link ProductSummary} from a projection so no farmer documents are loaded. {@code fields}
+     * limits the projection to those summary properties; null reads them all.
+     */
+    public Page<ProductSummary> browseProducts(String category, Double minPriceRupees, Double maxPriceRupees,
+                                               String keyword, String language, Double minRating,
+                                               Set<String> fields, Pageable pageable) {
+        Money minPrice = minPriceRupees != null ? Money.ofMajor(minPriceRupees) : null;
+        Money maxPrice = maxPriceRupees != null ? Money.ofMajor(maxPriceRupees) : null;
+
+        Query query = catalogQuery(category, minPrice, maxPrice, keyword, language);
+        if (minRating != null) {
+            query.addCriteria(Criteria.where("averageRating").gte(minRating));
+        }
+        long total = mongoTemplate.count(Query.of(query), Product.class);
+        String[] stored = fields != null ? ProductSummary.storedFields(fields) : ProductSummary.FIELDS;
+        return new PageImpl<>(findSummaries(query.with(pageable), stored), pageable, total);
+    }
+
+    private Page<Product> searchWithMinRating(String category, Money minPrice, Money maxPrice,
+                                              String keyword, String language, Double minRating, Pageable pageable) {
+        Query query = catalogQuery(category, minPrice, maxPrice, keyword, language);
+        query.addCriteria(Criteria.where("averageRating").gte(minRating));
+        return findPage(query, pageable);
+    }
+
+    // A keyword search ignores category and price, as it always has
+    private Query catalogQuery(String category, Money minPrice, Money maxPrice, String keyword, String language) {
+        Query query;
+        Criteria analyzed = keyword != null && !keyword.trim().isEmpty() ? analyzedCriteria(keyword, language) : null;
+        if (analyzed != null) {
+            query = new Query(analyzed);
+        } else if (keyword != null && !keyword.trim().isEmpty()) {
+            query = useTextIndex
+                    ? TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(keyword))
+                    : new Query(new Criteria().orOperator(
+                            Criteria.where("name").regex(Pattern.quote(keyword), "i"),
+                            Criteria.where("description").regex(Pattern.quote(keyword), "i")));
+        } else {
+            query = new Query();
+            if (category != null && !category.trim().isEmpty()) {
+                query.addCriteria(Criteria.where("category").is(category));
+            }
+            if (minPrice != null || maxPrice != null) {
+                Criteria price = Criteria.where("pricePerKg");
+                if (minPrice != null) {
+                    price.gte(minPrice.getMinorUnits());
+                }
+                if (maxPrice != null) {
+                    price.lte(maxPrice.getMinorUnits());
+                }
+                query.addCriteria(price);
+            }
+        }
+        return query;
+    }
+
+    // Analysed-key search on language_terms_idx; null falls back to the text index / regex (keyword of only stopwords)
+    private Criteria analyzedCriteria(String keyword, String language) {
+        return useAnalyzedSearch ? productSearchService.criteriaFor(keyword, language) : null;
+    }
+
+    private Page<Product> findPage(Query query, Pageable pageable) {
+        long total = mongoTemplate.count(Query.of(query), Product.class);
+        List<Product> content = mongoTemplate.find(query.with(pageable), Product.class);
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    private List<ProductSummary> findSummaries(Query query) {
+        return findSummaries(query, ProductSummary.FIELDS);
+    }
+
+    // Raw documents, so the farmer reference stays an id
+    private List<ProductSummary> findSummaries(Query query, String[] fields) {
+        // An empty inclusion list would mean every field, so ask for the id alone
+        query.fields().include(fields.length > 0 ? fields : new String[]{"_id"});
+        return mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Product.class)).stream()
+                .map(ProductSummary::from)
+                .collect(Collectors.toList());
+    }
+
     // Add this method to your existing ProductService class
     public List<String> getAllCategories() {
         List<Product> products = productRepository.findDistinctCategoriesProjected();
@@ -0,0 +1,251 @@
+package com.server.services;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.server.Models.Product;
+import com.server.utils.ProductTextAnalyzer;
+import com.server.utils.SuggestionTrie;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Autocomplete for the consumer search box over product names and categories, served from a
+ * {@link SuggestionTrie} in memory. Listings with the same name (many farmers sell "Tomato") are
+ * one suggestion whose weight is the sum of their popularity; a category weighs as much as its
+ * products together. Saves on this node update the trie in place; a periodic rebuild picks up
+ * changes made on other nodes and rating updates.
+ */
+@Service
+public class ProductSuggestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSuggestService.class);
+
+    private static final int LATENCY_SAMPLES = 512;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${suggest.max-results:8}")
+    private int maxResults;
+
+    // Bounds for the debounce hint sent to clients; the hint grows with observed latency
+    @Value("${suggest.debounce-min-ms:60}")
+    private int debounceMinMs;
+
+    @Value("${suggest.debounce-max-ms:250}")
+    private int debounceMaxMs;
+
+    private volatile State state = new State(8);
+    // Set while a rebuild is loading, so saves made meanwhile reach the new trie too
+    private volatile State building;
+
+    // Recent lookup times in nanoseconds, for the debounce hint
+    private final long[] latencies = new long[LATENCY_SAMPLES];
+    private final AtomicInteger latencyCursor = new AtomicInteger();
+    private volatile int debounceMs;
+    private volatile long debounceComputedAt;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        debounceMs = debounceMinMs;
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${suggest.rebuild-ms:300000}", initialDelayString = "${suggest.rebuild-ms:300000}")
+    public void rebuild() {
+        try {
+            State fresh = new State(maxResults);
+            building = fresh;
+            load(Filters.empty(), fresh);
+            state = fresh;
+        } catch (Exception e) {
+            logger.error("Could not rebuild product suggestions: {}", e.getMessage());
+        } finally {
+            building = null;
+        }
+    }
+
+    /**
+     * Suggestions for what has been typed so far. Every word but the last must match a whole
+     * word of the suggestion; the last is a prefix, matched with up to one typo from four
+     * characters on and two from seven.
+     */
+    public Map<String, Object> suggest(String query, Integer limit) {
+        long started = System.nanoTime();
+        int max = Math.max(1, Math.min(limit != null ? limit : maxResults, maxResults));
+
+        List<SuggestionTrie.Suggestion> suggestions = List.of();
+        List<String> words = query != null ? ProductTextAnalyzer.tokenize(query) : List.of();
+        if (!words.isEmpty()) {
+            String last = words.get(words.size() - 1);
+            Set<String> required = new HashSet<>(ProductTextAnalyzer.analyze(String.join(" ", words.subList(0, words.size() - 1))));
+            String prefix = ProductTextAnalyzer.prefixKey(last);
+            if (!prefix.isEmpty()) {
+                int edits = last.codePointCount(0, last.length()) >= 7 ? 2 : last.codePointCount(0, last.length()) >= 4 ? 1 : 0;
+                suggestions = state.trie.suggest(prefix, required, edits, max);
+            }
+        }
+
+        record(System.nanoTime() - started);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("suggestions", suggestions.stream()
+                .map(suggestion -> Map.of("text", suggestion.getText(), "type", suggestion.getType()))
+                .collect(Collectors.toList()));
+        response.put("debounceMs", debounceHint());
+        response.put("minChars", 1);
+        return response;
+    }
+
+    public void onProductSaved(Product product) {
+        if (product.getId() == null) {
+            return;
+        }
+        Document document = new Document("_id", new ObjectId(product.getId()))
+                .append("name", product.getName())
+                .append("category", product.getCategory())
+                .append("ratingCount", product.getRatingCount())
+                .append("availableQuantity", product.getAvailableQuantity() != null
+                        ? product.getAvailableQuantity().getGrams() : null);
+        state.apply(document);
+        State next = building;
+        if (next != null) {
+            next.apply(document);
+        }
+    }
+
+    // Re-reads products changed by partial updates (bulk import)
+    public void onProductsChanged(Collection<String> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        try {
+            load(Filters.in("_id", productIds.stream().map(ObjectId::new).collect(Collectors.toList())), state);
+        } catch (Exception e) {
+            logger.error("Could not refresh product suggestions: {}", e.getMessage());
+        }
+    }
+
+    private void load(Bson filter, State target) {
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(Product.class))
+                .find(filter)
+                .projection(Projections.include("name", "category", "ratingCount", "availableQuantity"))
+                .batchSize(1000)
+                .forEach(target::apply);
+    }
+
+    private void record(long nanos) {
+        latencies[Math.floorMod(latencyCursor.getAndIncrement(), LATENCY_SAMPLES)] = nanos;
+    }
+
+    /**
+     * Debounce the client should apply between keystrokes: the floor while lookups are fast,
+     * rising as the 99th percentile of recent lookups grows. Recomputed at most once a second.
+     */
+    private int debounceHint() {
+        long now = System.currentTimeMillis();
+        if (now - debounceComputedAt > 1000) {
+            long[] sample = latencies.clone();
+            Arrays.sort(sample);
+            long p99Micros = sample[(int) (LATENCY_SAMPLES * 0.99)] / 1000;
+            // 20x the server's p99 keeps suggestion traffic to a small share of a keystroke gap
+            debounceMs = (int) Math.max(debounceMinMs, Math.min(debounceMaxMs, p99Micros * 20 / 1000));
+            debounceComputedAt = now;
+        }
+        return debounceMs;
+    }
+
+    // Popularity of one listing: ratings stand in for past sales; out-of-stock listings sink
+    private static double popularity(Document product) {
+        double weight = 1 + (product.get("ratingCount") instanceof Number count ? count.doubleValue() : 0);
+        boolean inStock = product.get("availableQuantity") instanceof Number quantity && quantity.doubleValue() > 0;
+        return inStock ? weight : weight * 0.2;
+    }
+
+    /**
+     * Trie plus the per-listing contributions needed to update name and category weights in place.
+     */
+    private static class State {
+        private final SuggestionTrie trie;
+        private final Map<String, Listing> listings = new HashMap<>();
+        private final Map<String, Group> names = new HashMap<>();
+        private final Map<String, Group> categories = new HashMap<>();
+
+        State(int topK) {
+            this.trie = new SuggestionTrie(topK);
+        }
+
+        synchronized void apply(Document product) {
+            String id = product.getObjectId("_id").toHexString();
+            Listing previous = listings.remove(id);
+            if (previous != null) {
+                adjust(names, "name:", previous.name, -previous.weight, "product");
+                adjust(categories, "category:", previous.category, -previous.weight, "category");
+            }
+            Listing listing = new Listing(product.getString("name"), product.getString("category"), popularity(product));
+            listings.put(id, listing);
+            adjust(names, "name:", listing.name, listing.weight, "product");
+            adjust(categories, "category:", listing.category, listing.weight, "category");
+        }
+
+        private void adjust(Map<String, Group> groups, String idPrefix, String text, double delta, String type) {
+            if (text == null || text.isBlank()) {
+                return;
+            }
+            String key = text.trim().toLowerCase(Locale.ROOT);
+            Group group = groups.computeIfAbsent(key, k -> new Group(text.trim()));
+            group.weight += delta;
+            group.listings += delta > 0 ? 1 : -1;
+            if (group.listings <= 0) {
+                groups.remove(key);
+                trie.remove(idPrefix + key);
+            } else {
+                trie.put(idPrefix + key, group.display, type, ProductTextAnalyzer.analyze(group.display), group.weight);
+            }
+        }
+    }
+
+    private static class Listing {
+        private final String name;
+        private final String category;
+        private final double weight;
+
+        Listing(String name, String category, double weight) {
+            this.name = name;
+            this.category = category;
+            this.weight = weight;
+        }
+    }
+
+    private static class Group {
+        private final String display;
+        private double weight;
+        private int listings;
+
+        Group(String display) {
+            this.display = display;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.server.services;
+
+import com.server.Models.Order;
+import com.server.Models.OrderItem;
+import com.server.Models.OrderStatus;
+import com.server.Models.Product;
+import com.server.Models.Rating;
+import com.server.Models.User;
+import com.server.Repositories.OrderRepository;
+import com.server.Repositories.ProductRepository;
+import com.server.Repositories.RatingRepository;
+import com.server.Repositories.UserRepository;
+import com.server.dto.RatingSummary;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Accepts one rating per delivered order and folds it into running scores on every product and
+ * farmer in the order. The unique index on (order, ratedBy) makes the insert the gate, so the
+ * increments that follow are applied at most once per order.
+ */
+@Service
+public class RatingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingService.class);
+
+    @Autowired
+    private RatingRepository ratingRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private VersionStampService versionStampService;
+
+    private String getCurrentUserEmail() {
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        if (principal instanceof UserDetails) {
+            return ((UserDetails) principal).getUsername();
+        } else {
+            return principal.toString();
+        }
+    }
+
+    private User getCurrentUser() {
+        String email = getCurrentUserEmail();
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    public Rating rateOrder(String orderId, Integer rating, String review) {
+        if (rating == null || rating < 1 || rating > 5) {
+            throw new RuntimeException("Rating must be between 1 and 5");
+        }
+        User consumer = getCurrentUser();
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new RuntimeException("Order not found"));
+
+        if (!order.getConsumer().getId().equals(consumer.getId())) {
+            throw new RuntimeException("You can only rate your own orders");
+        }
+        if (order.getStatus() != OrderStatus.DELIVERED) {
+            throw new RuntimeException("Only delivered orders can be rated");
+        }
+
+        Set<String> productIds = new LinkedHashSet<>();
+        Set<String> farmerIds = new LinkedHashSet<>();
+        for (OrderItem item : order.getOrderItems()) {
+            Product product = item.getProduct();
+            if (product == null) {
+                continue;
+            }
+            productIds.add(product.getId());
+            if (product.getFarmer() != null) {
+                farmerIds.add(product.getFarmer().getId());
+            }
+        }
+
+        Rating entry = new Rating();
+        entry.setOrder(order);
+        entry.setRating(rating);
+        entry.setReview(review);
+        entry.setRatedBy(consumer);
+        entry.setRatedByName(consumer.getName());
+        entry.setProductIds(new ArrayList<>(productIds));
+        entry.setFarmerIds(new ArrayList<>(farmerIds));
+        entry.setCreatedAt(LocalDateTime.now());
+
+        Rating saved;
+        try {
+            saved = ratingRepository.insert(entry);
+        } catch (DuplicateKeyException e) {
+            throw new RuntimeException("You have already rated this order");
+        }
+
+        if (!productIds.isEmpty()) {
+            productRepository.addRating(productIds, rating);
+        }
+        if (!farmerIds.isEmpty()) {
+            userRepository.addRating(farmerIds, rating);
+        }
+        versionStampService.bump(VersionStampService.CATALOG);
+        return saved;
+    }
+
+    public Page<RatingSummary> getProductRatings(String productId, Pageable pageable) {
+        return ratingRepository.findByProductIdsOrderByCreatedAtDesc(productId, pageable);
+    }
+
+    /**
+     * Rebuilds every product and farmer score from the ratings collection with one aggregation each.
+     * Only needed if a process died between a rating insert and its increments.
+     */
+    public Map<String, Object> recomputeScores() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("products", recompute("productIds", Product.class));
+        result.put("farmers", recompute("farmerIds", User.class));
+        versionStampService.bump(VersionStampService.CATALOG);
+        return result;
+    }
+
+    private int recompute(String idsField, Class<?> target) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.unwind(idsField),
+                Aggregation.group(idsField).sum("rating").as("ratingSum").count().as("ratingCount"));
+        List<Document> totals = mongoTemplate.aggregate(aggregation, Rating.class, Document.class).getMappedResults();
+        if (totals.isEmpty()) {
+            return 0;
+        }
+
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, target);
+        for (Document total : totals) {
+            long sum = ((Number) total.get("ratingSum")).longValue();
+            int count = ((Number) total.get("ratingCount")).intValue();
+            operations.updateOne(new Query(Criteria.where("id").is(total.get("_id"))), new Update()
+                    .set("ratingSum", sum)
+                    .set("ratingCount", count)
+                    .set("averageRating", (double) sum / count));
+        }
+        operations.execute();
+        logger.info("Recomputed rating scores for {} {}", totals.size(), mongoTemplate.getCollectionName(target));
+        return totals.size();
+    }
+}
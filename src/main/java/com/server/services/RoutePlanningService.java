@@ -0,0 +1,331 @@
+package com.server.services;
+
+import com.mongodb.DBRef;
+import com.server.Models.DeliveryPartner;
+import com.server.Models.DeliveryRoute;
+import com.server.Models.Order;
+import com.server.Models.OrderStatus;
+import com.server.Models.RouteStop;
+import com.server.Models.User;
+import com.server.Repositories.DeliveryPartnerRepository;
+import com.server.Repositories.DeliveryRouteRepository;
+import com.server.Repositories.OrderRepository;
+import com.server.Repositories.UserRepository;
+import com.server.utils.PartnerLocationGrid;
+import com.server.utils.RouteOptimizer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static com.mongodb.client.model.Filters.in;
+import static com.mongodb.client.model.Projections.include;
+
+/**
+ * Batches READY_FOR_PICKUP orders into multi-stop trips. Orders are grouped by pickup area,
+ * each group (up to the trip capacity) goes to the nearest available partner, and every
+ * partner's pickups and drop-offs are sequenced by {@link RouteOptimizer} in parallel.
+ */
+@Service
+public class RoutePlanningService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoutePlanningService.class);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private DeliveryPartnerRepository deliveryPartnerRepository;
+
+    @Autowired
+    private DeliveryRouteRepository deliveryRouteRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DispatchService dispatchService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${dispatch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${dispatch.mode:routes}")
+    private String mode;
+
+    @Value("${dispatch.batch-size:500}")
+    private int batchSize;
+
+    @Value("${dispatch.routes.max-orders-per-trip:6}")
+    private int maxOrdersPerTrip;
+
+    // Pickups in the same cell (0.02 deg is about 2 km) are treated as one pickup area
+    @Value("${dispatch.routes.cluster-degrees:0.02}")
+    private double clusterDegrees;
+
+    @Value("${dispatch.routes.parallelism:0}")
+    private int parallelism;
+
+    private ForkJoinPool pool;
+
+    @PostConstruct
+    void initPool() {
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    void shutdownPool() {
+        pool.shutdown();
+    }
+
+    private String getCurrentUserEmail() {
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        if (principal instanceof UserDetails) {
+            return ((UserDetails) principal).getUsername();
+        } else {
+            return principal.toString();
+        }
+    }
+
+    private User getCurrentUser() {
+        String email = getCurrentUserEmail();
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    public DeliveryRoute getMyRoute() {
+        User user = getCurrentUser();
+        if (!user.getRole().toString().equals("DELIVERY_PARTNER")) {
+            throw new RuntimeException("Only delivery partners have routes");
+        }
+        DeliveryPartner partner = deliveryPartnerRepository.findByUserId(user.getId())
+                .orElseThrow(() -> new RuntimeException("Delivery partner profile not found"));
+        return deliveryRouteRepository.findFirstByDeliveryPartnerIdOrderByCreatedAtDesc(partner.getId())
+                .orElseThrow(() -> new RuntimeException("No route assigned"));
+    }
+
+    @Scheduled(fixedDelayString = "${dispatch.interval-ms:5000}")
+    public void scheduledPlanning() {
+        if (!enabled || !"routes".equals(mode)) {
+            return;
+        }
+        try {
+            List<DeliveryRoute> routes = planRoutes();
+            if (!routes.isEmpty()) {
+                logger.info("Route planning assigned {} trips", routes.size());
+            }
+        } catch (Exception e) {
+            logger.error("Route planning round failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * One planning round. Matching and sequencing happen in memory; the database sees one read
+     * of open orders, one read of matched partners, one bulk assignment, one check of what was
+     * actually claimed and one insert of the resulting routes.
+     */
+    public synchronized List<DeliveryRoute> planRoutes() {
+        List<Order> orders = orderRepository.findByStatusAndDeliveryPartnerIsNullOrderByOrderDateAsc(
+                OrderStatus.READY_FOR_PICKUP, PageRequest.of(0, batchSize));
+
+        // Oldest order first decides which area is served first
+        Map<Long, List<Order>> areas = new LinkedHashMap<>();
+        for (Order order : orders) {
+            if (order.getPickupLocationLat() == null || order.getPickupLocationLng() == null
+                    || order.getDeliveryLocationLat() == null || order.getDeliveryLocationLng() == null) {
+                continue;
+            }
+            areas.computeIfAbsent(areaKey(order.getPickupLocationLat(), order.getPickupLocationLng()),
+                    key -> new ArrayList<>()).add(order);
+        }
+
+        // Phase 1: give each trip-sized chunk of an area the nearest unclaimed partner
+        Set<String> claimed = new HashSet<>();
+        List<Trip> trips = new ArrayList<>();
+        for (List<Order> area : areas.values()) {
+            for (int from = 0; from < area.size(); from += maxOrdersPerTrip) {
+                List<Order> chunk = area.subList(from, Math.min(area.size(), from + maxOrdersPerTrip));
+                double lat = chunk.stream().mapToDouble(Order::getPickupLocationLat).average().orElse(0);
+                double lng = chunk.stream().mapToDouble(Order::getPickupLocationLng).average().orElse(0);
+
+                PartnerLocationGrid.Match match = dispatchService.nearestPartner(lat, lng, claimed);
+                if (match == null) {
+                    break;
+                }
+                claimed.add(match.getPartnerId());
+                trips.add(new Trip(match.getPartnerId(), chunk));
+            }
+        }
+        if (trips.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // Phase 2: sequence every trip on the planning pool
+        List<Trip> sequenced;
+        try {
+            sequenced = pool.submit(() -> trips.parallelStream().map(this::sequence).collect(Collectors.toList())).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Route planning interrupted");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Route planning failed: " + e.getCause().getMessage());
+        }
+
+        // Phase 3: claim the orders, then keep only the ones this round actually got
+        Map<String, DeliveryPartner> partners = new HashMap<>();
+        deliveryPartnerRepository.findAllById(claimed).forEach(p -> partners.put(p.getId(), p));
+
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class);
+        List<ObjectId> plannedIds = new ArrayList<>();
+        for (Trip trip : sequenced) {
+            DeliveryPartner partner = partners.get(trip.partnerId);
+            if (partner == null || partner.getUser() == null) {
+                continue;
+            }
+            DBRef partnerRef = mongoTemplate.getConverter().toDBRef(partner.getUser(), null);
+            for (Order order : trip.orders) {
+                Query unassigned = new Query(Criteria.where("id").is(order.getId())
+                        .and("status").is(OrderStatus.READY_FOR_PICKUP)
+                        .and("deliveryPartner").is(null));
+                operations.updateOne(unassigned, new Update().set("deliveryPartner", partnerRef).inc("revision", 1L));
+                plannedIds.add(new ObjectId(order.getId()));
+            }
+        }
+        if (plannedIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        operations.execute();
+        Map<String, Object> assignedTo = claimedOrders(plannedIds);
+
+        List<DeliveryRoute> routes = new ArrayList<>();
+        for (Trip trip : sequenced) {
+            DeliveryPartner partner = partners.get(trip.partnerId);
+            if (partner == null || partner.getUser() == null) {
+                continue;
+            }
+            String userId = partner.getUser().getId();
+            DeliveryRoute route = toRoute(trip, orderId -> userId.equals(assignedTo.get(orderId)));
+            if (route != null) {
+                routes.add(route);
+            }
+        }
+        if (routes.isEmpty()) {
+            return routes;
+        }
+
+        mongoTemplate.insertAll(routes);
+        dispatchService.markUnavailable(routes.stream().map(DeliveryRoute::getDeliveryPartnerId).collect(Collectors.toList()));
+        return routes;
+    }
+
+    private Trip sequence(Trip trip) {
+        List<RouteOptimizer.Stop> stops = new ArrayList<>();
+        for (Order order : trip.orders) {
+            stops.add(new RouteOptimizer.Stop(order.getId(), true, order.getPickupLocationLat(), order.getPickupLocationLng()));
+            stops.add(new RouteOptimizer.Stop(order.getId(), false, order.getDeliveryLocationLat(), order.getDeliveryLocationLng()));
+        }
+
+        PartnerLocationGrid.Position start = dispatchService.getPartnerPosition(trip.partnerId);
+        double startLat = start != null ? start.getLat() : stops.get(0).getLat();
+        double startLng = start != null ? start.getLng() : stops.get(0).getLng();
+
+        Trip sequenced = new Trip(trip.partnerId, trip.orders);
+        sequenced.startLat = startLat;
+        sequenced.startLng = startLng;
+        sequenced.stops = RouteOptimizer.optimize(startLat, startLng, stops);
+        return sequenced;
+    }
+
+    // Drops stops of orders another round claimed first; removing both stops of an order keeps the sequence valid
+    private DeliveryRoute toRoute(Trip trip, Predicate<String> assigned) {
+        Map<String, String> addresses = new HashMap<>();
+        trip.orders.forEach(order -> addresses.put(order.getId(), order.getDeliveryAddress()));
+
+        List<RouteOptimizer.Stop> kept = trip.stops.stream()
+                .filter(stop -> assigned.test(stop.getOrderId()))
+                .collect(Collectors.toList());
+        if (kept.isEmpty()) {
+            return null;
+        }
+
+        List<RouteStop> stops = new ArrayList<>();
+        List<String> orderIds = new ArrayList<>();
+        for (RouteOptimizer.Stop stop : kept) {
+            stops.add(new RouteStop(stops.size() + 1, stop.getOrderId(), stop.isPickup() ? "PICKUP" : "DROPOFF",
+                    stop.getLat(), stop.getLng(), stop.isPickup() ? null : addresses.get(stop.getOrderId())));
+            if (stop.isPickup()) {
+                orderIds.add(stop.getOrderId());
+            }
+        }
+
+        DeliveryRoute route = new DeliveryRoute();
+        route.setDeliveryPartnerId(trip.partnerId);
+        route.setOrderIds(orderIds);
+        route.setStops(stops);
+        route.setTotalDistanceKm(RouteOptimizer.routeLengthKm(trip.startLat, trip.startLng, kept));
+        route.setCreatedAt(LocalDateTime.now());
+        return route;
+    }
+
+    // Reads the raw DBRef ids so checking the claim does not load every referenced user
+    private Map<String, Object> claimedOrders(List<ObjectId> orderIds) {
+        Map<String, Object> assignedTo = new HashMap<>();
+        for (Document document : mongoTemplate.getCollection(mongoTemplate.getCollectionName(Order.class))
+                .find(in("_id", orderIds))
+                .projection(include("deliveryPartner"))) {
+            Object ref = document.get("deliveryPartner");
+            if (ref instanceof DBRef) {
+                assignedTo.put(document.getObjectId("_id").toHexString(), ((DBRef) ref).getId().toString());
+            }
+        }
+        return assignedTo;
+    }
+
+    private long areaKey(double lat, double lng) {
+        long row = (long) Math.floor((lat + 90.0) / clusterDegrees);
+        long column = (long) Math.floor((lng + 180.0) / clusterDegrees);
+        return (row << 32) | (column & 0xffffffffL);
+    }
+
+    private static class Trip {
+        private final String partnerId;
+        private final List<Order> orders;
+        private double startLat;
+        private double startLng;
+        private List<RouteOptimizer.Stop> stops;
+
+        Trip(String partnerId, List<Order> orders) {
+            this.partnerId = partnerId;
+            this.orders = orders;
+        }
+    }
+}
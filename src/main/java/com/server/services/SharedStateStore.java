@@ -0,0 +1,37 @@
+package com.server.services;
+
+import java.time.Duration;
+
+/**
+ * Small key-value store for state that every node must see: mock payments, idempotency keys and
+ * rate-limit counters. Keys live in a namespace and every entry expires after its TTL, so nothing
+ * here needs cleaning up by hand.
+ *
+ * With {@code state.store=memory} the entries stay in this JVM, which is enough for a single node
+ * or a test. With {@code state.store=mongo} they live in the shared_state collection and any node
+ * can serve any request.
+ */
+public interface SharedStateStore {
+
+    // The value, or null when there is none or it has expired
+    String get(String namespace, String key);
+
+    void put(String namespace, String key, String value, Duration ttl);
+
+    /**
+     * Stores {@code value} unless a live entry exists. Returns null when this call stored it,
+     * otherwise the value already there.
+     */
+    String putIfAbsent(String namespace, String key, String value, Duration ttl);
+
+    /**
+     * Adds {@code delta} to a counter and returns the new count. The TTL starts when the counter is
+     * created, so a counter is a fixed window that ends {@code ttl} after its first increment.
+     */
+    long increment(String namespace, String key, long delta, Duration ttl);
+
+    // The counter's current value, or 0 when there is none or its window has ended
+    long count(String namespace, String key);
+
+    void remove(String namespace, String key);
+}
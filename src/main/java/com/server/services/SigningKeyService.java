@@ -0,0 +1,277 @@
+package com.server.services;
+
+import com.server.Models.SigningKey;
+import com.server.utils.JsonWebKeys;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Key pairs for asymmetric JWT signing (ES256 or EdDSA), shared by all nodes through the
+ * signing_keys collection.
+ *
+ * A new key is created every {@code rotation-hours}. It is published in the JWKS
+ * {@code prepublish-minutes} before it signs anything, so verifiers that cache the JWKS already
+ * have it, and it stays published until the last token it signed has expired.
+ *
+ * Verification keys are held in memory by kid. A kid that is not known yet (a key another node has
+ * just created) triggers a reload, at most once every few seconds so made-up kids cannot turn
+ * into database traffic.
+ *
+ * With {@code jwt.signing.algorithm=HS256} nothing here is used and tokens stay HMAC-signed.
+ */
+@Service
+public class SigningKeyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SigningKeyService.class);
+
+    private static final long MIN_RELOAD_INTERVAL_MS = 5000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // HS256, ES256 or EdDSA
+    @Value("${jwt.signing.algorithm:HS256}")
+    private String algorithm;
+
+    // Only used to encrypt stored private keys when signing asymmetrically
+    @Value("${jwt.secret}")
+    private String secret;
+
+    @Value("${jwt.expiration}")
+    private long accessTokenMs;
+
+    @Value("${jwt.signing.rotation-hours:720}")
+    private long rotationHours;
+
+    @Value("${jwt.signing.prepublish-minutes:60}")
+    private long prepublishMinutes;
+
+    private final SecureRandom random = new SecureRandom();
+    private volatile KeyRing ring = new KeyRing(null, Map.of(), List.of());
+    private volatile long lastReloadAt;
+
+    @PostConstruct
+    void start() {
+        if (isAsymmetric()) {
+            if (!JsonWebKeys.ES256.equals(algorithm) && !JsonWebKeys.EDDSA.equals(algorithm)) {
+                throw new IllegalArgumentException("jwt.signing.algorithm must be HS256, ES256 or EdDSA");
+            }
+            refresh();
+            if (ring.signing == null) {
+                throw new IllegalStateException("No " + algorithm + " signing key available");
+            }
+        }
+    }
+
+    public boolean isAsymmetric() {
+        return !"HS256".equals(algorithm);
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    // Key to sign new tokens with; null with HS256
+    public ActiveKey signingKey() {
+        return ring.signing;
+    }
+
+    /**
+     * Public key for {@code kid}, or null when there is no such published key.
+     */
+    public PublicKey verificationKey(String kid) {
+        if (kid == null) {
+            return null;
+        }
+        PublicKey key = ring.verificationKeys.get(kid);
+        if (key == null && System.currentTimeMillis() - lastReloadAt > MIN_RELOAD_INTERVAL_MS) {
+            reload();
+            key = ring.verificationKeys.get(kid);
+        }
+        return key;
+    }
+
+    // Public JWKs of every published key, newest first
+    public List<Map<String, Object>> jwks() {
+        return ring.jwks;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.signing.refresh-ms:60000}", initialDelayString = "${jwt.signing.refresh-ms:60000}")
+    public void refresh() {
+        if (!isAsymmetric()) {
+            return;
+        }
+        try {
+            rotateIfDue();
+            reload();
+        } catch (Exception e) {
+            // Keep signing with the keys already loaded
+            logger.error("Could not refresh signing keys: {}", e.getMessage());
+        }
+    }
+
+    // Creates the next key now, published ahead of use as usual
+    public void rotate() {
+        List<SigningKey> keys = storedKeys();
+        create(keys.isEmpty() ? 1 : keys.get(0).getGeneration() + 1, LocalDateTime.now().plus(prepublish()));
+        reload();
+    }
+
+    private void rotateIfDue() {
+        List<SigningKey> keys = storedKeys();
+        LocalDateTime now = LocalDateTime.now();
+        if (keys.isEmpty()) {
+            create(1, now);
+            return;
+        }
+        SigningKey newest = keys.get(0);
+        // The successor is created early enough to be published for the whole prepublish window
+        if (!newest.getActivatesAt().plus(Duration.ofHours(rotationHours)).minus(prepublish()).isAfter(now)) {
+            create(newest.getGeneration() + 1, now.plus(prepublish()));
+        }
+    }
+
+    private void create(long generation, LocalDateTime activatesAt) {
+        KeyPair pair = JsonWebKeys.generate(algorithm);
+        byte[] kidBytes = new byte[12];
+        random.nextBytes(kidBytes);
+
+        SigningKey key = new SigningKey();
+        key.setId(Base64.getUrlEncoder().withoutPadding().encodeToString(kidBytes));
+        key.setAlgorithm(algorithm);
+        key.setGeneration(generation);
+        key.setPublicKey(Base64.getEncoder().encodeToString(pair.getPublic().getEncoded()));
+        key.setPrivateKey(encrypt(pair.getPrivate().getEncoded()));
+        key.setCreatedAt(LocalDateTime.now());
+        key.setActivatesAt(activatesAt);
+        try {
+            mongoTemplate.insert(key);
+            logger.info("Created {} signing key {} (generation {}), signing from {}", algorithm, key.getId(), generation, activatesAt);
+        } catch (DuplicateKeyException e) {
+            // Another node created this generation first
+        }
+    }
+
+    private synchronized void reload() {
+        lastReloadAt = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+
+        ActiveKey signing = null;
+        Map<String, PublicKey> verificationKeys = new HashMap<>();
+        List<Map<String, Object>> jwks = new ArrayList<>();
+        // Newest first; a key retires when the next newer key activates
+        LocalDateTime retiredAt = null;
+        for (SigningKey stored : storedKeys()) {
+            boolean active = !stored.getActivatesAt().isAfter(now);
+            if (retiredAt != null && retiredAt.plus(Duration.ofMillis(accessTokenMs)).isBefore(now)) {
+                // Everything it signed has expired
+                mongoTemplate.remove(stored);
+                continue;
+            }
+            PublicKey publicKey = JsonWebKeys.publicKey(algorithm, Base64.getDecoder().decode(stored.getPublicKey()));
+            verificationKeys.put(stored.getId(), publicKey);
+            jwks.add(JsonWebKeys.publicJwk(stored.getId(), algorithm, publicKey));
+            if (active && signing == null) {
+                signing = new ActiveKey(stored.getId(), JsonWebKeys.privateKey(algorithm, decrypt(stored.getPrivateKey())));
+            }
+            if (active && (retiredAt == null || stored.getActivatesAt().isBefore(retiredAt))) {
+                retiredAt = stored.getActivatesAt();
+            }
+        }
+        ring = new KeyRing(signing, Map.copyOf(verificationKeys), List.copyOf(jwks));
+    }
+
+    private List<SigningKey> storedKeys() {
+        Query query = new Query(Criteria.where("algorithm").is(algorithm))
+                .with(Sort.by(Sort.Direction.DESC, "generation"));
+        return mongoTemplate.find(query, SigningKey.class);
+    }
+
+    private Duration prepublish() {
+        return Duration.ofMinutes(prepublishMinutes);
+    }
+
+    private String encrypt(byte[] plain) {
+        try {
+            byte[] iv = new byte[12];
+            random.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, wrappingKey(), new GCMParameterSpec(128, iv));
+            byte[] sealed = cipher.doFinal(plain);
+            return Base64.getEncoder().encodeToString(ByteBuffer.allocate(iv.length + sealed.length).put(iv).put(sealed).array());
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot encrypt signing key", e);
+        }
+    }
+
+    private byte[] decrypt(String stored) {
+        try {
+            byte[] bytes = Base64.getDecoder().decode(stored);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.DECRYPT_MODE, wrappingKey(), new GCMParameterSpec(128, bytes, 0, 12));
+            return cipher.doFinal(bytes, 12, bytes.length - 12);
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot decrypt signing key; is jwt.secret the same on every node?", e);
+        }
+    }
+
+    private SecretKeySpec wrappingKey() throws Exception {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(
+                ("signing-keys:" + secret).getBytes(StandardCharsets.UTF_8));
+        return new SecretKeySpec(digest, "AES");
+    }
+
+    public static class ActiveKey {
+        private final String id;
+        private final PrivateKey privateKey;
+
+        ActiveKey(String id, PrivateKey privateKey) {
+            this.id = id;
+            this.privateKey = privateKey;
+        }
+
+        public String getId() { return id; }
+        public PrivateKey getPrivateKey() { return privateKey; }
+    }
+
+    // Swapped as a whole on reload, so readers never see a half-updated set
+    private static class KeyRing {
+        private final ActiveKey signing;
+        private final Map<String, PublicKey> verificationKeys;
+        private final List<Map<String, Object>> jwks;
+
+        KeyRing(ActiveKey signing, Map<String, PublicKey> verificationKeys, List<Map<String, Object>> jwks) {
+            this.signing = signing;
+            this.verificationKeys = verificationKeys;
+            this.jwks = jwks;
+        }
+    }
+}
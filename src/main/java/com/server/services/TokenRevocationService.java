@@ -0,0 +1,142 @@
+package com.server.services;
+
+import com.server.Models.RevokedSession;
+import com.server.utils.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked sign-in sessions, checked by the auth filter on every request without touching MongoDB.
+ *
+ * The revoked_sessions collection is mirrored in memory as a Bloom filter in front of an exact
+ * map. Almost every request carries a live session, which the Bloom filter rules out with a few
+ * bit reads; its rare false positives are settled by the map. Revocations made on this node apply
+ * at once; those made elsewhere arrive with the next poll, every {@code jwt.revocation.sync-ms}.
+ *
+ * An entry only has to outlive the access tokens of its session, so it expires one access token
+ * lifetime after revocation and the set stays small.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    // Re-read this much before the last sync, for clock skew between nodes and late inserts
+    private static final long SYNC_OVERLAP_MS = 30_000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${jwt.expiration}")
+    private long accessTokenMs;
+
+    @Value("${jwt.revocation.expected-entries:100000}")
+    private int expectedEntries;
+
+    // Session id -> epoch millis after which the entry no longer matters
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter bloom;
+    private volatile LocalDateTime syncedFrom = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private volatile long lastSyncAt;
+
+    @PostConstruct
+    void init() {
+        bloom = new BloomFilter(expectedEntries, 0.001);
+    }
+
+    public boolean isRevoked(String sessionId) {
+        if (sessionId == null || !bloom.mightContain(sessionId)) {
+            return false;
+        }
+        Long until = revoked.get(sessionId);
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    public void revoke(String sessionId) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(Duration.ofMillis(accessTokenMs));
+        mongoTemplate.upsert(new Query(Criteria.where("id").is(sessionId)),
+                new Update().set("revokedAt", now).set("expiresAt", expiresAt), RevokedSession.class);
+        remember(sessionId, epochMillis(expiresAt));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        sync();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-ms:5000}", initialDelayString = "${jwt.revocation.sync-ms:5000}")
+    public void sync() {
+        try {
+            LocalDateTime started = LocalDateTime.now();
+            Query query = new Query(Criteria.where("revokedAt").gte(syncedFrom).and("expiresAt").gt(started));
+            query.fields().include("expiresAt");
+            for (RevokedSession session : mongoTemplate.find(query, RevokedSession.class)) {
+                remember(session.getId(), epochMillis(session.getExpiresAt()));
+            }
+            syncedFrom = started.minus(Duration.ofMillis(SYNC_OVERLAP_MS));
+            lastSyncAt = System.currentTimeMillis();
+            forgetExpired();
+        } catch (Exception e) {
+            // Keep serving from the last good copy; the next poll catches up
+            logger.error("Could not sync revoked sessions: {}", e.getMessage());
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("revokedSessions", revoked.size());
+        stats.put("bloomBits", bloom.getBits());
+        stats.put("bloomHashes", bloom.getHashes());
+        stats.put("lastSyncAt", lastSyncAt);
+        return stats;
+    }
+
+    private void remember(String sessionId, long until) {
+        revoked.merge(sessionId, until, Math::max);
+        // Re-add if a rebuild swapped the filter while we were adding
+        BloomFilter current;
+        do {
+            current = bloom;
+            current.add(sessionId);
+        } while (current != bloom);
+    }
+
+    // Bloom filters cannot remove, so dropping entries means building a fresh one
+    private void forgetExpired() {
+        long now = System.currentTimeMillis();
+        boolean removed = revoked.values().removeIf(until -> until <= now);
+        int size = revoked.size();
+        if (removed || size > expectedEntries) {
+            int capacity = Math.max(expectedEntries, size * 2);
+            BloomFilter fresh = new BloomFilter(capacity, 0.001);
+            revoked.keySet().forEach(fresh::add);
+            bloom = fresh;
+            if (size > expectedEntries) {
+                expectedEntries = capacity;
+            }
+        }
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,148 @@
+package com.server.services;
+
+import com.server.Models.RefreshToken;
+import com.server.Models.User;
+import com.server.Repositories.UserRepository;
+import com.server.utils.JwtUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Sign-in sessions: a short-lived access token (JWT, checked without the database) plus an
+ * opaque refresh token stored as a hash. Refreshing rotates the refresh token; presenting one that
+ * was already rotated revokes the session, since only a stolen copy would still be in use.
+ */
+@Service
+public class TokenService {
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Value("${jwt.refresh-expiration:2592000000}")
+    private long refreshExpirationMs;
+
+    // Two tabs refreshing with the same token at once is not theft; reject the slower one quietly
+    @Value("${jwt.refresh-reuse-grace-ms:10000}")
+    private long reuseGraceMs;
+
+    private final SecureRandom random = new SecureRandom();
+
+    public static class Tokens {
+        private final String accessToken;
+        private final String refreshToken;
+        private final long expiresIn;
+
+        Tokens(String accessToken, String refreshToken, long expiresIn) {
+            this.accessToken = accessToken;
+            this.refreshToken = refreshToken;
+            this.expiresIn = expiresIn;
+        }
+
+        public String getAccessToken() { return accessToken; }
+        public String getRefreshToken() { return refreshToken; }
+        // Access token lifetime in seconds
+        public long getExpiresIn() { return expiresIn; }
+    }
+
+    // Starts a new session
+    public Tokens issue(User user) {
+        return issue(user, UUID.randomUUID().toString());
+    }
+
+    public Tokens refresh(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            throw new RuntimeException("Refresh token is required");
+        }
+        String id = hash(refreshToken);
+        LocalDateTime now = LocalDateTime.now();
+        RefreshToken current = mongoTemplate.findAndModify(
+                new Query(Criteria.where("id").is(id).and("usedAt").is(null).and("revoked").is(false)
+                        .and("expiresAt").gt(now)),
+                new Update().set("usedAt", now),
+                FindAndModifyOptions.options().returnNew(true),
+                RefreshToken.class);
+
+        if (current == null) {
+            RefreshToken known = mongoTemplate.findById(id, RefreshToken.class);
+            if (known != null && known.getUsedAt() != null && !known.isRevoked()
+                    && known.getUsedAt().isBefore(now.minus(Duration.ofMillis(reuseGraceMs)))) {
+                revokeSession(known.getSessionId());
+            }
+            throw new RuntimeException("Invalid or expired refresh token");
+        }
+
+        // Role and account are re-read so changes apply from the next refresh
+        User user = userRepository.findByEmail(current.getUserEmail())
+                .orElseThrow(() -> new RuntimeException("Invalid or expired refresh token"));
+        return issue(user, current.getSessionId());
+    }
+
+    // Ends the session of this refresh token on every node; unknown tokens are ignored
+    public void logout(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            return;
+        }
+        RefreshToken known = mongoTemplate.findById(hash(refreshToken), RefreshToken.class);
+        if (known != null) {
+            revokeSession(known.getSessionId());
+        }
+    }
+
+    private void revokeSession(String sessionId) {
+        mongoTemplate.updateMulti(new Query(Criteria.where("sessionId").is(sessionId)),
+                new Update().set("revoked", true), RefreshToken.class);
+        tokenRevocationService.revoke(sessionId);
+    }
+
+    private Tokens issue(User user, String sessionId) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        LocalDateTime now = LocalDateTime.now();
+        RefreshToken stored = new RefreshToken();
+        stored.setId(hash(refreshToken));
+        stored.setSessionId(sessionId);
+        stored.setUserEmail(user.getEmail());
+        stored.setCreatedAt(now);
+        stored.setExpiresAt(now.plus(Duration.ofMillis(refreshExpirationMs)));
+        mongoTemplate.insert(stored);
+
+        String accessToken = jwtUtil.generateToken(user.getEmail(), user.getRole().toString(), sessionId);
+        return new Tokens(accessToken, refreshToken, jwtUtil.getExpirationSeconds());
+    }
+
+    private static String hash(String token) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+}
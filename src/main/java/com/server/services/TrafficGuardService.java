@@ -0,0 +1,191 @@
+package com.server.services;
+
+import com.server.utils.ConcurrencyLimiter;
+import com.server.utils.TokenBucketLimiter;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rate limits and concurrency limits that protect the expensive and public endpoints.
+ *
+ * Token buckets per client IP (all API calls, and a stricter one for /api/auth) and a failed
+ * login counter per account turn floods away with 429 before they cost anything. Concurrency
+ * limits keep BCrypt logins, image uploads and checkouts from taking every core and database
+ * connection; when one is full the request is shed with 503 instead of queueing. Every decision is
+ * counted and reported by {@link #metrics()}.
+ *
+ * The per-account counter lives in the {@link SharedStateStore}, so an attacker spreading guesses
+ * over several nodes still gets the same number of tries. IP buckets and concurrency limits stay
+ * per node: they protect this node's CPU and connections, and checking them must not cost a round
+ * trip.
+ */
+@Service
+public class TrafficGuardService {
+
+    private static final String LOGIN_FAILURES = "login-failures";
+
+    public static final String LOGIN = "login";
+    public static final String UPLOAD = "upload";
+    public static final String CHECKOUT = "checkout";
+
+    @Value("${traffic.enabled:true}")
+    private boolean enabled;
+
+    @Value("${traffic.slots:65536}")
+    private int slots;
+
+    @Value("${traffic.api.ip-per-second:30}")
+    private double apiPerSecond;
+
+    @Value("${traffic.api.ip-burst:60}")
+    private int apiBurst;
+
+    @Value("${traffic.auth.ip-per-minute:30}")
+    private double authPerMinute;
+
+    @Value("${traffic.auth.ip-burst:10}")
+    private int authBurst;
+
+    @Value("${traffic.login.account-attempts:5}")
+    private long accountAttempts;
+
+    @Value("${traffic.login.account-window-seconds:60}")
+    private long accountWindowSeconds;
+
+    // 0 means one login per core: BCrypt is pure CPU, so more only adds latency
+    @Value("${traffic.login.max-concurrent:0}")
+    private int loginConcurrent;
+
+    @Value("${traffic.upload.max-concurrent:4}")
+    private int uploadConcurrent;
+
+    @Value("${traffic.checkout.max-concurrent:32}")
+    private int checkoutConcurrent;
+
+    @Value("${traffic.max-wait-ms:100}")
+    private long maxWaitMs;
+
+    @Autowired
+    private SharedStateStore sharedStateStore;
+
+    private TokenBucketLimiter apiByIp;
+    private TokenBucketLimiter authByIp;
+    private final LongAdder accountAllowed = new LongAdder();
+    private final LongAdder accountLimited = new LongAdder();
+    private final Map<String, ConcurrencyLimiter> concurrency = new LinkedHashMap<>();
+
+    @PostConstruct
+    void initLimiters() {
+        apiByIp = new TokenBucketLimiter(apiPerSecond, apiBurst, slots);
+        authByIp = new TokenBucketLimiter(authPerMinute / 60, authBurst, slots);
+        concurrency.put(LOGIN, new ConcurrencyLimiter(
+                loginConcurrent > 0 ? loginConcurrent : Runtime.getRuntime().availableProcessors(), maxWaitMs));
+        concurrency.put(UPLOAD, new ConcurrencyLimiter(uploadConcurrent, maxWaitMs));
+        concurrency.put(CHECKOUT, new ConcurrencyLimiter(checkoutConcurrent, maxWaitMs));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Takes a token for a request from {@code ip}; returns 0 when allowed, otherwise the seconds
+     * to wait before retrying.
+     */
+    public long checkIp(String ip, boolean auth) {
+        if (!enabled) {
+            return 0;
+        }
+        long wait = apiByIp.tryAcquire(ip);
+        if (wait == 0 && auth) {
+            wait = authByIp.tryAcquire(ip);
+        }
+        return toSeconds(wait);
+    }
+
+    /**
+     * Whether an account may try a password now, whichever IPs and nodes its failed logins came
+     * from; same return as checkIp. Only failures are counted, so signing in does not use up tries.
+     */
+    public long checkLoginAccount(String email) {
+        if (!enabled || email == null) {
+            return 0;
+        }
+        if (sharedStateStore.count(LOGIN_FAILURES, accountKey(email)) >= accountAttempts) {
+            accountLimited.increment();
+            // The window may end sooner; this is the most a client can have to wait
+            return accountWindowSeconds;
+        }
+        accountAllowed.increment();
+        return 0;
+    }
+
+    /**
+     * Counts a wrong password (or unknown email) against the account, in fixed windows that start
+     * with the first failure.
+     */
+    public void recordLoginFailure(String email) {
+        if (!enabled || email == null) {
+            return;
+        }
+        sharedStateStore.increment(LOGIN_FAILURES, accountKey(email), 1, Duration.ofSeconds(accountWindowSeconds));
+    }
+
+    /**
+     * Limiter for a kind of request ({@link #LOGIN}, {@link #UPLOAD}, {@link #CHECKOUT}), or null
+     * when limits are disabled.
+     */
+    public ConcurrencyLimiter concurrency(String kind) {
+        return enabled ? concurrency.get(kind) : null;
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> rates = new LinkedHashMap<>();
+        rates.put("apiByIp", rateMetrics(apiByIp));
+        rates.put("authByIp", rateMetrics(authByIp));
+        Map<String, Object> accounts = new LinkedHashMap<>();
+        accounts.put("allowed", accountAllowed.sum());
+        accounts.put("limited", accountLimited.sum());
+        rates.put("loginByAccount", accounts);
+
+        Map<String, Object> limits = new LinkedHashMap<>();
+        concurrency.forEach((kind, limiter) -> {
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("limit", limiter.getLimit());
+            values.put("inFlight", limiter.getInFlight());
+            values.put("peakInFlight", limiter.getPeakInFlight());
+            values.put("admitted", limiter.getAdmitted());
+            values.put("shed", limiter.getShed());
+            limits.put(kind, values);
+        });
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", enabled);
+        metrics.put("rateLimits", rates);
+        metrics.put("concurrencyLimits", limits);
+        return metrics;
+    }
+
+    private static Map<String, Object> rateMetrics(TokenBucketLimiter limiter) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("allowed", limiter.getAllowed());
+        values.put("limited", limiter.getLimited());
+        return values;
+    }
+
+    private static String accountKey(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static long toSeconds(long nanos) {
+        return nanos <= 0 ? 0 : Math.max(1, (nanos + 999_999_999L) / 1_000_000_000L);
+    }
+}
@@ -0,0 +1,44 @@
+package com.server.services;
+
+import com.server.Models.VersionStamp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Shared version counters for data sets whose responses are cached by clients. Every node bumps
+ * the counter after writing, so an ETag built from it changes no matter which node took the write.
+ */
+@Service
+public class VersionStampService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VersionStampService.class);
+
+    // Products, their stock, prices and ratings: everything the catalog endpoints return
+    public static final String CATALOG = "catalog";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    public void bump(String name) {
+        try {
+            mongoTemplate.upsert(new Query(Criteria.where("id").is(name)),
+                    new Update().inc("value", 1L).set("updatedAt", LocalDateTime.now()), VersionStamp.class);
+        } catch (Exception e) {
+            // The write itself succeeded; clients may see the old version until the next bump
+            logger.error("Could not bump version stamp {}: {}", name, e.getMessage());
+        }
+    }
+
+    public long current(String name) {
+        VersionStamp stamp = mongoTemplate.findById(name, VersionStamp.class);
+        return stamp != null && stamp.getValue() != null ? stamp.getValue() : 0L;
+    }
+}
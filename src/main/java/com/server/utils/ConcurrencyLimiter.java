@@ -0,0 +1,65 @@
+package com.server.utils;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps how many requests of one kind run at once. A request that finds no free slot waits at most
+ * {@code maxWaitMs} and is then turned away, so overload sheds work instead of building a queue
+ * that every later request has to wait behind.
+ */
+public class ConcurrencyLimiter {
+
+    private final int limit;
+    private final long maxWaitNanos;
+    private final Semaphore permits;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+
+    public ConcurrencyLimiter(int limit, long maxWaitMs) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Concurrency limit must be positive");
+        }
+        this.limit = limit;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxWaitMs));
+        this.permits = new Semaphore(limit);
+    }
+
+    /**
+     * True when the caller may proceed; it must then call {@link #exit()} when done.
+     */
+    public boolean tryEnter() {
+        boolean entered;
+        try {
+            entered = maxWaitNanos == 0
+                    ? permits.tryAcquire()
+                    : permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            entered = false;
+        }
+        if (!entered) {
+            shed.increment();
+            return false;
+        }
+        admitted.increment();
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        return true;
+    }
+
+    public void exit() {
+        inFlight.decrementAndGet();
+        permits.release();
+    }
+
+    public int getLimit() { return limit; }
+    public int getInFlight() { return inFlight.get(); }
+    public int getPeakInFlight() { return peakInFlight.get(); }
+    public long getAdmitted() { return admitted.sum(); }
+    public long getShed() { return shed.sum(); }
+}
@@ -0,0 +1,174 @@
+package com.server.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Daily units and revenue for one farmer's products over a sliding window of days.
+ * Storage is one primitive column per day slot (indexed by product), arranged as a ring by
+ * epoch day: rolling into a new day clears one column, and a query is a plain loop over
+ * the columns in range. Not thread-safe on its own; callers synchronize on the instance.
+ */
+public class FarmerSalesSeries {
+
+    private final int window;
+    // Epoch day each slot currently holds, Long.MIN_VALUE while unused
+    private final long[] slotDay;
+    private final double[][] units;
+    private final double[][] revenue;
+
+    private final Map<String, Integer> productIndex = new HashMap<>();
+    private String[] productIds = new String[8];
+    private String[] productNames = new String[8];
+    private int productCount;
+
+    public FarmerSalesSeries(int windowDays) {
+        if (windowDays <= 0) {
+            throw new IllegalArgumentException("Window must be positive");
+        }
+        this.window = windowDays;
+        this.slotDay = new long[windowDays];
+        Arrays.fill(slotDay, Long.MIN_VALUE);
+        this.units = new double[windowDays][productIds.length];
+        this.revenue = new double[windowDays][productIds.length];
+    }
+
+    /**
+     * Adds (or, with negative values, removes) sales for a product on a day. Returns false if the
+     * day has already scrolled out of the window.
+     */
+    public boolean add(String productId, String productName, long epochDay, double unitsSold, double amount) {
+        int slot = (int) Math.floorMod(epochDay, (long) window);
+        if (slotDay[slot] != epochDay) {
+            if (slotDay[slot] > epochDay) {
+                return false;
+            }
+            // The slot still holds a day that is at least a full window older; recycle it
+            Arrays.fill(units[slot], 0);
+            Arrays.fill(revenue[slot], 0);
+            slotDay[slot] = epochDay;
+        }
+
+        int product = indexOf(productId, productName);
+        units[slot][product] += unitsSold;
+        revenue[slot][product] += amount;
+        return true;
+    }
+
+    public int getProductCount() {
+        return productCount;
+    }
+
+    public String getProductId(int product) {
+        return productIds[product];
+    }
+
+    public String getProductName(int product) {
+        return productNames[product];
+    }
+
+    /**
+     * Units per product per day: result[product][day - fromDay]. Days outside the window read as zero.
+     */
+    public double[][] unitsPerDay(long fromDay, long toDay) {
+        int days = (int) (toDay - fromDay + 1);
+        double[][] result = new double[productCount][days];
+        for (int offset = 0; offset < days; offset++) {
+            long day = fromDay + offset;
+            int slot = (int) Math.floorMod(day, (long) window);
+            if (slotDay[slot] != day) {
+                continue;
+            }
+            double[] column = units[slot];
+            for (int product = 0; product < productCount; product++) {
+                result[product][offset] = column[product];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Products ranked by units sold between the two days (inclusive), at most {@code limit}.
+     */
+    public List<ProductTotal> top(long fromDay, long toDay, int limit) {
+        double[] unitTotals = new double[productCount];
+        double[] revenueTotals = new double[productCount];
+        for (long day = Math.max(fromDay, toDay - window + 1); day <= toDay; day++) {
+            int slot = (int) Math.floorMod(day, (long) window);
+            if (slotDay[slot] != day) {
+                continue;
+            }
+            double[] unitColumn = units[slot];
+            double[] revenueColumn = revenue[slot];
+            for (int product = 0; product < productCount; product++) {
+                unitTotals[product] += unitColumn[product];
+                revenueTotals[product] += revenueColumn[product];
+            }
+        }
+
+        // Partial selection: limit is small, so repeated max-picks beat sorting every product
+        List<ProductTotal> ranked = new ArrayList<>(Math.min(limit, productCount));
+        boolean[] taken = new boolean[productCount];
+        for (int rank = 0; rank < limit; rank++) {
+            int best = -1;
+            for (int product = 0; product < productCount; product++) {
+                if (!taken[product] && unitTotals[product] > 0 && (best == -1 || unitTotals[product] > unitTotals[best])) {
+                    best = product;
+                }
+            }
+            if (best == -1) {
+                break;
+            }
+            taken[best] = true;
+            ranked.add(new ProductTotal(productIds[best], productNames[best], unitTotals[best], revenueTotals[best]));
+        }
+        return ranked;
+    }
+
+    private int indexOf(String productId, String productName) {
+        Integer existing = productIndex.get(productId);
+        if (existing != null) {
+            if (productName != null) {
+                productNames[existing] = productName;
+            }
+            return existing;
+        }
+
+        if (productCount == productIds.length) {
+            int capacity = productIds.length * 2;
+            productIds = Arrays.copyOf(productIds, capacity);
+            productNames = Arrays.copyOf(productNames, capacity);
+            for (int slot = 0; slot < window; slot++) {
+                units[slot] = Arrays.copyOf(units[slot], capacity);
+                revenue[slot] = Arrays.copyOf(revenue[slot], capacity);
+            }
+        }
+        int index = productCount++;
+        productIds[index] = productId;
+        productNames[index] = productName;
+        productIndex.put(productId, index);
+        return index;
+    }
+
+    public static class ProductTotal {
+        private final String productId;
+        private final String name;
+        private final double units;
+        private final double revenue;
+
+        public ProductTotal(String productId, String name, double units, double revenue) {
+            this.productId = productId;
+            this.name = name;
+            this.units = units;
+            this.revenue = revenue;
+        }
+
+        public String getProductId() { return productId; }
+        public String getName() { return name; }
+        public double getUnits() { return units; }
+        public double getRevenue() { return revenue; }
+    }
+}
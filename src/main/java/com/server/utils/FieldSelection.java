@@ -0,0 +1,38 @@
+package com.server.utils;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Parses sparse fieldsets ({@code fields=name,pricePerKg,imageUrl}) against the properties a
+ * response type allows.
+ */
+public final class FieldSelection {
+
+    private FieldSelection() {
+    }
+
+    /**
+     * Requested properties in request order, or null when the parameter is absent or blank,
+     * meaning every property. Unknown names are rejected rather than ignored, so a typo does not
+     * silently drop a field the client relies on.
+     */
+    public static Set<String> parse(String fields, Collection<String> allowed) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!allowed.contains(name)) {
+                throw new IllegalArgumentException("Unknown field '" + name + "'; allowed: " + String.join(",", allowed));
+            }
+            selected.add(name);
+        }
+        return selected.isEmpty() ? null : selected;
+    }
+}
@@ -0,0 +1,55 @@
+package com.server.utils;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * Weak ETags and conditional GETs. The ETag is derived from version stamps rather than from
+ * the serialized body, so a matching If-None-Match is answered with 304 before the body is
+ * loaded or serialized. It is weak because it names the content, not the bytes: the same
+ * response may be sent gzipped or not, and Tomcat will not compress a response with a strong one.
+ */
+public final class HttpCaching {
+
+    private HttpCaching() {
+    }
+
+    /**
+     * Weak ETag ({@code W/"..."}) over {@code parts}: whatever identifies the response (version stamps,
+     * caller, query parameters). Null parts are allowed.
+     */
+    public static String etag(Object... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Object part : parts) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                // Separator so ("ab", "c") and ("a", "bc") differ
+                digest.update((byte) 0);
+            }
+            byte[] hash = digest.digest();
+            return "W/\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 304 when the request's If-None-Match matches {@code etag}; otherwise 200 with the body from
+     * {@code body}. Both carry the ETag and {@code cacheControl}.
+     */
+    public static ResponseEntity<?> conditional(WebRequest request, String etag, CacheControl cacheControl,
+                                                Supplier<?> body) {
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(body.get());
+    }
+}
@@ -0,0 +1,113 @@
+package com.server.utils;
+
+import java.math.BigInteger;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Key pairs for the asymmetric JWT algorithms and their public JSON Web Key form (RFC 7517),
+ * using only the JDK providers: ES256 is ECDSA on P-256, EdDSA is Ed25519.
+ */
+public final class JsonWebKeys {
+
+    public static final String ES256 = "ES256";
+    public static final String EDDSA = "EdDSA";
+
+    private JsonWebKeys() {
+    }
+
+    public static KeyPair generate(String algorithm) {
+        try {
+            if (ES256.equals(algorithm)) {
+                KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+                generator.initialize(new ECGenParameterSpec("secp256r1"));
+                return generator.generateKeyPair();
+            }
+            if (EDDSA.equals(algorithm)) {
+                return KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot generate " + algorithm + " keys", e);
+        }
+        throw new IllegalArgumentException("Unsupported signing algorithm: " + algorithm);
+    }
+
+    public static PublicKey publicKey(String algorithm, byte[] x509) {
+        try {
+            return keyFactory(algorithm).generatePublic(new X509EncodedKeySpec(x509));
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot read " + algorithm + " public key", e);
+        }
+    }
+
+    public static PrivateKey privateKey(String algorithm, byte[] pkcs8) {
+        try {
+            return keyFactory(algorithm).generatePrivate(new PKCS8EncodedKeySpec(pkcs8));
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot read " + algorithm + " private key", e);
+        }
+    }
+
+    /**
+     * Public JWK for a verification key, as served in a JWKS document.
+     */
+    public static Map<String, Object> publicJwk(String kid, String algorithm, PublicKey key) {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        if (ES256.equals(algorithm)) {
+            ECPublicKey ec = (ECPublicKey) key;
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-256");
+            jwk.put("x", base64Url(unsigned(ec.getW().getAffineX(), 32)));
+            jwk.put("y", base64Url(unsigned(ec.getW().getAffineY(), 32)));
+        } else if (EDDSA.equals(algorithm)) {
+            // The X.509 encoding of an Ed25519 key ends with the 32-byte raw key
+            byte[] encoded = key.getEncoded();
+            jwk.put("kty", "OKP");
+            jwk.put("crv", "Ed25519");
+            jwk.put("x", base64Url(Arrays.copyOfRange(encoded, encoded.length - 32, encoded.length)));
+        } else {
+            throw new IllegalArgumentException("Unsupported signing algorithm: " + algorithm);
+        }
+        jwk.put("kid", kid);
+        jwk.put("alg", algorithm);
+        jwk.put("use", "sig");
+        return jwk;
+    }
+
+    private static KeyFactory keyFactory(String algorithm) throws Exception {
+        if (ES256.equals(algorithm)) {
+            return KeyFactory.getInstance("EC");
+        }
+        if (EDDSA.equals(algorithm)) {
+            return KeyFactory.getInstance("Ed25519");
+        }
+        throw new IllegalArgumentException("Unsupported signing algorithm: " + algorithm);
+    }
+
+    // Big-endian, left-padded or stripped of the sign byte to exactly length bytes
+    private static byte[] unsigned(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length == length) {
+            return bytes;
+        }
+        byte[] fixed = new byte[length];
+        int copy = Math.min(bytes.length, length);
+        System.arraycopy(bytes, bytes.length - copy, fixed, length - copy, copy);
+        return fixed;
+    }
+
+    private static String base64Url(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -1,14 +1,23 @@
 package com.server.utils;
 
+import com.server.services.SigningKeyService;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.Key;
 import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class JwtUtil {
@@ -19,6 +28,19 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private Long expiration;
 
+    @Autowired
+    private SigningKeyService signingKeyService;
+
+    @Value("${jwt.verified-cache-size:10000}")
+    private int verifiedCacheSize;
+
+    // Parsers are immutable and thread-safe, so one is built and reused
+    private volatile JwtParser parser;
+
+    // An ES256/EdDSA check costs about a thousand HMACs, and a client sends the same token for its
+    // whole lifetime; tokens already verified are remembered until they expire
+    private final Map<String, Claims> verified = new ConcurrentHashMap<>();
+
     private SecretKey getSigningKey() {
         // Ensure the secret is valid length for HS256 (at least 256 bits / 32 bytes)
         byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
@@ -32,15 +54,66 @@ public class JwtUtil {
     }
 
     public String generateToken(String username, String role) {
-        return Jwts.builder()
+        return generateToken(username, role, null);
+    }
+
+    // sessionId goes in the "sid" claim, which TokenRevocationService checks
+    public String generateToken(String username, String role, String sessionId) {
+        JwtBuilder builder = Jwts.builder()
                 .subject(username)                    // ✅ replaced setSubject() → subject()
                 .claim("role", role)
+                .claim("sid", sessionId)
                 .issuedAt(new Date())                 // ✅ replaced setIssuedAt() → issuedAt()
-                .expiration(new Date(System.currentTimeMillis() + expiration)) // ✅ replaced setExpiration() → expiration()
+                .expiration(new Date(System.currentTimeMillis() + expiration)); // ✅ replaced setExpiration() → expiration()
+        if (signingKeyService.isAsymmetric()) {
+            // ES256 or EdDSA, chosen from the key type; verifiers find the public key by kid
+            SigningKeyService.ActiveKey key = signingKeyService.signingKey();
+            return builder.header().keyId(key.getId()).and()
+                    .signWith(key.getPrivateKey())
+                    .compact();
+        }
+        return builder
                 .signWith(getSigningKey())            // ✅ new API version auto-selects HS256
                 .compact();
     }
 
+    public long getExpirationSeconds() {
+        return expiration / 1000;
+    }
+
+    /**
+     * Claims of a correctly signed, unexpired token; null otherwise.
+     */
+    public Claims parseToken(String token) {
+        Claims cached = verified.get(token);
+        if (cached != null) {
+            if (cached.getExpiration() != null && cached.getExpiration().getTime() > System.currentTimeMillis()) {
+                return cached;
+            }
+            verified.remove(token);
+        }
+        try {
+            Claims claims = extractAllClaims(token);
+            if (signingKeyService.isAsymmetric()) {
+                rememberVerified(token, claims);
+            }
+            return claims;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private void rememberVerified(String token, Claims claims) {
+        if (verified.size() >= verifiedCacheSize) {
+            long now = System.currentTimeMillis();
+            verified.values().removeIf(entry -> entry.getExpiration() == null || entry.getExpiration().getTime() <= now);
+            if (verified.size() >= verifiedCacheSize) {
+                verified.clear();
+            }
+        }
+        verified.put(token, claims);
+    }
+
     public String extractUsername(String token) {
         return extractAllClaims(token).getSubject();
     }
@@ -50,13 +123,34 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()                          // ✅ new parser (no builder)
-                .verifyWith(getSigningKey())           // ✅ verify signature
-                .build()
+        return parser()
                 .parseSignedClaims(token)              // ✅ replaces parseClaimsJws()
                 .getPayload();                         // ✅ replaces getBody()
     }
 
+    private JwtParser parser() {
+        JwtParser current = parser;
+        if (current == null) {
+            if (signingKeyService.isAsymmetric()) {
+                // Only published keys verify: HMAC tokens and unknown kids are rejected
+                current = Jwts.parser()
+                        .keyLocator(new LocatorAdapter<Key>() {
+                            @Override
+                            protected Key locate(JwsHeader header) {
+                                return signingKeyService.verificationKey(header.getKeyId());
+                            }
+                        })
+                        .build();
+            } else {
+                current = Jwts.parser()                // ✅ new parser (no builder)
+                        .verifyWith(getSigningKey())   // ✅ verify signature
+                        .build();
+            }
+            parser = current;
+        }
+        return current;
+    }
+
     public boolean validateToken(String token) {
         try {
             extractAllClaims(token);
@@ -0,0 +1,183 @@
+package com.server.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * In-memory uniform lat/lng grid of delivery partner positions for nearest-partner lookups.
+ * Moving a partner touches two cells; a lookup scans rings of cells outward from the pickup
+ * point and stops once no unvisited cell can hold anything closer than what was found.
+ */
+public class PartnerLocationGrid {
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE = 111.32;
+
+    private final double cellDegrees;
+    private final Map<String, Position> positions = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> cells = new ConcurrentHashMap<>();
+
+    public PartnerLocationGrid(double cellDegrees) {
+        if (cellDegrees <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive");
+        }
+        this.cellDegrees = cellDegrees;
+    }
+
+    public void update(String partnerId, double lat, double lng, boolean available) {
+        long cell = cellKey(row(lat), column(lng));
+        // compute serializes moves of the same partner so its cell membership cannot go stale
+        positions.compute(partnerId, (id, previous) -> {
+            if (previous == null || previous.cell != cell) {
+                if (previous != null) {
+                    removeFromCell(previous.cell, id);
+                }
+                cells.computeIfAbsent(cell, key -> ConcurrentHashMap.newKeySet()).add(id);
+            }
+            return new Position(id, lat, lng, available, cell);
+        });
+    }
+
+    public void setAvailable(String partnerId, boolean available) {
+        positions.computeIfPresent(partnerId, (id, p) -> new Position(id, p.lat, p.lng, available, p.cell));
+    }
+
+    public void remove(String partnerId) {
+        positions.computeIfPresent(partnerId, (id, previous) -> {
+            removeFromCell(previous.cell, id);
+            return null;
+        });
+    }
+
+    public Position get(String partnerId) {
+        return positions.get(partnerId);
+    }
+
+    public int size() {
+        return positions.size();
+    }
+
+    /**
+     * Up to {@code limit} available partners within {@code maxDistanceKm}, nearest first.
+     * {@code eligible} lets callers skip partners already claimed in the current batch.
+     */
+    public List<Match> nearest(double lat, double lng, int limit, double maxDistanceKm, Predicate<String> eligible) {
+        List<Match> found = new ArrayList<>();
+        if (limit <= 0) {
+            return found;
+        }
+
+        int originRow = row(lat);
+        int originColumn = column(lng);
+        // Columns narrow towards the poles, so bound the search with the narrower side of a cell
+        double cellKm = cellDegrees * KM_PER_DEGREE * Math.max(Math.cos(Math.toRadians(Math.abs(lat) + cellDegrees)), 0.01);
+        int maxRing = (int) Math.ceil(maxDistanceKm / cellKm) + 1;
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int r = originRow - ring; r <= originRow + ring; r++) {
+                boolean edgeRow = r == originRow - ring || r == originRow + ring;
+                int step = edgeRow ? 1 : Math.max(1, 2 * ring);
+                for (int c = originColumn - ring; c <= originColumn + ring; c += step) {
+                    collect(cellKey(r, c), lat, lng, maxDistanceKm, eligible, found);
+                }
+            }
+
+            if (found.size() >= limit) {
+                found.sort(Comparator.comparingDouble(Match::getDistanceKm));
+                // Anything outside the scanned rings is at least ring * cellKm away
+                if (found.get(limit - 1).getDistanceKm() <= ring * cellKm) {
+                    break;
+                }
+            }
+        }
+
+        found.sort(Comparator.comparingDouble(Match::getDistanceKm));
+        return found.size() > limit ? new ArrayList<>(found.subList(0, limit)) : found;
+    }
+
+    private void collect(long cellKey, double lat, double lng, double maxDistanceKm,
+                         Predicate<String> eligible, List<Match> found) {
+        Set<String> cell = cells.get(cellKey);
+        if (cell == null) {
+            return;
+        }
+        for (String partnerId : cell) {
+            Position position = positions.get(partnerId);
+            // The cell check drops a partner caught mid-move so it is never counted twice
+            if (position == null || position.cell != cellKey || !position.available || !eligible.test(partnerId)) {
+                continue;
+            }
+            double distance = haversineKm(lat, lng, position.lat, position.lng);
+            if (distance <= maxDistanceKm) {
+                found.add(new Match(partnerId, distance));
+            }
+        }
+    }
+
+    private void removeFromCell(long cell, String partnerId) {
+        cells.computeIfPresent(cell, (key, members) -> {
+            members.remove(partnerId);
+            return members.isEmpty() ? null : members;
+        });
+    }
+
+    private int row(double lat) {
+        return (int) Math.floor((lat + 90.0) / cellDegrees);
+    }
+
+    private int column(double lng) {
+        return (int) Math.floor((lng + 180.0) / cellDegrees);
+    }
+
+    private static long cellKey(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+
+    public static double haversineKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    public static class Position {
+        private final String partnerId;
+        private final double lat;
+        private final double lng;
+        private final boolean available;
+        private final long cell;
+
+        Position(String partnerId, double lat, double lng, boolean available, long cell) {
+            this.partnerId = partnerId;
+            this.lat = lat;
+            this.lng = lng;
+            this.available = available;
+            this.cell = cell;
+        }
+
+        public String getPartnerId() { return partnerId; }
+        public double getLat() { return lat; }
+        public double getLng() { return lng; }
+        public boolean isAvailable() { return available; }
+    }
+
+    public static class Match {
+        private final String partnerId;
+        private final double distanceKm;
+
+        public Match(String partnerId, double distanceKm) {
+            this.partnerId = partnerId;
+            this.distanceKm = distanceKm;
+        }
+
+        public String getPartnerId() { return partnerId; }
+        public double getDistanceKm() { return distanceKm; }
+    }
+}
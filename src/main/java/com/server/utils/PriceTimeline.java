@@ -0,0 +1,142 @@
+package com.server.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A product's effective price as a step function of time, precomputed from its base price
+ * changes and discounts. Prices are paise per kg. Resolving a price is a binary search over two
+ * primitive arrays, so the rules are evaluated once per change rather than on every order.
+ */
+public final class PriceTimeline {
+
+    private final long[] starts;
+    private final long[] prices;
+
+    private PriceTimeline(long[] starts, long[] prices) {
+        this.starts = starts;
+        this.prices = prices;
+    }
+
+    /**
+     * Paise per kg at {@code atMillis}, or -1 if no base price was in effect yet.
+     */
+    public long priceAt(long atMillis) {
+        int index = Arrays.binarySearch(starts, atMillis);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        return index < 0 ? -1 : prices[index];
+    }
+
+    /**
+     * The first instant after {@code afterMillis} at which the price changes, or -1 if it never does.
+     */
+    public long nextChangeAfter(long afterMillis) {
+        int index = Arrays.binarySearch(starts, afterMillis);
+        index = index < 0 ? -index - 1 : index + 1;
+        return index < starts.length ? starts[index] : -1;
+    }
+
+    public int size() {
+        return starts.length;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private final List<BasePoint> base = new ArrayList<>();
+        private final List<Discount> discounts = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        // Later calls win when two base prices share an effective time
+        public Builder basePrice(long effectiveFromMillis, long pricePerKgMinor) {
+            base.add(new BasePoint(effectiveFromMillis, pricePerKgMinor));
+            return this;
+        }
+
+        // Overlapping discounts do not stack; the largest one applies
+        public Builder discount(long startsAtMillis, long endsAtMillis, double percentOff) {
+            if (endsAtMillis > startsAtMillis && percentOff > 0) {
+                discounts.add(new Discount(startsAtMillis, endsAtMillis, Math.min(percentOff, 100.0)));
+            }
+            return this;
+        }
+
+        public PriceTimeline build() {
+            // Stable sort keeps insertion order among points with the same time
+            base.sort((a, b) -> Long.compare(a.from, b.from));
+
+            long[] boundaries = new long[base.size() + 2 * discounts.size()];
+            int count = 0;
+            for (BasePoint point : base) {
+                boundaries[count++] = point.from;
+            }
+            for (Discount discount : discounts) {
+                boundaries[count++] = discount.start;
+                boundaries[count++] = discount.end;
+            }
+            Arrays.sort(boundaries, 0, count);
+
+            long[] starts = new long[count];
+            long[] prices = new long[count];
+            int size = 0;
+            int baseIndex = -1;
+            for (int i = 0; i < count; i++) {
+                long at = boundaries[i];
+                if (i > 0 && at == boundaries[i - 1]) {
+                    continue;
+                }
+                while (baseIndex + 1 < base.size() && base.get(baseIndex + 1).from <= at) {
+                    baseIndex++;
+                }
+                if (baseIndex < 0) {
+                    continue;
+                }
+                double percent = 0;
+                for (Discount discount : discounts) {
+                    if (discount.start <= at && at < discount.end) {
+                        percent = Math.max(percent, discount.percentOff);
+                    }
+                }
+                // Rounded to the paisa so every node resolves exactly the same amount
+                long price = Math.round(base.get(baseIndex).price * (100 - percent) / 100);
+                // Adjacent steps with the same price collapse into one
+                if (size > 0 && prices[size - 1] == price) {
+                    continue;
+                }
+                starts[size] = at;
+                prices[size] = price;
+                size++;
+            }
+            return new PriceTimeline(Arrays.copyOf(starts, size), Arrays.copyOf(prices, size));
+        }
+    }
+
+    private static final class BasePoint {
+        private final long from;
+        private final long price;
+
+        BasePoint(long from, long price) {
+            this.from = from;
+            this.price = price;
+        }
+    }
+
+    private static final class Discount {
+        private final long start;
+        private final long end;
+        private final double percentOff;
+
+        Discount(long start, long end, double percentOff) {
+            this.start = start;
+            this.end = end;
+            this.percentOff = percentOff;
+        }
+    }
+}
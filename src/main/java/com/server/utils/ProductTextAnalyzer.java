@@ -0,0 +1,342 @@
+package com.server.utils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Turns product text and search queries into script-neutral search keys.
+ *
+ * Text is split into words; each word is analysed by the language of its script (English for
+ * Latin, Hindi for Devanagari, Odia for Odia): stopwords are dropped and a light stemmer removes
+ * plural and case endings. Devanagari and Odia words are then transliterated to Latin, and every
+ * word is folded to a phonetic key that ignores the spelling choices romanisation leaves open
+ * (aa/a, ee/i, aspiration, doubled letters, z/j, w/v). "tamatar", "टमाटर" and "ଟମାଟର" all become
+ * "tmtr", so a Latin query finds Devanagari and Odia listings and the other way round.
+ */
+public final class ProductTextAnalyzer {
+
+    // Bump when the analysis changes so stored keys are rebuilt
+    public static final int VERSION = 1;
+
+    private static final int MAX_KEYS = 200;
+
+    private static final Set<String> EN_STOPWORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it", "of", "on",
+            "or", "per", "the", "this", "to", "with");
+
+    private static final Set<String> HI_STOPWORDS = Set.of(
+            "और", "का", "की", "के", "को", "में", "से", "है", "हैं", "पर", "एक", "यह", "वह", "भी", "या",
+            "तथा", "लिए", "वाला", "वाली", "वाले");
+
+    private static final Set<String> OR_STOPWORDS = Set.of(
+            "ଓ", "ଏବଂ", "ର", "ରେ", "କୁ", "ସହ", "ସହିତ", "ପାଇଁ", "ଏକ", "ଯେ", "ବା", "ଅଛି", "ଏହି", "ସେହି");
+
+    // Hindi plural / oblique endings and what replaces them (सब्ज़ियाँ -> सब्ज़ी, टमाटरों -> टमाटर)
+    private static final String[][] HI_SUFFIXES = {
+            {"ियाँ", "ी"}, {"ियां", "ी"}, {"ियों", "ी"}, {"ाओं", "ा"}, {"ाएं", "ा"}, {"ाएँ", "ा"},
+            {"ुओं", "ु"}, {"ुएं", "ु"}, {"ुएँ", "ु"}, {"ओं", ""}, {"एं", ""}, {"एँ", ""}, {"ों", ""}, {"ें", ""}};
+
+    // Odia plural markers and the classifier ଟି (ଆଳୁଗୁଡିକ -> ଆଳୁ); nukta is already removed
+    private static final String[][] OR_SUFFIXES = {
+            {"ଗୁଡିକ", ""}, {"ମାନଙ୍କ", ""}, {"ମାନେ", ""}, {"ଟି", ""}};
+
+    private static final Map<String, Set<String>> STOPWORDS = Map.of(
+            "en", EN_STOPWORDS, "hi", HI_STOPWORDS, "or", OR_STOPWORDS);
+
+    // Latin for Devanagari U+0900..U+097F by offset; Odia is mapped onto the same table
+    private static final String[] DEVANAGARI = new String[0x80];
+    private static final boolean[] CONSONANT = new boolean[0x80];
+    private static final int VIRAMA = 0x4D;
+
+    static {
+        String[] vowels = {"", "n", "n", "h", "", "a", "aa", "i", "ii", "u", "uu", "ri", "li", "e", "e", "e",
+                "ai", "o", "o", "o", "au"};
+        for (int i = 0; i < vowels.length; i++) {
+            DEVANAGARI[i] = vowels[i];
+        }
+        String[] consonants = {"k", "kh", "g", "gh", "n", "ch", "chh", "j", "jh", "n", "t", "th", "d", "dh", "n",
+                "t", "th", "d", "dh", "n", "n", "p", "ph", "b", "bh", "m", "y", "r", "r", "l", "l", "l", "v",
+                "sh", "sh", "s", "h"};
+        for (int i = 0; i < consonants.length; i++) {
+            DEVANAGARI[0x15 + i] = consonants[i];
+            CONSONANT[0x15 + i] = true;
+        }
+        String[] signs = {"aa", "i", "ii", "u", "uu", "ri", "rii", "e", "e", "e", "ai", "o", "o", "o", "au"};
+        for (int i = 0; i < signs.length; i++) {
+            DEVANAGARI[0x3E + i] = signs[i];
+        }
+        DEVANAGARI[VIRAMA] = "";
+        for (int i = 0; i < 10; i++) {
+            DEVANAGARI[0x66 + i] = String.valueOf(i);
+        }
+        // य़ (Devanagari) / ୟ (Odia) read as ya
+        DEVANAGARI[0x5F] = "y";
+        CONSONANT[0x5F] = true;
+    }
+
+    private ProductTextAnalyzer() {
+    }
+
+    /**
+     * Distinct search keys for a product's text or a query, in order of first appearance.
+     */
+    public static List<String> analyze(String text) {
+        Set<String> keys = new LinkedHashSet<>();
+        if (text == null) {
+            return new ArrayList<>();
+        }
+        for (String word : tokenize(text)) {
+            String key = keyOf(word);
+            if (key != null) {
+                keys.add(key);
+                if (keys.size() == MAX_KEYS) {
+                    break;
+                }
+            }
+        }
+        return new ArrayList<>(keys);
+    }
+
+    /**
+     * Key of a word the user is still typing: no stopword removal or stemming, so "a" and "to"
+     * stay usable as prefixes of "aloo" and "tomato".
+     */
+    public static String prefixKey(String partialWord) {
+        Character.UnicodeScript script = scriptOf(partialWord);
+        String latin = script == Character.UnicodeScript.DEVANAGARI || script == Character.UnicodeScript.ORIYA
+                ? transliterate(normalizeIndic(partialWord))
+                : normalizeLatin(partialWord);
+        return fold(latin);
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < text.length(); ) {
+            int cp = text.codePointAt(i);
+            i += Character.charCount(cp);
+            if (isWordChar(cp)) {
+                word.appendCodePoint(cp);
+            } else if (word.length() > 0) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        if (word.length() > 0) {
+            words.add(word.toString());
+        }
+        return words;
+    }
+
+    // Indic words are letters joined by vowel signs, viramas and (zero-width) joiners
+    private static boolean isWordChar(int cp) {
+        if (Character.isLetterOrDigit(cp) || cp == 0x200C || cp == 0x200D) {
+            return true;
+        }
+        int type = Character.getType(cp);
+        return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK;
+    }
+
+    private static String keyOf(String word) {
+        Character.UnicodeScript script = scriptOf(word);
+        String latin;
+        if (script == Character.UnicodeScript.DEVANAGARI || script == Character.UnicodeScript.ORIYA) {
+            String lang = script == Character.UnicodeScript.DEVANAGARI ? "hi" : "or";
+            String normalized = normalizeIndic(word);
+            if (normalized.isEmpty() || STOPWORDS.get(lang).contains(normalized)) {
+                return null;
+            }
+            String stem = stripSuffix(normalized, lang.equals("hi") ? HI_SUFFIXES : OR_SUFFIXES);
+            latin = transliterate(stem);
+        } else {
+            String normalized = normalizeLatin(word);
+            if (normalized.isEmpty() || EN_STOPWORDS.contains(normalized)) {
+                return null;
+            }
+            latin = stemEnglish(normalized);
+        }
+        String key = fold(latin);
+        return key.isEmpty() ? null : key;
+    }
+
+    private static Character.UnicodeScript scriptOf(String word) {
+        for (int i = 0; i < word.length(); ) {
+            int cp = word.codePointAt(i);
+            i += Character.charCount(cp);
+            if (Character.isLetter(cp)) {
+                return Character.UnicodeScript.of(cp);
+            }
+        }
+        return Character.UnicodeScript.COMMON;
+    }
+
+    // Lower case without accents: "Jalapeño" -> "jalapeno"
+    static String normalizeLatin(String word) {
+        String decomposed = Normalizer.normalize(word, Normalizer.Form.NFKD);
+        StringBuilder out = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            int type = Character.getType(c);
+            if (type != Character.NON_SPACING_MARK && type != Character.COMBINING_SPACING_MARK
+                    && c != '\u200C' && c != '\u200D') {
+                out.append(c);
+            }
+        }
+        return out.toString().toLowerCase(Locale.ROOT);
+    }
+
+    // Composed form without nukta or joiners, so ज़ / ज and ଡ଼ / ଡ compare equal
+    static String normalizeIndic(String word) {
+        String composed = Normalizer.normalize(word, Normalizer.Form.NFC);
+        StringBuilder out = new StringBuilder(composed.length());
+        for (int i = 0; i < composed.length(); i++) {
+            char c = composed.charAt(i);
+            if (c == '\u093C' || c == '\u0B3C' || c == '\u200C' || c == '\u200D') {
+                continue;
+            }
+            out.append(c);
+        }
+        return out.toString();
+    }
+
+    private static String stripSuffix(String word, String[][] suffixes) {
+        for (String[] suffix : suffixes) {
+            if (word.endsWith(suffix[0]) && word.codePointCount(0, word.length() - suffix[0].length()) >= 2) {
+                return word.substring(0, word.length() - suffix[0].length()) + suffix[1];
+            }
+        }
+        return word;
+    }
+
+    // Plurals only; anything heavier would stem romanised Hindi words that merely end in -s
+    static String stemEnglish(String word) {
+        if (word.length() <= 3) {
+            return word;
+        }
+        if (word.endsWith("ies") && !word.endsWith("eies") && !word.endsWith("aies")) {
+            return word.substring(0, word.length() - 3) + "y";
+        }
+        if (word.endsWith("oes") || word.endsWith("ches") || word.endsWith("shes")
+                || word.endsWith("xes") || word.endsWith("sses")) {
+            return word.substring(0, word.length() - 2);
+        }
+        if (word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us") && !word.endsWith("is")) {
+            return word.substring(0, word.length() - 1);
+        }
+        return word;
+    }
+
+    /**
+     * Devanagari or Odia to Latin. Consonants carry an inherent "a" unless a virama or vowel sign
+     * follows; schwa deletion is left to {@link #fold}, which drops non-initial "a" anyway.
+     */
+    static String transliterate(String word) {
+        StringBuilder out = new StringBuilder(word.length() * 2);
+        for (int i = 0; i < word.length(); i++) {
+            int index = indexOf(word.charAt(i));
+            if (index < 0) {
+                out.append(Character.toLowerCase(word.charAt(i)));
+                continue;
+            }
+            String latin = DEVANAGARI[index];
+            if (latin != null) {
+                out.append(latin);
+            }
+            if (CONSONANT[index]) {
+                int next = i + 1 < word.length() ? indexOf(word.charAt(i + 1)) : -1;
+                boolean vowelFollows = next == VIRAMA || (next >= 0x3E && next <= 0x4C);
+                if (!vowelFollows) {
+                    out.append('a');
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    // Offset into the Devanagari table, or -1 for anything else; Odia is laid out in parallel 0x200 higher
+    private static int indexOf(char c) {
+        if (c >= '\u0900' && c <= '\u097F') {
+            return c - 0x0900;
+        }
+        if (c == '\u0B71') {
+            return 0x35; // ୱ (wa) reads as va
+        }
+        if (c >= '\u0B00' && c <= '\u0B7F') {
+            return c - 0x0B00;
+        }
+        return -1;
+    }
+
+    /**
+     * Phonetic key of a romanised word: c/ch, ph/f, w/v, z/j, q/k and x/ks are merged, h after a
+     * consonant (aspiration) is dropped, ee/oo become i/u, a final y becomes i, every "a" but a
+     * leading one is dropped and doubled letters collapse. Used for both stored words and query words, so only the
+     * equivalences matter, not the spelling of the key.
+     */
+    static String fold(String latin) {
+        String s = latin.replace("ph", "f");
+        StringBuilder out = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            char next = i + 1 < s.length() ? s.charAt(i + 1) : 0;
+            switch (c) {
+                case 'c' -> out.append(next == 'h' ? 'c' : 'k');
+                case 'h' -> {
+                    if (out.length() == 0 || !isConsonant(out.charAt(out.length() - 1))) {
+                        out.append('h');
+                    }
+                }
+                case 'w' -> out.append('v');
+                // A final y is how English spells the i that romanised words end in (berry / berri)
+                case 'y' -> out.append(next == 0 && out.length() > 0 ? 'i' : 'y');
+                case 'z' -> out.append('j');
+                case 'q' -> out.append('k');
+                case 'x' -> out.append("ks");
+                case 'e' -> {
+                    if (next == 'e') {
+                        out.append('i');
+                        i++;
+                    } else {
+                        out.append('e');
+                    }
+                }
+                case 'o' -> {
+                    if (next == 'o') {
+                        out.append('u');
+                        i++;
+                    } else {
+                        out.append('o');
+                    }
+                }
+                case 'a' -> {
+                    if (out.length() == 0) {
+                        out.append('a');
+                    }
+                }
+                default -> {
+                    if (Character.isLetterOrDigit(c)) {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+
+        // Collapse doubled letters: kaddu -> kadu, aaloo -> alu
+        StringBuilder key = new StringBuilder(out.length());
+        for (int i = 0; i < out.length(); i++) {
+            if (key.length() == 0 || key.charAt(key.length() - 1) != out.charAt(i)) {
+                key.append(out.charAt(i));
+            }
+        }
+        return key.toString();
+    }
+
+    private static boolean isConsonant(char c) {
+        return c >= 'a' && c <= 'z' && "aeiou".indexOf(c) < 0 && c != 'h' && c != 'y';
+    }
+}
@@ -0,0 +1,204 @@
+package com.server.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sequences the pickups and drop-offs of one delivery partner's batch into a short route.
+ * Two nearest-neighbour tours are built and each is improved with 2-opt segment reversals;
+ * any move that would visit a drop-off before its own pickup is rejected.
+ */
+public final class RouteOptimizer {
+
+    // Guards against pathological inputs; real batches converge in a handful of passes
+    private static final int MAX_PASSES = 50;
+
+    private RouteOptimizer() {
+    }
+
+    /**
+     * Orders {@code stops} starting from the partner's position. Every order must contribute exactly
+     * one pickup and one drop-off. Returns a new list; the input is left untouched.
+     */
+    public static List<Stop> optimize(double startLat, double startLng, List<Stop> stops) {
+        int n = stops.size();
+        if (n == 0) {
+            return new ArrayList<>();
+        }
+
+        // Node 0 is the partner's start position, node i + 1 is stops.get(i)
+        double[][] distance = new double[n + 1][n + 1];
+        for (int a = 0; a <= n; a++) {
+            for (int b = a + 1; b <= n; b++) {
+                double d = PartnerLocationGrid.haversineKm(lat(stops, startLat, a), lng(stops, startLng, a),
+                        lat(stops, startLat, b), lng(stops, startLng, b));
+                distance[a][b] = d;
+                distance[b][a] = d;
+            }
+        }
+        int[] pair = pairNodes(stops);
+
+        // Two seeds: interleaved nearest-neighbour, and all pickups before any drop-off
+        int[] route = nearestNeighbour(stops, distance, pair, false);
+        twoOpt(route, distance, pair);
+        int[] pickupsFirst = nearestNeighbour(stops, distance, pair, true);
+        twoOpt(pickupsFirst, distance, pair);
+        if (length(pickupsFirst, distance) < length(route, distance)) {
+            route = pickupsFirst;
+        }
+
+        List<Stop> ordered = new ArrayList<>(n);
+        for (int i = 1; i <= n; i++) {
+            ordered.add(stops.get(route[i] - 1));
+        }
+        return ordered;
+    }
+
+    public static double routeLengthKm(double startLat, double startLng, List<Stop> ordered) {
+        double total = 0;
+        double lat = startLat;
+        double lng = startLng;
+        for (Stop stop : ordered) {
+            total += PartnerLocationGrid.haversineKm(lat, lng, stop.getLat(), stop.getLng());
+            lat = stop.getLat();
+            lng = stop.getLng();
+        }
+        return total;
+    }
+
+    // Greedy tour where a drop-off only becomes reachable once its pickup (or, optionally, every pickup) is visited
+    private static int[] nearestNeighbour(List<Stop> stops, double[][] distance, int[] pair, boolean pickupsFirst) {
+        int n = stops.size();
+        int[] route = new int[n + 1];
+        boolean[] visited = new boolean[n + 1];
+        int current = 0;
+        int pickupsLeft = n / 2;
+
+        for (int position = 1; position <= n; position++) {
+            int best = -1;
+            for (int node = 1; node <= n; node++) {
+                if (visited[node]) {
+                    continue;
+                }
+                Stop stop = stops.get(node - 1);
+                if (!stop.isPickup() && (!visited[pair[node]] || (pickupsFirst && pickupsLeft > 0))) {
+                    continue;
+                }
+                if (best == -1 || distance[current][node] < distance[current][best]) {
+                    best = node;
+                }
+            }
+            route[position] = best;
+            visited[best] = true;
+            current = best;
+            if (stops.get(best - 1).isPickup()) {
+                pickupsLeft--;
+            }
+        }
+        return route;
+    }
+
+    private static double length(int[] route, double[][] distance) {
+        double total = 0;
+        for (int i = 1; i < route.length; i++) {
+            total += distance[route[i - 1]][route[i]];
+        }
+        return total;
+    }
+
+    // The route is an open path, so reversing a tail segment has no closing edge to pay for
+    private static void twoOpt(int[] route, double[][] distance, int[] pair) {
+        int n = route.length - 1;
+        int[] positionOf = new int[n + 1];
+        for (int i = 0; i <= n; i++) {
+            positionOf[route[i]] = i;
+        }
+
+        boolean improved = true;
+        for (int pass = 0; improved && pass < MAX_PASSES; pass++) {
+            improved = false;
+            for (int i = 1; i < n; i++) {
+                for (int j = i + 1; j <= n; j++) {
+                    double before = distance[route[i - 1]][route[i]];
+                    double after = distance[route[i - 1]][route[j]];
+                    if (j < n) {
+                        before += distance[route[j]][route[j + 1]];
+                        after += distance[route[i]][route[j + 1]];
+                    }
+                    if (after < before - 1e-9 && reversible(route, positionOf, pair, i, j)) {
+                        reverse(route, positionOf, i, j);
+                        improved = true;
+                    }
+                }
+            }
+        }
+    }
+
+    // Reversing [i, j] flips the order of any pickup/drop-off pair that lies entirely inside it
+    private static boolean reversible(int[] route, int[] positionOf, int[] pair, int i, int j) {
+        for (int k = i; k <= j; k++) {
+            int other = positionOf[pair[route[k]]];
+            if (other >= i && other <= j) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void reverse(int[] route, int[] positionOf, int i, int j) {
+        while (i < j) {
+            int swap = route[i];
+            route[i] = route[j];
+            route[j] = swap;
+            positionOf[route[i]] = i;
+            positionOf[route[j]] = j;
+            i++;
+            j--;
+        }
+    }
+
+    private static int[] pairNodes(List<Stop> stops) {
+        int n = stops.size();
+        int[] pair = new int[n + 1];
+        for (int a = 0; a < n; a++) {
+            for (int b = 0; b < n; b++) {
+                Stop first = stops.get(a);
+                Stop second = stops.get(b);
+                if (a != b && first.getOrderId().equals(second.getOrderId()) && first.isPickup() != second.isPickup()) {
+                    pair[a + 1] = b + 1;
+                }
+            }
+            if (pair[a + 1] == 0) {
+                throw new IllegalArgumentException("Order " + stops.get(a).getOrderId() + " needs both a pickup and a drop-off");
+            }
+        }
+        return pair;
+    }
+
+    private static double lat(List<Stop> stops, double startLat, int node) {
+        return node == 0 ? startLat : stops.get(node - 1).getLat();
+    }
+
+    private static double lng(List<Stop> stops, double startLng, int node) {
+        return node == 0 ? startLng : stops.get(node - 1).getLng();
+    }
+
+    public static class Stop {
+        private final String orderId;
+        private final boolean pickup;
+        private final double lat;
+        private final double lng;
+
+        public Stop(String orderId, boolean pickup, double lat, double lng) {
+            this.orderId = orderId;
+            this.pickup = pickup;
+            this.lat = lat;
+            this.lng = lng;
+        }
+
+        public String getOrderId() { return orderId; }
+        public boolean isPickup() { return pickup; }
+        public double getLat() { return lat; }
+        public double getLng() { return lng; }
+    }
+}
@@ -0,0 +1,278 @@
+package com.server.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prefix trie for autocomplete. Each entry (a product name or a category) is stored under the
+ * key of every word it contains, and every node keeps the heaviest {@code topK} entries of its
+ * subtree, so an exact-prefix lookup is a walk down the prefix plus a read of one array.
+ *
+ * Fuzzy lookups walk the trie with a Levenshtein row per node and stop descending once no
+ * extension can come back within the edit budget; each node that is within budget contributes its
+ * top entries with a penalty per edit.
+ *
+ * Changing one entry only re-sorts the top arrays on the paths of that entry's keys.
+ */
+public class SuggestionTrie {
+
+    // Score multiplier for 0, 1 and 2 edits
+    private static final double[] EDIT_PENALTY = {1.0, 0.25, 0.06};
+
+    // Upper bound on entries visited when earlier query words must also match
+    private static final int MAX_FILTERED_SCAN = 5000;
+
+    private final int topK;
+    private final Node root = new Node();
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public SuggestionTrie(int topK) {
+        if (topK <= 0) {
+            throw new IllegalArgumentException("topK must be positive");
+        }
+        this.topK = topK;
+    }
+
+    /**
+     * Adds or replaces entry {@code id}. An entry with no keys or no weight is removed.
+     */
+    public void put(String id, String text, String type, Collection<String> keys, double weight) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.remove(id);
+            if (previous != null) {
+                for (String key : previous.keys) {
+                    unlink(previous, key);
+                }
+            }
+            if (keys.isEmpty() || weight <= 0) {
+                return;
+            }
+            Entry entry = new Entry(id, text, type, List.copyOf(keys), weight);
+            entries.put(id, entry);
+            for (String key : entry.keys) {
+                link(entry, key);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String id) {
+        put(id, null, null, List.of(), 0);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Best entries with a key that starts with {@code prefix}, or with a prefix within
+     * {@code maxEdits} edits of it, that also contain every key in {@code required}.
+     */
+    public List<Suggestion> suggest(String prefix, Set<String> required, int maxEdits, int limit) {
+        int edits = Math.max(0, Math.min(maxEdits, EDIT_PENALTY.length - 1));
+        Map<Entry, Double> scores = new IdentityHashMap<>();
+
+        lock.readLock().lock();
+        try {
+            if (edits == 0) {
+                Node node = root;
+                for (int i = 0; i < prefix.length() && node != null; i++) {
+                    node = node.children.get(prefix.charAt(i));
+                }
+                if (node != null) {
+                    collect(node, required, EDIT_PENALTY[0], scores);
+                }
+            } else {
+                int[] row = new int[prefix.length() + 1];
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = i;
+                }
+                if (row[prefix.length()] <= edits) {
+                    collect(root, required, EDIT_PENALTY[row[prefix.length()]], scores);
+                }
+                for (Map.Entry<Character, Node> child : root.children.entrySet()) {
+                    fuzzy(child.getValue(), child.getKey(), prefix, row, edits, required, scores);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Suggestion> found = new ArrayList<>(scores.size());
+        scores.forEach((entry, score) -> found.add(new Suggestion(entry.id, entry.text, entry.type, score)));
+        found.sort(Comparator.comparingDouble(Suggestion::getScore).reversed());
+        return found.size() > limit ? new ArrayList<>(found.subList(0, limit)) : found;
+    }
+
+    private void fuzzy(Node node, char label, String prefix, int[] previous, int edits,
+                       Set<String> required, Map<Entry, Double> scores) {
+        int[] row = new int[previous.length];
+        row[0] = previous[0] + 1;
+        int best = row[0];
+        for (int i = 1; i < row.length; i++) {
+            int substitute = previous[i - 1] + (prefix.charAt(i - 1) == label ? 0 : 1);
+            row[i] = Math.min(Math.min(row[i - 1] + 1, previous[i] + 1), substitute);
+            best = Math.min(best, row[i]);
+        }
+        int distance = row[row.length - 1];
+        if (distance <= edits) {
+            collect(node, required, EDIT_PENALTY[distance], scores);
+        }
+        // Every longer path costs at least the cheapest cell of this row
+        if (best > edits) {
+            return;
+        }
+        for (Map.Entry<Character, Node> child : node.children.entrySet()) {
+            fuzzy(child.getValue(), child.getKey(), prefix, row, edits, required, scores);
+        }
+    }
+
+    private void collect(Node node, Set<String> required, double penalty, Map<Entry, Double> scores) {
+        if (required.isEmpty()) {
+            for (Entry entry : node.top) {
+                scores.merge(entry, entry.weight * penalty, Math::max);
+            }
+            return;
+        }
+        // The top array may be all non-matches, so walk the subtree (bounded)
+        List<Node> pending = new ArrayList<>();
+        pending.add(node);
+        int scanned = 0;
+        while (!pending.isEmpty() && scanned < MAX_FILTERED_SCAN) {
+            Node current = pending.remove(pending.size() - 1);
+            for (Entry entry : current.terminal) {
+                scanned++;
+                if (entry.keys.containsAll(required)) {
+                    scores.merge(entry, entry.weight * penalty, Math::max);
+                }
+            }
+            pending.addAll(current.children.values());
+        }
+    }
+
+    private void link(Entry entry, String key) {
+        List<Node> path = pathOf(key, true);
+        path.get(path.size() - 1).terminal.add(entry);
+        refreshTop(path);
+    }
+
+    private void unlink(Entry entry, String key) {
+        List<Node> path = pathOf(key, false);
+        if (path == null) {
+            return;
+        }
+        Node last = path.get(path.size() - 1);
+        last.terminal.removeIf(candidate -> candidate == entry);
+        // Prune nodes left with nothing below them
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node node = path.get(i);
+            if (node.terminal.isEmpty() && node.children.isEmpty()) {
+                path.get(i - 1).children.remove(key.charAt(i - 1));
+            } else {
+                break;
+            }
+        }
+        refreshTop(path);
+    }
+
+    // Root first; null when the key is absent and create is false
+    private List<Node> pathOf(String key, boolean create) {
+        List<Node> path = new ArrayList<>(key.length() + 1);
+        Node node = root;
+        path.add(node);
+        for (int i = 0; i < key.length(); i++) {
+            Node next = node.children.get(key.charAt(i));
+            if (next == null) {
+                if (!create) {
+                    return null;
+                }
+                next = new Node();
+                node.children.put(key.charAt(i), next);
+            }
+            node = next;
+            path.add(node);
+        }
+        return path;
+    }
+
+    // Bottom-up, so each node merges children whose tops are already current
+    private void refreshTop(List<Node> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node node = path.get(i);
+            List<Entry> candidates = new ArrayList<>(node.terminal);
+            for (Node child : node.children.values()) {
+                for (Entry entry : child.top) {
+                    candidates.add(entry);
+                }
+            }
+            candidates.sort(Comparator.comparingDouble((Entry entry) -> entry.weight).reversed());
+            List<Entry> top = new ArrayList<>(Math.min(topK, candidates.size()));
+            for (Entry entry : candidates) {
+                // An entry reaches a node once per key below it
+                if (!top.contains(entry)) {
+                    top.add(entry);
+                    if (top.size() == topK) {
+                        break;
+                    }
+                }
+            }
+            node.top = top.toArray(new Entry[0]);
+        }
+    }
+
+    private static class Node {
+        private final Map<Character, Node> children = new HashMap<>(4);
+        private final List<Entry> terminal = new ArrayList<>(1);
+        private Entry[] top = new Entry[0];
+    }
+
+    private static class Entry {
+        private final String id;
+        private final String text;
+        private final String type;
+        private final List<String> keys;
+        private final double weight;
+
+        Entry(String id, String text, String type, List<String> keys, double weight) {
+            this.id = id;
+            this.text = text;
+            this.type = type;
+            this.keys = keys;
+            this.weight = weight;
+        }
+    }
+
+    public static class Suggestion {
+        private final String id;
+        private final String text;
+        private final String type;
+        private final double score;
+
+        public Suggestion(String id, String text, String type, double score) {
+            this.id = id;
+            this.text = text;
+            this.type = type;
+            this.score = score;
+        }
+
+        public String getId() { return id; }
+        public String getText() { return text; }
+        public String getType() { return type; }
+        public double getScore() { return score; }
+    }
+}
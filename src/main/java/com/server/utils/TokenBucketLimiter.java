@@ -0,0 +1,82 @@
+package com.server.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets for any number of keys (client IPs, account emails) in a fixed amount of memory.
+ *
+ * Each bucket is a single long: the time at which it will be full again (the generic cell rate
+ * algorithm, equivalent to a token bucket). Taking a token moves that time forward by one token's
+ * worth, so a check is one compare-and-set with no locks and no per-key objects.
+ *
+ * Keys hash into a fixed table of slots instead of a growing map, so a flood of made-up keys
+ * cannot grow memory. Keys that collide share a bucket, which can only make limiting stricter;
+ * with the table much larger than the number of active clients this is rare.
+ */
+public class TokenBucketLimiter {
+
+    private final AtomicLongArray slots;
+    private final int mask;
+    // Time to earn one token, and to refill the whole burst
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final LongSupplier clock;
+    private final long origin;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder limited = new LongAdder();
+
+    public TokenBucketLimiter(double tokensPerSecond, int burst, int slots) {
+        this(tokensPerSecond, burst, slots, System::nanoTime);
+    }
+
+    TokenBucketLimiter(double tokensPerSecond, int burst, int slots, LongSupplier clock) {
+        if (tokensPerSecond <= 0 || burst <= 0 || slots <= 0) {
+            throw new IllegalArgumentException("Rate, burst and slots must be positive");
+        }
+        int size = Integer.highestOneBit(slots);
+        if (size < slots) {
+            size <<= 1;
+        }
+        this.slots = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / tokensPerSecond));
+        this.capacityNanos = intervalNanos * burst;
+        this.clock = clock;
+        this.origin = clock.getAsLong();
+    }
+
+    /**
+     * Takes a token from {@code key}'s bucket. Returns 0 when one was available, otherwise the
+     * nanoseconds until one will be (nothing is taken).
+     */
+    public long tryAcquire(String key) {
+        int slot = index(key);
+        long now = clock.getAsLong() - origin;
+        while (true) {
+            long full = slots.get(slot);
+            long next = Math.max(full, now) + intervalNanos;
+            long wait = next - now - capacityNanos;
+            if (wait > 0) {
+                limited.increment();
+                return wait;
+            }
+            if (slots.compareAndSet(slot, full, next)) {
+                allowed.increment();
+                return 0;
+            }
+        }
+    }
+
+    public long getAllowed() { return allowed.sum(); }
+    public long getLimited() { return limited.sum(); }
+    public int getSlots() { return slots.length(); }
+
+    private int index(String key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return (h * 0x9E3779B9) >>> 8 & mask;
+    }
+}
@@ -1,11 +1,33 @@
 package com.server;
 
+import com.server.testsupport.EmbeddedMongo;
+import de.bwaldvogel.mongo.MongoServer;
+import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
 
-@SpringBootTest
+import java.net.InetSocketAddress;
+
+// Startup creates indexes and signing keys, so the context needs a database to load
+@SpringBootTest(properties = "spring.data.mongodb.database=f2c_context")
 class FarmerToConsumerDirectPlatformApplicationTests {
 
+    private static final MongoServer mongoServer = EmbeddedMongo.create();
+    private static final InetSocketAddress mongoAddress = mongoServer.bind();
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.host", mongoAddress::getHostString);
+        registry.add("spring.data.mongodb.port", mongoAddress::getPort);
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        mongoServer.shutdownNow();
+    }
+
     @Test
     void contextLoads() {
     }
@@ -0,0 +1,42 @@
+package com.server.Models;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class MoneyTests {
+
+    @Test
+    void convertsRupeesAndKilogramsExactly() {
+        assertEquals(4250, Money.ofMajor(42.5).getMinorUnits());
+        assertEquals(1, Money.ofMajor(0.005).getMinorUnits());
+        assertEquals(new BigDecimal("42.50"), Money.ofMinor(4250).toDecimal());
+        assertEquals(1250, Quantity.ofKg(1.25).getGrams());
+        assertEquals(new BigDecimal("0.333"), Quantity.ofGrams(333).toDecimal());
+    }
+
+    @Test
+    void lineTotalsRoundHalfUpToThePaisa() {
+        // Rs 33.33/kg for 1.5 kg = Rs 49.995
+        assertEquals(5000, Money.lineTotalMinor(3333, 1500));
+        assertEquals(4996, Money.lineTotalMinor(3333, 1499));
+        assertEquals(0, Money.lineTotalMinor(0, 2000));
+    }
+
+    @Test
+    void summingManyLinesHasNoDrift() {
+        long total = 0;
+        double drifting = 0;
+        for (int i = 0; i < 10_000; i++) {
+            total += Money.lineTotalMinor(10, 1000);
+            drifting += 0.1;
+        }
+        assertEquals(100_000, total);
+        assertEquals(Money.ofMinor(100_000), Money.ofMajor(1000.0));
+        // The double sum is what createOrder used to produce
+        assertFalse(drifting == 1000.0);
+    }
+}
@@ -0,0 +1,31 @@
+package com.server.Models;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderStatusTests {
+
+    @Test
+    void followsTheDeliveryLifecycle() {
+        assertTrue(OrderStatus.PENDING_PAYMENT.canTransitionTo(OrderStatus.CONFIRMED));
+        assertTrue(OrderStatus.CONFIRMED.canTransitionTo(OrderStatus.PREPARING));
+        assertTrue(OrderStatus.PREPARING.canTransitionTo(OrderStatus.READY_FOR_PICKUP));
+        assertTrue(OrderStatus.READY_FOR_PICKUP.canTransitionTo(OrderStatus.PICKED_UP));
+        assertTrue(OrderStatus.PICKED_UP.canTransitionTo(OrderStatus.IN_TRANSIT));
+        assertTrue(OrderStatus.IN_TRANSIT.canTransitionTo(OrderStatus.DELIVERED));
+
+        assertFalse(OrderStatus.PENDING_PAYMENT.canTransitionTo(OrderStatus.PREPARING));
+        assertFalse(OrderStatus.READY_FOR_PICKUP.canTransitionTo(OrderStatus.DELIVERED));
+        assertFalse(OrderStatus.PICKED_UP.canTransitionTo(OrderStatus.CANCELLED));
+    }
+
+    @Test
+    void terminalStatesNeverMove() {
+        for (OrderStatus next : OrderStatus.values()) {
+            assertFalse(OrderStatus.DELIVERED.canTransitionTo(next));
+            assertFalse(OrderStatus.CANCELLED.canTransitionTo(next));
+        }
+    }
+}
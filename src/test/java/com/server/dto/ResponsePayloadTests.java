@@ -0,0 +1,128 @@
+package com.server.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.server.Models.Money;
+import com.server.Models.Order;
+import com.server.Models.OrderItem;
+import com.server.Models.OrderStatus;
+import com.server.Models.Product;
+import com.server.Models.Quantity;
+import com.server.Models.Role;
+import com.server.Models.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Same payloads as SerializationBenchmark; guards the byte savings the DTOs were introduced for
+class ResponsePayloadTests {
+
+    private ObjectMapper objectMapper;
+    private User farmer;
+    private List<Product> products;
+
+    @BeforeEach
+    void setUp() {
+        // Matches JacksonConfig: unfiltered unless a request asks for fields
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .setFilterProvider(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+        farmer = user("farmer-1", "farmer@example.com", Role.FARMER);
+        products = products(farmer, 10);
+    }
+
+    @Test
+    void productPageOfSummariesIsAboutHalfTheEntityPage() throws Exception {
+        Map<String, Object> entityPage = new HashMap<>();
+        entityPage.put("products", products);
+        entityPage.put("currentPage", 0);
+        entityPage.put("totalItems", 250L);
+        entityPage.put("totalPages", 25);
+        ProductPage summaryPage = new ProductPage(products.stream().map(ProductSummary::of).toList(), 0, 250L, 25);
+
+        byte[] entities = objectMapper.writeValueAsBytes(entityPage);
+        byte[] summaries = objectMapper.writeValueAsBytes(summaryPage);
+        byte[] gridFields = objectMapper.writer(new SimpleFilterProvider().addFilter(ProductSummary.FILTER,
+                        SimpleBeanPropertyFilter.filterOutAllExcept(Set.of("id", "name", "pricePerKg", "imageUrl"))))
+                .writeValueAsBytes(summaryPage);
+
+        // Measured 5803 -> 3253 bytes when the DTOs went in
+        assertTrue(summaries.length * 10 < entities.length * 6, summaries.length + " of " + entities.length);
+        assertTrue(gridFields.length < summaries.length, gridFields.length + " of " + summaries.length);
+        String json = new String(summaries, StandardCharsets.UTF_8);
+        assertFalse(json.contains(farmer.getEmail()));
+        assertFalse(json.contains(farmer.getPhone()));
+    }
+
+    @Test
+    void orderSummaryIsUnderAThirdOfTheEntityGraph() throws Exception {
+        User consumer = user("consumer-1", "consumer@example.com", Role.CONSUMER);
+        List<OrderItem> items = new ArrayList<>();
+        long totalMinor = 0;
+        for (Product product : products) {
+            OrderItem item = new OrderItem();
+            item.setProduct(product);
+            item.setQuantity(Quantity.ofKg(2.0));
+            item.setPrice(product.getPricePerKg());
+            item.setProductName(product.getName());
+            item.setCategory(product.getCategory());
+            item.setImageUrl(product.getImageUrl());
+            items.add(item);
+            totalMinor += Money.lineTotalMinor(product.getPricePerKg().getMinorUnits(), item.getQuantity().getGrams());
+        }
+        Order order = new Order();
+        order.setId("order-1");
+        order.setConsumer(consumer);
+        order.setStatus(OrderStatus.CONFIRMED);
+        order.setDeliveryAddress("Plot 12, Saheed Nagar, Bhubaneswar");
+        order.setOrderDate(LocalDateTime.of(2024, 11, 2, 9, 30));
+        order.setOrderItems(items);
+        order.setTotalAmount(Money.ofMinor(totalMinor));
+        order.setRazorpayOrderId("mock_order_1234abcd");
+
+        byte[] entity = objectMapper.writeValueAsBytes(order);
+        byte[] summary = objectMapper.writeValueAsBytes(OrderSummary.of(order));
+
+        // Measured ~8.1 KB -> 2400 bytes when the DTOs went in
+        assertTrue(summary.length * 3 < entity.length, summary.length + " of " + entity.length);
+        assertFalse(new String(summary, StandardCharsets.UTF_8).contains(farmer.getEmail()));
+    }
+
+    private static User user(String id, String email, Role role) {
+        User user = new User("User " + id, email, "$2a$10$abcdefghijklmnopqrstuv", role, "9999999999", "Bhubaneswar, Odisha");
+        user.setId(id);
+        return user;
+    }
+
+    private static List<Product> products(User farmer, int count) {
+        String[] categories = {"Vegetables", "Fruits", "Grains", "Dairy"};
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Product product = new Product();
+            product.setId("product-" + i);
+            product.setFarmer(farmer);
+            product.setName("Product " + i);
+            product.setCategory(categories[i % categories.length]);
+            product.setPricePerKg(Money.ofMajor(20.0 + (i % 50) * 1.25));
+            product.setAvailableQuantity(Quantity.ofKg(500.0));
+            product.setImageUrl("https://res.cloudinary.com/demo/image/upload/f2c/products/p" + i + ".jpg");
+            product.setDescription("Fresh produce harvested this week, lot " + i);
+            products.add(product);
+        }
+        return products;
+    }
+}
@@ -0,0 +1,70 @@
+package com.server.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs a scripted step on a fixed number of workers and records the latency of every call.
+ * All workers are released together so the first requests really do contend.
+ */
+class LoadDriver {
+
+    @FunctionalInterface
+    interface Step {
+        /**
+         * @return true when the call succeeded; exceptions and false both count as errors
+         */
+        boolean execute(int worker, int iteration) throws Exception;
+    }
+
+    static LoadReport run(String scenario, int workers, int iterationsPerWorker, Step step) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicLong errors = new AtomicLong();
+        List<Future<long[]>> results = new ArrayList<>(workers);
+
+        try {
+            for (int w = 0; w < workers; w++) {
+                final int worker = w;
+                results.add(executor.submit(() -> {
+                    long[] latencies = new long[iterationsPerWorker];
+                    start.await();
+                    for (int i = 0; i < iterationsPerWorker; i++) {
+                        long begin = System.nanoTime();
+                        boolean ok;
+                        try {
+                            ok = step.execute(worker, i);
+                        } catch (Exception e) {
+                            ok = false;
+                        }
+                        latencies[i] = System.nanoTime() - begin;
+                        if (!ok) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                    return latencies;
+                }));
+            }
+
+            long begin = System.nanoTime();
+            start.countDown();
+
+            long[] all = new long[workers * iterationsPerWorker];
+            int offset = 0;
+            for (Future<long[]> result : results) {
+                long[] latencies = result.get(10, TimeUnit.MINUTES);
+                System.arraycopy(latencies, 0, all, offset, latencies.length);
+                offset += latencies.length;
+            }
+            return new LoadReport(scenario, workers, errors.get(), System.nanoTime() - begin, all);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.server.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Outcome of one load scenario: throughput, latency percentiles and the correctness checks
+ * evaluated against the database once the load has drained.
+ */
+class LoadReport {
+
+    private final String scenario;
+    private final int workers;
+    private final long requests;
+    private final long errors;
+    private final long elapsedNanos;
+    private final long[] latenciesNanos;
+    private final Map<String, Boolean> checks = new LinkedHashMap<>();
+
+    LoadReport(String scenario, int workers, long errors, long elapsedNanos, long[] latenciesNanos) {
+        this.scenario = scenario;
+        this.workers = workers;
+        this.requests = latenciesNanos.length;
+        this.errors = errors;
+        this.elapsedNanos = elapsedNanos;
+        this.latenciesNanos = latenciesNanos.clone();
+        Arrays.sort(this.latenciesNanos);
+    }
+
+    LoadReport check(String description, boolean passed) {
+        checks.put(description, passed);
+        return this;
+    }
+
+    boolean passed() {
+        return !checks.containsValue(false);
+    }
+
+    String getScenario() {
+        return scenario;
+    }
+
+    long getErrors() {
+        return errors;
+    }
+
+    double throughputPerSecond() {
+        return elapsedNanos == 0 ? 0 : requests * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    double percentileMillis(double percentile) {
+        if (latenciesNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * latenciesNanos.length) - 1;
+        return latenciesNanos[Math.max(0, Math.min(index, latenciesNanos.length - 1))] / 1_000_000.0;
+    }
+
+    Map<String, Object> toMap() {
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("p50", percentileMillis(50));
+        latency.put("p90", percentileMillis(90));
+        latency.put("p99", percentileMillis(99));
+        latency.put("max", percentileMillis(100));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("scenario", scenario);
+        report.put("workers", workers);
+        report.put("requests", requests);
+        report.put("errors", errors);
+        report.put("elapsedMillis", elapsedNanos / 1_000_000);
+        report.put("throughputPerSecond", throughputPerSecond());
+        report.put("latencyMillis", latency);
+        report.put("checks", checks);
+        report.put("passed", passed());
+        return report;
+    }
+
+    String summary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("=== %s (%d workers) ===%n", scenario, workers));
+        sb.append(String.format("requests=%d errors=%d elapsed=%dms throughput=%.1f req/s%n",
+                requests, errors, elapsedNanos / 1_000_000, throughputPerSecond()));
+        sb.append(String.format("latency p50=%.2fms p90=%.2fms p99=%.2fms max=%.2fms%n",
+                percentileMillis(50), percentileMillis(90), percentileMillis(99), percentileMillis(100)));
+        checks.forEach((description, ok) ->
+                sb.append(ok ? "  [PASS] " : "  [FAIL] ").append(description).append(System.lineSeparator()));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,298 @@
+package com.server.loadtest;
+
+import com.cloudinary.Cloudinary;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.server.Models.Money;
+import com.server.Models.OrderStatus;
+import com.server.Models.Product;
+import com.server.Models.Quantity;
+import com.server.Models.Role;
+import com.server.Models.User;
+import com.server.Repositories.OrderRepository;
+import com.server.Repositories.ProductRepository;
+import com.server.Repositories.UserRepository;
+import com.server.testsupport.EmbeddedMongo;
+import com.server.utils.JwtUtil;
+import de.bwaldvogel.mongo.MongoServer;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.net.InetSocketAddress;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Boots the whole application against an in-process MongoDB and replays the traffic
+ * patterns we expect during harvest season. Cloudinary and SMTP are stubbed.
+ *
+ * Run with {@code ./mvnw -P load-test test}; scale with -Dloadtest.workers and friends.
+ * Each scenario writes its report to target/load-test-reports.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.data.mongodb.database=f2c_loadtest",
+        "logging.level.com.server=WARN",
+        // The in-process store has no $text support
+        "product.search.text-index=false",
+        // Every simulated client comes from one address; these scenarios measure the app, not the limiter
+        "traffic.enabled=false"
+})
+class PlatformLoadTest {
+
+    private static final MongoServer mongoServer = EmbeddedMongo.create();
+    private static final InetSocketAddress mongoAddress = mongoServer.bind();
+
+    private static final int WORKERS = Integer.getInteger("loadtest.workers", 16);
+    private static final int BROWSE_ITERATIONS = Integer.getInteger("loadtest.browse.iterations", 200);
+    private static final int CATALOG_SIZE = Integer.getInteger("loadtest.browse.catalogSize", 200);
+    private static final int FLASH_SALE_BUYERS = Integer.getInteger("loadtest.flashSale.buyers", 64);
+    private static final double FLASH_SALE_STOCK = Double.parseDouble(System.getProperty("loadtest.flashSale.stock", "100"));
+    private static final double FLASH_SALE_QUANTITY = Double.parseDouble(System.getProperty("loadtest.flashSale.quantity", "3"));
+    private static final int FARMERS = Integer.getInteger("loadtest.farmers", 8);
+    private static final int PRODUCTS_PER_FARMER = Integer.getInteger("loadtest.farmers.products", 25);
+    private static final int EDIT_ROUNDS = Integer.getInteger("loadtest.farmers.rounds", 4);
+
+    private static final String[] CATEGORIES = {"Vegetables", "Fruits", "Grains", "Dairy"};
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.host", mongoAddress::getHostString);
+        registry.add("spring.data.mongodb.port", mongoAddress::getPort);
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        mongoServer.shutdownNow();
+    }
+
+    @MockitoBean
+    private Cloudinary cloudinary;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private LoadClient client;
+
+    @BeforeEach
+    void resetData() {
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+        client = new LoadClient(objectMapper, port);
+    }
+
+    @Test
+    void catalogBrowsingWithFilters() throws Exception {
+        User farmer = saveUser("farmer-0@loadtest.local", Role.FARMER);
+        List<Product> catalog = new ArrayList<>();
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            catalog.add(product(farmer, "Produce " + i, CATEGORIES[i % CATEGORIES.length], 10.0 + i % 90, 500.0));
+        }
+        productRepository.saveAll(catalog);
+
+        String token = jwtUtil.generateToken(saveUser("browser@loadtest.local", Role.CONSUMER).getEmail(), "CONSUMER");
+        AtomicInteger filterViolations = new AtomicInteger();
+
+        LoadReport report = LoadDriver.run("catalog-browsing", WORKERS, BROWSE_ITERATIONS, (worker, iteration) -> {
+            String category = CATEGORIES[(worker + iteration) % CATEGORIES.length];
+            String query;
+            switch ((worker + iteration) % 5) {
+                case 0 -> query = "?category=" + category;
+                case 1 -> query = "?category=" + category + "&minPrice=20&maxPrice=60&sortBy=pricePerKg";
+                case 2 -> query = "?minPrice=30&maxPrice=50&page=1";
+                case 3 -> query = "?keyword=Produce%201";
+                default -> query = "?page=" + (iteration % 10) + "&sortBy=pricePerKg&sortDir=desc";
+            }
+
+            HttpResponse<String> response = client.get("/consumer/products" + query, token);
+            if (response.statusCode() != 200) {
+                return false;
+            }
+            for (JsonNode product : client.json(response).get("products")) {
+                boolean categoryMatches = !query.contains("category=") || category.equals(product.get("category").asText());
+                double price = product.get("pricePerKg").asDouble();
+                boolean priceMatches = !query.contains("minPrice=20") || (price >= 20 && price <= 60);
+                priceMatches &= !query.contains("minPrice=30") || (price >= 30 && price <= 50);
+                if (!categoryMatches || !priceMatches) {
+                    filterViolations.incrementAndGet();
+                }
+            }
+            return true;
+        });
+
+        report.check("all requests succeeded", report.getErrors() == 0)
+                .check("every result matches its category and price filters", filterViolations.get() == 0);
+        publish(report);
+    }
+
+    @Test
+    void flashSaleCheckoutsOnOneProduct() throws Exception {
+        User farmer = saveUser("farmer-0@loadtest.local", Role.FARMER);
+        Product product = productRepository.save(product(farmer, "Alphonso Mango", "Fruits", 120.0, FLASH_SALE_STOCK));
+
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < FLASH_SALE_BUYERS; i++) {
+            tokens.add(jwtUtil.generateToken(saveUser("buyer-" + i + "@loadtest.local", Role.CONSUMER).getEmail(), "CONSUMER"));
+        }
+
+        AtomicInteger confirmed = new AtomicInteger();
+        AtomicInteger soldOut = new AtomicInteger();
+
+        LoadReport report = LoadDriver.run("flash-sale-checkout", FLASH_SALE_BUYERS, 1, (worker, iteration) -> {
+            String token = tokens.get(worker);
+            HttpResponse<String> placed = client.post("/consumer/orders", token, Map.of(
+                    "items", List.of(Map.of("productId", product.getId(), "quantity", FLASH_SALE_QUANTITY)),
+                    "deliveryAddress", "Stall " + worker + ", Unit 4 Market, Bhubaneswar"));
+            if (placed.statusCode() != 200) {
+                return isSoldOut(placed, soldOut);
+            }
+
+            String orderId = client.json(placed).get("order").get("id").asText();
+            HttpResponse<String> paid = client.post("/consumer/orders/" + orderId + "/confirm-payment", token, Map.of(
+                    "razorpayPaymentId", "mock_pay_" + worker,
+                    "razorpaySignature", "mock_sig_" + worker));
+            if (paid.statusCode() != 200) {
+                return isSoldOut(paid, soldOut);
+            }
+            confirmed.incrementAndGet();
+            return true;
+        });
+
+        double remaining = productRepository.findById(product.getId()).orElseThrow().getAvailableQuantity().toKg();
+        double sold = confirmed.get() * FLASH_SALE_QUANTITY;
+        long confirmedInDb = orderRepository.findAll().stream()
+                .filter(order -> order.getStatus() == OrderStatus.CONFIRMED)
+                .count();
+
+        report.check("zero oversell (" + sold + " kg sold of " + FLASH_SALE_STOCK + ")", sold <= FLASH_SALE_STOCK)
+                .check("stock never negative (remaining " + remaining + " kg)", remaining >= 0)
+                .check("remaining stock equals stock minus confirmed sales", remaining == FLASH_SALE_STOCK - sold)
+                .check("confirmed orders in database match successful checkouts", confirmedInDb == confirmed.get())
+                .check("sale sold through before rejecting buyers", soldOut.get() == 0 || remaining < FLASH_SALE_QUANTITY)
+                .check("no unexpected errors", report.getErrors() == 0);
+        publish(report);
+    }
+
+    @Test
+    void farmerBulkInventoryEdits() throws Exception {
+        List<String> tokens = new ArrayList<>();
+        List<List<String>> productIds = new ArrayList<>();
+        for (int f = 0; f < FARMERS; f++) {
+            User farmer = saveUser("farmer-" + f + "@loadtest.local", Role.FARMER);
+            tokens.add(jwtUtil.generateToken(farmer.getEmail(), "FARMER"));
+
+            List<Product> products = new ArrayList<>();
+            for (int p = 0; p < PRODUCTS_PER_FARMER; p++) {
+                products.add(product(farmer, "Farm " + f + " item " + p, CATEGORIES[p % CATEGORIES.length], 25.0, 0.0));
+            }
+            productIds.add(productRepository.saveAll(products).stream().map(Product::getId).toList());
+        }
+
+        LoadReport report = LoadDriver.run("farmer-inventory-edits", FARMERS, PRODUCTS_PER_FARMER * EDIT_ROUNDS, (worker, iteration) -> {
+            int index = iteration % PRODUCTS_PER_FARMER;
+            int round = iteration / PRODUCTS_PER_FARMER;
+            String productId = productIds.get(worker).get(index);
+            HttpResponse<String> response = client.patch("/farmer/products/" + productId + "/inventory",
+                    tokens.get(worker), Map.of("quantity", round * 100.0 + index));
+            return response.statusCode() == 200;
+        });
+
+        int mismatches = 0;
+        for (List<String> ids : productIds) {
+            for (int index = 0; index < ids.size(); index++) {
+                double expected = (EDIT_ROUNDS - 1) * 100.0 + index;
+                Product product = productRepository.findById(ids.get(index)).orElseThrow();
+                if (product.getAvailableQuantity().toKg() != expected) {
+                    mismatches++;
+                }
+            }
+        }
+
+        report.check("all edits succeeded", report.getErrors() == 0)
+                .check("every product holds its last written quantity (" + mismatches + " mismatches)", mismatches == 0);
+        publish(report);
+    }
+
+    private boolean isSoldOut(HttpResponse<String> response, AtomicInteger soldOut) {
+        if (response.statusCode() == 400 && response.body().contains("Insufficient quantity")) {
+            soldOut.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    private User saveUser(String email, Role role) {
+        return userRepository.save(new User(email, email, "not-used-by-load-tests", role, "9999999999", "Bhubaneswar"));
+    }
+
+    private Product product(User farmer, String name, String category, double price, double quantity) {
+        Product product = new Product();
+        product.setFarmer(farmer);
+        product.setName(name);
+        product.setCategory(category);
+        product.setPricePerKg(Money.ofMajor(price));
+        product.setAvailableQuantity(Quantity.ofKg(quantity));
+        product.setDescription(name + " from " + farmer.getEmail());
+        return product;
+    }
+
+    private void publish(LoadReport report) throws Exception {
+        System.out.println(report.summary());
+
+        Path directory = Path.of("target", "load-test-reports");
+        Files.createDirectories(directory);
+        objectMapper.writerWithDefaultPrettyPrinter()
+                .writeValue(directory.resolve(report.getScenario() + ".json").toFile(), report.toMap());
+
+        assertTrue(report.passed(), report.summary());
+    }
+
+    @TestConfiguration
+    static class StubMailConfig {
+        // Replaces the SMTP-backed sender so confirmation emails are rendered but never delivered
+        @Bean
+        JavaMailSender javaMailSender() {
+            return new JavaMailSenderImpl() {
+                @Override
+                public void send(MimeMessage mimeMessage) {
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.server.multinode;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.server.FarmerToConsumerDirectPlatformApplication;
+import com.server.Models.Money;
+import com.server.Models.Order;
+import com.server.Models.OrderStatus;
+import com.server.Models.Product;
+import com.server.Models.Quantity;
+import com.server.Models.Role;
+import com.server.Models.User;
+import com.server.Repositories.OrderRepository;
+import com.server.Repositories.ProductRepository;
+import com.server.Repositories.UserRepository;
+import com.server.testsupport.EmbeddedMongo;
+import com.server.utils.JwtUtil;
+import de.bwaldvogel.mongo.MongoServer;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs two instances of the application against one in-process MongoDB, the way they run behind a
+ * load balancer, and moves a client between them mid-flow: whatever one node wrote (payments,
+ * idempotency keys, failed-login counts, sessions) must be visible to the other.
+ */
+class MultiNodeIntegrationTest {
+
+    private static final MongoServer mongoServer = EmbeddedMongo.create();
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        InetSocketAddress mongoAddress = mongoServer.bind();
+        nodeA = startNode(mongoAddress);
+        nodeB = startNode(mongoAddress);
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+        mongoServer.shutdownNow();
+    }
+
+    private static ConfigurableApplicationContext startNode(InetSocketAddress mongoAddress) {
+        // Command-line arguments, so they win over application.properties
+        return new SpringApplicationBuilder(FarmerToConsumerDirectPlatformApplication.class, StubMailConfig.class)
+                .run("--server.port=0",
+                        "--spring.data.mongodb.host=" + mongoAddress.getHostString(),
+                        "--spring.data.mongodb.port=" + mongoAddress.getPort(),
+                        "--spring.data.mongodb.database=f2c_multinode",
+                        "--logging.level.com.server=WARN",
+                        // The in-process store has no $text support
+                        "--product.search.text-index=false",
+                        "--state.store=mongo",
+                        "--password.hashing.cost=4",
+                        // Every request comes from one address; keep the per-IP buckets out of the way
+                        "--traffic.auth.ip-burst=1000",
+                        "--traffic.api.ip-burst=1000",
+                        "--jwt.revocation.sync-ms=200");
+    }
+
+    @Test
+    void paymentCreatedOnOneNodeIsFoundAndConfirmedOnTheOther() throws Exception {
+        Product product = saveProduct("farmer-pay@multinode.local");
+        String token = consumerToken("consumer-pay@multinode.local");
+
+        HttpResponse<String> placed = send(nodeA, "POST", "/consumer/orders", token, orderBody(product), Map.of());
+        assertEquals(200, placed.statusCode(), placed.body());
+        String orderId = json(placed).path("order").path("id").asText();
+
+        HttpResponse<String> details = send(nodeB, "GET", "/consumer/orders/" + orderId + "/payment-details", token, null, Map.of());
+        assertEquals(200, details.statusCode(), details.body());
+        String paymentId = json(details).path("paymentId").asText();
+        assertTrue(paymentId.startsWith("mock_pay_"), details.body());
+
+        HttpResponse<String> confirmed = send(nodeB, "POST", "/consumer/orders/" + orderId + "/confirm-payment", token,
+                Map.of("razorpayPaymentId", paymentId, "razorpaySignature", "mock_signature"), Map.of());
+        assertEquals(200, confirmed.statusCode(), confirmed.body());
+
+        Order order = nodeA.getBean(OrderRepository.class).findById(orderId).orElseThrow();
+        assertEquals(OrderStatus.CONFIRMED, order.getStatus());
+    }
+
+    @Test
+    void checkoutRetriedOnAnotherNodeReplaysTheFirstOrder() throws Exception {
+        Product product = saveProduct("farmer-retry@multinode.local");
+        String token = consumerToken("consumer-retry@multinode.local");
+        Map<String, String> key = Map.of("Idempotency-Key", UUID.randomUUID().toString());
+
+        HttpResponse<String> first = send(nodeA, "POST", "/consumer/orders", token, orderBody(product), key);
+        assertEquals(200, first.statusCode(), first.body());
+
+        HttpResponse<String> retried = send(nodeB, "POST", "/consumer/orders", token, orderBody(product), key);
+        assertEquals(200, retried.statusCode(), retried.body());
+        assertEquals("true", retried.headers().firstValue("Idempotent-Replayed").orElse(null));
+        assertEquals(json(first).path("order").path("id").asText(), json(retried).path("order").path("id").asText());
+
+        Map<String, Object> otherBody = Map.of(
+                "items", List.of(Map.of("productId", product.getId(), "quantity", 5.0)),
+                "deliveryAddress", "Somewhere else");
+        HttpResponse<String> reused = send(nodeB, "POST", "/consumer/orders", token, otherBody, key);
+        assertEquals(422, reused.statusCode(), reused.body());
+
+        HttpResponse<String> orders = send(nodeA, "GET", "/consumer/orders", token, null, Map.of());
+        assertEquals(200, orders.statusCode(), orders.body());
+        assertEquals(1, json(orders).size());
+    }
+
+    @Test
+    void loginAttemptsAreCountedAcrossNodes() throws Exception {
+        String email = "guessed@multinode.local";
+        register(email, "right-password");
+
+        Map<String, String> guess = Map.of("email", email, "password", "wrong-password");
+        for (int attempt = 0; attempt < 5; attempt++) {
+            ConfigurableApplicationContext node = attempt % 2 == 0 ? nodeA : nodeB;
+            HttpResponse<String> response = send(node, "POST", "/auth/login", null, guess, Map.of());
+            assertEquals(400, response.statusCode(), response.body());
+        }
+
+        // Each node has only seen two or three attempts, together they have seen five
+        HttpResponse<String> limited = send(nodeB, "POST", "/auth/login", null, guess, Map.of());
+        assertEquals(429, limited.statusCode(), limited.body());
+        assertTrue(limited.headers().firstValue("Retry-After").isPresent());
+    }
+
+    @Test
+    void successfulLoginsDoNotUseUpTheAccountsTries() throws Exception {
+        String email = "regular@multinode.local";
+        register(email, "right-password");
+
+        Map<String, String> login = Map.of("email", email, "password", "right-password");
+        for (int attempt = 0; attempt < 6; attempt++) {
+            ConfigurableApplicationContext node = attempt % 2 == 0 ? nodeA : nodeB;
+            HttpResponse<String> response = send(node, "POST", "/auth/login", null, login, Map.of());
+            assertEquals(200, response.statusCode(), response.body());
+        }
+
+        // A typo after a busy morning is still just a wrong password
+        HttpResponse<String> typo = send(nodeB, "POST", "/auth/login", null,
+                Map.of("email", email, "password", "rigth-password"), Map.of());
+        assertEquals(400, typo.statusCode(), typo.body());
+    }
+
+    @Test
+    void sessionStartedOnOneNodeWorksAndEndsOnTheOther() throws Exception {
+        String email = "roaming@multinode.local";
+        register(email, "roaming-password");
+
+        HttpResponse<String> login = send(nodeA, "POST", "/auth/login", null,
+                Map.of("email", email, "password", "roaming-password"), Map.of());
+        assertEquals(200, login.statusCode(), login.body());
+        String accessToken = json(login).path("token").asText();
+        String refreshToken = json(login).path("refreshToken").asText();
+
+        assertEquals(200, send(nodeB, "GET", "/consumer/orders", accessToken, null, Map.of()).statusCode());
+
+        HttpResponse<String> refreshed = send(nodeB, "POST", "/auth/refresh", null, Map.of("refreshToken", refreshToken), Map.of());
+        assertEquals(200, refreshed.statusCode(), refreshed.body());
+        String newRefreshToken = json(refreshed).path("refreshToken").asText();
+
+        HttpResponse<String> loggedOut = send(nodeB, "POST", "/auth/logout", null, Map.of("refreshToken", newRefreshToken), Map.of());
+        assertEquals(200, loggedOut.statusCode(), loggedOut.body());
+
+        // Node A learns of the revocation on its next sync
+        long deadline = System.currentTimeMillis() + 5000;
+        int status;
+        do {
+            Thread.sleep(100);
+            status = send(nodeA, "GET", "/consumer/orders", accessToken, null, Map.of()).statusCode();
+        } while (status != 401 && System.currentTimeMillis() < deadline);
+        assertEquals(401, status);
+    }
+
+    @Test
+    void catalogIsCompressedAndItsETagRevalidatesOnTheOtherNode() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            saveProduct("farmer-catalog-" + i + "@multinode.local");
+        }
+        String token = consumerToken("consumer-catalog@multinode.local");
+
+        HttpResponse<String> catalog = send(nodeA, "GET", "/consumer/products?size=20", token, null,
+                Map.of("Accept-Encoding", "gzip"));
+        assertEquals(200, catalog.statusCode());
+        // A strong validator would make Tomcat skip compression for the response
+        String etag = catalog.headers().firstValue("ETag").orElseThrow();
+        assertTrue(etag.startsWith("W/\""), etag);
+        assertEquals("gzip", catalog.headers().firstValue("Content-Encoding").orElse(null));
+
+        HttpResponse<String> revalidated = send(nodeB, "GET", "/consumer/products?size=20", token, null,
+                Map.of("Accept-Encoding", "gzip", "If-None-Match", etag));
+        assertEquals(304, revalidated.statusCode());
+    }
+
+    private Product saveProduct(String farmerEmail) {
+        User farmer = nodeA.getBean(UserRepository.class).save(
+                new User(farmerEmail, farmerEmail, "not-used-by-this-test", Role.FARMER, "9999999999", "Bhubaneswar"));
+        Product product = new Product();
+        product.setFarmer(farmer);
+        product.setName("Tomatoes");
+        product.setCategory("Vegetables");
+        product.setPricePerKg(Money.ofMajor(40.0));
+        product.setAvailableQuantity(Quantity.ofKg(100.0));
+        product.setDescription("Tomatoes from " + farmerEmail);
+        return nodeA.getBean(ProductRepository.class).save(product);
+    }
+
+    // Issued by node A; node B has to find A's signing key to accept it
+    private String consumerToken(String email) {
+        nodeA.getBean(UserRepository.class).save(
+                new User(email, email, "not-used-by-this-test", Role.CONSUMER, "9999999999", "Bhubaneswar"));
+        return nodeA.getBean(JwtUtil.class).generateToken(email, "CONSUMER");
+    }
+
+    private void register(String email, String password) throws Exception {
+        Map<String, Object> user = Map.of("name", email, "email", email, "password", password,
+                "role", "CONSUMER", "phone", "9999999999", "address", "Bhubaneswar");
+        HttpResponse<String> response = send(nodeB, "POST", "/auth/register", null, user, Map.of());
+        assertEquals(200, response.statusCode(), response.body());
+    }
+
+    private static Map<String, Object> orderBody(Product product) {
+        return Map.of(
+                "items", List.of(Map.of("productId", product.getId(), "quantity", 2.0)),
+                "deliveryAddress", "Bhubaneswar");
+    }
+
+    private static HttpResponse<String> send(ConfigurableApplicationContext node, String method, String path,
+                                             String token, Object body, Map<String, String> headers) throws Exception {
+        int port = ((WebServerApplicationContext) node).getWebServer().getPort();
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api" + path))
+                .timeout(Duration.ofSeconds(30))
+                .method(method, body == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        if (body != null) {
+            builder.header("Content-Type", "application/json");
+        }
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        headers.forEach(builder::header);
+        return httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static JsonNode json(HttpResponse<String> response) throws Exception {
+        return objectMapper.readTree(response.body());
+    }
+
+    // Registered directly with each node rather than found by component scanning
+    static class StubMailConfig {
+        // Confirmation emails are rendered but never delivered
+        @Bean
+        JavaMailSender javaMailSender() {
+            return new JavaMailSenderImpl() {
+                @Override
+                public void send(MimeMessage mimeMessage) {
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.server.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.server.Models.Money;
+import com.server.Models.Product;
+import com.server.Models.Quantity;
+import com.server.Models.Role;
+import com.server.Models.User;
+import com.server.Repositories.UserRepository;
+import com.server.testsupport.EmbeddedMongo;
+import de.bwaldvogel.mongo.MongoServer;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BulkImportServiceTests {
+
+    private static final MongoServer mongoServer = EmbeddedMongo.create();
+    private static MongoTemplate mongoTemplate;
+
+    private BulkImportService service;
+    private User farmer;
+    private User otherFarmer;
+
+    @BeforeAll
+    static void startMongo() {
+        mongoServer.bind();
+        mongoTemplate = EmbeddedMongo.template(mongoServer, "bulk_import_tests");
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        mongoServer.shutdownNow();
+    }
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection(Product.class);
+        farmer = user("farmer@example.com");
+        otherFarmer = user("other@example.com");
+
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByEmail(farmer.getEmail())).thenReturn(Optional.of(farmer));
+
+        service = new BulkImportService();
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(service, "userRepository", userRepository);
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(service, "pricingService", mock(PricingService.class));
+        ReflectionTestUtils.setField(service, "productSearchService", mock(ProductSearchService.class));
+        ReflectionTestUtils.setField(service, "productSuggestService", mock(ProductSuggestService.class));
+        ReflectionTestUtils.setField(service, "versionStampService", mock(VersionStampService.class));
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+        ReflectionTestUtils.setField(service, "maxRows", 100);
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(farmer.getEmail(), null, List.of()));
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void csvQuotedFieldsAndMixedCreatesAndUpdates() throws Exception {
+        Product existing = product(farmer, "Tomato", 40.0, 10.0);
+        String csv = "id,name,category,pricePerKg,availableQuantity,description\n"
+                + ",Okra,Vegetables,55.5,20,\"Tender, hand-picked \"\"lady finger\"\"\"\n"
+                + existing.getId() + ",,,,7.25,\n"
+                + ",Brinjal,Vegetables,30,5,\n";
+
+        List<BulkImportService.RowResult> results = service.importProducts(stream(csv), "text/csv");
+
+        assertEquals(3, results.size());
+        assertEquals("CREATED", results.get(0).getStatus());
+        assertEquals("UPDATED", results.get(1).getStatus());
+        assertEquals("CREATED", results.get(2).getStatus());
+
+        Product okra = mongoTemplate.findById(results.get(0).getProductId(), Product.class);
+        assertEquals("Tender, hand-picked \"lady finger\"", okra.getDescription());
+        assertEquals(Money.ofMinor(5550), okra.getPricePerKg());
+
+        Product updated = mongoTemplate.findById(existing.getId(), Product.class);
+        assertEquals(Quantity.ofGrams(7250), updated.getAvailableQuantity());
+        assertEquals(Money.ofMinor(4000), updated.getPricePerKg());
+        assertEquals("Tomato", updated.getName());
+    }
+
+    @Test
+    void rowCapStopsReadingAndReportsRowsAlreadyWritten() throws Exception {
+        ReflectionTestUtils.setField(service, "maxRows", 3);
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 1; i <= 5; i++) {
+            ndjson.append("{\"name\":\"Item ").append(i)
+                    .append("\",\"category\":\"Fruits\",\"pricePerKg\":10,\"availableQuantity\":1}\n");
+        }
+
+        List<BulkImportService.RowResult> results = service.importProducts(stream(ndjson.toString()), "application/x-ndjson");
+
+        assertEquals(4, results.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals("CREATED", results.get(i).getStatus());
+        }
+        assertEquals(4, results.get(3).getRow());
+        assertEquals("FAILED", results.get(3).getStatus());
+        assertTrue(results.get(3).getError().contains("limit of 3 rows"));
+        assertEquals(3, mongoTemplate.count(new Query(), Product.class));
+    }
+
+    @Test
+    void rejectsUpdatesToAnotherFarmersProducts() throws Exception {
+        Product theirs = product(otherFarmer, "Mango", 120.0, 50.0);
+        Product mine = product(farmer, "Banana", 35.0, 12.0);
+        String ndjson = "{\"id\":\"" + theirs.getId() + "\",\"quantity\":0}\n"
+                + "{\"id\":\"" + mine.getId() + "\",\"quantity\":3}\n";
+
+        List<BulkImportService.RowResult> results = service.importProducts(stream(ndjson), "application/x-ndjson");
+
+        assertEquals("FAILED", results.get(0).getStatus());
+        assertEquals("Product not found or not owned by you", results.get(0).getError());
+        assertEquals("UPDATED", results.get(1).getStatus());
+        assertEquals(Quantity.ofKg(50.0), mongoTemplate.findById(theirs.getId(), Product.class).getAvailableQuantity());
+        assertEquals(Quantity.ofKg(3.0), mongoTemplate.findById(mine.getId(), Product.class).getAvailableQuantity());
+    }
+
+    @Test
+    void rowWithOnlyAnIdIsRejectedWithoutStoppingTheImport() throws Exception {
+        Product mine = product(farmer, "Carrot", 25.0, 8.0);
+        String ndjson = "{\"id\":\"" + mine.getId() + "\"}\n"
+                + "{\"id\":\"" + mine.getId() + "\",\"pricePerKg\":27.5}\n"
+                + "{\"name\":\"Beans\",\"category\":\"Vegetables\",\"pricePerKg\":60,\"availableQuantity\":4}\n";
+
+        List<BulkImportService.RowResult> results = service.importProducts(stream(ndjson), "application/x-ndjson");
+
+        assertEquals(3, results.size());
+        assertEquals("FAILED", results.get(0).getStatus());
+        assertEquals("Row has no fields to update", results.get(0).getError());
+        assertEquals("UPDATED", results.get(1).getStatus());
+        assertNull(results.get(1).getError());
+        assertEquals("CREATED", results.get(2).getStatus());
+        assertEquals(Money.ofMinor(2750), mongoTemplate.findById(mine.getId(), Product.class).getPricePerKg());
+    }
+
+    private static User user(String email) {
+        User user = new User();
+        user.setId(new ObjectId().toHexString());
+        user.setEmail(email);
+        user.setName(email);
+        user.setRole(Role.FARMER);
+        return user;
+    }
+
+    private static Product product(User owner, String name, double pricePerKg, double kg) {
+        Product product = new Product();
+        product.setId(new ObjectId().toHexString());
+        product.setFarmer(owner);
+        product.setName(name);
+        product.setCategory("Vegetables");
+        product.setPricePerKg(Money.ofMajor(pricePerKg));
+        product.setAvailableQuantity(Quantity.ofKg(kg));
+        return mongoTemplate.insert(product);
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,210 @@
+package com.server.services;
+
+import com.server.Models.Cart;
+import com.server.Models.CartLine;
+import com.server.Models.Money;
+import com.server.Models.Product;
+import com.server.Models.Quantity;
+import com.server.Models.Role;
+import com.server.Models.User;
+import com.server.Repositories.CartRepository;
+import com.server.Repositories.ProductRepository;
+import com.server.Repositories.UserRepository;
+import com.server.testsupport.EmbeddedMongo;
+import de.bwaldvogel.mongo.MongoServer;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CartServiceTests {
+
+    private static final MongoServer mongoServer = EmbeddedMongo.create();
+    private static MongoTemplate mongoTemplate;
+
+    private CartService service;
+    private PricingService pricingService;
+    private CartRepository cartRepository;
+
+    private User consumer;
+    private Product tomatoes;
+    private Product okra;
+
+    @BeforeAll
+    static void startMongo() {
+        mongoServer.bind();
+        mongoTemplate = EmbeddedMongo.template(mongoServer, "cart_tests");
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        mongoServer.shutdownNow();
+    }
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.getDb().drop();
+        consumer = user("consumer@example.com");
+        tomatoes = mongoTemplate.insert(product("Tomato", 40.0, 10.0));
+        okra = mongoTemplate.insert(product("Okra", 55.0, 5.0));
+
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByEmail(consumer.getEmail())).thenReturn(Optional.of(consumer));
+        // Price table misses: the product's own price, and the snapshot at checkout
+        pricingService = mock(PricingService.class);
+        when(pricingService.priceMinorFor(any(Product.class), anyLong()))
+                .thenAnswer(call -> ((Product) call.getArgument(0)).getPricePerKg().getMinorUnits());
+        when(pricingService.priceMinorFor(anyString(), anyLong(), anyLong())).thenAnswer(call -> call.getArgument(1));
+
+        cartRepository = EmbeddedMongo.repository(mongoTemplate, CartRepository.class);
+        service = new CartService();
+        ReflectionTestUtils.setField(service, "cartRepository", cartRepository);
+        ReflectionTestUtils.setField(service, "productRepository", EmbeddedMongo.repository(mongoTemplate, ProductRepository.class));
+        ReflectionTestUtils.setField(service, "userRepository", userRepository);
+        ReflectionTestUtils.setField(service, "pricingService", pricingService);
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(service, "maxLines", 100);
+        ReflectionTestUtils.setField(service, "stockRecheckMs", 600_000L);
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(consumer.getEmail(), null, List.of()));
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void editRacingAnotherDeviceRetriesOnTheLineItChanged() {
+        service.setQuantity(tomatoes.getId(), 1.0);
+        // The other device sets the line to 3 kg between this edit's read and its write
+        interleaveOnce(() -> service.setQuantity(tomatoes.getId(), 3.0));
+
+        Cart cart = service.addQuantity(tomatoes.getId(), 1.0);
+
+        CartLine line = cart.getLines().get(tomatoes.getId());
+        assertEquals(Quantity.ofKg(4.0), line.getQuantity());
+        assertEquals(Money.ofMajor(160.0), line.getLineTotal());
+        assertEquals(Money.ofMajor(160.0), cart.getTotalAmount());
+    }
+
+    @Test
+    void concurrentFirstEditsCreateOneCartAndKeepBothLines() {
+        // The other device creates the cart with the same product while this edit is upserting it
+        interleaveOnce(() -> service.addQuantity(tomatoes.getId(), 2.0));
+
+        service.addQuantity(tomatoes.getId(), 1.0);
+        Cart cart = service.addQuantity(okra.getId(), 0.5);
+
+        assertEquals(1, mongoTemplate.count(new Query(), Cart.class));
+        assertEquals(Quantity.ofKg(3.0), cart.getLines().get(tomatoes.getId()).getQuantity());
+        assertEquals(Quantity.ofKg(0.5), cart.getLines().get(okra.getId()).getQuantity());
+        // 3 kg at 40 plus 0.5 kg at 55
+        assertEquals(Money.ofMinor(14750), cart.getTotalAmount());
+        // Three writes landed; the upsert that lost left nothing behind
+        assertEquals(3L, cart.getVersion());
+    }
+
+    @Test
+    void removingALineTakesItsTotalOut() {
+        service.setQuantity(tomatoes.getId(), 2.0);
+        service.setQuantity(okra.getId(), 1.0);
+
+        Cart cart = service.removeLine(tomatoes.getId());
+
+        assertEquals(1, cart.getLines().size());
+        assertEquals(Money.ofMajor(55.0), cart.getTotalAmount());
+    }
+
+    @Test
+    void checkoutRepricesLinesAndRechecksOnlyStaleOnes() {
+        service.setQuantity(tomatoes.getId(), 2.0);
+        service.setQuantity(okra.getId(), 1.0);
+        // Okra's stock check is older than the recheck window
+        mongoTemplate.updateFirst(new Query(Criteria.where("id").is(consumer.getId())),
+                new Update().set("lines." + okra.getId() + ".verifiedAt", LocalDateTime.now().minusHours(1)), Cart.class);
+        // Tomatoes went up to 45 in the price table after they were put in the cart
+        when(pricingService.priceMinorFor(eq(tomatoes.getId()), anyLong(), anyLong())).thenReturn(4500L);
+        mongoTemplate.updateFirst(new Query(Criteria.where("id").is(okra.getId())),
+                new Update().set("availableQuantity", 4000L), Product.class);
+
+        Cart cart = service.prepareCheckout(consumer.getId());
+
+        assertEquals(Money.ofMajor(45.0), cart.getLines().get(tomatoes.getId()).getUnitPrice());
+        assertEquals(Money.ofMajor(90.0), cart.getLines().get(tomatoes.getId()).getLineTotal());
+        assertEquals(Money.ofMajor(145.0), cart.getTotalAmount());
+
+        CartLine storedOkra = cartRepository.findById(consumer.getId()).orElseThrow().getLines().get(okra.getId());
+        assertEquals(Quantity.ofKg(4.0), storedOkra.getAvailableQuantity());
+        assertTrue(storedOkra.getVerifiedAt().isAfter(LocalDateTime.now().minusMinutes(1)));
+        // The stored cart keeps its snapshot prices; checkout works on the repriced copy
+        assertEquals(Money.ofMajor(135.0), cartRepository.findById(consumer.getId()).orElseThrow().getTotalAmount());
+    }
+
+    @Test
+    void checkoutRefusesALineWhoseStockRanOut() {
+        service.setQuantity(okra.getId(), 3.0);
+        mongoTemplate.updateFirst(new Query(Criteria.where("id").is(consumer.getId())),
+                new Update().set("lines." + okra.getId() + ".verifiedAt", LocalDateTime.now().minusHours(1)), Cart.class);
+        mongoTemplate.updateFirst(new Query(Criteria.where("id").is(okra.getId())),
+                new Update().set("availableQuantity", 1000L), Product.class);
+
+        RuntimeException refused = assertThrows(RuntimeException.class, () -> service.prepareCheckout(consumer.getId()));
+        assertTrue(refused.getMessage().contains("Insufficient quantity"));
+    }
+
+    // Runs {@code otherDevice} once, from inside the next edit's product snapshot, i.e. after its cart read
+    private void interleaveOnce(Runnable otherDevice) {
+        AtomicBoolean done = new AtomicBoolean();
+        when(pricingService.priceMinorFor(any(Product.class), anyLong())).thenAnswer(call -> {
+            if (done.compareAndSet(false, true)) {
+                otherDevice.run();
+            }
+            return ((Product) call.getArgument(0)).getPricePerKg().getMinorUnits();
+        });
+    }
+
+    private static User user(String email) {
+        User user = new User();
+        user.setId(new ObjectId().toHexString());
+        user.setEmail(email);
+        user.setName(email);
+        user.setRole(Role.CONSUMER);
+        return user;
+    }
+
+    private static Product product(String name, double pricePerKg, double kg) {
+        Product product = new Product();
+        product.setId(new ObjectId().toHexString());
+        product.setName(name);
+        product.setCategory("Vegetables");
+        product.setPricePerKg(Money.ofMajor(pricePerKg));
+        product.setAvailableQuantity(Quantity.ofKg(kg));
+        return product;
+    }
+}
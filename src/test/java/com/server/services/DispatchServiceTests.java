@@ -0,0 +1,171 @@
+package com.server.services;
+
+import com.server.Models.DeliveryPartner;
+import com.server.Models.Money;
+import com.server.Models.Order;
+import com.server.Models.OrderStatus;
+import com.server.Models.Role;
+import com.server.Models.User;
+import com.server.Repositories.DeliveryPartnerRepository;
+import com.server.Repositories.OrderRepository;
+import com.server.Repositories.UserRepository;
+import com.server.testsupport.EmbeddedMongo;
+import de.bwaldvogel.mongo.MongoServer;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class DispatchServiceTests {
+
+    private static final MongoServer mongoServer = EmbeddedMongo.create();
+    private static MongoTemplate mongoTemplate;
+
+    private DeliveryPartner partner;
+
+    @BeforeAll
+    static void startMongo() {
+        mongoServer.bind();
+        mongoTemplate = EmbeddedMongo.template(mongoServer, "dispatch_tests");
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        mongoServer.shutdownNow();
+    }
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.getDb().drop();
+        User rider = mongoTemplate.insert(user("rider@example.com", Role.DELIVERY_PARTNER));
+
+        partner = new DeliveryPartner();
+        partner.setUser(rider);
+        partner.setCurrentLocationLat(20.2961);
+        partner.setCurrentLocationLng(85.8245);
+        partner.setLocation(new GeoJsonPoint(85.8245, 20.2961));
+        partner.setIsAvailable(true);
+        partner = mongoTemplate.insert(partner);
+    }
+
+    @Test
+    void partnerSeenAsFreeByTwoNodesIsOnlyGivenOneOrder() {
+        DispatchService nodeA = node();
+        DispatchService nodeB = node();
+        Order first = readyOrder(LocalDateTime.now().minusMinutes(2));
+        Order second = readyOrder(LocalDateTime.now().minusMinutes(1));
+
+        List<Map<String, Object>> assignedByA = nodeA.assignReadyOrders();
+        // Node B never heard that A took the partner, so its grid still offers them
+        List<Map<String, Object>> assignedByB = nodeB.assignReadyOrders();
+
+        assertEquals(1, assignedByA.size());
+        assertEquals(first.getId(), assignedByA.get(0).get("orderId"));
+        assertTrue(assignedByB.isEmpty());
+        assertNull(mongoTemplate.findById(second.getId(), Order.class).getDeliveryPartner());
+        assertFalse(mongoTemplate.findById(partner.getId(), DeliveryPartner.class).getIsAvailable());
+    }
+
+    @Test
+    void partnerCanOnlyBeClaimedOnce() {
+        DispatchService node = node();
+
+        assertTrue(node.claimPartner(partner.getId()));
+        assertFalse(node.claimPartner(partner.getId()));
+
+        node.markAvailable(partner.getId());
+        assertTrue(node.claimPartner(partner.getId()));
+    }
+
+    @Test
+    void concurrentFirstReportsShareOnePartnerDocument() throws Exception {
+        new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(DeliveryPartner.class).forEach(mongoTemplate.indexOps(DeliveryPartner.class)::createIndex);
+        User newcomer = mongoTemplate.insert(user("new@example.com", Role.DELIVERY_PARTNER));
+        DispatchService node = node();
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<DeliveryPartner>> created = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                created.add(pool.submit(() -> node.findOrCreatePartner(newcomer)));
+            }
+            for (Future<DeliveryPartner> result : created) {
+                assertEquals(created.get(0).get().getId(), result.get().getId());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        DeliveryPartner stored = EmbeddedMongo.repository(mongoTemplate, DeliveryPartnerRepository.class)
+                .findByUserId(newcomer.getId()).orElseThrow();
+        assertEquals(newcomer.getEmail(), stored.getUser().getEmail());
+        assertTrue(stored.getIsAvailable());
+        assertEquals(2, mongoTemplate.count(new Query(), DeliveryPartner.class));
+
+        // The index is what arbitrates a real race between nodes
+        DeliveryPartner second = new DeliveryPartner();
+        second.setUser(newcomer);
+        assertThrows(DuplicateKeyException.class, () -> mongoTemplate.insert(second));
+    }
+
+    private static DispatchService node() {
+        DispatchService service = new DispatchService();
+        ReflectionTestUtils.setField(service, "deliveryPartnerRepository",
+                EmbeddedMongo.repository(mongoTemplate, DeliveryPartnerRepository.class));
+        ReflectionTestUtils.setField(service, "orderRepository", EmbeddedMongo.repository(mongoTemplate, OrderRepository.class));
+        ReflectionTestUtils.setField(service, "userRepository", EmbeddedMongo.repository(mongoTemplate, UserRepository.class));
+        ReflectionTestUtils.setField(service, "orderSummaryService", mock(OrderSummaryService.class));
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(service, "cellDegrees", 0.01);
+        ReflectionTestUtils.setField(service, "maxDistanceKm", 15.0);
+        ReflectionTestUtils.setField(service, "batchSize", 500);
+        service.initGrid();
+        service.warmUp();
+        return service;
+    }
+
+    private static Order readyOrder(LocalDateTime placedAt) {
+        Order order = new Order();
+        order.setConsumer(mongoTemplate.insert(user(new ObjectId() + "@example.com", Role.CONSUMER)));
+        order.setStatus(OrderStatus.READY_FOR_PICKUP);
+        order.setOrderItems(new ArrayList<>());
+        order.setTotalAmount(Money.ofMajor(100.0));
+        order.setOrderDate(placedAt);
+        order.setPickupLocationLat(20.3000);
+        order.setPickupLocationLng(85.8300);
+        order.setRevision(1L);
+        return mongoTemplate.insert(order);
+    }
+
+    private static User user(String email, Role role) {
+        User user = new User();
+        user.setId(new ObjectId().toHexString());
+        user.setEmail(email);
+        user.setName(email);
+        user.setRole(role);
+        return user;
+    }
+}
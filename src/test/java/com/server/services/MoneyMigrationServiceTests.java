@@ -0,0 +1,130 @@
+package com.server.services;
+
+import com.mongodb.DBRef;
+import com.mongodb.client.MongoCollection;
+import com.server.Models.Money;
+import com.server.Models.Order;
+import com.server.Models.PriceSchedule;
+import com.server.Models.Product;
+import com.server.Models.Quantity;
+import com.server.testsupport.EmbeddedMongo;
+import de.bwaldvogel.mongo.MongoServer;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MoneyMigrationServiceTests {
+
+    private static final MongoServer mongoServer = EmbeddedMongo.create();
+    private static MongoTemplate mongoTemplate;
+
+    private MoneyMigrationService service;
+
+    @BeforeAll
+    static void startMongo() {
+        mongoServer.bind();
+        mongoTemplate = EmbeddedMongo.template(mongoServer, "money_migration_tests");
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        mongoServer.shutdownNow();
+    }
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.getDb().drop();
+        service = new MoneyMigrationService();
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+    }
+
+    @Test
+    void convertsLegacyDoublesWithTheSameRoundingAsTheReader() {
+        ObjectId legacy = new ObjectId();
+        ObjectId migrated = new ObjectId();
+        collection(Product.class).insertMany(List.of(
+                // 1.005 is 1.00499999... as a binary double; the reader still rounds it to 101 paise
+                new Document("_id", legacy).append("name", "Tomato").append("pricePerKg", 1.005).append("availableQuantity", 2.0005),
+                new Document("_id", migrated).append("name", "Okra").append("pricePerKg", 5000L).append("availableQuantity", 3000L)));
+
+        service.migrate();
+
+        Document tomato = collection(Product.class).find(new Document("_id", legacy)).first();
+        assertEquals(101L, tomato.get("pricePerKg"));
+        assertEquals(Money.ofMajor(1.005).getMinorUnits(), tomato.get("pricePerKg"));
+        assertEquals(2001L, tomato.get("availableQuantity"));
+        assertEquals(Quantity.ofKg(2.0005).getGrams(), tomato.get("availableQuantity"));
+        assertEquals("Tomato", tomato.getString("name"));
+
+        Document okra = collection(Product.class).find(new Document("_id", migrated)).first();
+        assertEquals(5000L, okra.get("pricePerKg"));
+        assertEquals(3000L, okra.get("availableQuantity"));
+    }
+
+    @Test
+    void convertsOrderLinesAndPriceSchedulesInPlace() {
+        ObjectId orderId = new ObjectId();
+        DBRef product = new DBRef("products", new ObjectId());
+        collection(Order.class).insertOne(new Document("_id", orderId)
+                .append("status", "DELIVERED")
+                .append("totalAmount", 136.49)
+                .append("orderItems", List.of(
+                        new Document("product", product).append("quantity", 2.5).append("price", 45.5)
+                                .append("productName", "Mango"),
+                        new Document("product", product).append("quantity", 250L).append("price", 2000L))));
+
+        ObjectId scheduleId = new ObjectId();
+        Date effectiveFrom = new Date(1_700_000_000_000L);
+        collection(PriceSchedule.class).insertOne(new Document("_id", scheduleId)
+                .append("farmerId", "farmer-1")
+                .append("basePrices", List.of(
+                        new Document("pricePerKg", 30.25).append("effectiveFrom", effectiveFrom),
+                        new Document("pricePerKg", 3100L).append("effectiveFrom", effectiveFrom))));
+
+        Map<String, Long> converted = service.migrate();
+
+        assertEquals(Map.of("products", 0L, "orders", 1L, "price_schedules", 1L), converted);
+
+        Document order = collection(Order.class).find(new Document("_id", orderId)).first();
+        assertEquals(13649L, order.get("totalAmount"));
+        List<Document> items = order.getList("orderItems", Document.class);
+        assertEquals(2500L, items.get(0).get("quantity"));
+        assertEquals(4550L, items.get(0).get("price"));
+        assertEquals("Mango", items.get(0).getString("productName"));
+        assertEquals(product, items.get(0).get("product"));
+        assertEquals(250L, items.get(1).get("quantity"));
+        assertEquals(2000L, items.get(1).get("price"));
+
+        Document schedule = collection(PriceSchedule.class).find(new Document("_id", scheduleId)).first();
+        List<Document> points = schedule.getList("basePrices", Document.class);
+        assertEquals(3025L, points.get(0).get("pricePerKg"));
+        assertEquals(effectiveFrom, points.get(0).getDate("effectiveFrom"));
+        assertEquals(3100L, points.get(1).get("pricePerKg"));
+    }
+
+    @Test
+    void secondRunChangesNothing() {
+        collection(Product.class).insertOne(new Document("_id", new ObjectId())
+                .append("pricePerKg", 42.5).append("availableQuantity", 10.0));
+
+        service.migrate();
+        Map<String, Long> again = service.migrate();
+
+        assertEquals(Map.of("products", 0L, "orders", 0L, "price_schedules", 0L), again);
+    }
+
+    private static MongoCollection<Document> collection(Class<?> entity) {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(entity));
+    }
+}
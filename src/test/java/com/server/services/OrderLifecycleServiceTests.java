@@ -0,0 +1,244 @@
+package com.server.services;
+
+import com.server.Models.Money;
+import com.server.Models.Order;
+import com.server.Models.OrderItem;
+import com.server.Models.OrderStatus;
+import com.server.Models.Product;
+import com.server.Models.Quantity;
+import com.server.Models.Role;
+import com.server.Models.User;
+import com.server.Repositories.DeliveryPartnerRepository;
+import com.server.Repositories.OrderRepository;
+import com.server.Repositories.ProductRepository;
+import com.server.Repositories.UserRepository;
+import com.server.testsupport.EmbeddedMongo;
+import de.bwaldvogel.mongo.MongoServer;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class OrderLifecycleServiceTests {
+
+    private static final MongoServer mongoServer = EmbeddedMongo.create();
+    private static MongoTemplate mongoTemplate;
+
+    private OrderLifecycleService service;
+    private OrderRepository orderRepository;
+    private final List<OrderEventPublisher.OrderStatusEvent> events = new ArrayList<>();
+
+    private User consumer;
+    private User farmerA;
+    private User farmerB;
+    private Product tomatoes;
+    private Product mangoes;
+
+    @BeforeAll
+    static void startMongo() {
+        mongoServer.bind();
+        mongoTemplate = EmbeddedMongo.template(mongoServer, "order_lifecycle_tests");
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        mongoServer.shutdownNow();
+    }
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.getDb().drop();
+        consumer = mongoTemplate.insert(user("consumer@example.com", Role.CONSUMER));
+        farmerA = mongoTemplate.insert(user("a@example.com", Role.FARMER));
+        farmerB = mongoTemplate.insert(user("b@example.com", Role.FARMER));
+        tomatoes = mongoTemplate.insert(product(farmerA, "Tomato", 10.0));
+        mangoes = mongoTemplate.insert(product(farmerB, "Mango", 20.0));
+
+        orderRepository = EmbeddedMongo.repository(mongoTemplate, OrderRepository.class);
+        InMemoryOrderEventPublisher publisher = new InMemoryOrderEventPublisher();
+        publisher.subscribe(events::add);
+
+        service = new OrderLifecycleService();
+        ReflectionTestUtils.setField(service, "orderRepository", orderRepository);
+        ReflectionTestUtils.setField(service, "productRepository", EmbeddedMongo.repository(mongoTemplate, ProductRepository.class));
+        ReflectionTestUtils.setField(service, "userRepository", EmbeddedMongo.repository(mongoTemplate, UserRepository.class));
+        ReflectionTestUtils.setField(service, "deliveryPartnerRepository",
+                EmbeddedMongo.repository(mongoTemplate, DeliveryPartnerRepository.class));
+        ReflectionTestUtils.setField(service, "dispatchService", mock(DispatchService.class));
+        ReflectionTestUtils.setField(service, "orderEventPublisher", publisher);
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(service, "versionStampService", mock(VersionStampService.class));
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void transitionPushesHistoryBumpsRevisionAndPublishes() {
+        Order order = order(OrderStatus.CONFIRMED, tomatoes);
+
+        service.transition(order, OrderStatus.PREPARING, farmerA, new Update());
+
+        Order stored = orderRepository.findById(order.getId()).orElseThrow();
+        assertEquals(OrderStatus.PREPARING, stored.getStatus());
+        assertEquals(2L, stored.getRevision());
+        assertEquals(1, stored.getStatusHistory().size());
+        assertEquals(OrderStatus.CONFIRMED, stored.getStatusHistory().get(0).getFromStatus());
+        assertEquals(OrderStatus.PREPARING, stored.getStatusHistory().get(0).getToStatus());
+        assertEquals(farmerA.getId(), stored.getStatusHistory().get(0).getActorId());
+
+        assertEquals(1, events.size());
+        assertEquals(OrderStatus.CONFIRMED, events.get(0).getFromStatus());
+        assertEquals(OrderStatus.PREPARING, events.get(0).getToStatus());
+        assertEquals(consumer.getId(), events.get(0).getConsumerId());
+    }
+
+    @Test
+    void staleTransitionLosesToTheOneThatCommittedFirst() {
+        Order order = order(OrderStatus.CONFIRMED, tomatoes);
+        Order first = orderRepository.findById(order.getId()).orElseThrow();
+        Order second = orderRepository.findById(order.getId()).orElseThrow();
+
+        service.transition(first, OrderStatus.PREPARING, farmerA, new Update());
+        RuntimeException lost = assertThrows(RuntimeException.class,
+                () -> service.transition(second, OrderStatus.CANCELLED, null, new Update()));
+        assertTrue(lost.getMessage().contains("no longer CONFIRMED"));
+
+        Order stored = orderRepository.findById(order.getId()).orElseThrow();
+        assertEquals(OrderStatus.PREPARING, stored.getStatus());
+        assertEquals(1, stored.getStatusHistory().size());
+        assertEquals(1, events.size());
+    }
+
+    @Test
+    void illegalMoveIsRejectedWithoutAWrite() {
+        Order order = order(OrderStatus.CONFIRMED, tomatoes);
+
+        assertThrows(RuntimeException.class, () -> service.transition(order, OrderStatus.DELIVERED, null, new Update()));
+
+        Order stored = orderRepository.findById(order.getId()).orElseThrow();
+        assertEquals(OrderStatus.CONFIRMED, stored.getStatus());
+        assertEquals(1L, stored.getRevision());
+    }
+
+    @Test
+    void farmerCancellingTheirOwnOrderPutsStockBack() {
+        Order order = order(OrderStatus.CONFIRMED, tomatoes);
+        signIn(farmerA);
+
+        service.advance(order.getId(), OrderStatus.CANCELLED);
+
+        assertEquals(OrderStatus.CANCELLED, orderRepository.findById(order.getId()).orElseThrow().getStatus());
+        // 10 kg listed, the order's 2 kg returned
+        assertEquals(Quantity.ofKg(12.0), mongoTemplate.findById(tomatoes.getId(), Product.class).getAvailableQuantity());
+    }
+
+    @Test
+    void farmerCannotTouchAnotherFarmersOrder() {
+        Order order = order(OrderStatus.CONFIRMED, mangoes);
+        signIn(farmerA);
+
+        assertThrows(RuntimeException.class, () -> service.advance(order.getId(), OrderStatus.PREPARING));
+        assertEquals(OrderStatus.CONFIRMED, orderRepository.findById(order.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void sharedOrderCannotBeCancelledByOneFarmer() {
+        Order order = order(OrderStatus.CONFIRMED, tomatoes, mangoes);
+        signIn(farmerA);
+
+        RuntimeException rejected = assertThrows(RuntimeException.class,
+                () -> service.advance(order.getId(), OrderStatus.CANCELLED));
+        assertTrue(rejected.getMessage().contains("other farmers"));
+        assertEquals(OrderStatus.CONFIRMED, orderRepository.findById(order.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void sharedOrderMovesOnlyOnceEveryFarmerHasGotThere() {
+        Order order = order(OrderStatus.CONFIRMED, tomatoes, mangoes);
+
+        signIn(farmerA);
+        assertEquals(OrderStatus.CONFIRMED, service.advance(order.getId(), OrderStatus.PREPARING).getStatus());
+
+        signIn(farmerB);
+        assertEquals(OrderStatus.PREPARING, service.advance(order.getId(), OrderStatus.PREPARING).getStatus());
+
+        signIn(farmerA);
+        assertEquals(OrderStatus.PREPARING, service.advance(order.getId(), OrderStatus.READY_FOR_PICKUP).getStatus());
+        // Own lines cannot go backwards or repeat a step
+        assertThrows(RuntimeException.class, () -> service.advance(order.getId(), OrderStatus.PREPARING));
+
+        signIn(farmerB);
+        assertEquals(OrderStatus.READY_FOR_PICKUP, service.advance(order.getId(), OrderStatus.READY_FOR_PICKUP).getStatus());
+
+        Order stored = orderRepository.findById(order.getId()).orElseThrow();
+        assertEquals(OrderStatus.READY_FOR_PICKUP, stored.getStatus());
+        assertEquals(2, stored.getStatusHistory().size());
+        assertEquals(OrderStatus.READY_FOR_PICKUP, stored.getFarmerProgress().get(farmerA.getId()));
+        assertEquals(OrderStatus.READY_FOR_PICKUP, stored.getFarmerProgress().get(farmerB.getId()));
+        assertEquals(2, events.size());
+    }
+
+    private void signIn(User user) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user.getEmail(), null, List.of()));
+    }
+
+    private Order order(OrderStatus status, Product... products) {
+        List<OrderItem> items = new ArrayList<>();
+        for (Product product : products) {
+            OrderItem item = new OrderItem();
+            item.setProduct(product);
+            item.setQuantity(Quantity.ofKg(2.0));
+            item.setPrice(product.getPricePerKg());
+            item.setProductName(product.getName());
+            items.add(item);
+        }
+        Order order = new Order();
+        order.setConsumer(consumer);
+        order.setStatus(status);
+        order.setOrderItems(items);
+        order.setTotalAmount(Money.ofMajor(100.0));
+        order.setOrderDate(LocalDateTime.now());
+        order.setRevision(1L);
+        return orderRepository.save(order);
+    }
+
+    private static User user(String email, Role role) {
+        User user = new User();
+        user.setId(new ObjectId().toHexString());
+        user.setEmail(email);
+        user.setName(email);
+        user.setRole(role);
+        return user;
+    }
+
+    private static Product product(User farmer, String name, double kg) {
+        Product product = new Product();
+        product.setId(new ObjectId().toHexString());
+        product.setFarmer(farmer);
+        product.setName(name);
+        product.setCategory("Fruits");
+        product.setPricePerKg(Money.ofMajor(50.0));
+        product.setAvailableQuantity(Quantity.ofKg(kg));
+        return product;
+    }
+}
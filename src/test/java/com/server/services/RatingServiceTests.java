@@ -0,0 +1,246 @@
+package com.server.services;
+
+import com.server.Models.Money;
+import com.server.Models.Order;
+import com.server.Models.OrderItem;
+import com.server.Models.OrderStatus;
+import com.server.Models.Product;
+import com.server.Models.Quantity;
+import com.server.Models.Rating;
+import com.server.Models.Role;
+import com.server.Models.User;
+import com.server.Repositories.OrderRepository;
+import com.server.Repositories.ProductRepository;
+import com.server.Repositories.RatingRepository;
+import com.server.Repositories.RatingScorePipeline;
+import com.server.Repositories.UserRepository;
+import com.server.testsupport.EmbeddedMongo;
+import de.bwaldvogel.mongo.MongoServer;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RatingServiceTests {
+
+    private static final MongoServer mongoServer = EmbeddedMongo.create();
+    private static MongoTemplate mongoTemplate;
+
+    private RatingService service;
+    // Pipeline updates are checked separately below; the test store cannot run them as updates
+    private ProductRepository productRepository;
+    private UserRepository userRepository;
+
+    private User consumer;
+    private User farmer;
+    private Product tomatoes;
+    private Product okra;
+
+    @BeforeAll
+    static void startMongo() {
+        mongoServer.bind();
+        mongoTemplate = EmbeddedMongo.template(mongoServer, "rating_tests");
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        mongoServer.shutdownNow();
+    }
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.getDb().drop();
+        new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(Rating.class).forEach(mongoTemplate.indexOps(Rating.class)::createIndex);
+
+        consumer = mongoTemplate.insert(user("consumer@example.com", Role.CONSUMER));
+        farmer = mongoTemplate.insert(user("farmer@example.com", Role.FARMER));
+        tomatoes = mongoTemplate.insert(product("Tomato"));
+        okra = mongoTemplate.insert(product("Okra"));
+
+        productRepository = mock(ProductRepository.class);
+        userRepository = mock(UserRepository.class);
+        when(userRepository.findByEmail(consumer.getEmail())).thenReturn(Optional.of(consumer));
+        User stranger = user("stranger@example.com", Role.CONSUMER);
+        when(userRepository.findByEmail(stranger.getEmail())).thenReturn(Optional.of(stranger));
+
+        service = new RatingService();
+        ReflectionTestUtils.setField(service, "ratingRepository", EmbeddedMongo.repository(mongoTemplate, RatingRepository.class));
+        ReflectionTestUtils.setField(service, "orderRepository", EmbeddedMongo.repository(mongoTemplate, OrderRepository.class));
+        ReflectionTestUtils.setField(service, "productRepository", productRepository);
+        ReflectionTestUtils.setField(service, "userRepository", userRepository);
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(service, "versionStampService", mock(VersionStampService.class));
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void concurrentRatingsOfOneOrderIncrementScoresOnce() throws Exception {
+        Order order = order(OrderStatus.DELIVERED);
+        int attempts = 6;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(attempts);
+        List<Future<Rating>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < attempts; i++) {
+                int stars = i % 5 + 1;
+                results.add(pool.submit(() -> {
+                    signIn(consumer);
+                    start.await();
+                    return service.rateOrder(order.getId(), stars, null);
+                }));
+            }
+            start.countDown();
+
+            int accepted = 0;
+            for (Future<Rating> result : results) {
+                try {
+                    result.get();
+                    accepted++;
+                } catch (Exception e) {
+                    assertTrue(e.getCause().getMessage().contains("already rated"));
+                }
+            }
+            assertEquals(1, accepted);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Rating stored = mongoTemplate.findOne(new Query(), Rating.class);
+        assertEquals(1, mongoTemplate.count(new Query(), Rating.class));
+        assertEquals(List.of(tomatoes.getId(), okra.getId()), stored.getProductIds());
+        verify(productRepository, times(1)).addRating(Set.of(tomatoes.getId(), okra.getId()), stored.getRating());
+        verify(userRepository, times(1)).addRating(Set.of(farmer.getId()), stored.getRating());
+    }
+
+    @Test
+    void onlyTheConsumerOfADeliveredOrderCanRateIt() {
+        Order pending = order(OrderStatus.IN_TRANSIT);
+        Order delivered = order(OrderStatus.DELIVERED);
+
+        signIn(consumer);
+        assertThrows(RuntimeException.class, () -> service.rateOrder(pending.getId(), 5, null));
+        signIn(user("stranger@example.com", Role.CONSUMER));
+        assertThrows(RuntimeException.class, () -> service.rateOrder(delivered.getId(), 5, null));
+
+        assertEquals(0, mongoTemplate.count(new Query(), Rating.class));
+        verify(productRepository, never()).addRating(any(), anyInt());
+    }
+
+    @Test
+    void scorePipelineFoldsARatingIntoSumCountAndAverage() {
+        mongoTemplate.getCollection("scores").insertMany(List.of(
+                new Document("_id", "unrated"),
+                new Document("_id", "rated").append("ratingSum", 7L).append("ratingCount", 2)));
+
+        List<Document> scored = new ArrayList<>();
+        mongoTemplate.getCollection("scores").aggregate(List.of(
+                Document.parse(RatingScorePipeline.ADD_TO_TOTALS.replace("?1", "4")),
+                Document.parse(RatingScorePipeline.RECOMPUTE_AVERAGE),
+                Document.parse("{ '$sort': { '_id': -1 } }"))).into(scored);
+
+        assertEquals("unrated", scored.get(0).get("_id"));
+        assertEquals(4L, ((Number) scored.get(0).get("ratingSum")).longValue());
+        assertEquals(1, ((Number) scored.get(0).get("ratingCount")).intValue());
+        assertEquals(4.0, ((Number) scored.get(0).get("averageRating")).doubleValue());
+
+        assertEquals(11L, ((Number) scored.get(1).get("ratingSum")).longValue());
+        assertEquals(3, ((Number) scored.get(1).get("ratingCount")).intValue());
+        assertEquals(11.0 / 3, ((Number) scored.get(1).get("averageRating")).doubleValue(), 1e-9);
+    }
+
+    @Test
+    void recomputeRebuildsScoresFromRatings() {
+        signIn(consumer);
+        service.rateOrder(order(OrderStatus.DELIVERED).getId(), 5, null);
+        service.rateOrder(order(OrderStatus.DELIVERED).getId(), 2, "Bruised");
+
+        service.recomputeScores();
+
+        Product rebuilt = mongoTemplate.findById(tomatoes.getId(), Product.class);
+        assertEquals(7L, rebuilt.getRatingSum());
+        assertEquals(2, rebuilt.getRatingCount());
+        assertEquals(3.5, rebuilt.getAverageRating());
+        User rebuiltFarmer = mongoTemplate.findById(farmer.getId(), User.class);
+        assertEquals(7L, rebuiltFarmer.getRatingSum());
+        assertEquals(3.5, rebuiltFarmer.getAverageRating());
+    }
+
+    private void signIn(User user) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user.getEmail(), null, List.of()));
+    }
+
+    private Order order(OrderStatus status) {
+        List<OrderItem> items = new ArrayList<>();
+        for (Product product : List.of(tomatoes, okra)) {
+            OrderItem item = new OrderItem();
+            item.setProduct(product);
+            item.setQuantity(Quantity.ofKg(1.0));
+            item.setPrice(product.getPricePerKg());
+            items.add(item);
+        }
+        Order order = new Order();
+        order.setConsumer(consumer);
+        order.setStatus(status);
+        order.setOrderItems(items);
+        order.setTotalAmount(Money.ofMajor(80.0));
+        order.setOrderDate(LocalDateTime.now());
+        order.setRevision(1L);
+        return mongoTemplate.insert(order);
+    }
+
+    private Product product(String name) {
+        Product product = new Product();
+        product.setId(new ObjectId().toHexString());
+        product.setFarmer(farmer);
+        product.setName(name);
+        product.setCategory("Vegetables");
+        product.setPricePerKg(Money.ofMajor(40.0));
+        product.setAvailableQuantity(Quantity.ofKg(10.0));
+        return product;
+    }
+
+    private static User user(String email, Role role) {
+        User user = new User();
+        user.setId(new ObjectId().toHexString());
+        user.setEmail(email);
+        user.setName(email);
+        user.setRole(role);
+        return user;
+    }
+}
@@ -0,0 +1,106 @@
+package com.server.services;
+
+import com.server.Models.RevokedSession;
+import com.server.testsupport.EmbeddedMongo;
+import com.server.utils.BloomFilter;
+import de.bwaldvogel.mongo.MongoServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenRevocationServiceTests {
+
+    private static final MongoServer mongoServer = EmbeddedMongo.create();
+    private static MongoTemplate mongoTemplate;
+
+    @BeforeAll
+    static void startMongo() {
+        mongoServer.bind();
+        mongoTemplate = EmbeddedMongo.template(mongoServer, "revocation_tests");
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        mongoServer.shutdownNow();
+    }
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.getDb().drop();
+    }
+
+    @Test
+    void revocationOnOneNodeReachesTheOtherOnItsNextSync() {
+        TokenRevocationService nodeA = node(900_000L, 1000);
+        TokenRevocationService nodeB = node(900_000L, 1000);
+
+        nodeA.revoke("session-1");
+
+        assertTrue(nodeA.isRevoked("session-1"));
+        assertFalse(nodeB.isRevoked("session-1"));
+        nodeB.sync();
+        assertTrue(nodeB.isRevoked("session-1"));
+        assertFalse(nodeB.isRevoked("session-2"));
+        assertEquals(1, mongoTemplate.count(new Query(), RevokedSession.class));
+    }
+
+    @Test
+    void syncRebuildsTheFilterWithoutExpiredSessions() throws Exception {
+        // Access tokens live 200 ms, so a revocation only has to be remembered that long
+        TokenRevocationService node = node(200L, 1000);
+        node.revoke("expired");
+        Thread.sleep(300);
+        node.revoke("live");
+        BloomFilter before = bloom(node);
+
+        node.sync();
+
+        BloomFilter after = bloom(node);
+        assertNotSame(before, after);
+        assertFalse(after.mightContain("expired"));
+        assertTrue(after.mightContain("live"));
+        assertFalse(node.isRevoked("expired"));
+        assertTrue(node.isRevoked("live"));
+        assertEquals(1, node.stats().get("revokedSessions"));
+    }
+
+    @Test
+    void filterGrowsWhenRevocationsOutnumberItsCapacity() {
+        TokenRevocationService node = node(900_000L, 8);
+        long bitsBefore = (Long) node.stats().get("bloomBits");
+        for (int i = 0; i < 20; i++) {
+            node.revoke("session-" + i);
+        }
+
+        node.sync();
+
+        assertTrue((Long) node.stats().get("bloomBits") > bitsBefore);
+        assertEquals(40, ReflectionTestUtils.getField(node, "expectedEntries"));
+        for (int i = 0; i < 20; i++) {
+            assertTrue(node.isRevoked("session-" + i));
+        }
+        assertFalse(node.isRevoked("session-20"));
+    }
+
+    private static TokenRevocationService node(long accessTokenMs, int expectedEntries) {
+        TokenRevocationService service = new TokenRevocationService();
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(service, "accessTokenMs", accessTokenMs);
+        ReflectionTestUtils.setField(service, "expectedEntries", expectedEntries);
+        service.init();
+        return service;
+    }
+
+    private static BloomFilter bloom(TokenRevocationService service) {
+        return (BloomFilter) ReflectionTestUtils.getField(service, "bloom");
+    }
+}
@@ -0,0 +1,166 @@
+package com.server.services;
+
+import com.server.Models.RefreshToken;
+import com.server.Models.Role;
+import com.server.Models.User;
+import com.server.Repositories.UserRepository;
+import com.server.testsupport.EmbeddedMongo;
+import com.server.utils.JwtUtil;
+import de.bwaldvogel.mongo.MongoServer;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenServiceTests {
+
+    private static final MongoServer mongoServer = EmbeddedMongo.create();
+    private static MongoTemplate mongoTemplate;
+
+    private TokenService service;
+    private TokenRevocationService revocations;
+    private User user;
+
+    @BeforeAll
+    static void startMongo() {
+        mongoServer.bind();
+        mongoTemplate = EmbeddedMongo.template(mongoServer, "token_tests");
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        mongoServer.shutdownNow();
+    }
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.getDb().drop();
+        user = new User();
+        user.setId(new ObjectId().toHexString());
+        user.setEmail("consumer@example.com");
+        user.setRole(Role.CONSUMER);
+
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        // The access token carries only the session id here, which is all these tests look at
+        JwtUtil jwtUtil = mock(JwtUtil.class);
+        when(jwtUtil.generateToken(anyString(), anyString(), anyString())).thenAnswer(call -> call.getArgument(2));
+
+        revocations = new TokenRevocationService();
+        ReflectionTestUtils.setField(revocations, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(revocations, "accessTokenMs", 900_000L);
+        ReflectionTestUtils.setField(revocations, "expectedEntries", 1000);
+        revocations.init();
+
+        service = new TokenService();
+        ReflectionTestUtils.setField(service, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(service, "userRepository", userRepository);
+        ReflectionTestUtils.setField(service, "tokenRevocationService", revocations);
+        ReflectionTestUtils.setField(service, "refreshExpirationMs", 2_592_000_000L);
+        ReflectionTestUtils.setField(service, "reuseGraceMs", 10_000L);
+    }
+
+    @Test
+    void refreshRotatesTheTokenWithinTheSameSession() {
+        TokenService.Tokens signedIn = service.issue(user);
+
+        TokenService.Tokens refreshed = service.refresh(signedIn.getRefreshToken());
+
+        assertNotEquals(signedIn.getRefreshToken(), refreshed.getRefreshToken());
+        assertEquals(signedIn.getAccessToken(), refreshed.getAccessToken());
+        // Only hashes are stored
+        assertEquals(2, mongoTemplate.count(new Query(), RefreshToken.class));
+        assertTrue(mongoTemplate.findAll(RefreshToken.class).stream()
+                .noneMatch(stored -> stored.getId().equals(refreshed.getRefreshToken())));
+        assertNotNull(service.refresh(refreshed.getRefreshToken()).getRefreshToken());
+    }
+
+    @Test
+    void reusingARotatedTokenRevokesTheWholeSession() {
+        TokenService.Tokens signedIn = service.issue(user);
+        TokenService.Tokens refreshed = service.refresh(signedIn.getRefreshToken());
+        // The old token was rotated a minute ago, well past the grace window
+        mongoTemplate.updateFirst(new Query(Criteria.where("usedAt").ne(null)),
+                new Update().set("usedAt", LocalDateTime.now().minusMinutes(1)), RefreshToken.class);
+
+        assertThrows(RuntimeException.class, () -> service.refresh(signedIn.getRefreshToken()));
+
+        String session = signedIn.getAccessToken();
+        assertTrue(revocations.isRevoked(session));
+        assertTrue(mongoTemplate.findAll(RefreshToken.class).stream().allMatch(RefreshToken::isRevoked));
+        assertThrows(RuntimeException.class, () -> service.refresh(refreshed.getRefreshToken()));
+    }
+
+    @Test
+    void tabsRefreshingTogetherWithinTheGraceWindowKeepTheSession() throws Exception {
+        TokenService.Tokens signedIn = service.issue(user);
+        int tabs = 4;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(tabs);
+        List<Future<TokenService.Tokens>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < tabs; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return service.refresh(signedIn.getRefreshToken());
+                }));
+            }
+            start.countDown();
+
+            List<TokenService.Tokens> winners = new ArrayList<>();
+            for (Future<TokenService.Tokens> result : results) {
+                try {
+                    winners.add(result.get());
+                } catch (Exception e) {
+                    assertEquals("Invalid or expired refresh token", e.getCause().getMessage());
+                }
+            }
+            assertEquals(1, winners.size());
+
+            assertFalse(revocations.isRevoked(signedIn.getAccessToken()));
+            assertNotNull(service.refresh(winners.get(0).getRefreshToken()));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void logoutRevokesTheSessionAndIgnoresUnknownTokens() {
+        TokenService.Tokens signedIn = service.issue(user);
+        TokenService.Tokens other = service.issue(user);
+
+        service.logout("not-a-token");
+        service.logout(signedIn.getRefreshToken());
+
+        assertTrue(revocations.isRevoked(signedIn.getAccessToken()));
+        assertFalse(revocations.isRevoked(other.getAccessToken()));
+        assertThrows(RuntimeException.class, () -> service.refresh(signedIn.getRefreshToken()));
+        service.refresh(other.getRefreshToken());
+    }
+}
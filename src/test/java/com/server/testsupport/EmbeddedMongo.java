@@ -0,0 +1,70 @@
+package com.server.testsupport;
+
+import com.server.config.MongoConfig;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.MongoVersion;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+/**
+ * In-process MongoDB for tests that boot the application or drive a service directly.
+ *
+ * mongo-java-server announces itself as MongoDB 3.6 (wire version 6), which the 5.x driver refuses
+ * to talk to; it speaks the protocol the driver needs, so it is told to report 4.2 instead.
+ */
+public final class EmbeddedMongo {
+
+    private static final MongoVersion MONGO_4_2 = new MongoVersion() {
+        @Override
+        public List<Integer> getVersionArray() {
+            return List.of(4, 2, 0);
+        }
+
+        @Override
+        public int getWireVersion() {
+            return 8;
+        }
+    };
+
+    private EmbeddedMongo() {
+    }
+
+    public static MongoServer create() {
+        return new MongoServer(new MemoryBackend().version(MONGO_4_2));
+    }
+
+    /**
+     * A template on {@code database} of a started server, mapping Money and Quantity the way the
+     * application does, for service tests that run without a Spring context.
+     */
+    public static MongoTemplate template(MongoServer server, String database) {
+        InetSocketAddress address = server.getLocalAddress();
+        MongoDatabaseFactory factory = new SimpleMongoClientDatabaseFactory(
+                "mongodb://" + address.getHostString() + ":" + address.getPort() + "/" + database);
+
+        MongoCustomConversions conversions = new MongoConfig().mongoCustomConversions();
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+
+        MappingMongoConverter converter = new MappingMongoConverter(new DefaultDbRefResolver(factory), mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return new MongoTemplate(factory, converter);
+    }
+
+    // A Spring Data repository on that template, derived and annotated queries included
+    public static <T> T repository(MongoTemplate template, Class<T> repositoryInterface) {
+        return new MongoRepositoryFactory(template).getRepository(repositoryInterface);
+    }
+}
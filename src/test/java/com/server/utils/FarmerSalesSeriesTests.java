@@ -0,0 +1,52 @@
+package com.server.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FarmerSalesSeriesTests {
+
+    @Test
+    void dailyUnitsLineUpWithDays() {
+        FarmerSalesSeries series = new FarmerSalesSeries(7);
+        series.add("p1", "Tomato", 100, 2, 40);
+        series.add("p1", "Tomato", 100, 1, 20);
+        series.add("p2", "Onion", 102, 5, 150);
+
+        double[][] units = series.unitsPerDay(100, 102);
+        assertEquals(2, units.length);
+        assertArrayEquals(new double[]{3, 0, 0}, units[0]);
+        assertArrayEquals(new double[]{0, 0, 5}, units[1]);
+    }
+
+    @Test
+    void oldDaysFallOutOfTheWindow() {
+        FarmerSalesSeries series = new FarmerSalesSeries(7);
+        series.add("p1", "Tomato", 100, 4, 80);
+        // Day 107 reuses day 100's slot
+        assertTrue(series.add("p1", "Tomato", 107, 1, 20));
+        assertFalse(series.add("p1", "Tomato", 100, 1, 20));
+
+        assertArrayEquals(new double[]{0}, series.unitsPerDay(100, 100)[0]);
+        assertEquals(1, series.top(101, 107, 5).get(0).getUnits());
+    }
+
+    @Test
+    void topRanksByUnitsAndGrowsPastInitialCapacity() {
+        FarmerSalesSeries series = new FarmerSalesSeries(7);
+        for (int product = 0; product < 20; product++) {
+            series.add("p" + product, "Product " + product, 50, product, product * 10.0);
+        }
+        series.add("p3", "Product 3", 50, -3, -30);
+
+        List<FarmerSalesSeries.ProductTotal> top = series.top(44, 50, 3);
+        assertEquals(List.of("p19", "p18", "p17"), top.stream().map(FarmerSalesSeries.ProductTotal::getProductId).toList());
+        assertEquals(190.0, top.get(0).getRevenue());
+        assertEquals(18, series.top(44, 50, 50).size(), "products with no net sales are left out");
+    }
+}
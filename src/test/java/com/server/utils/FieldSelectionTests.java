@@ -0,0 +1,34 @@
+package com.server.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FieldSelectionTests {
+
+    private static final List<String> ALLOWED = List.of("id", "name", "pricePerKg", "imageUrl");
+
+    @Test
+    void parsesTrimmedDistinctFields() {
+        assertEquals(List.of("name", "pricePerKg"),
+                List.copyOf(FieldSelection.parse(" name, pricePerKg,,name ", ALLOWED)));
+    }
+
+    @Test
+    void blankMeansEveryField() {
+        assertNull(FieldSelection.parse(null, ALLOWED));
+        assertNull(FieldSelection.parse("  ", ALLOWED));
+        assertNull(FieldSelection.parse(",", ALLOWED));
+    }
+
+    @Test
+    void rejectsUnknownFields() {
+        assertThrows(IllegalArgumentException.class, () -> FieldSelection.parse("name,password", ALLOWED));
+        assertEquals(Set.of("imageUrl"), FieldSelection.parse("imageUrl", ALLOWED));
+    }
+}
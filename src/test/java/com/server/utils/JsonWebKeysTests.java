@@ -0,0 +1,40 @@
+package com.server.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.interfaces.ECPublicKey;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JsonWebKeysTests {
+
+    @Test
+    void es256KeysBecomeP256JwksWithFixedWidthCoordinates() {
+        KeyPair pair = JsonWebKeys.generate(JsonWebKeys.ES256);
+        Map<String, Object> jwk = JsonWebKeys.publicJwk("k1", JsonWebKeys.ES256, pair.getPublic());
+
+        assertEquals("EC", jwk.get("kty"));
+        assertEquals("P-256", jwk.get("crv"));
+        assertEquals("k1", jwk.get("kid"));
+        byte[] x = Base64.getUrlDecoder().decode((String) jwk.get("x"));
+        assertEquals(32, x.length);
+        assertEquals(((ECPublicKey) pair.getPublic()).getW().getAffineX(), new BigInteger(1, x));
+        assertEquals(32, Base64.getUrlDecoder().decode((String) jwk.get("y")).length);
+    }
+
+    @Test
+    void storedKeysRoundTrip() {
+        for (String algorithm : new String[]{JsonWebKeys.ES256, JsonWebKeys.EDDSA}) {
+            KeyPair pair = JsonWebKeys.generate(algorithm);
+            assertEquals(pair.getPublic(), JsonWebKeys.publicKey(algorithm, pair.getPublic().getEncoded()));
+            assertEquals(pair.getPrivate(), JsonWebKeys.privateKey(algorithm, pair.getPrivate().getEncoded()));
+        }
+        Map<String, Object> jwk = JsonWebKeys.publicJwk("k2", JsonWebKeys.EDDSA, JsonWebKeys.generate(JsonWebKeys.EDDSA).getPublic());
+        assertEquals("OKP", jwk.get("kty"));
+        assertEquals(32, Base64.getUrlDecoder().decode((String) jwk.get("x")).length);
+    }
+}
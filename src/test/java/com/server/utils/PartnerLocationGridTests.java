@@ -0,0 +1,58 @@
+package com.server.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartnerLocationGridTests {
+
+    @Test
+    void nearestMatchesBruteForce() {
+        PartnerLocationGrid grid = new PartnerLocationGrid(0.01);
+        Random random = new Random(42);
+        double[][] points = new double[2000][];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = new double[]{20.2 + random.nextDouble() * 0.2, 85.7 + random.nextDouble() * 0.2};
+            grid.update("p" + i, points[i][0], points[i][1], true);
+        }
+
+        for (int q = 0; q < 50; q++) {
+            double lat = 20.2 + random.nextDouble() * 0.2;
+            double lng = 85.7 + random.nextDouble() * 0.2;
+
+            int best = -1;
+            double bestDistance = Double.MAX_VALUE;
+            for (int i = 0; i < points.length; i++) {
+                double d = PartnerLocationGrid.haversineKm(lat, lng, points[i][0], points[i][1]);
+                if (d < bestDistance) {
+                    bestDistance = d;
+                    best = i;
+                }
+            }
+
+            List<PartnerLocationGrid.Match> nearest = grid.nearest(lat, lng, 1, 50, id -> true);
+            assertEquals("p" + best, nearest.get(0).getPartnerId());
+        }
+    }
+
+    @Test
+    void skipsUnavailableAndMovedPartners() {
+        PartnerLocationGrid grid = new PartnerLocationGrid(0.01);
+        grid.update("near", 20.30, 85.82, true);
+        grid.update("far", 20.35, 85.90, true);
+
+        grid.setAvailable("near", false);
+        assertEquals("far", grid.nearest(20.30, 85.82, 1, 50, id -> true).get(0).getPartnerId());
+
+        grid.setAvailable("near", true);
+        grid.update("near", 21.50, 86.90, true);
+        List<PartnerLocationGrid.Match> nearest = grid.nearest(20.30, 85.82, 5, 20, id -> true);
+        assertEquals(1, nearest.size());
+        assertEquals("far", nearest.get(0).getPartnerId());
+        assertTrue(grid.nearest(20.30, 85.82, 5, 20, id -> !id.equals("far")).isEmpty());
+    }
+}
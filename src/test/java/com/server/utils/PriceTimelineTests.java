@@ -0,0 +1,41 @@
+package com.server.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PriceTimelineTests {
+
+    @Test
+    void appliesScheduledPricesAndDiscountWindows() {
+        PriceTimeline timeline = PriceTimeline.builder()
+                .basePrice(100, 4000)
+                .basePrice(500, 5000)
+                .discount(200, 300, 25)
+                .discount(250, 600, 10)
+                .build();
+
+        assertEquals(-1, timeline.priceAt(99));
+        assertEquals(4000, timeline.priceAt(100));
+        // Overlapping discounts: the larger one wins, then the smaller one carries on alone
+        assertEquals(3000, timeline.priceAt(260));
+        assertEquals(3600, timeline.priceAt(300));
+        assertEquals(4500, timeline.priceAt(550));
+        assertEquals(5000, timeline.priceAt(600));
+        assertEquals(5000, timeline.priceAt(Long.MAX_VALUE));
+    }
+
+    @Test
+    void reportsNextChangeAndCollapsesEqualSteps() {
+        PriceTimeline timeline = PriceTimeline.builder()
+                .basePrice(0, 2000)
+                .basePrice(100, 2000)
+                .basePrice(100, 2400)
+                .build();
+
+        assertEquals(2, timeline.size());
+        assertEquals(2400, timeline.priceAt(100));
+        assertEquals(100, timeline.nextChangeAfter(0));
+        assertEquals(-1, timeline.nextChangeAfter(100));
+    }
+}
@@ -0,0 +1,37 @@
+package com.server.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductTextAnalyzerTests {
+
+    @Test
+    void latinQueriesMatchDevanagariAndOdiaListings() {
+        assertEquals(ProductTextAnalyzer.analyze("tamatar"), ProductTextAnalyzer.analyze("टमाटर"));
+        assertEquals(ProductTextAnalyzer.analyze("tamatar"), ProductTextAnalyzer.analyze("ଟମାଟର"));
+        assertEquals(ProductTextAnalyzer.analyze("aloo"), ProductTextAnalyzer.analyze("आलू"));
+        assertEquals(ProductTextAnalyzer.analyze("pyaz"), ProductTextAnalyzer.analyze("प्याज़"));
+        assertEquals(ProductTextAnalyzer.analyze("bhindi"), ProductTextAnalyzer.analyze("भिंडी"));
+        assertEquals(ProductTextAnalyzer.analyze("mirch"), ProductTextAnalyzer.analyze("मिर्च"));
+    }
+
+    @Test
+    void stemsPluralsAndDropsStopwords() {
+        assertEquals(ProductTextAnalyzer.analyze("टमाटर"), ProductTextAnalyzer.analyze("टमाटरों"));
+        assertEquals(ProductTextAnalyzer.analyze("sabzi"), ProductTextAnalyzer.analyze("सब्ज़ियाँ"));
+        assertEquals(ProductTextAnalyzer.analyze("ଆଳୁ"), ProductTextAnalyzer.analyze("ଆଳୁଗୁଡ଼ିକ"));
+        assertEquals(ProductTextAnalyzer.analyze("tomato"), ProductTextAnalyzer.analyze("the Tomatoes"));
+        assertEquals(List.of(), ProductTextAnalyzer.analyze("और के"));
+    }
+
+    @Test
+    void ignoresAccentsAndRomanisationVariants() {
+        assertEquals(ProductTextAnalyzer.analyze("jalapeno"), ProductTextAnalyzer.analyze("Jalapeño"));
+        assertEquals(ProductTextAnalyzer.analyze("kaddu"), ProductTextAnalyzer.analyze("kadu"));
+        assertEquals(ProductTextAnalyzer.analyze("pyaaz"), ProductTextAnalyzer.analyze("pyaj"));
+        assertEquals(ProductTextAnalyzer.analyze("chili"), ProductTextAnalyzer.analyze("chilies"));
+    }
+}
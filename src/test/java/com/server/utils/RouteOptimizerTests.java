@@ -0,0 +1,61 @@
+package com.server.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RouteOptimizerTests {
+
+    @Test
+    void visitsEveryPickupBeforeItsDropOff() {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            List<RouteOptimizer.Stop> stops = randomStops(random, 1 + random.nextInt(8));
+            List<RouteOptimizer.Stop> route = RouteOptimizer.optimize(20.30, 85.82, stops);
+
+            assertEquals(stops.size(), route.size());
+            Set<String> pickedUp = new HashSet<>();
+            for (RouteOptimizer.Stop stop : route) {
+                if (stop.isPickup()) {
+                    assertTrue(pickedUp.add(stop.getOrderId()));
+                } else {
+                    assertTrue(pickedUp.contains(stop.getOrderId()), "drop-off before pickup for " + stop.getOrderId());
+                }
+            }
+        }
+    }
+
+    @Test
+    void interleavesOrdersAlongTheSameRoad() {
+        // Start at the origin; both orders run east along one road
+        List<RouteOptimizer.Stop> stops = List.of(
+                new RouteOptimizer.Stop("b", false, 20.0, 85.04),
+                new RouteOptimizer.Stop("a", true, 20.0, 85.01),
+                new RouteOptimizer.Stop("b", true, 20.0, 85.02),
+                new RouteOptimizer.Stop("a", false, 20.0, 85.03));
+
+        List<RouteOptimizer.Stop> route = RouteOptimizer.optimize(20.0, 85.0, stops);
+        List<String> visits = new ArrayList<>();
+        route.forEach(stop -> visits.add((stop.isPickup() ? "pickup-" : "drop-") + stop.getOrderId()));
+
+        assertEquals(List.of("pickup-a", "pickup-b", "drop-a", "drop-b"), visits);
+        assertEquals(PartnerLocationGrid.haversineKm(20.0, 85.0, 20.0, 85.04),
+                RouteOptimizer.routeLengthKm(20.0, 85.0, route), 1e-6);
+    }
+
+    private List<RouteOptimizer.Stop> randomStops(Random random, int orders) {
+        List<RouteOptimizer.Stop> stops = new ArrayList<>();
+        for (int i = 0; i < orders; i++) {
+            stops.add(new RouteOptimizer.Stop("o" + i, true, 20.2 + random.nextDouble() * 0.2, 85.7 + random.nextDouble() * 0.2));
+            stops.add(new RouteOptimizer.Stop("o" + i, false, 20.2 + random.nextDouble() * 0.2, 85.7 + random.nextDouble() * 0.2));
+        }
+        return stops;
+    }
+}
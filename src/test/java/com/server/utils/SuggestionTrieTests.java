@@ -0,0 +1,54 @@
+package com.server.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SuggestionTrieTests {
+
+    private static List<String> texts(List<SuggestionTrie.Suggestion> suggestions) {
+        return suggestions.stream().map(SuggestionTrie.Suggestion::getText).collect(Collectors.toList());
+    }
+
+    @Test
+    void ranksPrefixMatchesByWeight() {
+        SuggestionTrie trie = new SuggestionTrie(3);
+        trie.put("1", "Tomato", "product", List.of("tomato"), 5);
+        trie.put("2", "Cherry Tomato", "product", List.of("cherry", "tomato"), 9);
+        trie.put("3", "Tamarind", "product", List.of("tamarind"), 20);
+        trie.put("4", "Turnip", "product", List.of("turnip"), 1);
+
+        assertEquals(List.of("Tamarind", "Cherry Tomato", "Tomato"), texts(trie.suggest("t", Set.of(), 0, 3)));
+        assertEquals(List.of("Cherry Tomato", "Tomato"), texts(trie.suggest("tom", Set.of(), 0, 5)));
+        assertEquals(List.of("Cherry Tomato"), texts(trie.suggest("tom", Set.of("cherry"), 0, 5)));
+    }
+
+    @Test
+    void toleratesTyposWithinTheEditBudget() {
+        SuggestionTrie trie = new SuggestionTrie(5);
+        trie.put("1", "Potato", "product", List.of("potato"), 1);
+
+        assertTrue(trie.suggest("ptato", Set.of(), 0, 5).isEmpty());
+        assertEquals(List.of("Potato"), texts(trie.suggest("ptato", Set.of(), 1, 5)));
+        assertTrue(trie.suggest("pxtxto", Set.of(), 1, 5).isEmpty());
+    }
+
+    @Test
+    void updatesAndRemovalsRefreshRanking() {
+        SuggestionTrie trie = new SuggestionTrie(2);
+        trie.put("1", "Mango", "product", List.of("mango"), 1);
+        trie.put("2", "Methi", "product", List.of("methi"), 2);
+        trie.put("1", "Mango", "product", List.of("mango"), 3);
+
+        assertEquals(List.of("Mango", "Methi"), texts(trie.suggest("m", Set.of(), 0, 2)));
+
+        trie.remove("1");
+        assertEquals(List.of("Methi"), texts(trie.suggest("m", Set.of(), 0, 2)));
+        assertEquals(1, trie.size());
+    }
+}
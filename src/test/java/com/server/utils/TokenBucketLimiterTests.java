@@ -0,0 +1,44 @@
+package com.server.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketLimiterTests {
+
+    @Test
+    void allowsABurstThenRefillsAtTheRate() {
+        AtomicLong now = new AtomicLong();
+        TokenBucketLimiter limiter = new TokenBucketLimiter(2, 3, 1024, now::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+        }
+        long wait = limiter.tryAcquire("10.0.0.1");
+        assertEquals(500_000_000L, wait);
+
+        now.addAndGet(wait);
+        assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+        assertTrue(limiter.tryAcquire("10.0.0.1") > 0);
+
+        assertEquals(4, limiter.getAllowed());
+        assertEquals(2, limiter.getLimited());
+    }
+
+    @Test
+    void keysHaveSeparateBucketsAndIdleBucketsDoNotOverfill() {
+        AtomicLong now = new AtomicLong();
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 1, 1024, now::get);
+
+        assertEquals(0, limiter.tryAcquire("a@example.com"));
+        assertTrue(limiter.tryAcquire("a@example.com") > 0);
+        assertEquals(0, limiter.tryAcquire("b@example.com"));
+
+        now.addAndGet(60_000_000_000L);
+        assertEquals(0, limiter.tryAcquire("a@example.com"));
+        assertTrue(limiter.tryAcquire("a@example.com") > 0);
+    }
+}